@@ -0,0 +1,110 @@
+package org.postgresql.sql2.buffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.sql2.communication.FeFrame;
+import org.postgresql.sql2.communication.packets.parsers.BinaryGenerator;
+import org.postgresql.sql2.util.BinaryHelper;
+
+/**
+ * Benchmarks writing packets to the {@link ByteBufferPoolOutputStream}.
+ *
+ * <p>The bind packet is written as by
+ * {@link org.postgresql.sql2.communication.network.BindRequest}, with the
+ * parameters encoded by {@link BinaryGenerator}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteBufferPoolOutputStreamBenchmark {
+
+  /**
+   * Number of bind parameters.
+   */
+  @Param({ "1", "50" })
+  public int parameterCount;
+
+  private ByteBufferPoolOutputStream output;
+
+  /**
+   * Creates the {@link ByteBufferPoolOutputStream}.
+   */
+  @Setup
+  public void setup() {
+    this.output = new ByteBufferPoolOutputStream(new DefaultByteBufferPool(new HashMap<>()));
+  }
+
+  /**
+   * Writes a query packet.
+   *
+   * @return Number of buffers written.
+   * @throws IOException If fails to write.
+   */
+  @Benchmark
+  public int query() throws IOException {
+    this.output.write(FeFrame.FrontendTag.QUERY.getByte());
+    this.output.initPacket();
+    this.output.write("select * from benchmark where id = 1");
+    this.output.completePacket();
+    return this.releaseWritten();
+  }
+
+  /**
+   * Writes a bind packet.
+   *
+   * @return Number of buffers written.
+   * @throws IOException If fails to write.
+   */
+  @Benchmark
+  public int bind() throws IOException {
+    this.output.write(FeFrame.FrontendTag.BIND.getByte());
+    this.output.initPacket();
+    this.output.write("p1");
+    this.output.write("q1");
+    this.output.write(BinaryHelper.writeShort((short) this.parameterCount));
+    for (int i = 0; i < this.parameterCount; i++) {
+      this.output.write(BinaryHelper.writeShort((short) 1));
+    }
+    this.output.write(BinaryHelper.writeShort((short) this.parameterCount));
+    for (int i = 0; i < this.parameterCount; i++) {
+      byte[] value = BinaryGenerator.fromInt(i);
+      this.output.write(BinaryHelper.writeInt(value.length));
+      this.output.write(value);
+    }
+    this.output.writeTerminator();
+    this.output.writeTerminator();
+    this.output.completePacket();
+    return this.releaseWritten();
+  }
+
+  /**
+   * Releases the written buffers (as would be on writing to the network).
+   *
+   * @return Number of buffers released.
+   */
+  private int releaseWritten() {
+    int count = 0;
+    PooledByteBuffer buffer;
+    while ((buffer = this.output.getNextWrittenBuffer()) != null) {
+      buffer.release();
+      count++;
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,93 @@
+package org.postgresql.sql2.communication;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.sql2.util.BinaryHelper;
+
+/**
+ * Benchmarks {@link BeFrameParser#parseBeFrame(ByteBuffer, int, int)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeFrameParserBenchmark {
+
+  /**
+   * Size of the frame payload.
+   */
+  @Param({ "16", "8192" })
+  public int payloadSize;
+
+  private final BeFrameParser parser = new BeFrameParser();
+
+  /**
+   * Whole frame in one read.
+   */
+  private ByteBuffer frame;
+
+  /**
+   * First half of the frame (as split across reads).
+   */
+  private ByteBuffer firstHalf;
+
+  /**
+   * Second half of the frame (as split across reads).
+   */
+  private ByteBuffer secondHalf;
+
+  /**
+   * Creates the frames.
+   */
+  @Setup
+  public void setup() {
+    byte[] bytes = new byte[1 + 4 + this.payloadSize];
+    bytes[0] = (byte) 'D';
+    BinaryHelper.writeIntAtPos(this.payloadSize + 4, 1, bytes);
+    for (int i = 5; i < bytes.length; i++) {
+      bytes[i] = (byte) i;
+    }
+    this.frame = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+    int split = bytes.length / 2;
+    this.firstHalf = ByteBuffer.allocateDirect(split).put(bytes, 0, split);
+    this.secondHalf = ByteBuffer.allocateDirect(bytes.length - split).put(bytes, split, bytes.length - split);
+  }
+
+  /**
+   * Parses the frame from one read.
+   *
+   * @return {@link BeFrame}.
+   */
+  @Benchmark
+  public BeFrame singleRead() {
+    return this.parser.parseBeFrame(this.frame, 0, this.frame.capacity());
+  }
+
+  /**
+   * Parses the frame split across two reads.
+   *
+   * @return {@link BeFrame}.
+   */
+  @Benchmark
+  public BeFrame splitRead() {
+    BeFrame frame = this.parser.parseBeFrame(this.firstHalf, 0, this.firstHalf.capacity());
+    if (frame != null) {
+      throw new IllegalStateException("Frame should not be complete from first half");
+    }
+    return this.parser.parseBeFrame(this.secondHalf, 0, this.secondHalf.capacity());
+  }
+
+}
@@ -0,0 +1,106 @@
+package org.postgresql.sql2.communication.packets;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.postgresql.sql2.communication.packets.parts.ColumnDescription;
+import org.postgresql.sql2.util.BinaryHelper;
+
+/**
+ * Benchmarks {@link DataRow} construction and decoding of its columns, for
+ * text and binary format columns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataRowBenchmark {
+
+  /**
+   * Oid of <code>int4</code>.
+   */
+  private static final int INT4_OID = 23;
+
+  /**
+   * Number of columns.
+   */
+  private static final int COLUMN_COUNT = 10;
+
+  /**
+   * Format of the columns.
+   */
+  @Param({ "text", "binary" })
+  public String format;
+
+  private ColumnDescription[] descriptions;
+
+  private Map<String, Integer> columnIndexes;
+
+  private byte[] payload;
+
+  /**
+   * Creates the row.
+   */
+  @Setup
+  public void setup() {
+    boolean isBinary = "binary".equals(this.format);
+    this.descriptions = new RowDescription(PacketsFixture.rowDescription(COLUMN_COUNT, INT4_OID, isBinary ? 1 : 0))
+        .getDescriptions();
+    this.columnIndexes = DataRow.indexColumns(this.descriptions);
+    byte[][] values = new byte[COLUMN_COUNT][];
+    for (int i = 0; i < COLUMN_COUNT; i++) {
+      int value = 1_000_000 + i;
+      values[i] = isBinary ? BinaryHelper.writeInt(value) : String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+    this.payload = PacketsFixture.dataRow(values);
+  }
+
+  /**
+   * Constructs the {@link DataRow}.
+   *
+   * @return {@link DataRow}.
+   */
+  @Benchmark
+  public DataRow construct() {
+    return new DataRow(this.payload, this.descriptions, 1);
+  }
+
+  /**
+   * Constructs the {@link DataRow} with the column lookup shared from the
+   * statement.
+   *
+   * @return {@link DataRow}.
+   */
+  @Benchmark
+  public DataRow constructShared() {
+    return new DataRow(this.payload, this.descriptions, this.columnIndexes, 1);
+  }
+
+  /**
+   * Constructs the {@link DataRow} and decodes each column.
+   *
+   * @param blackhole {@link Blackhole}.
+   */
+  @Benchmark
+  public void constructAndGet(Blackhole blackhole) {
+    DataRow row = new DataRow(this.payload, this.descriptions, 1);
+    for (int i = 1; i <= COLUMN_COUNT; i++) {
+      blackhole.consume(row.at(i).get(Integer.class));
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+package org.postgresql.sql2.communication.packets;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.postgresql.sql2.util.BinaryHelper;
+
+/**
+ * Builds the payloads of the backend packets for the benchmarks.
+ */
+final class PacketsFixture {
+
+  /**
+   * Builds a <code>RowDescription</code> payload.
+   *
+   * @param columnCount Number of columns.
+   * @param typeOid     Type oid of the columns.
+   * @param formatCode  Format code of the columns (0 text, 1 binary).
+   * @return Payload.
+   */
+  static byte[] rowDescription(int columnCount, int typeOid, int formatCode) {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    append(payload, BinaryHelper.writeShort((short) columnCount));
+    for (int i = 0; i < columnCount; i++) {
+      append(payload, ("column_" + i).getBytes(StandardCharsets.UTF_8));
+      payload.write(0);
+      append(payload, BinaryHelper.writeInt(16384)); // table oid
+      append(payload, BinaryHelper.writeShort((short) (i + 1))); // attribute number
+      append(payload, BinaryHelper.writeInt(typeOid));
+      append(payload, BinaryHelper.writeShort((short) -1)); // type size
+      append(payload, BinaryHelper.writeInt(-1)); // type modifier
+      append(payload, BinaryHelper.writeShort((short) formatCode));
+    }
+    return payload.toByteArray();
+  }
+
+  /**
+   * Builds a <code>DataRow</code> payload.
+   *
+   * @param values Encoded values of the columns.
+   * @return Payload.
+   */
+  static byte[] dataRow(byte[]... values) {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    append(payload, BinaryHelper.writeShort((short) values.length));
+    for (byte[] value : values) {
+      append(payload, BinaryHelper.writeInt(value.length));
+      append(payload, value);
+    }
+    return payload.toByteArray();
+  }
+
+  /**
+   * Appends the bytes.
+   *
+   * @param payload Payload.
+   * @param bytes   Bytes to append.
+   */
+  private static void append(ByteArrayOutputStream payload, byte[] bytes) {
+    payload.write(bytes, 0, bytes.length);
+  }
+
+  /**
+   * All access via static methods.
+   */
+  private PacketsFixture() {
+  }
+
+}
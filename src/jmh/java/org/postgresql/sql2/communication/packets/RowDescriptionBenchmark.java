@@ -0,0 +1,53 @@
+package org.postgresql.sql2.communication.packets;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks parsing the {@link RowDescription}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowDescriptionBenchmark {
+
+  /**
+   * Number of columns.
+   */
+  @Param({ "1", "20" })
+  public int columnCount;
+
+  private byte[] payload;
+
+  /**
+   * Creates the payload.
+   */
+  @Setup
+  public void setup() {
+    this.payload = PacketsFixture.rowDescription(this.columnCount, 25, 0);
+  }
+
+  /**
+   * Parses the {@link RowDescription}.
+   *
+   * @return {@link RowDescription}.
+   */
+  @Benchmark
+  public RowDescription parse() {
+    return new RowDescription(this.payload);
+  }
+
+}
@@ -0,0 +1,69 @@
+package org.postgresql.sql2.communication.packets.parsers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link BinaryGenerator} encoding the bind parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryGeneratorBenchmark {
+
+  private Integer intValue = 1_000_000;
+
+  private Long longValue = 1_000_000_000_000L;
+
+  private String stringValue = "The quick brown fox jumps over the lazy dog";
+
+  private BigDecimal decimalValue = new BigDecimal("12345.6789");
+
+  private LocalDateTime timestampValue = LocalDateTime.of(2018, 10, 1, 12, 30, 15, 123_000_000);
+
+  private int[] intArrayValue = new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+
+  @Benchmark
+  public byte[] fromInt() {
+    return BinaryGenerator.fromInt(this.intValue);
+  }
+
+  @Benchmark
+  public byte[] fromBigInt() {
+    return BinaryGenerator.fromBigInt(this.longValue);
+  }
+
+  @Benchmark
+  public byte[] fromString() {
+    return BinaryGenerator.fromString(this.stringValue);
+  }
+
+  @Benchmark
+  public byte[] fromBigDecimal() {
+    return BinaryGenerator.fromBigDecimal(this.decimalValue);
+  }
+
+  @Benchmark
+  public byte[] fromLocalDateTime() {
+    return BinaryGenerator.fromLocalDateTime(this.timestampValue);
+  }
+
+  @Benchmark
+  public byte[] fromIntegerArray() {
+    return BinaryGenerator.fromIntegerArray(this.intArrayValue);
+  }
+
+}
@@ -0,0 +1,69 @@
+package org.postgresql.sql2.communication.packets.parsers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link TextParser} converting the text format column values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextParserBenchmark {
+
+  private String intText = "1000000";
+
+  private String longText = "1000000000000";
+
+  private String numericText = "12345.6789";
+
+  private String timestampText = "2018-10-01 12:30:15.123456";
+
+  private String intArrayText = "{1,2,3,4,5,6,7,8,9,10}";
+
+  private String uuidText = "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11";
+
+  @Benchmark
+  public Object int4Out() {
+    return TextParser.int4Out(this.intText, Integer.class);
+  }
+
+  @Benchmark
+  public Object int8Out() {
+    return TextParser.int8Out(this.longText, Long.class);
+  }
+
+  @Benchmark
+  public Object numericOut() {
+    return TextParser.numericOut(this.numericText, BigDecimal.class);
+  }
+
+  @Benchmark
+  public Object timestampOut() {
+    return TextParser.timestampOut(this.timestampText, LocalDateTime.class);
+  }
+
+  @Benchmark
+  public Object int4ArrayOut() {
+    return TextParser.int4ArrayOut(this.intArrayText, int[].class);
+  }
+
+  @Benchmark
+  public Object uuidOut() {
+    return TextParser.uuidOut(this.uuidText, java.util.UUID.class);
+  }
+
+}
@@ -2,9 +2,12 @@ import org.postgresql.sql2.PgDataSourceFactory;
 
 module org.postgresql.sql2 {
   requires java.logging;
+  requires static jdk.jfr;
   exports org.postgresql.sql2;
   exports jdk.incubator.sql2;
   exports org.postgresql.sql2.buffer;
   exports org.postgresql.sql2.execution;
+  exports org.postgresql.sql2.metrics;
+  exports org.postgresql.sql2.tracing;
   provides jdk.incubator.sql2.DataSourceFactory with PgDataSourceFactory;
 }
@@ -0,0 +1,137 @@
+package org.postgresql.sql2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import jdk.incubator.sql2.ParameterizedRowCountOperation;
+import jdk.incubator.sql2.ParameterizedRowOperation;
+import jdk.incubator.sql2.Result;
+import jdk.incubator.sql2.Session;
+import jdk.incubator.sql2.SqlException;
+
+/**
+ * Blocking facade over a {@link Session}, for straight-line code.
+ *
+ * <p>Each call submits the operation and parks the calling thread on its {@link CompletionStage}. Waiting is done through
+ * {@link java.util.concurrent.CompletableFuture#get()} (which parks rather than holding a monitor), so virtual threads do not
+ * pin their carrier thread while waiting on the database.
+ */
+public class PgBlockingSession implements AutoCloseable {
+
+  private final Session session;
+
+  /**
+   * creates a blocking facade over the session.
+   *
+   * @param session the session to run the operations on
+   */
+  public PgBlockingSession(Session session) {
+    this.session = session;
+  }
+
+  /**
+   * runs the query and maps each row.
+   *
+   * @param sql the query, with parameters referenced as $1, $2, ...
+   * @param params values for the parameters in order
+   * @param rowMapper maps a row to a value
+   * @param <T> the type of the mapped rows
+   * @return the mapped rows
+   * @throws SqlException if the query fails
+   */
+  public <T> List<T> query(String sql, List<?> params, Function<Result.RowColumn, T> rowMapper) {
+    ParameterizedRowOperation<List<T>> operation = session.rowOperation(sql);
+    for (int i = 0; i < params.size(); i++) {
+      operation.set("$" + (i + 1), params.get(i));
+    }
+    Collector<Result.RowColumn, List<T>, List<T>> collector = Collector.of(
+        ArrayList::new,
+        (rows, row) -> rows.add(rowMapper.apply(row)),
+        (left, right) -> {
+          left.addAll(right);
+          return left;
+        });
+    return await(operation.collect(collector).submit().getCompletionStage());
+  }
+
+  /**
+   * runs the query without parameters and maps each row.
+   *
+   * @param sql the query
+   * @param rowMapper maps a row to a value
+   * @param <T> the type of the mapped rows
+   * @return the mapped rows
+   * @throws SqlException if the query fails
+   */
+  public <T> List<T> query(String sql, Function<Result.RowColumn, T> rowMapper) {
+    return query(sql, Collections.emptyList(), rowMapper);
+  }
+
+  /**
+   * runs the statement and returns the number of rows it affected.
+   *
+   * @param sql the statement, with parameters referenced as $1, $2, ...
+   * @param params values for the parameters in order
+   * @return the number of affected rows
+   * @throws SqlException if the statement fails
+   */
+  public long update(String sql, List<?> params) {
+    ParameterizedRowCountOperation<Long> operation = session.rowCountOperation(sql);
+    for (int i = 0; i < params.size(); i++) {
+      operation.set("$" + (i + 1), params.get(i));
+    }
+    Long count = await(operation.apply(Result.RowCount::getCount).submit().getCompletionStage());
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * runs the statement, ignoring any result.
+   *
+   * @param sql the statement
+   * @throws SqlException if the statement fails
+   */
+  public void execute(String sql) {
+    await(session.operation(sql).submit().getCompletionStage());
+  }
+
+  /**
+   * the underlying session, for mixing blocking and asynchronous calls.
+   *
+   * @return the session
+   */
+  public Session getSession() {
+    return session;
+  }
+
+  @Override
+  public void close() {
+    session.close();
+  }
+
+  /**
+   * parks the calling thread until the stage completes.
+   *
+   * @param stage stage to wait on
+   * @param <T> the result type
+   * @return the result of the stage
+   * @throws SqlException if the stage completed exceptionally or the wait was interrupted
+   */
+  static <T> T await(CompletionStage<T> stage) {
+    try {
+      return stage.toCompletableFuture().get();
+    } catch (ExecutionException e) {
+      Throwable cause = PgSession.unwrapException(e.getCause());
+      if (cause instanceof SqlException) {
+        throw (SqlException) cause;
+      }
+      throw new SqlException(cause.getMessage(), cause, null, -1, null, -1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SqlException("interrupted while waiting for the database", e, null, -1, null, -1);
+    }
+  }
+}
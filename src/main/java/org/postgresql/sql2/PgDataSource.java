@@ -13,16 +13,28 @@ import jdk.incubator.sql2.Session;
 import jdk.incubator.sql2.SessionProperty;
 import org.postgresql.sql2.buffer.ByteBufferPool;
 import org.postgresql.sql2.buffer.DefaultByteBufferPool;
+import org.postgresql.sql2.communication.HotStatements;
+import org.postgresql.sql2.communication.SaltedPasswordCache;
+import org.postgresql.sql2.communication.StatementMetadataCache;
+import org.postgresql.sql2.communication.TlsContext;
+import org.postgresql.sql2.execution.AdmissionControl;
 import org.postgresql.sql2.execution.DefaultNioLoop;
 import org.postgresql.sql2.execution.NioLoop;
+import org.postgresql.sql2.metrics.SlowOperationLog;
 
 public class PgDataSource implements DataSource {
   private final NioLoop loop;
   private final ByteBufferPool bufferPool;
+  private final AdmissionControl admissionControl;
+  private final SlowOperationLog slowOperationLog;
+  private final HotStatements hotStatements;
+  private final StatementMetadataCache statementMetadataCache;
   private Queue<PgSession> connections = new ConcurrentLinkedQueue<>();
   private boolean closed;
   private Map<SessionProperty, Object> properties;
   private DefaultNioLoop defaultLoop = null;
+  private volatile TlsContext tlsContext = null;
+  private final SaltedPasswordCache saltedPasswordCache = new SaltedPasswordCache();
 
   /**
    * Creates a datasource that represent a set of connections to a postgresql database.
@@ -36,7 +48,7 @@ public class PgDataSource implements DataSource {
     NioLoop loop = (NioLoop) this.properties.get(PgSessionProperty.NIO_LOOP);
     if (loop == null) {
       // Provide default loop
-      this.defaultLoop = new DefaultNioLoop();
+      this.defaultLoop = new DefaultNioLoop(properties);
       new Thread(this.defaultLoop).start();
       loop = defaultLoop;
     }
@@ -49,6 +61,19 @@ public class PgDataSource implements DataSource {
       pool = new DefaultByteBufferPool(properties);
     }
     this.bufferPool = pool;
+
+    // Bound the submissions across all sessions
+    this.admissionControl = AdmissionControl.forDataSource(properties, pool);
+
+    // Log slow operations (capturing plans on a separate session, not itself logged)
+    this.slowOperationLog = SlowOperationLog.forDataSource(properties,
+        () -> this.builder().property(PgSessionProperty.SLOW_OPERATION_THRESHOLD, 0).build().attach());
+
+    // Track the hottest statements to prepare on new connections
+    this.hotStatements = HotStatements.forDataSource(properties);
+
+    // Share the statement descriptions across sessions
+    this.statementMetadataCache = StatementMetadataCache.forDataSource(properties);
   }
 
   /**
@@ -69,6 +94,70 @@ public class PgDataSource implements DataSource {
     return this.bufferPool;
   }
 
+  /**
+   * Obtains the {@link AdmissionControl} shared by all sessions.
+   * 
+   * @return {@link AdmissionControl}.
+   */
+  public AdmissionControl getAdmissionControl() {
+    return this.admissionControl;
+  }
+
+  /**
+   * Obtains the {@link SlowOperationLog} shared by all sessions.
+   * 
+   * @return {@link SlowOperationLog}. May be <code>null</code> if not logging slow operations.
+   */
+  SlowOperationLog getSlowOperationLog() {
+    return this.slowOperationLog;
+  }
+
+  /**
+   * Obtains the {@link HotStatements} shared by all sessions.
+   * 
+   * @return {@link HotStatements}. May be <code>null</code> if not warming up connections.
+   */
+  HotStatements getHotStatements() {
+    return this.hotStatements;
+  }
+
+  /**
+   * Obtains the {@link StatementMetadataCache} shared by all sessions.
+   * 
+   * @return {@link StatementMetadataCache}.
+   */
+  StatementMetadataCache getStatementMetadataCache() {
+    return this.statementMetadataCache;
+  }
+
+  /**
+   * Obtains the {@link TlsContext} shared by all sessions, creating it on first use.
+   * 
+   * @return {@link TlsContext}.
+   */
+  TlsContext getTlsContext() {
+    TlsContext context = this.tlsContext;
+    if (context == null) {
+      synchronized (this) {
+        context = this.tlsContext;
+        if (context == null) {
+          context = new TlsContext(this.properties);
+          this.tlsContext = context;
+        }
+      }
+    }
+    return context;
+  }
+
+  /**
+   * Obtains the {@link SaltedPasswordCache} shared by all sessions.
+   * 
+   * @return {@link SaltedPasswordCache}.
+   */
+  SaltedPasswordCache getSaltedPasswordCache() {
+    return this.saltedPasswordCache;
+  }
+
   /**
    * Returns a {@link Session} builder. By default that builder will return
    * {@link Session}s with the {@code SessionProperty}s specified when
@@ -92,6 +181,9 @@ public class PgDataSource implements DataSource {
 
   @Override
   public void close() {
+    if (this.slowOperationLog != null) {
+      this.slowOperationLog.close();
+    }
     for (PgSession connection : connections) {
       connection.close();
     }
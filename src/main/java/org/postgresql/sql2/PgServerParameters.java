@@ -0,0 +1,226 @@
+package org.postgresql.sql2;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of the parameters reported by the server (via
+ * <code>ParameterStatus</code>) for a connection.
+ *
+ * <p>The parameters are typed once as reported (on connecting and whenever
+ * changed by <code>SET</code>), so that choosing version or setting specific
+ * behaviour is a field read rather than parsing strings for each operation.
+ *
+ * <p>Immutable, with each reported parameter creating a new snapshot. This
+ * allows reading from any thread, while the
+ * {@link org.postgresql.sql2.execution.NioLoop} thread reports the changes.
+ */
+public class PgServerParameters {
+
+  /**
+   * {@link PgServerParameters} before any reported by the server.
+   */
+  public static final PgServerParameters NONE = new PgServerParameters(Collections.emptyMap());
+
+  /**
+   * Parameter values by name (case insensitive, as <code>TimeZone</code> and
+   * <code>DateStyle</code> are reported in mixed case).
+   */
+  private final Map<String, String> values;
+
+  /**
+   * Server version number (e.g. <code>160002</code> for 16.2).
+   */
+  private final int serverVersionNum;
+
+  /**
+   * Indicates if date/time values are 64-bit integers.
+   */
+  private final boolean isIntegerDatetimes;
+
+  /**
+   * Indicates if backslashes are literal in ordinary string literals.
+   */
+  private final boolean isStandardConformingStrings;
+
+  /**
+   * Indicates if the server is a hot standby (and so only read only).
+   */
+  private final boolean isInHotStandby;
+
+  /**
+   * Instantiate.
+   *
+   * @param values Parameter values by name.
+   */
+  private PgServerParameters(Map<String, String> values) {
+    this.values = values;
+    this.serverVersionNum = parseVersion(values.get("server_version"));
+    // Unreported parameters default to the behaviour of all supported servers
+    this.isIntegerDatetimes = !"off".equals(values.get("integer_datetimes"));
+    this.isStandardConformingStrings = !"off".equals(values.get("standard_conforming_strings"));
+    this.isInHotStandby = "on".equals(values.get("in_hot_standby"));
+  }
+
+  /**
+   * Creates the {@link PgServerParameters} with the reported parameter.
+   *
+   * @param name  Name of the parameter.
+   * @param value Value of the parameter.
+   * @return {@link PgServerParameters} including the parameter.
+   */
+  public PgServerParameters with(String name, String value) {
+    Map<String, String> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    values.putAll(this.values);
+    values.put(name, value);
+    return new PgServerParameters(Collections.unmodifiableMap(values));
+  }
+
+  /**
+   * Obtains the value of the parameter.
+   *
+   * @param name Name of the parameter.
+   * @return Value, or <code>null</code> if not reported by the server.
+   */
+  public String get(String name) {
+    return this.values.get(name);
+  }
+
+  /**
+   * Obtains all the reported parameters.
+   *
+   * @return Parameter values by name.
+   */
+  public Map<String, String> getAll() {
+    return this.values;
+  }
+
+  /**
+   * Obtains the server version as reported.
+   *
+   * @return Server version (e.g. <code>16.2 (Debian 16.2-1)</code>), or
+   *         <code>null</code> if not yet reported.
+   */
+  public String getServerVersion() {
+    return this.values.get("server_version");
+  }
+
+  /**
+   * Obtains the server version number, comparable as per
+   * <code>server_version_num</code>.
+   *
+   * @return Server version number (e.g. <code>160002</code> for 16.2 and
+   *         <code>90624</code> for 9.6.24), or <code>0</code> if not yet
+   *         reported.
+   */
+  public int getServerVersionNum() {
+    return this.serverVersionNum;
+  }
+
+  /**
+   * Indicates if the server is at least the version.
+   *
+   * @param major Major version.
+   * @param minor Minor version.
+   * @return <code>true</code> if the server is at least the version.
+   */
+  public boolean isAtLeast(int major, int minor) {
+    return this.serverVersionNum >= versionNum(major, minor, 0);
+  }
+
+  /**
+   * Indicates if date/time values are sent as 64-bit integers (microseconds),
+   * rather than floating point, in binary format.
+   *
+   * @return <code>true</code> if integer date/times.
+   */
+  public boolean isIntegerDatetimes() {
+    return this.isIntegerDatetimes;
+  }
+
+  /**
+   * Indicates if backslashes are literal in ordinary string literals, so
+   * literals need only escape quotes.
+   *
+   * @return <code>true</code> if standard conforming strings.
+   */
+  public boolean isStandardConformingStrings() {
+    return this.isStandardConformingStrings;
+  }
+
+  /**
+   * Indicates if the server is a hot standby.
+   *
+   * @return <code>true</code> if hot standby. Always <code>false</code> for
+   *         servers before PostgreSQL 14, as not reported.
+   */
+  public boolean isInHotStandby() {
+    return this.isInHotStandby;
+  }
+
+  /**
+   * Obtains the client encoding.
+   *
+   * @return Client encoding, or <code>null</code> if not yet reported.
+   */
+  public String getClientEncoding() {
+    return this.values.get("client_encoding");
+  }
+
+  /**
+   * Obtains the time zone of the session.
+   *
+   * @return Time zone, or <code>null</code> if not yet reported.
+   */
+  public String getTimeZone() {
+    return this.values.get("TimeZone");
+  }
+
+  /**
+   * Parses the version number from the reported version.
+   *
+   * @param version Reported version (e.g. <code>16.2 (Debian 16.2-1)</code>,
+   *                <code>9.6.24</code> or <code>17beta1</code>).
+   * @return Version number, or <code>0</code> if not able to parse.
+   */
+  static int parseVersion(String version) {
+    if (version == null) {
+      return 0;
+    }
+    int[] parts = new int[3];
+    int part = 0;
+    boolean isDigits = false;
+    for (int i = 0; (i < version.length()) && (part < parts.length); i++) {
+      char character = version.charAt(i);
+      if ((character >= '0') && (character <= '9')) {
+        parts[part] = (parts[part] * 10) + (character - '0');
+        isDigits = true;
+      } else if ((character == '.') && isDigits) {
+        part++;
+        isDigits = false;
+      } else {
+        break; // end of numeric version (e.g. beta or distribution)
+      }
+    }
+    return versionNum(parts[0], parts[1], parts[2]);
+  }
+
+  /**
+   * Obtains the version number.
+   *
+   * @param major Major version.
+   * @param minor Minor version (patch version from PostgreSQL 10).
+   * @param patch Patch version (ignored from PostgreSQL 10).
+   * @return Version number.
+   */
+  private static int versionNum(int major, int minor, int patch) {
+    return (major >= 10) ? (major * 10000) + minor : (major * 10000) + (minor * 100) + patch;
+  }
+
+  @Override
+  public String toString() {
+    return this.values.toString();
+  }
+
+}
@@ -11,6 +11,9 @@ import java.util.function.Consumer;
 import java.util.function.LongConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.AdbaType;
 import jdk.incubator.sql2.DataSource;
 import jdk.incubator.sql2.Operation;
 import jdk.incubator.sql2.OperationGroup;
@@ -22,19 +25,50 @@ import jdk.incubator.sql2.SqlSkippedException;
 import jdk.incubator.sql2.TransactionCompletion;
 import org.postgresql.sql2.buffer.ByteBufferPool;
 import org.postgresql.sql2.buffer.PooledByteBuffer;
+import org.postgresql.sql2.communication.DataSourceResources;
 import org.postgresql.sql2.communication.NetworkConnection;
+import org.postgresql.sql2.communication.NetworkRequest;
+import org.postgresql.sql2.communication.ProtocolTrace;
+import org.postgresql.sql2.communication.SaltedPasswordCache;
+import org.postgresql.sql2.communication.StatementMetadataCache;
+import org.postgresql.sql2.communication.TlsContext;
+import org.postgresql.sql2.communication.network.ChainedRequest;
+import org.postgresql.sql2.communication.network.CloseRequest;
 import org.postgresql.sql2.communication.network.ImmediateComplete;
 import org.postgresql.sql2.communication.network.ParseRequest;
 import org.postgresql.sql2.communication.network.Portal;
+import org.postgresql.sql2.execution.AdmissionControl;
 import org.postgresql.sql2.execution.NioLoop;
+import org.postgresql.sql2.execution.SubmissionDemand;
+import org.postgresql.sql2.metrics.PgMetrics;
+import org.postgresql.sql2.metrics.SlowOperationLog;
 import org.postgresql.sql2.operations.PgCloseOperation;
 import org.postgresql.sql2.operations.PgConnectOperation;
 import org.postgresql.sql2.operations.PgOperationGroup;
 import org.postgresql.sql2.operations.PgValidationOperation;
+import org.postgresql.sql2.operations.helpers.ParameterHolder;
 import org.postgresql.sql2.operations.helpers.PgTransaction;
+import org.postgresql.sql2.operations.helpers.ValueQueryParameter;
+import org.postgresql.sql2.submissions.CloseSubmission;
+import org.postgresql.sql2.submissions.GroupMember;
+import org.postgresql.sql2.submissions.GroupSubmission;
+import org.postgresql.sql2.submissions.RowSubmission;
+import org.postgresql.sql2.tracing.PgSpan;
+import org.postgresql.sql2.tracing.PgTracer;
+import org.postgresql.sql2.tracing.TracePropagation;
 
 public class PgSession extends PgOperationGroup<Object, Object> implements Session {
 
+  /**
+   * SQL to propagate the trace context for {@link TracePropagation#SET_CONFIG}.
+   */
+  private static final String SET_CONFIG_SQL = "select set_config($1, $2, false)";
+
+  /**
+   * Valid W3C <code>traceparent</code> (so safe to include in SQL).
+   */
+  private static final Pattern TRACE_PARENT = Pattern.compile("[0-9a-f]{2}-[0-9a-f]{32}-[0-9a-f]{16}-[0-9a-f]{2}");
+
   private Logger logger = Logger.getLogger(PgSession.class.getName());
 
   private final Map<SessionProperty, Object> properties;
@@ -43,10 +77,23 @@ public class PgSession extends PgOperationGroup<Object, Object> implements Sessi
 
   private final NetworkConnection protocol;
 
+  private final AdmissionControl admissionControl;
+
+  private final PgMetrics metrics;
+
+  private final SubmissionDemand demand;
+
+  private final SlowOperationLog slowOperationLog;
+
+  private final PgTracer tracer;
+
+  private final TracePropagation tracePropagation;
+
+  private final String tracePropagationSetting;
+
   protected Consumer<Throwable> errorHandler = null;
   private Lifecycle lifecycle = Lifecycle.NEW;
   private ConcurrentLinkedQueue<SessionLifecycleListener> lifecycleListeners = new ConcurrentLinkedQueue<>();
-  private PgSubmission<?> lastSubmission;
 
   /**
    * Predecessor of all member Operations and the OperationGroup itself.
@@ -69,10 +116,42 @@ public class PgSession extends PgOperationGroup<Object, Object> implements Sessi
     this.dataSource = dataSource;
     SocketChannel channel = SocketChannel.open();
     channel.configureBlocking(false);
-    this.protocol = new NetworkConnection(this.properties, this, loop, bufferPool);
+    Object slowThreshold = this.properties.get(PgSessionProperty.SLOW_OPERATION_THRESHOLD);
+    this.slowOperationLog = (dataSource == null || slowThreshold == null || (Integer) slowThreshold <= 0) ? null
+        : dataSource.getSlowOperationLog();
+    this.protocol = new NetworkConnection(this.properties, this, loop, bufferPool, createResources());
+    this.admissionControl = AdmissionControl.forSession(this.properties,
+        dataSource == null ? null : dataSource.getAdmissionControl());
+    this.metrics = PgMetrics.from(this.properties);
+    Object maxDemand = this.properties.get(PgSessionProperty.MAX_DEMAND);
+    this.demand = new SubmissionDemand((Integer) (maxDemand == null ? PgSessionProperty.MAX_DEMAND.defaultValue() : maxDemand),
+        () -> this.protocol.getQueuedRequests() + this.protocol.getInFlightRequests(), bufferPool::isExhausted);
+    this.tracer = PgTracer.from(this.properties);
+    Object propagation = this.properties.get(PgSessionProperty.TRACE_PROPAGATION);
+    this.tracePropagation = (TracePropagation) (propagation == null ? PgSessionProperty.TRACE_PROPAGATION.defaultValue()
+        : propagation);
+    Object setting = this.properties.get(PgSessionProperty.TRACE_PROPAGATION_SETTING);
+    this.tracePropagationSetting = (String) (setting == null ? PgSessionProperty.TRACE_PROPAGATION_SETTING.defaultValue()
+        : setting);
     this.setConnection(this);
   }
 
+  /**
+   * Creates the {@link DataSourceResources} for the {@link NetworkConnection}.
+   *
+   * <p>Without a data source, the session holds its own (so nothing is shared with other sessions).
+   *
+   * @return {@link DataSourceResources}.
+   */
+  private DataSourceResources createResources() {
+    if (this.dataSource == null) {
+      return new DataSourceResources(() -> new TlsContext(this.properties), new SaltedPasswordCache(), null, null,
+          StatementMetadataCache.forDataSource(this.properties));
+    }
+    return new DataSourceResources(this.dataSource::getTlsContext, this.dataSource.getSaltedPasswordCache(),
+        this.slowOperationLog, this.dataSource.getHotStatements(), this.dataSource.getStatementMetadataCache());
+  }
+
   /**
    * Returns an {@link Operation} that attaches this {@code Session} to a data source. If the Operation completes successfully and
    * the lifecycle is {@link Lifecycle#NEW} -&gt; {@link Lifecycle#ATTACHED}. If the {@link Operation} completes exceptionally the
@@ -141,7 +220,7 @@ public class PgSession extends PgOperationGroup<Object, Object> implements Sessi
       listener.lifecycleEvent(this, oldLifecycle, lifecycle);
     }
 
-    return new PgCloseOperation(this, protocol);
+    return new PgCloseOperation(this);
   }
 
   /**
@@ -275,8 +354,25 @@ public class PgSession extends PgOperationGroup<Object, Object> implements Sessi
     throw new RuntimeException("not implemented yet");
   }
 
+  /**
+   * Registers a listener that will be called with the number of further {@link Operation}s this {@link Session} can accept.
+   * Demand starts at zero and is granted as the connection (requests queued and in flight) and buffer pool have capacity, up to
+   * {@link PgSessionProperty#MAX_DEMAND}. Each submission consumes one.
+   *
+   * @param request hook called with positive increments of demand. Not {@code null}.
+   * @return this {@link Session}
+   * @throws IllegalStateException if this {@link Session} is not active, or a hook is already registered
+   */
   @Override
   public Session requestHook(LongConsumer request) {
+    if (lifecycle != Lifecycle.NEW && lifecycle != Lifecycle.ATTACHED) {
+      throw new IllegalStateException(
+          "session lifecycle in state: " + lifecycle + " and not open for new work");
+    }
+    if (request == null) {
+      throw new IllegalArgumentException("request hook must not be null");
+    }
+    demand.setHook(request);
     return this;
   }
 
@@ -312,23 +408,141 @@ public class PgSession extends PgOperationGroup<Object, Object> implements Sessi
    * @param submission object to send
    */
   public void submit(PgSubmission<?> submission) {
+    PgSubmission.Types type = submission.getCompletionType();
+    if (type != PgSubmission.Types.GROUP && type != PgSubmission.Types.CLOSE && demand.submitted()) {
+      submission.getCompletionStage().toCompletableFuture().whenComplete((r, t) -> demand.completed());
+    }
+    PgSpan span = startSpan(submission);
+    GroupSubmission<?> group = (submission instanceof GroupMember) ? ((GroupMember) submission).getGroupSubmission()
+        : null;
+    if (group != null && group != groupSubmission && type != PgSubmission.Types.GROUP) {
+      group.addMember(submission, () -> dispatch(submission, span));
+    } else {
+      dispatch(submission, span);
+    }
+  }
+
+  /**
+   * Starts the {@link PgSpan} for the submission (on the submitting thread, so the tracer may pick up its trace context).
+   *
+   * @param submission {@link PgSubmission}.
+   * @return {@link PgSpan}, or <code>null</code> if not traced.
+   */
+  private PgSpan startSpan(PgSubmission<?> submission) {
+    if (tracer == null) {
+      return null;
+    }
     switch (submission.getCompletionType()) {
       case LOCAL:
       case CATCH:
-        protocol.sendNetworkRequest(new ImmediateComplete(submission));
-        break;
       case GROUP:
-        if (lastSubmission != null) {
-          ((CompletableFuture<?>) lastSubmission.getCompletionStage()).thenApply(a ->
-              submission.finish(null));
+      case CLOSE:
+        return null;
+      default:
+        PgSpan span = tracer.start(submission.getSql());
+        if (span != null) {
+          submission.getCompletionStage().toCompletableFuture().whenComplete((r, t) -> span.end(t));
         }
+        return span;
+    }
+  }
+
+  /**
+   * Creates the {@link NetworkRequest} to execute the {@link Portal}, propagating the trace context.
+   *
+   * @param portal {@link Portal}.
+   * @param span   {@link PgSpan}. May be <code>null</code>.
+   * @return {@link NetworkRequest} to execute the {@link Portal}.
+   */
+  private NetworkRequest executeRequest(Portal portal, PgSpan span) {
+    NetworkRequest request = new ParseRequest<>(portal);
+    String traceParent = (span == null || tracePropagation == TracePropagation.NONE) ? null : span.getTraceParent();
+    if (traceParent == null || !TRACE_PARENT.matcher(traceParent).matches()) {
+      return request; // not propagating (or not safe to propagate)
+    }
+    switch (tracePropagation) {
+      case COMMENT:
+        portal.setSqlComment("/*traceparent='" + traceParent + "'*/ ");
+        return request;
+
+      case SET_CONFIG:
+        // Set before the operation, with nothing written between
+        ParameterHolder holder = new ParameterHolder();
+        holder.add("$1", new ValueQueryParameter(tracePropagationSetting, AdbaType.VARCHAR));
+        holder.add("$2", new ValueQueryParameter(traceParent, AdbaType.VARCHAR));
+        RowSubmission<Long> setConfig = new RowSubmission<>(() -> false, null, holder, null, SET_CONFIG_SQL);
+        setConfig.setCollector(Collectors.counting());
+        return new ChainedRequest(new ParseRequest<>(new Portal(setConfig)), request);
+
+      default:
+        return request;
+    }
+  }
+
+  private void dispatch(PgSubmission<?> submission, PgSpan span) {
+    switch (submission.getCompletionType()) {
+      case LOCAL:
+      case CATCH:
+        admissionControl.pass(() -> protocol.sendNetworkRequest(new ImmediateComplete(submission)));
+        break;
+      case CLOSE:
+        admissionControl.pass(() -> protocol.sendNetworkRequest(new CloseRequest((CloseSubmission) submission)));
+        break;
+      case GROUP:
+        ((GroupSubmission<?>) submission).release();
         break;
 
       default:
-        Portal portal = new Portal(submission);
-        protocol.sendNetworkRequest(new ParseRequest<>(portal));
+        CompletableFuture<?> stage = submission.getCompletionStage().toCompletableFuture();
+        long submitted = System.nanoTime();
+        admissionControl.admit(() -> {
+          stage.whenComplete((r, t) -> {
+            admissionControl.release();
+            metrics.operationCompleted(System.nanoTime() - submitted, t != null);
+          });
+          Portal portal = new Portal(submission, submitted, span);
+          protocol.sendNetworkRequest(executeRequest(portal, span));
+        }, stage::completeExceptionally);
     }
-    lastSubmission = submission;
+  }
+
+  /**
+   * Obtains the number of requests queued on this session awaiting to be written.
+   *
+   * @return Number of requests queued.
+   */
+  public int getQueuedRequests() {
+    return protocol.getQueuedRequests();
+  }
+
+  /**
+   * Obtains the number of requests of this session awaiting their response.
+   *
+   * @return Number of requests in flight.
+   */
+  public int getInFlightRequests() {
+    return protocol.getInFlightRequests();
+  }
+
+  /**
+   * Obtains the last frames sent and received on the connection, when tracing with
+   * {@link PgSessionProperty#PROTOCOL_TRACE_FRAMES}.
+   *
+   * @return Frames (oldest first, one per line), or <code>null</code> if this session is not traced.
+   */
+  public String getProtocolTrace() {
+    ProtocolTrace trace = protocol.getProtocolTrace();
+    return (trace == null) ? null : trace.dump();
+  }
+
+  /**
+   * Obtains the parameters reported by the server, such as its version and
+   * <code>standard_conforming_strings</code>.
+   *
+   * @return {@link PgServerParameters}. Empty until connected.
+   */
+  public PgServerParameters getServerParameters() {
+    return protocol.getServerParameters();
   }
 
   public void unregister() {
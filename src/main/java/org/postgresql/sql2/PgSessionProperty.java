@@ -2,11 +2,15 @@ package org.postgresql.sql2;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import jdk.incubator.sql2.AdbaSessionProperty;
 import jdk.incubator.sql2.SessionProperty;
 import org.postgresql.sql2.buffer.ByteBufferPool;
 import org.postgresql.sql2.execution.NioLoop;
+import org.postgresql.sql2.metrics.PgMetrics;
+import org.postgresql.sql2.tracing.PgTracer;
+import org.postgresql.sql2.tracing.TracePropagation;
 
 public enum PgSessionProperty implements SessionProperty {
   /**
@@ -34,9 +38,24 @@ public enum PgSessionProperty implements SessionProperty {
    */
   SSL(Boolean.class, false, false),
 
+  /**
+   * Start the TLS handshake immediately on connecting (with ALPN "postgresql"), rather than first sending an SSLRequest and
+   * waiting for the server to accept it. This saves a round trip on each connect, but requires PostgreSQL 17 or later.
+   * Only applies when {@link #SSL} is enabled.
+   */
+  SSL_DIRECT(Boolean.class, false, false),
+
+  /**
+   * Should the direct TLS handshake fail before the server responds, reconnect negotiating TLS with an SSLRequest. Allows
+   * {@link #SSL_DIRECT} to be enabled against servers that may be older than PostgreSQL 17.
+   */
+  SSL_DIRECT_FALLBACK(Boolean.class, false, false),
+
   /**
    * The provided value is a class name to use as the SSLSocketFactory when establishing a SSL connection. For more
    * information see the section called ?Custom SSLSocketFactory?.
+   *
+   * <p>The class must implement {@code Supplier<SSLContext>}, and is created once per data source.
    */
   SSL_FACTORY(Class.class, null, false),
 
@@ -46,6 +65,16 @@ public enum PgSessionProperty implements SessionProperty {
    */
   SSL_FACTORY_ARG(String.class, "", false),
 
+  /**
+   * Number of TLS sessions cached for resumption by the data source. Defaults to the JVM default.
+   */
+  SSL_SESSION_CACHE_SIZE(Integer.class, null, false),
+
+  /**
+   * Seconds a cached TLS session may be resumed for. Defaults to the JVM default.
+   */
+  SSL_SESSION_TIMEOUT(Integer.class, null, false),
+
   /**
    * Act like an older version of the driver to retain compatibility with older applications. At the moment this controls
    * two driver behaviours: the handling of binary data fields, and the handling of parameters set via setString().
@@ -231,7 +260,7 @@ public enum PgSessionProperty implements SessionProperty {
    * Specifies the name of the application that is using the connection. This allows a database administrator to see what
    * applications are connected to the server and what resources they are using through views like pgstatactivity.
    */
-  APPLICATION_NAME(String.class, "java", false),
+  APPLICATION_NAME(String.class, "java_sql2_client", false),
 
   /**
    * Force either SSPI (Windows transparent single-sign-on) or GSSAPI (Kerberos, via JSSE) to be used when the server
@@ -265,7 +294,7 @@ public enum PgSessionProperty implements SessionProperty {
   USE_SPNEGO(Boolean.class, false, false),
 
   /**
-   * Put the connection in read-only mode.
+   * Put the connection in read-only mode. Sent as <code>default_transaction_read_only</code> on connecting.
    */
   READ_ONLY(Boolean.class, false, false),
 
@@ -282,10 +311,27 @@ public enum PgSessionProperty implements SessionProperty {
 
   /**
    * Specify the schema to be set in the search-path. This schema will be used to resolve unqualified object names used
-   * in statements over this connection.
+   * in statements over this connection. Sent as <code>search_path</code> on connecting.
    */
   CURRENT_SCHEMA(String.class, "", false),
 
+  /**
+   * Milliseconds a statement may run before the server aborts it. Sent as <code>statement_timeout</code> on connecting.
+   * Defaults to not sending, so the server (or role) setting applies.
+   */
+  STATEMENT_TIMEOUT(Integer.class, null, false),
+
+  /**
+   * Digits of precision for floating point values in text format. Sent as <code>extra_float_digits</code> on connecting.
+   * Defaults to not sending, as PostgreSQL 12 and later send the shortest exact value. Use 3 for older servers.
+   */
+  EXTRA_FLOAT_DIGITS(Integer.class, null, false),
+
+  /**
+   * Command-line options sent on connecting (e.g. <code>-c geqo=off</code>), for settings without their own property.
+   */
+  OPTIONS(String.class, null, false),
+
   /**
    * Allows opening connections to only servers with required state, the allowed values are any, master, slave and
    * preferSlave. The master/slave distinction is currently done by observing if the server allows writes. The value
@@ -305,7 +351,7 @@ public enum PgSessionProperty implements SessionProperty {
    */
   LOAD_BALANCE_HOSTS(Boolean.class, false, false),
 
-  /* TODO: settings below here are set by the server and should be moved into it's own class i think */
+  /* Settings below here are reported by the server, and available typed from PgServerParameters */
   /**
    * the charset that the server sets.
    */
@@ -360,11 +406,152 @@ public enum PgSessionProperty implements SessionProperty {
    * Allows specifying the {@link NioLoop}.
    */
   NIO_LOOP(String.class, null, false),
-  
+
+  /**
+   * Number of non-blocking selects the default {@link NioLoop} spins through before blocking. Increasing this lowers
+   * latency at the cost of CPU, so is only for latency critical deployments.
+   */
+  NIO_LOOP_SPIN_COUNT(Integer.class, 0, false),
+
+  /**
+   * {@link Executor} to run CPU intensive connection set up (password hashing and TLS handshake
+   * tasks), so that reconnect storms do not stall the other sessions of the {@link NioLoop}. Without one, these run on the
+   * {@link NioLoop}.
+   */
+  TASK_EXECUTOR(Executor.class, null, false),
+
+  /**
+   * {@link PgMetrics} to receive the driver instrumentation, such as {@link org.postgresql.sql2.metrics.DefaultPgMetrics}.
+   * Without one, nothing is recorded.
+   */
+  METRICS(PgMetrics.class, null, false),
+
+  /**
+   * Maximum number of operations a session has in flight on the network. Further operations wait for admission.
+   */
+  MAX_IN_FLIGHT(Integer.class, Integer.MAX_VALUE, false),
+
+  /**
+   * Maximum number of operations a session has waiting for admission. Further operations are failed.
+   */
+  MAX_QUEUED(Integer.class, Integer.MAX_VALUE, false),
+
+  /**
+   * Maximum number of operations in flight on the network across all sessions of the data source.
+   */
+  DATA_SOURCE_MAX_IN_FLIGHT(Integer.class, Integer.MAX_VALUE, false),
+
+  /**
+   * Maximum number of operations waiting for admission across all sessions of the data source.
+   */
+  DATA_SOURCE_MAX_QUEUED(Integer.class, Integer.MAX_VALUE, false),
+
+  /**
+   * If true, operations over the in flight limit are failed immediately instead of waiting for admission.
+   */
+  FAIL_FAST_WHEN_OVERLOADED(Boolean.class, false, false),
+
+  /**
+   * Maximum number of operations a session grants through {@link jdk.incubator.sql2.Session#requestHook}, counting those
+   * outstanding and those granted but not yet submitted.
+   */
+  MAX_DEMAND(Integer.class, 128, false),
+
   /**
    * Allows specifying the {@link ByteBufferPool}.
    */
-  BYTE_BUFFER_POOL(String.class, "", false);
+  BYTE_BUFFER_POOL(String.class, "", false),
+
+  /**
+   * Size of the buffers in the default {@link ByteBufferPool}. Smaller and larger size classes are derived from it.
+   */
+  BYTE_BUFFER_SIZE(Integer.class, 8192, false),
+
+  /**
+   * Maximum direct memory (in bytes) the default {@link ByteBufferPool} allocates.
+   */
+  BYTE_BUFFER_POOL_MAX_MEMORY(Long.class, Long.MAX_VALUE, false),
+
+  /**
+   * Maximum milliseconds an operation waits to be admitted for buffers to be released, once the {@link ByteBufferPool} is
+   * exhausted (e.g. the default reaching its maximum memory). After that the operation fails.
+   */
+  BYTE_BUFFER_POOL_MAX_WAIT(Integer.class, 0, false),
+
+  /**
+   * Maximum number of free buffers per size class the default {@link ByteBufferPool} caches for each thread.
+   */
+  BYTE_BUFFER_THREAD_CACHE_SIZE(Integer.class, 16, false),
+
+  /**
+   * Tracks one in this many buffers acquired from the default {@link ByteBufferPool}, logging those garbage collected
+   * without being released along with where they were acquired. 0 (the default) disables leak detection.
+   */
+  BYTE_BUFFER_LEAK_DETECTION_SAMPLE(Integer.class, 0, false),
+
+  /**
+   * Maximum number of statement descriptions (parameter types and result columns) cached by the data source, shared by
+   * all its sessions. 0 to not share descriptions.
+   */
+  STATEMENT_METADATA_CACHE_SIZE(Integer.class, 1024, false),
+
+  /**
+   * Skip the Describe on a connection's first Parse of a statement already described by another connection of the data
+   * source. This saves the Describe for each new connection, but relies on the result columns of the statement not
+   * changing while running (as only a connection's own Describe detects a changed schema).
+   */
+  SKIP_DESCRIBE_SHARED_STATEMENTS(Boolean.class, false, false),
+
+  /**
+   * Number of the most executed statements of the data source to prepare (pipelined Parse and Describe) on each new
+   * connection, so their first executions do not pay for preparing. 0 to not warm up connections.
+   */
+  WARM_UP_STATEMENTS(Integer.class, 0, false),
+
+  /**
+   * Number of the last frames sent and received to keep in a trace of the session's connection, logged on connection failure
+   * and available from {@link PgSession#getProtocolTrace()}. 0 (the default) disables the trace.
+   */
+  PROTOCOL_TRACE_FRAMES(Integer.class, 0, false),
+
+  /**
+   * Maximum payload bytes kept for each frame of the protocol trace.
+   */
+  PROTOCOL_TRACE_PAYLOAD(Integer.class, 64, false),
+
+  /**
+   * Traces one in this many sessions, so the protocol trace may be left enabled on a sample of production sessions.
+   */
+  PROTOCOL_TRACE_SAMPLE(Integer.class, 1, false),
+
+  /**
+   * Milliseconds after which an operation is logged as slow, with its SQL, parameter types (not values), row count and time
+   * queued versus executing. 0 (the default) disables the slow operation log.
+   */
+  SLOW_OPERATION_THRESHOLD(Integer.class, 0, false),
+
+  /**
+   * If true, the plan of a slow operation's statement is captured with <code>EXPLAIN</code> on a separate session and logged
+   * with it (once per statement).
+   */
+  SLOW_OPERATION_EXPLAIN(Boolean.class, false, false),
+
+  /**
+   * {@link PgTracer} to trace the operations. Without one, operations are not traced.
+   */
+  TRACER(PgTracer.class, null, false),
+
+  /**
+   * {@link TracePropagation} of the trace context to the server.
+   */
+  TRACE_PROPAGATION(TracePropagation.class, TracePropagation.NONE, false),
+
+  /**
+   * Setting the trace context is set to for {@link TracePropagation#SET_CONFIG}. Defaults to a custom setting, so the
+   * {@link #APPLICATION_NAME} sent on connect is left as is. May be <code>application_name</code> to show the trace
+   * context in <code>pg_stat_activity</code> (replacing the {@link #APPLICATION_NAME} for the rest of the session).
+   */
+  TRACE_PROPAGATION_SETTING(String.class, "pgsql2.traceparent", false);
 
   private Class range;
   private Object defaultValue;
@@ -1,5 +1,7 @@
 package org.postgresql.sql2.buffer;
 
+import java.nio.ByteBuffer;
+
 /**
  * Pool of {@link PooledByteBuffer} instances.
  * 
@@ -14,4 +16,59 @@ public interface ByteBufferPool {
    */
   PooledByteBuffer getPooledByteBuffer();
 
-}
\ No newline at end of file
+  /**
+   * Obtains a {@link PooledByteBuffer} of at least the capacity.
+   * 
+   * <p>By default, obtains the {@link #getPooledByteBuffer()} buffer, falling
+   * back to an unpooled buffer should it be too small.
+   * 
+   * @param minimumCapacity Minimum capacity of the {@link PooledByteBuffer}.
+   * @return {@link PooledByteBuffer}.
+   */
+  default PooledByteBuffer getPooledByteBuffer(int minimumCapacity) {
+    PooledByteBuffer pooled = this.getPooledByteBuffer();
+    if (pooled.getByteBuffer().capacity() >= minimumCapacity) {
+      return pooled;
+    }
+    pooled.release();
+
+    // Too small, so not pooled
+    ByteBuffer unpooled = ByteBuffer.allocateDirect(minimumCapacity);
+    return new PooledByteBuffer() {
+
+      @Override
+      public ByteBuffer getByteBuffer() {
+        return unpooled;
+      }
+
+      @Override
+      public void release() {
+        // not pooled, so left to garbage collection
+      }
+    };
+  }
+
+  /**
+   * Indicates if the pool is exhausted, so further submissions should wait to
+   * be admitted (or fail). Used to withhold demand from the application.
+   * 
+   * @return <code>true</code> if exhausted.
+   */
+  default boolean isExhausted() {
+    return false;
+  }
+
+  /**
+   * Registers to be notified (once) when the pool may no longer be exhausted.
+   * 
+   * <p>By default, does not notify. Submissions waiting for the pool are then
+   * only admitted as other submissions complete (or fail once waited too
+   * long).
+   * 
+   * @param listener Notified when buffers are released.
+   */
+  default void whenReleased(Runnable listener) {
+    // does not notify
+  }
+
+}
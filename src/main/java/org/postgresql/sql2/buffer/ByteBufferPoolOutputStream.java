@@ -8,6 +8,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import org.postgresql.sql2.communication.NetworkOutputStream;
 
 /**
@@ -38,6 +39,13 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
    */
   private final BufferList writtenByteBuffers = new BufferList();
 
+  /**
+   * Guards the written {@link PooledByteBuffer} instances. A {@link ReentrantLock}
+   * rather than a monitor, so that a virtual thread waiting on it (or on the
+   * {@link ByteBufferPool}) does not pin its carrier thread.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+
   /**
    * Index of the {@link PooledByteBuffer} containing the packet length.
    */
@@ -73,7 +81,8 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
    * @return List of written {@link PooledByteBuffer} instances.
    */
   public PooledByteBuffer getNextWrittenBuffer() {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
       if (writtenByteBuffers.isEmpty()) {
         return null;
       }
@@ -81,6 +90,8 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
       PooledByteBuffer pbb = writtenByteBuffers.get(0);
       writtenByteBuffers.remove(0);
       return pbb;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -94,11 +105,14 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
    * @return {@link PooledByteBuffer}.
    */
   private PooledByteBuffer addWriteBuffer() {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
       PooledByteBuffer buffer = this.bufferPool.getPooledByteBuffer();
       buffer.getByteBuffer().clear();
       this.writtenByteBuffers.add(buffer);
       return buffer;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -108,7 +122,8 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
    * @return Current {@link PooledByteBuffer} to write further data.
    */
   private PooledByteBuffer getCurrentBuffer() {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
 
       // Ensure have current pooled buffer
       PooledByteBuffer buffer;
@@ -128,6 +143,8 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
 
       // Return the buffer
       return buffer;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -137,8 +154,11 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
    * @param byteBuffer {@link ByteBuffer}.
    */
   public void write(ByteBuffer byteBuffer) {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
       this.getCurrentBuffer().getByteBuffer().put(byteBuffer);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -148,7 +168,8 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
 
   @Override
   public void initPacket() throws IOException {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
 
       // Obtain the buffer to write packet length
       PooledByteBuffer pooledBuffer = this.getCurrentBuffer();
@@ -161,20 +182,26 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
 
       // Make space for place holder packet length bytes
       this.write(PACKET_LENGTH_PLACE_HOLDER);
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void write(int b) {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
       this.getCurrentBuffer().getByteBuffer().put((byte) b);
       this.packetSize++;
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void write(byte[] bytes, int off, int len) {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
 
       // Increasing packet size
       this.packetSize += (len - off);
@@ -202,22 +229,30 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
         }
 
       } while (len > 0);
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void write(String text) throws IOException {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
       this.writer.write(text);
       this.writer.flush();
       this.writeTerminator();
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void completePacket() {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
       this.doCompletePacket(0, this.packetSize);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -233,7 +268,8 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
    * @param length Current length to write.
    */
   private void doCompletePacket(int depth, int length) {
-    synchronized (writtenByteBuffers) {
+    lock.lock();
+    try {
 
       // Drop out once written all bytes
       if (depth >= 4) {
@@ -256,6 +292,8 @@ public class ByteBufferPoolOutputStream extends NetworkOutputStream {
         pooledByteBuffer = this.writtenByteBuffers.get(this.packetStartBuffer);
       }
       pooledByteBuffer.getByteBuffer().put(this.packetStartPosition++, byteLengthValue);
+    } finally {
+      lock.unlock();
     }
   }
 
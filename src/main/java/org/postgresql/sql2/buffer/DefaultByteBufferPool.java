@@ -1,36 +1,289 @@
 package org.postgresql.sql2.buffer;
 
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.metrics.PgMetrics;
 
 /**
  * Default {@link ByteBufferPool}.
- * 
+ *
+ * <p>Buffers are pooled in size classes (a quarter, one, four, sixteen and
+ * sixty four times the configured buffer size). Each thread keeps a small free list per size
+ * class, spilling to a shared free list. As writes are handed off to the
+ * {@link org.postgresql.sql2.execution.NioLoop} thread, these thread free
+ * lists are in practice per {@link org.postgresql.sql2.execution.NioLoop}.
+ * Free lists of other threads are trimmed on their next use, or immediately
+ * once their thread has ended.
+ *
+ * <p>Total direct memory is capped. As buffers are acquired on the
+ * {@link org.postgresql.sql2.execution.NioLoop} thread (which must not block
+ * nor fail the connection), the cap is applied when admitting submissions (see
+ * {@link #isExhausted()}). Allocating over the cap only drops the cached free
+ * buffers, so that memory held above the cap is only that of admitted work.
+ *
+ * <p>Optionally a sample of acquired buffers is tracked (capturing the
+ * acquiring stack) so that buffers garbage collected without being released
+ * are logged as leaks. Releasing a buffer twice fails rather than corrupting
+ * the pool.
+ *
  * @author Daniel Sagenschneider
  */
 public class DefaultByteBufferPool implements ByteBufferPool {
 
+  private static final Logger LOGGER = Logger.getLogger(DefaultByteBufferPool.class.getName());
+
+  /**
+   * Multiples of the buffer size for each size class.
+   */
+  private static final int[] SIZE_CLASS_MULTIPLES = new int[] { 1, 4, 16, 64 };
+
   /**
-   * Pool of {@link PooledByteBuffer} instances.
+   * Divisor of the buffer size for the smallest size class.
    */
-  private final Queue<PooledByteBuffer> pool = new ConcurrentLinkedQueue<>();
+  private static final int SMALLEST_DIVISOR = 4;
+
+  /**
+   * Minimum number of thread free lists before sweeping those of ended
+   * threads.
+   */
+  private static final int MIN_SWEEP_THREAD_CACHES = 64;
+
+  /**
+   * Capacity of each size class.
+   */
+  private final int[] sizeClasses;
+
+  /**
+   * Index of the size class for the default buffer size.
+   */
+  private final int defaultSizeClass;
+
+  /**
+   * Shared free lists of {@link PooledByteBuffer} instances by size class.
+   */
+  private final Queue<PooledByteBufferImpl>[] sharedPools;
+
+  /**
+   * Free lists of the current thread by size class.
+   */
+  private final ThreadLocal<ThreadCache> threadCache;
+
+  /**
+   * Free lists of all threads (so can be trimmed).
+   */
+  private final Set<ThreadCache> threadCaches = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Number of thread free lists at which to sweep those of ended threads.
+   */
+  private volatile int sweepThreadCaches = MIN_SWEEP_THREAD_CACHES;
+
+  /**
+   * Maximum number of buffers per size class cached by a thread.
+   */
+  private final int threadCacheSize;
+
+  /**
+   * Maximum direct memory (in bytes) allocated by this pool.
+   */
+  private final long maxMemory;
+
+  /**
+   * Direct memory (in bytes) currently allocated by this pool.
+   */
+  private final AtomicLong allocatedMemory = new AtomicLong(0);
+
+  /**
+   * Direct memory (in bytes) of the buffers acquired and not yet released.
+   */
+  private final AtomicLong liveMemory = new AtomicLong(0);
+
+  /**
+   * Listeners notified when a buffer is released.
+   */
+  private final Queue<Runnable> releaseListeners = new ConcurrentLinkedQueue<>();
 
   /**
    * Size of buffers.
    */
   private final int bufferSize;
 
+  /**
+   * Tracks one in this many acquired buffers for leaks. 0 to not track.
+   */
+  private final int leakDetectionSample;
+
+  /**
+   * Number of acquired buffers, to sample for leak detection.
+   */
+  private final AtomicLong acquisitions = new AtomicLong(0);
+
+  /**
+   * {@link LeakTracker} instances for buffers not yet released (keeps them
+   * reachable until their buffer is collected).
+   */
+  private final Set<LeakTracker> leakTrackers = ConcurrentHashMap.newKeySet();
+
+  /**
+   * {@link ReferenceQueue} notified of collected tracked buffers.
+   */
+  private final ReferenceQueue<PooledByteBufferImpl> leakQueue = new ReferenceQueue<>();
+
+  /**
+   * {@link PgMetrics}.
+   */
+  private final PgMetrics metrics;
+
+  /**
+   * Number of buffers acquired and not yet released.
+   */
+  private final AtomicLong liveBuffers = new AtomicLong(0);
+
+  /**
+   * Peak number of buffers acquired and not yet released.
+   */
+  private final AtomicLong peakLiveBuffers = new AtomicLong(0);
+
+  /**
+   * Number of buffers allocated.
+   */
+  private final LongAdder allocatedBuffers = new LongAdder();
+
+  /**
+   * Number of buffers detected as leaked.
+   */
+  private final LongAdder leakedBuffers = new LongAdder();
+
+  /**
+   * Number of buffers released more than once.
+   */
+  private final LongAdder doubleReleases = new LongAdder();
+
   /**
    * Instantiate.
-   * 
+   *
    * @param properties Map of properties to configure this pool.
    */
+  @SuppressWarnings("unchecked")
   public DefaultByteBufferPool(Map<SessionProperty, Object> properties) {
-    // TODO consider specifying buffer size from properties
-    this.bufferSize = 8192; // largest 2 based size fitting jumbo ethernet packet
+    this.bufferSize = (Integer) getProperty(properties, PgSessionProperty.BYTE_BUFFER_SIZE);
+    this.maxMemory = (Long) getProperty(properties, PgSessionProperty.BYTE_BUFFER_POOL_MAX_MEMORY);
+    this.threadCacheSize = (Integer) getProperty(properties, PgSessionProperty.BYTE_BUFFER_THREAD_CACHE_SIZE);
+    this.leakDetectionSample = (Integer) getProperty(properties, PgSessionProperty.BYTE_BUFFER_LEAK_DETECTION_SAMPLE);
+    this.metrics = PgMetrics.from(properties);
+    if (this.bufferSize < SMALLEST_DIVISOR) {
+      throw new IllegalArgumentException("Buffer size must be at least " + SMALLEST_DIVISOR + ", but was " + this.bufferSize);
+    }
+
+    // Create the size classes
+    this.sizeClasses = new int[SIZE_CLASS_MULTIPLES.length + 1];
+    this.sizeClasses[0] = this.bufferSize / SMALLEST_DIVISOR;
+    for (int i = 0; i < SIZE_CLASS_MULTIPLES.length; i++) {
+      this.sizeClasses[i + 1] = this.bufferSize * SIZE_CLASS_MULTIPLES[i];
+    }
+    this.defaultSizeClass = 1;
+
+    // Create the free lists
+    @SuppressWarnings("unchecked")
+    Queue<PooledByteBufferImpl>[] pools = (Queue<PooledByteBufferImpl>[]) new Queue<?>[this.sizeClasses.length];
+    for (int i = 0; i < pools.length; i++) {
+      pools[i] = new ConcurrentLinkedQueue<>();
+    }
+    this.sharedPools = pools;
+    this.threadCache = ThreadLocal.withInitial(this::createThreadCache);
+  }
+
+  /**
+   * Obtains the property value (falling back to its default).
+   *
+   * @param properties Properties.
+   * @param property   {@link PgSessionProperty}.
+   * @return Value.
+   */
+  private static Object getProperty(Map<SessionProperty, Object> properties, PgSessionProperty property) {
+    Object value = properties.get(property);
+    return value == null ? property.defaultValue() : value;
+  }
+
+  /**
+   * Obtains the direct memory (in bytes) currently allocated by this pool.
+   *
+   * @return Direct memory (in bytes) currently allocated by this pool.
+   */
+  public long getAllocatedMemory() {
+    return this.allocatedMemory.get();
+  }
+
+  /**
+   * Obtains the direct memory (in bytes) of the buffers acquired and not yet
+   * released.
+   *
+   * @return Direct memory (in bytes) of the buffers acquired and not yet
+   *         released.
+   */
+  public long getLiveMemory() {
+    return this.liveMemory.get();
+  }
+
+  /**
+   * Obtains the number of buffers acquired and not yet released.
+   *
+   * @return Number of buffers acquired and not yet released.
+   */
+  public long getLiveBuffers() {
+    return this.liveBuffers.get();
+  }
+
+  /**
+   * Obtains the peak number of buffers acquired and not yet released.
+   *
+   * @return Peak number of buffers acquired and not yet released.
+   */
+  public long getPeakLiveBuffers() {
+    return this.peakLiveBuffers.get();
+  }
+
+  /**
+   * Obtains the number of buffers allocated (pooled or not).
+   *
+   * @return Number of buffers allocated.
+   */
+  public long getAllocatedBuffers() {
+    return this.allocatedBuffers.sum();
+  }
+
+  /**
+   * Obtains the number of buffers detected as leaked. Only sampled buffers are
+   * tracked, so this is a lower bound.
+   *
+   * @return Number of buffers detected as leaked.
+   */
+  public long getLeakedBuffers() {
+    this.pollLeaks();
+    return this.leakedBuffers.sum();
+  }
+
+  /**
+   * Obtains the number of buffers released more than once.
+   *
+   * @return Number of buffers released more than once.
+   */
+  public long getDoubleReleases() {
+    return this.doubleReleases.sum();
   }
 
   /*
@@ -39,21 +292,346 @@ public class DefaultByteBufferPool implements ByteBufferPool {
 
   @Override
   public PooledByteBuffer getPooledByteBuffer() {
+    return this.getSizeClassBuffer(this.defaultSizeClass);
+  }
+
+  @Override
+  public PooledByteBuffer getPooledByteBuffer(int minimumCapacity) {
 
-    // Obtain the next pooled buffer
-    PooledByteBuffer buffer = pool.poll();
-    if (buffer != null) {
+    // Determine the size class
+    for (int i = 0; i < this.sizeClasses.length; i++) {
+      if (minimumCapacity <= this.sizeClasses[i]) {
+        return this.getSizeClassBuffer(i);
+      }
+    }
+
+    // Larger than size classes, so not pooled
+    this.reserve(minimumCapacity);
+    return this.acquired(new PooledByteBufferImpl(-1, minimumCapacity));
+  }
+
+  /**
+   * Exhausted once the buffers in use leave less than a buffer within the
+   * memory cap. Cached free buffers are not included, as they are dropped to
+   * make room.
+   */
+  @Override
+  public boolean isExhausted() {
+    return (this.maxMemory - this.liveMemory.get()) < this.bufferSize;
+  }
+
+  @Override
+  public void whenReleased(Runnable listener) {
+    this.releaseListeners.add(listener);
+
+    // Ensure not missing release before added
+    if (!this.isExhausted()) {
+      this.notifyReleased();
+    }
+  }
+
+  /**
+   * Obtains the {@link PooledByteBuffer} for the size class.
+   *
+   * @param sizeClass Index of the size class.
+   * @return {@link PooledByteBuffer}.
+   */
+  private PooledByteBuffer getSizeClassBuffer(int sizeClass) {
+
+    // Obtain from the thread free list
+    PooledByteBufferImpl buffer = this.getThreadCache().poll(sizeClass);
+    if (buffer == null) {
+
+      // Obtain from the shared free list
+      buffer = this.sharedPools[sizeClass].poll();
+      if (buffer == null) {
+
+        // No pooled, so create buffer (reclaiming cached memory if over cap)
+        int capacity = this.sizeClasses[sizeClass];
+        this.reserve(capacity);
+        buffer = new PooledByteBufferImpl(sizeClass, capacity);
+      }
+    }
+    return this.acquired(buffer);
+  }
+
+  /**
+   * Accounts for the buffer being acquired.
+   *
+   * @param buffer Acquired buffer.
+   * @return Acquired buffer.
+   */
+  private PooledByteBuffer acquired(PooledByteBufferImpl buffer) {
+    buffer.isReleased.set(false);
+    this.liveMemory.addAndGet(buffer.buffer.capacity());
+    long live = this.liveBuffers.incrementAndGet();
+    if (live > this.peakLiveBuffers.get()) {
+      this.peakLiveBuffers.accumulateAndGet(live, Math::max);
+    }
+    this.metrics.bufferAcquired(buffer.buffer.capacity());
+
+    // Sample for leak detection
+    if (this.leakDetectionSample > 0) {
+      this.pollLeaks();
+      if ((this.acquisitions.incrementAndGet() % this.leakDetectionSample) == 0) {
+        buffer.leakTracker = new LeakTracker(buffer, this.leakQueue);
+        this.leakTrackers.add(buffer.leakTracker);
+      }
+    }
+    return buffer;
+  }
+
+  /**
+   * Logs and accounts for tracked buffers collected without being released.
+   */
+  private void pollLeaks() {
+    LeakTracker leak;
+    while ((leak = (LeakTracker) this.leakQueue.poll()) != null) {
+      if (this.leakTrackers.remove(leak)) {
+        this.leakedBuffers.increment();
+        this.liveBuffers.decrementAndGet();
+        this.liveMemory.addAndGet(-leak.capacity);
+        this.allocatedMemory.addAndGet(-leak.capacity);
+        this.metrics.bufferReleased(leak.capacity);
+        LOGGER.log(Level.SEVERE, PooledByteBuffer.class.getSimpleName() + " of " + leak.capacity
+            + " bytes was garbage collected without being released. Acquired at:", leak.acquiredAt);
+      }
+    }
+  }
+
+  /**
+   * Reserves direct memory for a new buffer.
+   *
+   * <p>Never waits nor fails, as admission of submissions keeps the buffers in
+   * use within the cap. Once over the cap, the cached free buffers are dropped
+   * to reclaim their memory.
+   *
+   * @param capacity Capacity of the new buffer.
+   */
+  private void reserve(int capacity) {
+    if (this.allocatedMemory.addAndGet(capacity) > this.maxMemory) {
+      this.trim();
+    }
+  }
+
+  /**
+   * Drops the cached free buffers, so their memory may be reclaimed for other
+   * size classes.
+   */
+  private void trim() {
+
+    // Drop the shared free buffers
+    for (Queue<PooledByteBufferImpl> pool : this.sharedPools) {
+      PooledByteBufferImpl buffer;
+      while ((buffer = pool.poll()) != null) {
+        this.allocatedMemory.addAndGet(-buffer.buffer.capacity());
+      }
+    }
+
+    // Drop the thread free buffers (on next use by the thread, as not thread safe)
+    for (ThreadCache cache : this.threadCaches) {
+      cache.isTrimRequested = true;
+    }
+    this.sweepEndedThreadCaches();
+  }
+
+  /**
+   * Drops the free lists of ended threads (e.g. many short lived virtual
+   * threads), which would otherwise hold their memory.
+   */
+  private void sweepEndedThreadCaches() {
+    for (ThreadCache cache : this.threadCaches) {
+      if (cache.isEnded() && this.threadCaches.remove(cache)) {
+        this.drop(cache);
+      }
+    }
+  }
+
+  /**
+   * Drops the free buffers of the thread free list.
+   *
+   * @param cache {@link ThreadCache}. Must either be of the current thread or
+   *              of an ended thread.
+   */
+  private void drop(ThreadCache cache) {
+    cache.isTrimRequested = false;
+    for (int sizeClass = 0; sizeClass < this.sizeClasses.length; sizeClass++) {
+      PooledByteBufferImpl buffer;
+      while ((buffer = cache.poll(sizeClass)) != null) {
+        this.allocatedMemory.addAndGet(-buffer.buffer.capacity());
+      }
+    }
+  }
+
+  /**
+   * Obtains the free list of the current thread (trimming it if requested).
+   *
+   * @return {@link ThreadCache} of the current thread.
+   */
+  private ThreadCache getThreadCache() {
+    ThreadCache cache = this.threadCache.get();
+    if (cache.isTrimRequested) {
+      this.drop(cache);
+    }
+    return cache;
+  }
+
+  /**
+   * Creates the free list for the current thread.
+   *
+   * @return {@link ThreadCache} for the current thread.
+   */
+  private ThreadCache createThreadCache() {
+    ThreadCache cache = new ThreadCache(this.sizeClasses.length, this.threadCacheSize);
+    this.threadCaches.add(cache);
+
+    // Sweep as the number of free lists grows
+    if (this.threadCaches.size() >= this.sweepThreadCaches) {
+      this.sweepEndedThreadCaches();
+      this.sweepThreadCaches = Math.max(MIN_SWEEP_THREAD_CACHES, this.threadCaches.size() * 2);
+    }
+    return cache;
+  }
+
+  /**
+   * Notifies the listeners that a buffer was released.
+   */
+  private void notifyReleased() {
+
+    // Only notify those registered (as may register again when notified)
+    for (int i = this.releaseListeners.size(); i > 0; i--) {
+      Runnable listener = this.releaseListeners.poll();
+      if (listener == null) {
+        return;
+      }
+      listener.run();
+    }
+  }
+
+  /**
+   * Free lists of a thread.
+   */
+  private static class ThreadCache {
+
+    /**
+     * Thread owning this free list.
+     */
+    private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+
+    /**
+     * Indicates to drop the free buffers on next use by the owning thread.
+     */
+    private volatile boolean isTrimRequested = false;
+
+    /**
+     * Free buffers by size class.
+     */
+    private final PooledByteBufferImpl[][] buffers;
+
+    /**
+     * Number of free buffers by size class.
+     */
+    private final int[] counts;
+
+    /**
+     * Instantiate.
+     *
+     * @param sizeClasses Number of size classes.
+     * @param cacheSize   Maximum number of buffers per size class.
+     */
+    private ThreadCache(int sizeClasses, int cacheSize) {
+      this.buffers = new PooledByteBufferImpl[sizeClasses][cacheSize];
+      this.counts = new int[sizeClasses];
+    }
+
+    /**
+     * Indicates if the owning thread has ended (so no longer uses this).
+     *
+     * @return <code>true</code> if the owning thread has ended.
+     */
+    private boolean isEnded() {
+      Thread thread = this.owner.get();
+      return (thread == null) || (!thread.isAlive());
+    }
+
+    /**
+     * Obtains a free buffer.
+     *
+     * @param sizeClass Index of the size class.
+     * @return Free buffer or <code>null</code> if none.
+     */
+    private PooledByteBufferImpl poll(int sizeClass) {
+      int count = this.counts[sizeClass];
+      if (count == 0) {
+        return null;
+      }
+      count--;
+      PooledByteBufferImpl buffer = this.buffers[sizeClass][count];
+      this.buffers[sizeClass][count] = null;
+      this.counts[sizeClass] = count;
       return buffer;
     }
 
-    // No pooled, so create buffer
-    // TODO consider blocking thread if too many active buffers to keep memory down
-    return new PooledByteBufferImpl();
+    /**
+     * Caches a free buffer.
+     *
+     * @param buffer Free buffer.
+     * @return <code>true</code> if cached, <code>false</code> if full.
+     */
+    private boolean offer(PooledByteBufferImpl buffer) {
+      int count = this.counts[buffer.sizeClass];
+      PooledByteBufferImpl[] cache = this.buffers[buffer.sizeClass];
+      if (count >= cache.length) {
+        return false;
+      }
+      cache[count] = buffer;
+      this.counts[buffer.sizeClass] = count + 1;
+      return true;
+    }
+  }
+
+  /**
+   * Tracks an acquired buffer, to detect it being collected without release.
+   */
+  private static class LeakTracker extends PhantomReference<PooledByteBufferImpl> {
+
+    /**
+     * Capacity of the tracked buffer.
+     */
+    private final int capacity;
+
+    /**
+     * Captures the stack that acquired the buffer.
+     */
+    private final Throwable acquiredAt = new Throwable("Buffer acquired");
+
+    /**
+     * Instantiate.
+     *
+     * @param buffer Tracked buffer.
+     * @param queue  {@link ReferenceQueue} notified once buffer collected.
+     */
+    private LeakTracker(PooledByteBufferImpl buffer, ReferenceQueue<PooledByteBufferImpl> queue) {
+      super(buffer, queue);
+      this.capacity = buffer.buffer.capacity();
+    }
   }
 
   private class PooledByteBufferImpl implements PooledByteBuffer {
 
-    private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+    private final int sizeClass;
+
+    private final ByteBuffer buffer;
+
+    private final AtomicBoolean isReleased = new AtomicBoolean(false);
+
+    private LeakTracker leakTracker = null;
+
+    private PooledByteBufferImpl(int sizeClass, int capacity) {
+      this.sizeClass = sizeClass;
+      this.buffer = ByteBuffer.allocateDirect(capacity);
+      allocatedBuffers.increment();
+    }
 
     /*
      * =============== PooledByteBuffer ====================
@@ -66,8 +644,36 @@ public class DefaultByteBufferPool implements ByteBufferPool {
 
     @Override
     public void release() {
-      pool.add(this);
+
+      // Ensure not already released (as would corrupt pool, even if racing)
+      if (!this.isReleased.compareAndSet(false, true)) {
+        doubleReleases.increment();
+        throw new IllegalStateException(PooledByteBuffer.class.getSimpleName() + " released more than once");
+      }
+      liveBuffers.decrementAndGet();
+      liveMemory.addAndGet(-this.buffer.capacity());
+      metrics.bufferReleased(this.buffer.capacity());
+
+      // No longer possible to leak
+      if (this.leakTracker != null) {
+        leakTrackers.remove(this.leakTracker);
+        this.leakTracker.clear();
+        this.leakTracker = null;
+      }
+
+      if (this.sizeClass < 0) {
+        // Not pooled, so just release the memory
+        allocatedMemory.addAndGet(-this.buffer.capacity());
+
+      } else if (!getThreadCache().offer(this)) {
+        // Thread free list full, so spill to shared
+        sharedPools[this.sizeClass].add(this);
+      }
+
+      if (!releaseListeners.isEmpty()) {
+        notifyReleased();
+      }
     }
   }
 
-}
\ No newline at end of file
+}
@@ -47,6 +47,10 @@ public class BeFrame {
       }
       throw new IllegalArgumentException("There is no backend server tag that matches byte " + input);
     }
+
+    public byte getByte() {
+      return (byte) tag;
+    }
   }
 
   private BackendTag tag;
@@ -0,0 +1,105 @@
+package org.postgresql.sql2.communication;
+
+import java.util.function.Supplier;
+import org.postgresql.sql2.metrics.SlowOperationLog;
+
+/**
+ * Resources of a data source shared by the {@link NetworkConnection} of each of
+ * its sessions.
+ */
+public class DataSourceResources {
+
+  /**
+   * Obtains the {@link TlsContext}, as only created on first use.
+   */
+  private final Supplier<TlsContext> tlsContext;
+
+  /**
+   * {@link SaltedPasswordCache}.
+   */
+  private final SaltedPasswordCache saltedPasswordCache;
+
+  /**
+   * {@link SlowOperationLog}. May be <code>null</code>.
+   */
+  private final SlowOperationLog slowOperationLog;
+
+  /**
+   * {@link HotStatements}. May be <code>null</code>.
+   */
+  private final HotStatements hotStatements;
+
+  /**
+   * {@link StatementMetadataCache}.
+   */
+  private final StatementMetadataCache statementMetadataCache;
+
+  /**
+   * Instantiate.
+   *
+   * @param tlsContext             Obtains the {@link TlsContext}.
+   * @param saltedPasswordCache    {@link SaltedPasswordCache}.
+   * @param slowOperationLog       {@link SlowOperationLog}. May be
+   *                               <code>null</code> if not logging slow
+   *                               operations.
+   * @param hotStatements          {@link HotStatements}. May be
+   *                               <code>null</code> if not warming up
+   *                               connections.
+   * @param statementMetadataCache {@link StatementMetadataCache}.
+   */
+  public DataSourceResources(Supplier<TlsContext> tlsContext, SaltedPasswordCache saltedPasswordCache,
+      SlowOperationLog slowOperationLog, HotStatements hotStatements, StatementMetadataCache statementMetadataCache) {
+    this.tlsContext = tlsContext;
+    this.saltedPasswordCache = saltedPasswordCache;
+    this.slowOperationLog = slowOperationLog;
+    this.hotStatements = hotStatements;
+    this.statementMetadataCache = statementMetadataCache;
+  }
+
+  /**
+   * Obtains the {@link TlsContext}, so TLS sessions may be resumed.
+   *
+   * @return {@link TlsContext}.
+   */
+  public TlsContext getTlsContext() {
+    return this.tlsContext.get();
+  }
+
+  /**
+   * Obtains the {@link SaltedPasswordCache}.
+   *
+   * @return {@link SaltedPasswordCache}.
+   */
+  public SaltedPasswordCache getSaltedPasswordCache() {
+    return this.saltedPasswordCache;
+  }
+
+  /**
+   * Obtains the {@link SlowOperationLog}.
+   *
+   * @return {@link SlowOperationLog}. May be <code>null</code> if not logging
+   *         slow operations.
+   */
+  public SlowOperationLog getSlowOperationLog() {
+    return this.slowOperationLog;
+  }
+
+  /**
+   * Obtains the {@link HotStatements}.
+   *
+   * @return {@link HotStatements}. May be <code>null</code> if not warming up
+   *         connections.
+   */
+  public HotStatements getHotStatements() {
+    return this.hotStatements;
+  }
+
+  /**
+   * Obtains the {@link StatementMetadataCache}.
+   *
+   * @return {@link StatementMetadataCache}.
+   */
+  public StatementMetadataCache getStatementMetadataCache() {
+    return this.statementMetadataCache;
+  }
+}
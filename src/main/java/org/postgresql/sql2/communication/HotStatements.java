@@ -0,0 +1,124 @@
+package org.postgresql.sql2.communication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.communication.PreparedStatementCache.StatementKey;
+
+/**
+ * Tracks the most frequently executed statements of a data source, so that new
+ * connections may prepare them before their first execution.
+ *
+ * <p>Each {@link PreparedStatementCache} counts uses locally and only reports
+ * every {@link #REPORT_USES} uses, so tracking does not contend on the hot
+ * path.
+ *
+ * <p>The number of statements tracked is bounded. Once full, counts are halved
+ * (dropping statements no longer used) to make room, so the hottest statements
+ * follow changes in the workload.
+ */
+public class HotStatements {
+
+  /**
+   * Uses of a statement by a connection between reports.
+   */
+  public static final int REPORT_USES = 64;
+
+  /**
+   * Statements tracked for each warmed up statement.
+   */
+  private static final int TRACKED_PER_WARM_UP = 16;
+
+  /**
+   * Creates the {@link HotStatements} for a data source.
+   *
+   * @param properties Data source properties.
+   * @return {@link HotStatements}, or <code>null</code> if not warming up
+   *         connections.
+   */
+  public static HotStatements forDataSource(Map<SessionProperty, Object> properties) {
+    Object warmUp = properties.get(PgSessionProperty.WARM_UP_STATEMENTS);
+    int statements = (Integer) (warmUp == null ? PgSessionProperty.WARM_UP_STATEMENTS.defaultValue() : warmUp);
+    return (statements <= 0) ? null : new HotStatements(statements, statements * TRACKED_PER_WARM_UP);
+  }
+
+  /**
+   * Number of statements to warm up.
+   */
+  private final int warmUpStatements;
+
+  /**
+   * Maximum number of statements tracked.
+   */
+  private final int maxTracked;
+
+  /**
+   * Uses by statement.
+   */
+  private final Map<StatementKey, long[]> uses = new HashMap<>();
+
+  /**
+   * Instantiate.
+   *
+   * @param warmUpStatements Number of statements to warm up.
+   * @param maxTracked       Maximum number of statements tracked.
+   */
+  public HotStatements(int warmUpStatements, int maxTracked) {
+    this.warmUpStatements = warmUpStatements;
+    this.maxTracked = Math.max(warmUpStatements, maxTracked);
+  }
+
+  /**
+   * Records uses of the statement.
+   *
+   * @param key   {@link StatementKey}.
+   * @param count Number of uses.
+   */
+  public synchronized void used(StatementKey key, long count) {
+    long[] statementUses = this.uses.get(key);
+    if (statementUses == null) {
+      if ((this.uses.size() >= this.maxTracked) && !this.age()) {
+        return; // all tracked statements are in use
+      }
+      statementUses = new long[1];
+      this.uses.put(key, statementUses);
+    }
+    statementUses[0] += count;
+  }
+
+  /**
+   * Obtains the statements to warm up a new connection.
+   *
+   * @return {@link StatementKey} instances, most used first.
+   */
+  public synchronized List<StatementKey> getHottest() {
+    List<Map.Entry<StatementKey, long[]>> entries = new ArrayList<>(this.uses.entrySet());
+    entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+    List<StatementKey> hottest = new ArrayList<>(Math.min(this.warmUpStatements, entries.size()));
+    for (int i = 0; (i < this.warmUpStatements) && (i < entries.size()); i++) {
+      hottest.add(entries.get(i).getKey());
+    }
+    return hottest;
+  }
+
+  /**
+   * Halves the uses, dropping the statements no longer used.
+   *
+   * @return <code>true</code> if room to track another statement.
+   */
+  private boolean age() {
+    for (Iterator<long[]> iterator = this.uses.values().iterator(); iterator.hasNext();) {
+      long[] statementUses = iterator.next();
+      statementUses[0] /= 2;
+      if (statementUses[0] == 0) {
+        iterator.remove();
+      }
+    }
+    return this.uses.size() < this.maxTracked;
+  }
+
+}
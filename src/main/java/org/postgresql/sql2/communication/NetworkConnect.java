@@ -27,4 +27,17 @@ public interface NetworkConnect extends NetworkErrorHandler {
    */
   NetworkRequest finishConnect(NetworkConnectContext context) throws IOException;
 
+  /**
+   * Obtains the {@link NetworkConnect} to retry with on a new connection, should
+   * the connection fail after connecting but before the server responds (e.g.
+   * the server dropping the connection on receiving a direct TLS handshake).
+   * 
+   * @param failure Cause of the connection failing.
+   * @return {@link NetworkConnect} to retry with. <code>null</code> to fail the
+   *         connect.
+   */
+  default NetworkConnect fallback(Throwable failure) {
+    return null;
+  }
+
 }
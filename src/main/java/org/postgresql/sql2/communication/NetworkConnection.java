@@ -6,35 +6,55 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NotYetConnectedException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
-import java.security.NoSuchAlgorithmException;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import javax.net.ssl.SSLContext;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
 import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgServerParameters;
 import org.postgresql.sql2.PgSession;
+import org.postgresql.sql2.PgSessionProperty;
 import org.postgresql.sql2.buffer.ByteBufferPool;
 import org.postgresql.sql2.buffer.ByteBufferPoolOutputStream;
 import org.postgresql.sql2.buffer.PooledByteBuffer;
 import org.postgresql.sql2.communication.network.CloseResponse;
 import org.postgresql.sql2.communication.packets.ErrorPacket;
+import org.postgresql.sql2.communication.packets.ParameterStatus;
 import org.postgresql.sql2.execution.NioLoop;
 import org.postgresql.sql2.execution.NioService;
 import org.postgresql.sql2.execution.NioServiceContext;
+import org.postgresql.sql2.metrics.PgFlightRecorder;
+import org.postgresql.sql2.metrics.PgMetrics;
+import org.postgresql.sql2.metrics.SlowOperationLog;
 import org.postgresql.sql2.util.tlschannel.ClientTlsChannel;
 import org.postgresql.sql2.util.tlschannel.NeedsReadException;
+import org.postgresql.sql2.util.tlschannel.NeedsTaskException;
 import org.postgresql.sql2.util.tlschannel.NeedsWriteException;
 import org.postgresql.sql2.util.tlschannel.TlsChannel;
 
 public class NetworkConnection implements NioService, NetworkConnectContext, NetworkWriteContext, NetworkReadContext {
 
+  private static final Logger LOGGER = Logger.getLogger(NetworkConnection.class.getName());
+
   private final Map<SessionProperty, Object> properties;
 
   private final PgSession connection;
 
+  private final DataSourceResources resources;
+
   private final NioLoop loop;
 
+  private final ByteBufferPool bufferPool;
+
   private final ByteBufferPoolOutputStream outputStream;
 
   private final Queue<NetworkRequest> priorityRequestQueue = new LinkedList<>();
@@ -43,12 +63,52 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
 
   private final Queue<NetworkResponse> awaitingResponses = new LinkedList<>();
 
-  private final BeFrameParser parser = new BeFrameParser();
+  private BeFrameParser parser = new BeFrameParser();
+
+  private final PreparedStatementCache preparedStatementCache;
+
+  private final PgMetrics metrics;
+
+  /**
+   * {@link ProtocolTrace}. May be <code>null</code> if not tracing.
+   */
+  private final ProtocolTrace trace;
+
+  /**
+   * {@link PgServerParameters} reported by the server (only changed by the loop
+   * thread).
+   */
+  private volatile PgServerParameters serverParameters = PgServerParameters.NONE;
+
+  /**
+   * Number of requests queued awaiting to be written.
+   */
+  private final AtomicInteger queuedRequests = new AtomicInteger(0);
 
-  private final PreparedStatementCache preparedStatementCache = new PreparedStatementCache();
+  /**
+   * Number of responses awaited (only changed by the loop thread).
+   */
+  private volatile int inFlightRequests = 0;
+
+  /**
+   * Number of {@link BeFrame} instances read, to sample for
+   * {@link PgFlightRecorder}.
+   */
+  private int framesRead = 0;
 
   private NetworkConnect connect = null;
 
+  /**
+   * Indicates connecting and yet to receive a response from the server.
+   */
+  private boolean isAwaitingServer = false;
+
+  /**
+   * Synchronizes connecting with the service thread. Not a monitor, so that
+   * virtual threads connecting do not pin their carrier thread.
+   */
+  private final ReentrantLock connectLock = new ReentrantLock();
+
   private SocketChannel socketChannel;
 
   private TlsChannel tlsChannel;
@@ -56,9 +116,35 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
   private NioServiceContext context = null;
 
   /**
-   * Possible blocking {@link NetworkResponse}.
+   * {@link Executor} for CPU intensive tasks. <code>null</code> to run them on
+   * the {@link NioLoop}.
    */
-  private NetworkResponse blockingResponse = new NetworkResponse() {
+  private final Executor taskExecutor;
+
+  /**
+   * Indicates suspended awaiting a task to complete.
+   */
+  private boolean isSuspended = false;
+
+  /**
+   * Indicates the task has completed.
+   */
+  private final AtomicBoolean isTaskComplete = new AtomicBoolean(false);
+
+  /**
+   * Possible failure of the task.
+   */
+  private volatile Throwable taskFailure = null;
+
+  /**
+   * {@link NetworkErrorHandler} for failure of the task.
+   */
+  private NetworkErrorHandler taskErrorHandler = null;
+
+  /**
+   * {@link NetworkResponse} blocking writes until connected.
+   */
+  private static final NetworkResponse NOT_CONNECTED = new NetworkResponse() {
     @Override
     public NetworkResponse read(NetworkReadContext context) throws IOException {
       throw new IllegalStateException("Should not read until connected");
@@ -70,6 +156,11 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
     }
   };
 
+  /**
+   * Possible blocking {@link NetworkResponse}.
+   */
+  private NetworkResponse blockingResponse = NOT_CONNECTED;
+
   /**
    * Instantiate.
    * 
@@ -77,12 +168,21 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
    * @param connection {@link PgSession}.
    * @param loop       {@link NioLoop}.
    * @param bufferPool {@link ByteBufferPool}.
+   * @param resources  {@link DataSourceResources}.
    */
   public NetworkConnection(Map<SessionProperty, Object> properties, PgSession connection, NioLoop loop,
-      ByteBufferPool bufferPool) {
+      ByteBufferPool bufferPool, DataSourceResources resources) {
     this.properties = properties;
     this.connection = connection;
+    this.resources = resources;
     this.loop = loop;
+    this.bufferPool = bufferPool;
+    this.taskExecutor = (Executor) properties.get(PgSessionProperty.TASK_EXECUTOR);
+    this.metrics = PgMetrics.from(properties);
+    this.trace = ProtocolTrace.forSession(properties);
+    Object skipDescribe = properties.get(PgSessionProperty.SKIP_DESCRIBE_SHARED_STATEMENTS);
+    this.preparedStatementCache = new PreparedStatementCache(resources.getHotStatements(),
+        resources.getStatementMetadataCache(), Boolean.TRUE.equals(skipDescribe));
     outputStream = new ByteBufferPoolOutputStream(bufferPool);
   }
 
@@ -91,33 +191,43 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
    * 
    * @param networkConnect {@link NetworkConnect}.
    */
-  public synchronized void sendNetworkConnect(NetworkConnect networkConnect) {
+  public void sendNetworkConnect(NetworkConnect networkConnect) {
 
     // Synchronizes with handleConnect so service thread has correct state
     // (Connections should be long running so low impact)
-
-    // Ensure only one connect
-    if (connect != null) {
-      throw new IllegalStateException("Connection already being established");
-    }
-    connect = networkConnect;
-
-    // Initialise the network request
+    connectLock.lock();
     try {
 
-      // Register the connection
-      socketChannel = SocketChannel.open();
-      socketChannel.configureBlocking(false);
-      loop.registerNioService(socketChannel, (context) -> {
-        this.context = context;
-        return this;
-      });
+      // Ensure only one connect
+      if (connect != null) {
+        throw new IllegalStateException("Connection already being established");
+      }
+      connect = networkConnect;
 
-      // Undertake connect
-      networkConnect.connect(this);
+      // Initialise the network request
+      try {
 
-    } catch (IOException ex) {
-      networkConnect.handleException(ex);
+        // Register the connection
+        socketChannel = SocketChannel.open();
+        socketChannel.configureBlocking(false);
+        loop.registerNioService(socketChannel, (context) -> {
+          this.context = context;
+          return this;
+        });
+
+        // Undertake connect
+        if (trace != null) {
+          trace.connecting();
+        }
+        isAwaitingServer = true;
+        networkConnect.connect(this);
+
+      } catch (IOException ex) {
+        isAwaitingServer = false;
+        networkConnect.handleException(ex);
+      }
+    } finally {
+      connectLock.unlock();
     }
   }
 
@@ -129,10 +239,39 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
   public void sendNetworkRequest(NetworkRequest request) {
 
     // Ready network request for writing
+    queuedRequests.incrementAndGet();
+    metrics.requestQueued();
     requestQueue.add(request);
     context.writeRequired();
   }
 
+  /**
+   * Obtains the number of requests queued awaiting to be written.
+   * 
+   * @return Number of requests queued awaiting to be written.
+   */
+  public int getQueuedRequests() {
+    return queuedRequests.get();
+  }
+
+  /**
+   * Obtains the number of requests awaiting their response.
+   * 
+   * @return Number of requests awaiting their response.
+   */
+  public int getInFlightRequests() {
+    return inFlightRequests;
+  }
+
+  /**
+   * Obtains the {@link ProtocolTrace}.
+   * 
+   * @return {@link ProtocolTrace}. May be <code>null</code> if not tracing.
+   */
+  public ProtocolTrace getProtocolTrace() {
+    return trace;
+  }
+
   /**
    * Indicates if the connection is closed.
    * 
@@ -147,33 +286,75 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
    */
 
   @Override
-  public synchronized void handleConnect() throws Exception {
+  public void handleConnect() throws Exception {
+    connectLock.lock();
+    try {
 
-    if (connect == null) {
-      throw new IllegalStateException("No " + NetworkConnect.class.getSimpleName() + " to handle connect");
-    }
+      if (connect == null) {
+        throw new IllegalStateException("No " + NetworkConnect.class.getSimpleName() + " to handle connect");
+      }
 
-    // Specify to write immediately
-    NetworkRequest initialRequest = connect.finishConnect(this);
+      // Specify to write immediately
+      NetworkRequest initialRequest = connect.finishConnect(this);
 
-    // As connected, may now start writing
-    blockingResponse = null;
+      // As connected, may now start writing
+      blockingResponse = null;
 
-    // Load initial action to be undertaken first
-    if (initialRequest != null) {
+      // Load initial action to be undertaken first
+      if (initialRequest != null) {
 
-      // Run initial request
-      Queue<NetworkRequest> queue = new LinkedList<>();
-      queue.add(initialRequest);
-      handleWrite(queue);
+        // Run initial request
+        Queue<NetworkRequest> queue = new LinkedList<>();
+        queue.add(initialRequest);
+        handleWrite(queue);
+      }
+    } finally {
+      connectLock.unlock();
     }
   }
 
   @Override
   public void handleWrite() throws Exception {
+
+    // Resume once the task completes
+    if (isSuspended) {
+      if (!isTaskComplete.get()) {
+        return; // still suspended
+      }
+      isSuspended = false;
+
+      // Handle task failure (connect failures handled by handleException)
+      Throwable failure = taskFailure;
+      if (failure != null) {
+        taskFailure = null;
+        if (!isAwaitingServer) {
+          taskErrorHandler.handleException(failure);
+        }
+        throw (failure instanceof Exception) ? (Exception) failure : new IOException(failure);
+      }
+
+      // Continue reading held up by the task (e.g. TLS handshake)
+      handleRead();
+    }
+
     handleWrite(requestQueue);
   }
 
+  /**
+   * Sets the interested operations, holding off reads and writes while
+   * suspended for a task.
+   * 
+   * @param interestedOps Interested operations.
+   * @throws IOException If fails to set interested operations.
+   */
+  private void setInterestedOps(int interestedOps) throws IOException {
+    if (isSuspended) {
+      // Write once task complete, so as to resume
+      interestedOps = isTaskComplete.get() ? (interestedOps | SelectionKey.OP_WRITE) : 0;
+    }
+    context.setInterestedOps(interestedOps);
+  }
+
   /**
    * Flushes the {@link NetworkRequest} instances to {@link PooledByteBuffer}
    * instances.
@@ -187,6 +368,10 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
     // Flush out the request
     NetworkRequest request;
     while ((request = requests.poll()) != null) {
+      if (requests == requestQueue) {
+        queuedRequests.decrementAndGet();
+        metrics.requestDequeued();
+      }
 
       // Flush the request
       NetworkRequest nextRequest;
@@ -197,6 +382,8 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
         NetworkResponse response = request.getRequiredResponse();
         if (response != null) {
           awaitingResponses.add(response);
+          inFlightRequests++;
+          metrics.responseAwaited();
         }
 
         // Determine if request blocks for further interaction
@@ -227,6 +414,12 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
    */
   private void handleWrite(Queue<NetworkRequest> requests) throws Exception {
 
+    // No writing until task completes
+    if (isSuspended) {
+      setInterestedOps(SelectionKey.OP_READ);
+      return;
+    }
+
     // Only flush further requests if no blocking response
     if (blockingResponse == null) {
 
@@ -238,20 +431,24 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
 
     // Write the previous incomplete write buffer
     if (incompleteWriteBuffer != null) {
+      int incompleteStart = incompleteWriteBuffer.getByteBuffer().position();
       if (tlsChannel == null) {
-        socketChannel.write(incompleteWriteBuffer.getByteBuffer());
+        metrics.bytesWritten(socketChannel.write(incompleteWriteBuffer.getByteBuffer()));
       } else {
         try {
-          tlsChannel.write(incompleteWriteBuffer.getByteBuffer());
+          metrics.bytesWritten(tlsChannel.write(incompleteWriteBuffer.getByteBuffer()));
         } catch (NeedsReadException e) {
-          context.setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+          setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
         } catch (NeedsWriteException e) {
           isWriteRequired = true;
+        } catch (NeedsTaskException e) {
+          executeTask(e.getTask(), connect);
         }
       }
+      traceWritten(incompleteWriteBuffer.getByteBuffer(), incompleteStart);
       if (incompleteWriteBuffer.getByteBuffer().hasRemaining()) {
         // Further writes required
-        context.setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
         return;
       }
       incompleteWriteBuffer.release();
@@ -262,8 +459,8 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
     PooledByteBuffer pooledBuffer = outputStream.getNextWrittenBuffer();
     if (pooledBuffer == null) {
       checkIfCloseAndPerformClose();
-      if (requests.size() == 0) {
-        context.setInterestedOps(SelectionKey.OP_READ);
+      if (requests.isEmpty()) {
+        setInterestedOps(SelectionKey.OP_READ);
       }
       return;
     }
@@ -271,21 +468,25 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
 
     // Write the buffer
     byteBuffer.flip();
+    int start = byteBuffer.position();
     if (tlsChannel == null) {
-      socketChannel.write(byteBuffer);
+      metrics.bytesWritten(socketChannel.write(byteBuffer));
     } else {
       try {
-        tlsChannel.write(byteBuffer);
+        metrics.bytesWritten(tlsChannel.write(byteBuffer));
       } catch (NeedsReadException e) {
-        context.setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
       } catch (NeedsWriteException e) {
         isWriteRequired = true;
+      } catch (NeedsTaskException e) {
+        executeTask(e.getTask(), connect);
       }
     }
+    traceWritten(byteBuffer, start);
     if (byteBuffer.hasRemaining()) {
       // Socket buffer full (clear written buffers)
       incompleteWriteBuffer = pooledBuffer;
-      context.setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
       return;
     }
 
@@ -293,12 +494,24 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
     pooledBuffer.release();
 
     // As here all data written
-    if (outputStream.hasMoreToWrite() || requests.size() != 0) {
-      context.setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    if (outputStream.hasMoreToWrite() || !requests.isEmpty()) {
+      setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
     } else if (outputStream.isClosed()) {
       checkIfCloseAndPerformClose();
     } else {
-      context.setInterestedOps(SelectionKey.OP_READ);
+      setInterestedOps(SelectionKey.OP_READ);
+    }
+  }
+
+  /**
+   * Records the written bytes to the {@link ProtocolTrace}.
+   * 
+   * @param buffer {@link ByteBuffer} written.
+   * @param start  Position before writing.
+   */
+  private void traceWritten(ByteBuffer buffer, int start) {
+    if (trace != null) {
+      trace.written(buffer, start, buffer.position());
     }
   }
 
@@ -309,8 +522,9 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
       } else {
         socketChannel.close();
       }
+      releaseBuffers();
       if (awaitingResponses.peek() instanceof CloseResponse) {
-        NetworkResponse response = awaitingResponses.poll();
+        NetworkResponse response = pollAwaitingResponse();
         if (response != null) {
           response.read(null);
         }
@@ -344,11 +558,25 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
       awaitingResponse = immediateResponse;
       immediateResponse = null;
     } else {
-      awaitingResponse = awaitingResponses.poll();
+      awaitingResponse = pollAwaitingResponse();
     }
     return awaitingResponse;
   }
 
+  /**
+   * Polls the next awaiting {@link NetworkResponse}.
+   * 
+   * @return Next awaiting {@link NetworkResponse}.
+   */
+  private NetworkResponse pollAwaitingResponse() {
+    NetworkResponse response = awaitingResponses.poll();
+    if (response != null) {
+      inFlightRequests--;
+      metrics.responseReceived();
+    }
+    return response;
+  }
+
   @Override
   public void handleRead() throws IOException {
     // TODO use pooled byte buffers
@@ -364,6 +592,7 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
           : (bytesRead = tlsChannel.read(readBuffer)) > 0) {
 
         // Setup for consuming parts
+        metrics.bytesRead(bytesRead);
         readBuffer.flip();
         int position = 0;
 
@@ -371,6 +600,22 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
         BeFrame frame;
         while ((frame = parser.parseBeFrame(readBuffer, position, bytesRead)) != null) {
           position += parser.getConsumedBytes();
+          isAwaitingServer = false;
+          char tag = (char) frame.getTag().getByte();
+          metrics.frameRead(tag);
+          if (trace != null) {
+            trace.read(frame);
+          }
+          if ((++framesRead % PgFlightRecorder.FRAME_SAMPLE) == 0) {
+            PgFlightRecorder.frameRead(tag, frame.getPayload().length);
+          }
+
+          // Track server parameters (reported on connect and on any change)
+          if (frame.getTag() == BeFrame.BackendTag.PARAM_STATUS) {
+            ParameterStatus status = new ParameterStatus(frame.getPayload());
+            serverParameters = serverParameters.with(status.getName(), status.getValue());
+            continue;
+          }
 
           // Obtain the awaiting response
           NetworkResponse awaitingResponse = getAwaitingResponse();
@@ -407,14 +652,16 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
         readBuffer.clear();
       }
     } catch (NeedsReadException e) {
-      context.setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      setInterestedOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
     } catch (NeedsWriteException e) {
       isWriteRequired = true;
+    } catch (NeedsTaskException e) {
+      executeTask(e.getTask(), connect);
     } catch (NotYetConnectedException | ClosedChannelException ignore) {
       ignore.printStackTrace();
       throw ignore;
     } finally {
-      if (isWriteRequired) {
+      if (isWriteRequired && !isSuspended) {
         context.writeRequired();
       }
     }
@@ -428,6 +675,19 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
   @Override
   public void handleException(Throwable ex) {
 
+    // Determine if failed connecting (e.g. server not supporting direct TLS)
+    if (isAwaitingServer) {
+      isAwaitingServer = false;
+
+      // Only fallback once connected (e.g. not on connection refused)
+      NetworkConnect fallback = socketChannel.isConnected() ? connect.fallback(ex) : null;
+      if (fallback != null) {
+        reconnect(fallback);
+        return;
+      }
+      connect.handleException(ex);
+    }
+
     // Unregister the connection (as closed)
     connection.unregister();
 
@@ -437,6 +697,14 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
       ex.printStackTrace();
     }
 
+    // Log the frames leading up to the failure
+    if (trace != null && LOGGER.isLoggable(Level.WARNING)) {
+      LOGGER.log(Level.WARNING, "Connection failed (" + ex + ") after frames:\n" + trace.dump());
+    }
+
+    // Return buffers to pool (as will no longer be written)
+    releaseBuffers();
+
     // Close the connection (if open)
     if (socketChannel.isOpen()) {
       try {
@@ -460,6 +728,61 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
     }
   }
 
+  /**
+   * Discards the failed connection and connects again with the fallback
+   * {@link NetworkConnect}. Requests not yet sent are kept to be sent on the new
+   * connection.
+   * 
+   * @param fallback Fallback {@link NetworkConnect}.
+   */
+  private void reconnect(NetworkConnect fallback) {
+
+    // Close the failed connection
+    try {
+      context.unregister();
+      if (tlsChannel != null) {
+        tlsChannel.close();
+      }
+    } catch (IOException ignore) {
+      // Failed connection, so failure in close expected
+    }
+    try {
+      socketChannel.close();
+    } catch (IOException ignore) {
+      // Failed connection, so failure in close expected
+    }
+
+    // Reset to connect again
+    tlsChannel = null;
+    releaseBuffers();
+    parser = new BeFrameParser();
+    priorityRequestQueue.clear();
+    while (pollAwaitingResponse() != null) {
+      // Discard responses of the failed connection
+    }
+    immediateResponse = null;
+    blockingResponse = NOT_CONNECTED;
+    connect = null;
+
+    // Connect with fallback
+    sendNetworkConnect(fallback);
+  }
+
+  /**
+   * Releases the {@link PooledByteBuffer} instances not yet written, as the
+   * connection is closed.
+   */
+  private void releaseBuffers() {
+    if (incompleteWriteBuffer != null) {
+      incompleteWriteBuffer.release();
+      incompleteWriteBuffer = null;
+    }
+    PooledByteBuffer buffer;
+    while ((buffer = outputStream.getNextWrittenBuffer()) != null) {
+      buffer.release();
+    }
+  }
+
   /*
    * ========== NetworkRequestInitialiseContext ======================
    */
@@ -476,14 +799,80 @@ public class NetworkConnection implements NioService, NetworkConnectContext, Net
 
   @Override
   public void startTls() {
+    TlsContext tlsContext = resources.getTlsContext();
+    SSLEngine engine = tlsContext.createSslEngine((String) properties.get(PgSessionProperty.HOST),
+        (Integer) properties.get(PgSessionProperty.PORT));
+    ClientTlsChannel.Builder builder = ClientTlsChannel.newBuilder(socketChannel, engine)
+        .withSessionInitCallback(tlsContext.createHandshakeCallback())
+        .withEncryptedBufferAllocator(new PooledBufferAllocator(bufferPool, false))
+        .withPlainBufferAllocator(new PooledBufferAllocator(bufferPool, true))
+        .withReleaseBuffers(true)
+        .withRunTasks(taskExecutor == null);
+    tlsChannel = builder.build();
+  }
+
+  @Override
+  public void executeTask(Runnable task, NetworkErrorHandler errorHandler) {
+
+    // Without executor, run on the loop
+    if (taskExecutor == null) {
+      task.run();
+      return;
+    }
+
+    // Suspend the connection until the task completes
+    isSuspended = true;
+    isTaskComplete.set(false);
+    taskErrorHandler = errorHandler;
+    Runnable completion = () -> {
+      isTaskComplete.set(true);
+      context.writeRequired(); // resumes on the loop
+    };
     try {
-      ClientTlsChannel.Builder builder = ClientTlsChannel.newBuilder(socketChannel, SSLContext.getDefault());
-      tlsChannel = builder.build();
-    } catch (NoSuchAlgorithmException e) {
-      e.printStackTrace();
+      taskExecutor.execute(() -> {
+        try {
+          task.run();
+        } catch (Throwable ex) {
+          taskFailure = ex;
+        }
+        completion.run();
+      });
+    } catch (RejectedExecutionException ex) {
+      taskFailure = ex;
+      completion.run();
     }
   }
 
+  @Override
+  public SSLSession getSslSession() {
+    return tlsChannel == null ? null : tlsChannel.getSslEngine().getSession();
+  }
+
+  @Override
+  public PgMetrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public SlowOperationLog getSlowOperationLog() {
+    return resources.getSlowOperationLog();
+  }
+
+  @Override
+  public PgServerParameters getServerParameters() {
+    return serverParameters;
+  }
+
+  @Override
+  public HotStatements getHotStatements() {
+    return resources.getHotStatements();
+  }
+
+  @Override
+  public SaltedPasswordCache getSaltedPasswordCache() {
+    return resources.getSaltedPasswordCache();
+  }
+
   /*
    * ============ NetworkRequestReadContext ==========================
    */
@@ -2,7 +2,11 @@ package org.postgresql.sql2.communication;
 
 import java.nio.channels.SocketChannel;
 import java.util.Map;
+import javax.net.ssl.SSLSession;
 import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgServerParameters;
+import org.postgresql.sql2.metrics.PgMetrics;
+import org.postgresql.sql2.metrics.SlowOperationLog;
 
 /**
  * Context available to all {@link NetworkRequest} events.
@@ -26,4 +30,59 @@ public interface NetworkContext {
   Map<SessionProperty, Object> getProperties();
 
   void startTls();
+
+  /**
+   * Undertakes a CPU intensive task (e.g. password hashing) off the
+   * {@link org.postgresql.sql2.execution.NioLoop}, if configured with an
+   * executor. The connection is suspended (no further reads or writes) until
+   * the task completes, while the loop continues serving other connections.
+   * 
+   * @param task         Task.
+   * @param errorHandler {@link NetworkErrorHandler} should the task fail.
+   */
+  void executeTask(Runnable task, NetworkErrorHandler errorHandler);
+
+  /**
+   * Obtains the {@link SSLSession} of the connection.
+   * 
+   * @return {@link SSLSession}. <code>null</code> if not using TLS.
+   */
+  SSLSession getSslSession();
+
+  /**
+   * Obtains the {@link SaltedPasswordCache} of the data source.
+   * 
+   * @return {@link SaltedPasswordCache}.
+   */
+  SaltedPasswordCache getSaltedPasswordCache();
+
+  /**
+   * Obtains the {@link PgMetrics}.
+   * 
+   * @return {@link PgMetrics}.
+   */
+  PgMetrics getMetrics();
+
+  /**
+   * Obtains the {@link SlowOperationLog}.
+   * 
+   * @return {@link SlowOperationLog}. May be <code>null</code> if not logging
+   *         slow operations.
+   */
+  SlowOperationLog getSlowOperationLog();
+
+  /**
+   * Obtains the {@link HotStatements} of the data source.
+   * 
+   * @return {@link HotStatements}. May be <code>null</code> if not warming up
+   *         connections.
+   */
+  HotStatements getHotStatements();
+
+  /**
+   * Obtains the {@link PgServerParameters} reported so far by the server.
+   * 
+   * @return {@link PgServerParameters}.
+   */
+  PgServerParameters getServerParameters();
 }
\ No newline at end of file
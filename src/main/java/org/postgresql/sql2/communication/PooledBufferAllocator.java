@@ -0,0 +1,102 @@
+package org.postgresql.sql2.communication;
+
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.postgresql.sql2.buffer.ByteBufferPool;
+import org.postgresql.sql2.buffer.PooledByteBuffer;
+import org.postgresql.sql2.util.tlschannel.BufferAllocator;
+
+/**
+ * {@link BufferAllocator} backed by a {@link ByteBufferPool}, so that TLS
+ * buffers are shared with the session buffers rather than each TLS connection
+ * holding its own direct memory.
+ *
+ * <p>Allocated buffers are exact sized views of (possibly larger) pooled
+ * buffers, so the TLS sizing logic is unaffected by the pool size classes.
+ */
+public class PooledBufferAllocator implements BufferAllocator {
+
+  /**
+   * Zeros to clear plain text.
+   */
+  private static final byte[] ZEROS = new byte[1024];
+
+  /**
+   * {@link ByteBufferPool}.
+   */
+  private final ByteBufferPool bufferPool;
+
+  /**
+   * Indicates to zero buffers before returning them to the pool (for buffers
+   * containing plain text).
+   */
+  private final boolean isZeroOnFree;
+
+  /**
+   * {@link PooledByteBuffer} by the allocated {@link ByteBuffer} (by identity,
+   * as {@link ByteBuffer} equality is by content).
+   */
+  private final Map<ByteBuffer, PooledByteBuffer> allocated = new IdentityHashMap<>();
+
+  /**
+   * Instantiate.
+   *
+   * @param bufferPool   {@link ByteBufferPool}.
+   * @param isZeroOnFree Indicates to zero buffers before returning them to the
+   *                     pool.
+   */
+  public PooledBufferAllocator(ByteBufferPool bufferPool, boolean isZeroOnFree) {
+    this.bufferPool = bufferPool;
+    this.isZeroOnFree = isZeroOnFree;
+  }
+
+  /**
+   * Obtains the number of buffers allocated and not yet freed.
+   *
+   * @return Number of buffers allocated and not yet freed.
+   */
+  public int getAllocatedBuffers() {
+    synchronized (this.allocated) {
+      return this.allocated.size();
+    }
+  }
+
+  /*
+   * ================= BufferAllocator ======================
+   */
+
+  @Override
+  public ByteBuffer allocate(int size) {
+    PooledByteBuffer pooled = this.bufferPool.getPooledByteBuffer(size);
+    ByteBuffer buffer = pooled.getByteBuffer();
+    buffer.clear();
+    buffer.limit(size);
+    ByteBuffer view = buffer.slice();
+    synchronized (this.allocated) {
+      this.allocated.put(view, pooled);
+    }
+    return view;
+  }
+
+  @Override
+  public void free(ByteBuffer buffer) {
+    PooledByteBuffer pooled;
+    synchronized (this.allocated) {
+      pooled = this.allocated.remove(buffer);
+    }
+    if (pooled == null) {
+      throw new IllegalArgumentException("Buffer not allocated by this " + BufferAllocator.class.getSimpleName());
+    }
+
+    // Ensure no plain text is left for the next user
+    if (this.isZeroOnFree) {
+      buffer.clear();
+      while (buffer.hasRemaining()) {
+        buffer.put(ZEROS, 0, Math.min(ZEROS.length, buffer.remaining()));
+      }
+    }
+    pooled.release();
+  }
+
+}
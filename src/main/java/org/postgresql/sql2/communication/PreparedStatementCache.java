@@ -15,7 +15,49 @@ public class PreparedStatementCache {
   private Map<StatementKey, Query> sqlToQuery = new HashMap<>();
 
   /**
-   * Obtains the {@link Query} for the SQL.
+   * {@link HotStatements} of the data source. May be <code>null</code> if not
+   * tracking.
+   */
+  private final HotStatements hotStatements;
+
+  /**
+   * {@link StatementMetadataCache} of the data source.
+   */
+  private final StatementMetadataCache metadataCache;
+
+  /**
+   * Indicates if to use the {@link StatementMetadata} described by other
+   * connections, rather than describing the statement again.
+   */
+  private final boolean isSkipDescribeShared;
+
+  /**
+   * Instantiate not tracking use nor sharing {@link StatementMetadata}.
+   */
+  public PreparedStatementCache() {
+    this(null, new StatementMetadataCache(0), false);
+  }
+
+  /**
+   * Instantiate.
+   * 
+   * @param hotStatements        {@link HotStatements} of the data source. May
+   *                             be <code>null</code> if not tracking.
+   * @param metadataCache        {@link StatementMetadataCache} of the data
+   *                             source.
+   * @param isSkipDescribeShared Indicates if to use the
+   *                             {@link StatementMetadata} described by other
+   *                             connections.
+   */
+  public PreparedStatementCache(HotStatements hotStatements, StatementMetadataCache metadataCache,
+      boolean isSkipDescribeShared) {
+    this.hotStatements = hotStatements;
+    this.metadataCache = metadataCache;
+    this.isSkipDescribeShared = isSkipDescribeShared;
+  }
+
+  /**
+   * Obtains the {@link Query} for the SQL to execute.
    * 
    * @param sql    SQL.
    * @param params Parameters.
@@ -27,10 +69,77 @@ public class PreparedStatementCache {
     }
 
     // Obtain or create the query
-    return sqlToQuery.computeIfAbsent(new StatementKey(sql, params), key -> new Query());
+    StatementKey key = new StatementKey(sql, params);
+    Query query = getQuery(key);
+
+    // Report uses (in batches, so not contending for every execution)
+    if (hotStatements != null) {
+      int uses = query.used();
+      if (uses == 1) {
+        hotStatements.used(key, 1);
+      } else if ((uses % HotStatements.REPORT_USES) == 0) {
+        hotStatements.used(key, (uses == HotStatements.REPORT_USES) ? uses - 1 : HotStatements.REPORT_USES);
+      }
+    }
+    return query;
   }
 
-  private class StatementKey {
+  /**
+   * Obtains a {@link Query} to parse with the unnamed statement (not cached),
+   * for SQL that must not be kept as a prepared statement.
+   * 
+   * @param sql    SQL.
+   * @param params Parameters.
+   * @return {@link Query} for the unnamed statement.
+   */
+  public Query getUnnamedQuery(String sql, List<Integer> params) {
+    if (sql == null) {
+      throw new IllegalArgumentException("No SQL provided");
+    }
+    return Query.unnamed(new StatementKey(sql, params));
+  }
+
+  /**
+   * Obtains the {@link Query} for the statement, without recording a use (e.g.
+   * to warm up the connection).
+   * 
+   * @param key {@link StatementKey}.
+   * @return {@link Query}.
+   */
+  public Query getQuery(StatementKey key) {
+    return sqlToQuery.computeIfAbsent(key, Query::new);
+  }
+
+  /**
+   * Obtains the {@link StatementMetadata} described by another connection, so
+   * as to not describe the statement again.
+   * 
+   * @param key {@link StatementKey}.
+   * @return {@link StatementMetadata}, or <code>null</code> if to describe the
+   *         statement.
+   */
+  public StatementMetadata getSharedMetadata(StatementKey key) {
+    return isSkipDescribeShared ? metadataCache.get(key) : null;
+  }
+
+  /**
+   * Obtains the {@link StatementMetadata} for the <code>Describe</code> of the
+   * statement (shared with other connections if the same).
+   * 
+   * @param key            {@link StatementKey}.
+   * @param parameterOids  Oids of the parameters.
+   * @param rowDescription <code>RowDescription</code> payload.
+   *                       <code>null</code> if no rows.
+   * @return {@link StatementMetadata}.
+   */
+  public StatementMetadata described(StatementKey key, int[] parameterOids, byte[] rowDescription) {
+    return metadataCache.described(key, parameterOids, rowDescription);
+  }
+
+  /**
+   * Identifies a statement by its SQL and parameter types.
+   */
+  public static final class StatementKey {
     private final String sql;
     private final List<Integer> params;
 
@@ -39,6 +148,24 @@ public class PreparedStatementCache {
       this.params = params;
     }
 
+    /**
+     * Obtains the SQL.
+     * 
+     * @return SQL.
+     */
+    public String getSql() {
+      return sql;
+    }
+
+    /**
+     * Obtains the parameter type oids.
+     * 
+     * @return Parameter type oids.
+     */
+    public List<Integer> getParamTypes() {
+      return params;
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
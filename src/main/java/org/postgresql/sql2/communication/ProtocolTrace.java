@@ -0,0 +1,362 @@
+package org.postgresql.sql2.communication;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+
+/**
+ * Records the last frames sent and received on a connection, for diagnosing
+ * failures.
+ *
+ * <p>Each frame is recorded as its tag, length, timestamp and the start of its
+ * payload into a fixed size slot of a ring preallocated off heap. Recording
+ * does not allocate, so the trace may be left enabled on a sample of
+ * production sessions.
+ *
+ * <p>Frontend frames are scanned from the bytes written to the network (so
+ * include their actual write timing). Password payloads are not captured.
+ *
+ * <p>Recording is by the {@link org.postgresql.sql2.execution.NioLoop}
+ * thread, while dumping may be from any thread.
+ */
+public class ProtocolTrace {
+
+  /**
+   * Sessions created, for sampling.
+   */
+  private static final AtomicLong sessions = new AtomicLong(0);
+
+  /**
+   * Creates the {@link ProtocolTrace} for a session.
+   *
+   * @param properties Session properties.
+   * @return {@link ProtocolTrace}, or <code>null</code> if not tracing the
+   *         session.
+   */
+  public static ProtocolTrace forSession(Map<SessionProperty, Object> properties) {
+    int frames = (Integer) getProperty(properties, PgSessionProperty.PROTOCOL_TRACE_FRAMES);
+    if (frames <= 0) {
+      return null;
+    }
+    int sample = (Integer) getProperty(properties, PgSessionProperty.PROTOCOL_TRACE_SAMPLE);
+    if ((sample > 1) && ((sessions.getAndIncrement() % sample) != 0)) {
+      return null;
+    }
+    return new ProtocolTrace(frames, (Integer) getProperty(properties, PgSessionProperty.PROTOCOL_TRACE_PAYLOAD));
+  }
+
+  /**
+   * Obtains the property value (falling back to its default).
+   *
+   * @param properties Properties.
+   * @param property   {@link PgSessionProperty}.
+   * @return Value.
+   */
+  private static Object getProperty(Map<SessionProperty, Object> properties, PgSessionProperty property) {
+    Object value = properties.get(property);
+    return value == null ? property.defaultValue() : value;
+  }
+
+  /**
+   * Frame sent to the server.
+   */
+  private static final byte FRONTEND = '>';
+
+  /**
+   * Frame received from the server.
+   */
+  private static final byte BACKEND = '<';
+
+  /**
+   * Tag recorded for the untagged startup frames.
+   */
+  private static final byte UNTAGGED = 0;
+
+  /**
+   * Request codes of untagged frames followed by a further untagged frame.
+   */
+  private static final int SSL_REQUEST_CODE = 80877103;
+
+  private static final int GSSENC_REQUEST_CODE = 80877104;
+
+  /**
+   * Tag of frontend password (and SASL) frames, with payload not captured.
+   */
+  private static final byte PASSWORD_TAG = FeFrame.FrontendTag.PASSWORD_MESSAGE.getByte();
+
+  /**
+   * Slot layout: direction, tag, length, nanos, captured, payload.
+   */
+  private static final int DIRECTION_OFFSET = 0;
+
+  private static final int TAG_OFFSET = 1;
+
+  private static final int LENGTH_OFFSET = 2;
+
+  private static final int NANOS_OFFSET = 6;
+
+  private static final int CAPTURED_OFFSET = 14;
+
+  private static final int PAYLOAD_OFFSET = 16;
+
+  /**
+   * Ring of frame slots.
+   */
+  private final ByteBuffer ring;
+
+  /**
+   * Number of slots.
+   */
+  private final int frames;
+
+  /**
+   * Maximum payload bytes captured for a frame.
+   */
+  private final int payloadLimit;
+
+  /**
+   * Size of a slot.
+   */
+  private final int slotSize;
+
+  /**
+   * Wall clock and nano time at creation, to convert nano timestamps.
+   */
+  private final long baseMillis = System.currentTimeMillis();
+
+  private final long baseNanos = System.nanoTime();
+
+  /**
+   * Number of frames recorded.
+   */
+  private long recorded = 0;
+
+  /**
+   * Indicates if frontend frames are untagged (startup).
+   */
+  private boolean isUntagged = true;
+
+  /**
+   * Bytes of the current frontend frame header scanned.
+   */
+  private int headerScanned = 0;
+
+  /**
+   * Tag of the current frontend frame.
+   */
+  private byte frameTag = UNTAGGED;
+
+  /**
+   * Length of the current frontend frame (excluding tag).
+   */
+  private int frameLength = 0;
+
+  /**
+   * Payload bytes of the current frontend frame remaining to be scanned.
+   */
+  private int payloadRemaining = 0;
+
+  /**
+   * Request code of an untagged frame (first four payload bytes).
+   */
+  private int requestCode = 0;
+
+  /**
+   * Sequence of the slot of the current frontend frame.
+   */
+  private long frameSlot = -1;
+
+  /**
+   * Instantiate.
+   *
+   * @param frames       Number of frames to keep.
+   * @param payloadLimit Maximum payload bytes captured for a frame.
+   */
+  public ProtocolTrace(int frames, int payloadLimit) {
+    if (frames < 1) {
+      throw new IllegalArgumentException("protocol trace must keep at least 1 frame, but was " + frames);
+    }
+    this.frames = frames;
+    this.payloadLimit = Math.max(0, Math.min(payloadLimit, Short.MAX_VALUE));
+    this.slotSize = PAYLOAD_OFFSET + this.payloadLimit;
+    this.ring = ByteBuffer.allocateDirect(frames * this.slotSize);
+  }
+
+  /**
+   * Resets to scan frontend frames of a new connection (starting untagged).
+   */
+  public synchronized void connecting() {
+    this.isUntagged = true;
+    this.headerScanned = 0;
+    this.payloadRemaining = 0;
+    this.frameSlot = -1;
+  }
+
+  /**
+   * Records the frontend frames in the bytes written.
+   *
+   * @param buffer {@link ByteBuffer} written.
+   * @param start  Position of the first byte written.
+   * @param end    Position after the last byte written.
+   */
+  public synchronized void written(ByteBuffer buffer, int start, int end) {
+    int position = start;
+    while (position < end) {
+
+      // Scan the header
+      if (this.payloadRemaining == 0) {
+        byte value = buffer.get(position++);
+        if ((this.headerScanned == 0) && !this.isUntagged) {
+          this.frameTag = value;
+          this.frameLength = 0;
+          this.headerScanned++;
+          continue;
+        }
+        if (this.headerScanned == 0) {
+          this.frameTag = UNTAGGED;
+          this.frameLength = 0;
+          this.headerScanned++; // no tag, so now on length
+        }
+        this.frameLength = (this.frameLength << 8) | (value & 0xFF);
+        this.headerScanned++;
+        if (this.headerScanned == 5) {
+          this.headerScanned = 0;
+          this.requestCode = 0;
+          this.payloadRemaining = this.frameLength - 4;
+          this.frameSlot = this.record(FRONTEND, this.frameTag, this.frameLength, System.nanoTime());
+          if (this.payloadRemaining <= 0) {
+            this.payloadRemaining = 0;
+            this.frameComplete();
+          }
+        }
+        continue;
+      }
+
+      // Capture the payload
+      int scan = Math.min(this.payloadRemaining, end - position);
+      int offset = this.frameLength - 4 - this.payloadRemaining;
+      if (this.frameTag == UNTAGGED) {
+        for (int i = offset; (i < 4) && (i - offset < scan); i++) {
+          this.requestCode = (this.requestCode << 8) | (buffer.get(position + i - offset) & 0xFF);
+        }
+      }
+      if ((offset < this.payloadLimit) && (this.frameTag != PASSWORD_TAG) && (this.recorded - this.frameSlot <= this.frames)) {
+        int slot = this.slotPosition(this.frameSlot);
+        int capture = Math.min(scan, this.payloadLimit - offset);
+        for (int i = 0; i < capture; i++) {
+          this.ring.put(slot + PAYLOAD_OFFSET + offset + i, buffer.get(position + i));
+        }
+        this.ring.putShort(slot + CAPTURED_OFFSET, (short) (offset + capture));
+      }
+      position += scan;
+      this.payloadRemaining -= scan;
+      if (this.payloadRemaining == 0) {
+        this.frameComplete();
+      }
+    }
+  }
+
+  /**
+   * Records a backend frame read.
+   *
+   * @param frame {@link BeFrame}.
+   */
+  public synchronized void read(BeFrame frame) {
+    byte[] payload = frame.getPayload();
+    long sequence = this.record(BACKEND, frame.getTag().getByte(), payload.length + 4, System.nanoTime());
+    int slot = this.slotPosition(sequence);
+    int capture = Math.min(payload.length, this.payloadLimit);
+    for (int i = 0; i < capture; i++) {
+      this.ring.put(slot + PAYLOAD_OFFSET + i, payload[i]);
+    }
+    this.ring.putShort(slot + CAPTURED_OFFSET, (short) capture);
+  }
+
+  /**
+   * Obtains the number of frames recorded.
+   *
+   * @return Number of frames recorded.
+   */
+  public synchronized long getRecordedFrames() {
+    return this.recorded;
+  }
+
+  /**
+   * Dumps the recorded frames (oldest first), one per line as timestamp,
+   * direction (<code>&gt;</code> sent, <code>&lt;</code> received), tag,
+   * length and captured payload.
+   *
+   * @return Recorded frames.
+   */
+  public synchronized String dump() {
+    StringBuilder dump = new StringBuilder();
+    long first = Math.max(0, this.recorded - this.frames);
+    for (long sequence = first; sequence < this.recorded; sequence++) {
+      int slot = this.slotPosition(sequence);
+      long nanos = this.ring.getLong(slot + NANOS_OFFSET);
+      Instant timestamp = Instant.ofEpochMilli(this.baseMillis).plusNanos(nanos - this.baseNanos);
+      byte tag = this.ring.get(slot + TAG_OFFSET);
+      dump.append(timestamp).append(' ').append((char) this.ring.get(slot + DIRECTION_OFFSET)).append(' ')
+          .append(tag == UNTAGGED ? "-" : String.valueOf((char) tag)).append(" length=")
+          .append(this.ring.getInt(slot + LENGTH_OFFSET)).append(' ');
+      int captured = this.ring.getShort(slot + CAPTURED_OFFSET);
+      for (int i = 0; i < captured; i++) {
+        int value = this.ring.get(slot + PAYLOAD_OFFSET + i) & 0xFF;
+        if ((value >= ' ') && (value < 0x7F) && (value != '\\')) {
+          dump.append((char) value);
+        } else {
+          dump.append(String.format("\\x%02x", value));
+        }
+      }
+      if (captured < this.ring.getInt(slot + LENGTH_OFFSET) - 4) {
+        dump.append("...");
+      }
+      dump.append('\n');
+    }
+    return dump.toString();
+  }
+
+  /**
+   * Records the frame header into the next slot.
+   *
+   * @param direction Direction.
+   * @param tag       Tag.
+   * @param length    Length (excluding tag).
+   * @param nanos     Nano time.
+   * @return Sequence of the slot.
+   */
+  private long record(byte direction, byte tag, int length, long nanos) {
+    long sequence = this.recorded++;
+    int slot = this.slotPosition(sequence);
+    this.ring.put(slot + DIRECTION_OFFSET, direction);
+    this.ring.put(slot + TAG_OFFSET, tag);
+    this.ring.putInt(slot + LENGTH_OFFSET, length);
+    this.ring.putLong(slot + NANOS_OFFSET, nanos);
+    this.ring.putShort(slot + CAPTURED_OFFSET, (short) 0);
+    return sequence;
+  }
+
+  /**
+   * Obtains the position of the slot.
+   *
+   * @param sequence Sequence of the slot.
+   * @return Position of the slot in the ring.
+   */
+  private int slotPosition(long sequence) {
+    return (int) (sequence % this.frames) * this.slotSize;
+  }
+
+  /**
+   * Completes the current frontend frame.
+   */
+  private void frameComplete() {
+    if (this.frameTag == UNTAGGED) {
+      // Startup frame ends untagged, unless requesting encryption first
+      this.isUntagged = (this.requestCode == SSL_REQUEST_CODE) || (this.requestCode == GSSENC_REQUEST_CODE);
+    }
+  }
+
+}
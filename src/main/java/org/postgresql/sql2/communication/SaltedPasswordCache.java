@@ -0,0 +1,192 @@
+package org.postgresql.sql2.communication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import org.postgresql.sql2.util.SaslPrep;
+
+/**
+ * Caches the SCRAM <code>SaltedPassword</code> for a data source.
+ *
+ * <p>Deriving the <code>SaltedPassword</code> is deliberately expensive
+ * (PBKDF2 over the server's iteration count). The server only changes the salt
+ * when the password changes, so the result is cached to avoid re-deriving it for
+ * each new connection.
+ *
+ * <p>The number of passwords cached is bounded. Once full, an arbitrary
+ * password is evicted, which only costs deriving it again.
+ */
+public class SaltedPasswordCache {
+
+  /**
+   * Default maximum number of <code>SaltedPassword</code> instances cached.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 16;
+
+  /**
+   * Cache key.
+   */
+  private static class Key {
+
+    private final String user;
+
+    private final byte[] passwordDigest;
+
+    private final byte[] salt;
+
+    private final int iterations;
+
+    private Key(String user, byte[] passwordDigest, byte[] salt, int iterations) {
+      this.user = user;
+      this.passwordDigest = passwordDigest;
+      this.salt = salt;
+      this.iterations = iterations;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) obj;
+      return this.iterations == that.iterations && this.user.equals(that.user)
+          && Arrays.equals(this.passwordDigest, that.passwordDigest) && Arrays.equals(this.salt, that.salt);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.user, this.iterations) * 31 + Arrays.hashCode(this.salt);
+    }
+  }
+
+  /**
+   * <code>SaltedPassword</code> by {@link Key}.
+   */
+  private final Map<Key, byte[]> saltedPasswords = new ConcurrentHashMap<>();
+
+  /**
+   * Number of <code>SaltedPassword</code> derivations.
+   */
+  private final LongAdder derivations = new LongAdder();
+
+  /**
+   * Maximum number of <code>SaltedPassword</code> instances cached.
+   */
+  private final int maxEntries;
+
+  /**
+   * Instantiate with the {@link #DEFAULT_MAX_ENTRIES}.
+   */
+  public SaltedPasswordCache() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * Instantiate.
+   *
+   * @param maxEntries Maximum number of <code>SaltedPassword</code> instances
+   *                   cached.
+   */
+  public SaltedPasswordCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Obtains the <code>SaltedPassword</code>, deriving it on first use.
+   *
+   * <p>A digest of the password is part of the key, so a session overriding the
+   * password does not obtain another password's <code>SaltedPassword</code>
+   * (while the cache does not hold the password).
+   *
+   * @param user       User.
+   * @param password   Password.
+   * @param salt       Salt provided by the server.
+   * @param iterations Iterations provided by the server.
+   * @return <code>SaltedPassword</code>. Must not be modified.
+   */
+  public byte[] getSaltedPassword(String user, String password, byte[] salt, int iterations) {
+    Key key = new Key(user, digest(password), salt.clone(), iterations);
+    byte[] saltedPassword = this.saltedPasswords.get(key);
+    if (saltedPassword != null) {
+      return saltedPassword;
+    }
+
+    // Derive and cache (making room if full)
+    saltedPassword = deriveSaltedPassword(password, key.salt, iterations);
+    if (this.maxEntries <= 0) {
+      return saltedPassword;
+    }
+    if (this.saltedPasswords.size() >= this.maxEntries) {
+      Iterator<Key> evict = this.saltedPasswords.keySet().iterator();
+      if (evict.hasNext()) {
+        evict.next();
+        evict.remove();
+      }
+    }
+    byte[] cached = this.saltedPasswords.putIfAbsent(key, saltedPassword);
+    return cached != null ? cached : saltedPassword;
+  }
+
+  /**
+   * Obtains the number of <code>SaltedPassword</code> derivations (cache
+   * misses).
+   *
+   * @return Number of <code>SaltedPassword</code> derivations.
+   */
+  public long getDerivations() {
+    return this.derivations.sum();
+  }
+
+  /**
+   * Obtains the number of <code>SaltedPassword</code> instances cached.
+   *
+   * @return Number of <code>SaltedPassword</code> instances cached.
+   */
+  public int size() {
+    return this.saltedPasswords.size();
+  }
+
+  /**
+   * Obtains the SHA-256 digest of the password to key the cache.
+   *
+   * @param password Password.
+   * @return Digest of the password.
+   */
+  private static byte[] digest(String password) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Unable to digest SCRAM password", ex);
+    }
+  }
+
+  /**
+   * Derives the <code>SaltedPassword</code> (<code>Hi()</code> of RFC 5802,
+   * which is PBKDF2 with HMAC-SHA-256) from the SASLprep of the password.
+   *
+   * @param password   Password.
+   * @param salt       Salt.
+   * @param iterations Iterations.
+   * @return <code>SaltedPassword</code>.
+   */
+  private byte[] deriveSaltedPassword(String password, byte[] salt, int iterations) {
+    this.derivations.increment();
+    PBEKeySpec spec = new PBEKeySpec(SaslPrep.saslPrep(password).toCharArray(), salt, iterations, 256);
+    try {
+      return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Unable to derive SCRAM salted password", ex);
+    } finally {
+      spec.clearPassword();
+    }
+  }
+
+}
@@ -0,0 +1,98 @@
+package org.postgresql.sql2.communication;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import org.postgresql.sql2.communication.packets.DataRow;
+import org.postgresql.sql2.communication.packets.RowDescription;
+import org.postgresql.sql2.communication.packets.parts.ColumnDescription;
+
+/**
+ * Immutable description of a statement (as per <code>Describe</code>), shared
+ * by all connections of a data source.
+ *
+ * <p>Holds the decoding plan for the rows: the {@link ColumnDescription}
+ * instances (with their parsers resolved) and the lookup of column names to
+ * positions, so these are not rebuilt for each connection or each row.
+ */
+public class StatementMetadata {
+
+  /**
+   * No columns (<code>NoData</code>).
+   */
+  private static final ColumnDescription[] NO_COLUMNS = new ColumnDescription[0];
+
+  /**
+   * Oids of the parameters (as resolved by the server).
+   */
+  private final int[] parameterOids;
+
+  /**
+   * <code>RowDescription</code> payload. <code>null</code> if no rows.
+   */
+  private final byte[] rowDescription;
+
+  /**
+   * {@link ColumnDescription} instances.
+   */
+  private final ColumnDescription[] columns;
+
+  /**
+   * Column positions by lower case name.
+   */
+  private final Map<String, Integer> columnIndexes;
+
+  /**
+   * Instantiate.
+   *
+   * @param parameterOids  Oids of the parameters.
+   * @param rowDescription <code>RowDescription</code> payload.
+   *                       <code>null</code> if no rows (<code>NoData</code>).
+   */
+  public StatementMetadata(int[] parameterOids, byte[] rowDescription) {
+    this.parameterOids = parameterOids;
+    this.rowDescription = rowDescription;
+    this.columns = (rowDescription == null) ? NO_COLUMNS : new RowDescription(rowDescription).getDescriptions();
+    this.columnIndexes = Collections.unmodifiableMap(DataRow.indexColumns(this.columns));
+  }
+
+  /**
+   * Indicates if this describes the statement as per the <code>Describe</code>.
+   *
+   * @param parameterOids  Oids of the parameters.
+   * @param rowDescription <code>RowDescription</code> payload.
+   *                       <code>null</code> if no rows.
+   * @return <code>true</code> if same description.
+   */
+  public boolean isDescribing(int[] parameterOids, byte[] rowDescription) {
+    return Arrays.equals(this.parameterOids, parameterOids) && Arrays.equals(this.rowDescription, rowDescription);
+  }
+
+  /**
+   * Obtains the oids of the parameters. Must not be modified.
+   *
+   * @return Oids of the parameters.
+   */
+  public int[] getParameterOids() {
+    return this.parameterOids;
+  }
+
+  /**
+   * Obtains the {@link ColumnDescription} instances. Must not be modified.
+   *
+   * @return {@link ColumnDescription} instances. Empty if no rows.
+   */
+  public ColumnDescription[] getColumns() {
+    return this.columns;
+  }
+
+  /**
+   * Obtains the column positions by lower case name.
+   *
+   * @return Column positions by lower case name.
+   */
+  public Map<String, Integer> getColumnIndexes() {
+    return this.columnIndexes;
+  }
+
+}
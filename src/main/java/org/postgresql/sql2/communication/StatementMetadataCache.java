@@ -0,0 +1,106 @@
+package org.postgresql.sql2.communication;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.communication.PreparedStatementCache.StatementKey;
+
+/**
+ * Caches the {@link StatementMetadata} of a data source, so that connections
+ * share one immutable description of each statement rather than each holding
+ * its own.
+ *
+ * <p>The number of statements cached is bounded. Once full, an arbitrary
+ * statement is evicted, which only costs describing it again.
+ */
+public class StatementMetadataCache {
+
+  /**
+   * Creates the {@link StatementMetadataCache} for a data source.
+   *
+   * @param properties Data source properties.
+   * @return {@link StatementMetadataCache}.
+   */
+  public static StatementMetadataCache forDataSource(Map<SessionProperty, Object> properties) {
+    Object size = properties.get(PgSessionProperty.STATEMENT_METADATA_CACHE_SIZE);
+    return new StatementMetadataCache(
+        (Integer) (size == null ? PgSessionProperty.STATEMENT_METADATA_CACHE_SIZE.defaultValue() : size));
+  }
+
+  /**
+   * {@link StatementMetadata} by statement.
+   */
+  private final Map<StatementKey, StatementMetadata> metadata = new ConcurrentHashMap<>();
+
+  /**
+   * Maximum number of statements cached.
+   */
+  private final int maxStatements;
+
+  /**
+   * Instantiate.
+   *
+   * @param maxStatements Maximum number of statements cached.
+   */
+  public StatementMetadataCache(int maxStatements) {
+    this.maxStatements = maxStatements;
+  }
+
+  /**
+   * Obtains the {@link StatementMetadata}.
+   *
+   * @param key {@link StatementKey}.
+   * @return {@link StatementMetadata}, or <code>null</code> if not yet
+   *         described.
+   */
+  public StatementMetadata get(StatementKey key) {
+    return this.metadata.get(key);
+  }
+
+  /**
+   * Obtains the {@link StatementMetadata} for the <code>Describe</code> of the
+   * statement, sharing the cached instance if the same.
+   *
+   * <p>A different description (e.g. schema changed) replaces the cached
+   * instance.
+   *
+   * @param key            {@link StatementKey}.
+   * @param parameterOids  Oids of the parameters.
+   * @param rowDescription <code>RowDescription</code> payload.
+   *                       <code>null</code> if no rows.
+   * @return {@link StatementMetadata}.
+   */
+  public StatementMetadata described(StatementKey key, int[] parameterOids, byte[] rowDescription) {
+    StatementMetadata cached = this.metadata.get(key);
+    if ((cached != null) && cached.isDescribing(parameterOids, rowDescription)) {
+      return cached;
+    }
+
+    // Cache the description (making room if full)
+    StatementMetadata described = new StatementMetadata(parameterOids, rowDescription);
+    if (this.maxStatements <= 0) {
+      return described;
+    }
+    if ((cached == null) && (this.metadata.size() >= this.maxStatements)) {
+      Iterator<StatementKey> evict = this.metadata.keySet().iterator();
+      if (evict.hasNext()) {
+        evict.next();
+        evict.remove();
+      }
+    }
+    this.metadata.put(key, described);
+    return described;
+  }
+
+  /**
+   * Obtains the number of statements cached.
+   *
+   * @return Number of statements cached.
+   */
+  public int size() {
+    return this.metadata.size();
+  }
+
+}
@@ -0,0 +1,222 @@
+package org.postgresql.sql2.communication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+
+/**
+ * TLS configuration shared by the connections of a data source.
+ *
+ * <p>Holding the {@link SSLContext} per data source (rather than per
+ * connection) and creating {@link SSLEngine} instances with the peer host and
+ * port allows TLS sessions to be resumed, so reconnects avoid the full
+ * handshake.
+ */
+public class TlsContext {
+
+  /**
+   * ALPN protocol for PostgreSQL, required by the server for direct TLS.
+   */
+  public static final String ALPN_PROTOCOL = "postgresql";
+
+  /**
+   * {@link SSLSession} value marking the session as handshaked.
+   */
+  private static final String HANDSHAKED = TlsContext.class.getName() + ".handshaked";
+
+  /**
+   * {@link SSLContext}.
+   */
+  private final SSLContext sslContext;
+
+  /**
+   * Number of full handshakes.
+   */
+  private final LongAdder fullHandshakes = new LongAdder();
+
+  /**
+   * Number of resumed handshakes.
+   */
+  private final LongAdder resumedHandshakes = new LongAdder();
+
+  /**
+   * Instantiate.
+   *
+   * <p>The {@link SSLContext} is supplied by the {@link PgSessionProperty#SSL_FACTORY}
+   * class, which must implement {@link Supplier} of {@link SSLContext}. It is
+   * constructed with the {@link PgSessionProperty#SSL_FACTORY_ARG} (if
+   * provided and it has a {@link String} constructor) or its default
+   * constructor. Without a factory a new {@link SSLContext} with the key and
+   * trust managers of the <code>javax.net.ssl</code> system properties (as
+   * the JVM's default) is used, so the session cache is not shared with the
+   * rest of the JVM.
+   *
+   * @param properties Data source properties.
+   * @throws IllegalStateException If fails to create the {@link SSLContext}.
+   */
+  public TlsContext(Map<SessionProperty, Object> properties) {
+    this.sslContext = createSslContext(properties);
+
+    // Configure the session cache
+    SSLSessionContext sessionContext = this.sslContext.getClientSessionContext();
+    Integer cacheSize = (Integer) properties.get(PgSessionProperty.SSL_SESSION_CACHE_SIZE);
+    if (cacheSize != null) {
+      sessionContext.setSessionCacheSize(cacheSize);
+    }
+    Integer timeout = (Integer) properties.get(PgSessionProperty.SSL_SESSION_TIMEOUT);
+    if (timeout != null) {
+      sessionContext.setSessionTimeout(timeout);
+    }
+  }
+
+  /**
+   * Creates the {@link SSLContext}.
+   *
+   * @param properties Data source properties.
+   * @return {@link SSLContext}.
+   */
+  @SuppressWarnings("unchecked")
+  private static SSLContext createSslContext(Map<SessionProperty, Object> properties) {
+    Class<?> factoryClass = (Class<?>) properties.get(PgSessionProperty.SSL_FACTORY);
+    try {
+      if (factoryClass == null) {
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(createDefaultKeyManagers(), createDefaultTrustManagers(), null);
+        return context;
+      }
+
+      if (!Supplier.class.isAssignableFrom(factoryClass)) {
+        throw new IllegalStateException(PgSessionProperty.SSL_FACTORY + " " + factoryClass.getName() + " must implement "
+            + Supplier.class.getName() + "<" + SSLContext.class.getSimpleName() + ">");
+      }
+      String argument = (String) properties.get(PgSessionProperty.SSL_FACTORY_ARG);
+      Supplier<SSLContext> factory;
+      if (argument != null && !argument.isEmpty()) {
+        factory = (Supplier<SSLContext>) factoryClass.getConstructor(String.class).newInstance(argument);
+      } else {
+        factory = (Supplier<SSLContext>) factoryClass.getConstructor().newInstance();
+      }
+      return factory.get();
+
+    } catch (GeneralSecurityException | ReflectiveOperationException | IOException ex) {
+      throw new IllegalStateException("Unable to create " + SSLContext.class.getSimpleName(), ex);
+    }
+  }
+
+  /**
+   * Creates the {@link KeyManager} instances from the
+   * <code>javax.net.ssl.keyStore</code> system properties (as per the
+   * JVM's default {@link SSLContext}), so a client certificate is presented.
+   *
+   * @return {@link KeyManager} instances.
+   * @throws GeneralSecurityException If fails to load the key store.
+   * @throws IOException              If fails to read the key store.
+   */
+  private static KeyManager[] createDefaultKeyManagers() throws GeneralSecurityException, IOException {
+    String location = System.getProperty("javax.net.ssl.keyStore", "");
+    String type = System.getProperty("javax.net.ssl.keyStoreType", KeyStore.getDefaultType());
+    String password = System.getProperty("javax.net.ssl.keyStorePassword");
+    char[] passwordChars = (password == null) ? null : password.toCharArray();
+    KeyStore keyStore = null;
+    if (!location.isEmpty() && !"NONE".equals(location)) {
+      keyStore = KeyStore.getInstance(type);
+      try (InputStream input = Files.newInputStream(Paths.get(location))) {
+        keyStore.load(input, passwordChars);
+      }
+    }
+    KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    factory.init(keyStore, passwordChars);
+    return factory.getKeyManagers();
+  }
+
+  /**
+   * Creates the {@link TrustManager} instances from the
+   * <code>javax.net.ssl.trustStore</code> system properties (or the JVM's
+   * default trusted certificates).
+   *
+   * @return {@link TrustManager} instances.
+   * @throws GeneralSecurityException If fails to load the trust store.
+   */
+  private static TrustManager[] createDefaultTrustManagers() throws GeneralSecurityException {
+    TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    factory.init((KeyStore) null);
+    return factory.getTrustManagers();
+  }
+
+  /**
+   * Creates a client {@link SSLEngine} for the peer.
+   *
+   * <p>The {@link #ALPN_PROTOCOL} is always offered (as libpq does), so the
+   * same engine configuration serves both negotiated and direct TLS.
+   *
+   * @param host Host of the server.
+   * @param port Port of the server.
+   * @return {@link SSLEngine}.
+   */
+  public SSLEngine createSslEngine(String host, int port) {
+    SSLEngine engine = this.sslContext.createSSLEngine(host, port);
+    engine.setUseClientMode(true);
+    SSLParameters parameters = engine.getSSLParameters();
+    parameters.setApplicationProtocols(new String[] { ALPN_PROTOCOL });
+    engine.setSSLParameters(parameters);
+    return engine;
+  }
+
+  /**
+   * Creates the callback to record the handshake of an {@link SSLEngine}.
+   *
+   * <p>Sessions are marked on their first handshake. A resumed handshake
+   * continues a marked session (the client session cache keeps the session,
+   * or for TLS 1.3 a copy sharing its values), so is identified without
+   * searching the session cache.
+   *
+   * @return Callback on handshake completing.
+   */
+  public Consumer<SSLSession> createHandshakeCallback() {
+    return (session) -> {
+      if (session.getValue(HANDSHAKED) != null) {
+        this.resumedHandshakes.increment();
+      } else {
+        session.putValue(HANDSHAKED, Boolean.TRUE);
+        this.fullHandshakes.increment();
+      }
+    };
+  }
+
+  /**
+   * Obtains the number of full handshakes.
+   *
+   * @return Number of full handshakes.
+   */
+  public long getFullHandshakes() {
+    return this.fullHandshakes.sum();
+  }
+
+  /**
+   * Obtains the number of resumed handshakes.
+   *
+   * @return Number of resumed handshakes.
+   */
+  public long getResumedHandshakes() {
+    return this.resumedHandshakes.sum();
+  }
+
+}
@@ -1,12 +1,10 @@
 package org.postgresql.sql2.communication.network;
 
 import java.util.concurrent.CompletableFuture;
-import org.postgresql.sql2.PgSessionProperty;
 import org.postgresql.sql2.communication.BeFrame;
 import org.postgresql.sql2.communication.NetworkReadContext;
 import org.postgresql.sql2.communication.NetworkResponse;
 import org.postgresql.sql2.communication.packets.AuthenticationRequest;
-import org.postgresql.sql2.communication.packets.ParameterStatus;
 import org.postgresql.sql2.submissions.ConnectSubmission;
 
 import java.io.IOException;
@@ -36,7 +34,11 @@ public class AuthenticationResponse implements NetworkResponse {
         switch (authentication.getType()) {
 
           case SUCCESS:
-            // Connected, so trigger any waiting submissions
+            // Connected, so warm up before any waiting submissions
+            WarmUpRequest warmUp = WarmUpRequest.forConnection(context);
+            if (warmUp != null) {
+              context.write(warmUp);
+            }
             connectSubmission.finish(null);
             return this;
 
@@ -44,12 +46,6 @@ public class AuthenticationResponse implements NetworkResponse {
             throw new IllegalStateException("Unhandled authentication " + authentication.getType());
         }
 
-      case PARAM_STATUS:
-        // Load parameters for connection
-        ParameterStatus paramStatus = new ParameterStatus(frame.getPayload());
-        context.setProperty(PgSessionProperty.lookup(paramStatus.getName()), paramStatus.getValue());
-        return this;
-
       case CANCELLATION_KEY_DATA:
         // TODO handle cancellation key
         return this;
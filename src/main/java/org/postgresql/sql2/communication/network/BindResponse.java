@@ -19,6 +19,7 @@ public class BindResponse extends AbstractPortalResponse {
 
   @Override
   public NetworkResponse read(NetworkReadContext context) throws IOException {
+    portal.flagResponse();
     BeFrame frame = context.getBeFrame();
     switch (frame.getTag()) {
 
@@ -0,0 +1,56 @@
+package org.postgresql.sql2.communication.network;
+
+import org.postgresql.sql2.communication.NetworkRequest;
+import org.postgresql.sql2.communication.NetworkResponse;
+import org.postgresql.sql2.communication.NetworkWriteContext;
+
+/**
+ * Writes a {@link NetworkRequest} (and its further {@link NetworkRequest}
+ * instances) followed by another {@link NetworkRequest}, so that nothing else
+ * is written between them.
+ */
+public class ChainedRequest implements NetworkRequest {
+
+  /**
+   * Current {@link NetworkRequest}.
+   */
+  private final NetworkRequest current;
+
+  /**
+   * {@link NetworkRequest} to follow once the current completes.
+   */
+  private final NetworkRequest then;
+
+  /**
+   * Instantiate.
+   * 
+   * @param current Current {@link NetworkRequest}.
+   * @param then    {@link NetworkRequest} to follow once the current (and its
+   *                further {@link NetworkRequest} instances) are written.
+   */
+  public ChainedRequest(NetworkRequest current, NetworkRequest then) {
+    this.current = current;
+    this.then = then;
+  }
+
+  /*
+   * ================== NetworkRequest ========================
+   */
+
+  @Override
+  public NetworkRequest write(NetworkWriteContext context) throws Exception {
+    NetworkRequest next = current.write(context);
+    return (next == null) ? then : new ChainedRequest(next, then);
+  }
+
+  @Override
+  public boolean isBlocking() {
+    return current.isBlocking();
+  }
+
+  @Override
+  public NetworkResponse getRequiredResponse() {
+    return current.getRequiredResponse();
+  }
+
+}
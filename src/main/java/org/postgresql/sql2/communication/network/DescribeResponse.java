@@ -3,7 +3,7 @@ package org.postgresql.sql2.communication.network;
 import org.postgresql.sql2.communication.BeFrame;
 import org.postgresql.sql2.communication.NetworkReadContext;
 import org.postgresql.sql2.communication.NetworkResponse;
-import org.postgresql.sql2.communication.packets.RowDescription;
+import org.postgresql.sql2.communication.packets.ParameterDescription;
 
 import java.io.IOException;
 
@@ -14,24 +14,31 @@ import java.io.IOException;
  */
 public class DescribeResponse extends AbstractPortalResponse {
 
+  /**
+   * Oids of the parameters.
+   */
+  private int[] parameterOids = new int[0];
+
   public DescribeResponse(Portal portal) {
     super(portal);
   }
 
   @Override
   public NetworkResponse read(NetworkReadContext context) throws IOException {
+    portal.flagResponse();
     BeFrame frame = context.getBeFrame();
     switch (frame.getTag()) {
 
       case NO_DATA:
+        described(context, null);
         return null;
 
       case PARAM_DESCRIPTION:
+        parameterOids = new ParameterDescription(frame.getPayload()).getOids();
         return this; // wait on row description
 
       case ROW_DESCRIPTION:
-        RowDescription rowDescription = new RowDescription(frame.getPayload());
-        portal.getQuery().setRowDescription(rowDescription);
+        described(context, frame.getPayload());
         return null; // nothing further
 
       default:
@@ -39,4 +46,17 @@ public class DescribeResponse extends AbstractPortalResponse {
     }
   }
 
+  /**
+   * Specifies the {@link org.postgresql.sql2.communication.StatementMetadata}
+   * of the described {@link Query}.
+   *
+   * @param context        {@link NetworkReadContext}.
+   * @param rowDescription <code>RowDescription</code> payload. <code>null</code>
+   *                       if no rows.
+   */
+  private void described(NetworkReadContext context, byte[] rowDescription) {
+    Query query = portal.getQuery();
+    query.setMetadata(context.getPreparedStatementCache().described(query.getStatementKey(), parameterOids, rowDescription));
+  }
+
 }
\ No newline at end of file
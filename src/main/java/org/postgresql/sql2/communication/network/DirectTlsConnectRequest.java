@@ -0,0 +1,107 @@
+package org.postgresql.sql2.communication.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import javax.net.ssl.SSLHandshakeException;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.communication.NetworkConnect;
+import org.postgresql.sql2.communication.NetworkConnectContext;
+import org.postgresql.sql2.communication.NetworkRequest;
+import org.postgresql.sql2.communication.NetworkResponse;
+import org.postgresql.sql2.submissions.ConnectSubmission;
+
+/**
+ * Connects with direct TLS, starting the handshake (with ALPN "postgresql")
+ * as soon as connected rather than first sending an SSLRequest and awaiting
+ * the server's response.
+ *
+ * <p>Servers before PostgreSQL 17 drop the connection on receiving the TLS
+ * handshake, so fallback to negotiating TLS is optionally available. This
+ * is only on the server rejecting the handshake, so not on failing to
+ * connect nor on failing to trust the server.
+ */
+public class DirectTlsConnectRequest implements NetworkConnect {
+
+  /**
+   * {@link ConnectSubmission}.
+   */
+  private final ConnectSubmission connectSubmission;
+
+  /**
+   * Indicates to fallback to negotiating TLS on failure.
+   */
+  private final boolean isFallback;
+
+  /**
+   * Instantiate.
+   *
+   * @param connectSubmission {@link ConnectSubmission}.
+   * @param isFallback        Indicates to fallback to negotiating TLS on
+   *                          failure.
+   */
+  public DirectTlsConnectRequest(ConnectSubmission connectSubmission, boolean isFallback) {
+    this.connectSubmission = connectSubmission;
+    this.isFallback = isFallback;
+  }
+
+  /*
+   * =================== NetworkConnect ====================
+   */
+
+  @Override
+  public void connect(NetworkConnectContext context) throws IOException {
+    // Undertake connecting
+    Map<SessionProperty, Object> properties = context.getProperties();
+    context.getSocketChannel().connect(new InetSocketAddress((String) properties.get(PgSessionProperty.HOST),
+        (Integer) properties.get(PgSessionProperty.PORT)));
+  }
+
+  @Override
+  public NetworkRequest finishConnect(NetworkConnectContext context) throws IOException {
+
+    // Handle completion of connect
+    if (!context.getSocketChannel().finishConnect()) {
+      throw new IOException("Failure to finish connection");
+    }
+
+    // Start TLS immediately (handshake undertaken on writing start up)
+    context.startTls();
+    return new NetworkConnectRequest(this.connectSubmission);
+  }
+
+  @Override
+  public NetworkConnect fallback(Throwable failure) {
+    if (!this.isFallback || isHandshakeFailure(failure)) {
+      return null;
+    }
+    return new TlsConnectRequest(this.connectSubmission, failure);
+  }
+
+  @Override
+  public NetworkResponse handleException(Throwable ex) {
+    Portal.doHandleException(this.connectSubmission, ex);
+    return null;
+  }
+
+  /**
+   * Determines if the failure is from a TLS server failing the handshake (e.g.
+   * alert received or certificate not trusted), rather than the server not
+   * understanding TLS (closing the connection or responding with a non TLS
+   * message).
+   *
+   * @param failure Failure.
+   * @return <code>true</code> if TLS handshake failure.
+   */
+  static boolean isHandshakeFailure(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if ((cause instanceof SSLHandshakeException) || (cause instanceof GeneralSecurityException)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
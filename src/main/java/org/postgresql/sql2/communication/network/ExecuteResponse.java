@@ -5,6 +5,7 @@ import java.io.IOException;
 import org.postgresql.sql2.communication.BeFrame;
 import org.postgresql.sql2.communication.NetworkReadContext;
 import org.postgresql.sql2.communication.NetworkResponse;
+import org.postgresql.sql2.communication.StatementMetadata;
 import org.postgresql.sql2.communication.packets.CommandComplete;
 import org.postgresql.sql2.communication.packets.DataRow;
 
@@ -21,17 +22,20 @@ public class ExecuteResponse extends AbstractPortalResponse {
 
   @Override
   public NetworkResponse read(NetworkReadContext context) throws IOException {
+    portal.flagResponse();
     BeFrame frame = context.getBeFrame();
     switch (frame.getTag()) {
 
       case DATA_ROW:
-        DataRow dataRow = new DataRow(frame.getPayload(), portal.getQuery().getRowDescription().getDescriptions(),
+        StatementMetadata metadata = portal.getQuery().getMetadata();
+        DataRow dataRow = new DataRow(frame.getPayload(), metadata.getColumns(), metadata.getColumnIndexes(),
             portal.nextRowNumber());
         portal.addDataRow(dataRow);
         return this;
 
       case COMMAND_COMPLETE:
         CommandComplete complete = new CommandComplete(frame.getPayload());
+        portal.recordComplete(context.getMetrics(), context.getSlowOperationLog(), context.getServerParameters(), complete);
         portal.commandComplete(complete, context.getSocketChannel());
         return this;
 
@@ -77,10 +77,19 @@ public class NetworkConnectRequest implements NetworkConnect, NetworkRequest, Ne
     wire.write(((String) properties.get(AdbaSessionProperty.USER)));
     wire.write("database");
     wire.write(((String) properties.get(PgSessionProperty.DATABASE)));
-    wire.write("application_name");
-    wire.write("java_sql2_client");
     wire.write("client_encoding");
     wire.write("UTF8");
+
+    // Session settings in start up, avoiding a round trip to SET them
+    writeParameter(wire, "application_name", properties.get(PgSessionProperty.APPLICATION_NAME));
+    writeParameter(wire, "search_path", properties.get(PgSessionProperty.CURRENT_SCHEMA));
+    writeParameter(wire, "statement_timeout", properties.get(PgSessionProperty.STATEMENT_TIMEOUT));
+    Object readOnly = properties.get(PgSessionProperty.READ_ONLY);
+    if ((readOnly != null) && Boolean.parseBoolean(readOnly.toString())) {
+      writeParameter(wire, "default_transaction_read_only", "on");
+    }
+    writeParameter(wire, "extra_float_digits", properties.get(PgSessionProperty.EXTRA_FLOAT_DIGITS));
+    writeParameter(wire, "options", properties.get(PgSessionProperty.OPTIONS));
     wire.writeTerminator();
     wire.completePacket();
 
@@ -88,6 +97,23 @@ public class NetworkConnectRequest implements NetworkConnect, NetworkRequest, Ne
     return null;
   }
 
+  /**
+   * Writes the start up parameter.
+   *
+   * @param wire  {@link NetworkOutputStream}.
+   * @param name  Name of the parameter.
+   * @param value Value of the parameter. Not written if <code>null</code> or
+   *              empty.
+   * @throws IOException If fails to write the parameter.
+   */
+  private static void writeParameter(NetworkOutputStream wire, String name, Object value) throws IOException {
+    if ((value == null) || value.toString().isEmpty()) {
+      return;
+    }
+    wire.write(name);
+    wire.write(value.toString());
+  }
+
   @Override
   public boolean isBlocking() {
     return true;
@@ -110,12 +136,24 @@ public class NetworkConnectRequest implements NetworkConnect, NetworkRequest, Ne
         switch (authentication.getType()) {
 
           case MD5:
-            // Password authentication required
-            context.write(new PasswordRequest(authentication, connectSubmission));
+            // Password authentication required (hashing off the loop)
+            PasswordRequest passwordRequest = new PasswordRequest(authentication, connectSubmission);
+            Map<SessionProperty, Object> properties = context.getProperties();
+            context.executeTask(() -> passwordRequest.encodePassword(properties), this);
+            context.write(passwordRequest);
+            return null;
+
+          case SASL:
+            // SCRAM authentication required
+            context.write(new ScramRequest(authentication, connectSubmission, context.getSslSession()));
             return null;
 
           case SUCCESS:
-            // Connected, so trigger any waiting submissions
+            // Connected, so warm up and trigger any waiting submissions
+            WarmUpRequest warmUp = WarmUpRequest.forConnection(context);
+            if (warmUp != null) {
+              context.write(warmUp);
+            }
             context.writeRequired();
             return new AuthenticationResponse(connectSubmission);
 
@@ -6,6 +6,7 @@ import org.postgresql.sql2.communication.NetworkRequest;
 import org.postgresql.sql2.communication.NetworkResponse;
 import org.postgresql.sql2.communication.NetworkWriteContext;
 import org.postgresql.sql2.communication.PreparedStatementCache;
+import org.postgresql.sql2.communication.StatementMetadata;
 import org.postgresql.sql2.operations.helpers.ParameterHolder;
 import org.postgresql.sql2.operations.helpers.QueryParameter;
 import org.postgresql.sql2.util.BinaryHelper;
@@ -29,18 +30,20 @@ public class ParseRequest<T> implements NetworkRequest {
 
   @Override
   public NetworkRequest write(NetworkWriteContext context) throws Exception {
+    portal.flagWritten();
+
+    // Obtain the prepared statement cache
+    PreparedStatementCache cache = context.getPreparedStatementCache();
 
     // Determine if already query
     Query query = portal.getQuery();
     if (query == null) {
 
-      // Obtain the prepared statement cache
-      PreparedStatementCache cache = context.getPreparedStatementCache();
-
-      // Obtain the query
+      // Obtain the query (unnamed if commented, as comment is per execution)
       String sql = portal.getSql();
       ParameterHolder holder = portal.getParameterHolder();
-      query = cache.getQuery(sql, holder.getParamTypes());
+      query = portal.hasSqlComment() ? cache.getUnnamedQuery(sql, holder.getParamTypes())
+          : cache.getQuery(sql, holder.getParamTypes());
 
       // Associate query to portal
       portal.setQuery(query);
@@ -48,9 +51,12 @@ public class ParseRequest<T> implements NetworkRequest {
 
     // Determine if prepare query
     if ((!query.isParsed()) && (!query.isWaitingParse())) {
+      if (!portal.hasSqlComment()) {
+        context.getMetrics().statementCacheMiss();
+      }
 
-      // Obtain the query details
-      String sql = portal.getSql();
+      // Obtain the query details (comment not part of cache key)
+      String sql = portal.getParseSql();
       ParameterHolder holder = portal.getParameterHolder();
 
       // Send the prepare packet
@@ -64,10 +70,19 @@ public class ParseRequest<T> implements NetworkRequest {
         wire.write(BinaryHelper.writeInt(qp.getOid()));
       }
       wire.completePacket();
+    } else {
+      context.getMetrics().statementCacheHit();
     }
 
-    // Determine if describe or bind
-    return new DescribeRequest<>(portal);
+    // Describe, unless statement already described
+    if (query.getMetadata() == null) {
+      StatementMetadata shared = cache.getSharedMetadata(query.getStatementKey());
+      if (shared == null) {
+        return new DescribeRequest<>(portal);
+      }
+      query.setMetadata(shared);
+    }
+    return new BindRequest<>(portal);
 
   }
 
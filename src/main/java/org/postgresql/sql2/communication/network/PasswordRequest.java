@@ -25,11 +25,29 @@ public class PasswordRequest implements NetworkRequest {
 
   private final ConnectSubmission connectSubmission;
 
+  /**
+   * Encoded password. <code>null</code> until encoded.
+   */
+  private byte[] content = null;
+
   public PasswordRequest(AuthenticationRequest authentication, ConnectSubmission connectSubmission) {
     this.authentication = authentication;
     this.connectSubmission = connectSubmission;
   }
 
+  /**
+   * Encodes the password (MD5), which is CPU intensive so may be undertaken
+   * off the loop.
+   * 
+   * @param properties {@link SessionProperty} values.
+   */
+  public void encodePassword(Map<SessionProperty, Object> properties) {
+    String username = (String) properties.get(AdbaSessionProperty.USER);
+    String password = (String) properties.get(AdbaSessionProperty.PASSWORD);
+    content = BinaryHelper.encode(username.getBytes(StandardCharsets.UTF_8),
+        password.getBytes(StandardCharsets.UTF_8), authentication.getSalt());
+  }
+
   /*
    * ==================== NetworkAction ==========================
    */
@@ -37,14 +55,10 @@ public class PasswordRequest implements NetworkRequest {
   @Override
   public NetworkRequest write(NetworkWriteContext context) throws IOException {
 
-    // Obtain the properties
-    Map<SessionProperty, Object> properties = context.getProperties();
-
-    // Create the payload (TODO determine if can reduce object creation)
-    String username = (String) properties.get(AdbaSessionProperty.USER);
-    String password = (String) properties.get(AdbaSessionProperty.PASSWORD);
-    byte[] content = BinaryHelper.encode(username.getBytes(StandardCharsets.UTF_8),
-        password.getBytes(StandardCharsets.UTF_8), authentication.getSalt());
+    // Create the payload (if not already encoded)
+    if (content == null) {
+      encodePassword(context.getProperties());
+    }
 
     // Write the request
     NetworkOutputStream wire = context.getOutputStream();
@@ -8,13 +8,19 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import jdk.incubator.sql2.SqlException;
+import org.postgresql.sql2.PgServerParameters;
 import org.postgresql.sql2.PgSubmission;
 import org.postgresql.sql2.communication.packets.CommandComplete;
 import org.postgresql.sql2.communication.packets.DataRow;
 import org.postgresql.sql2.communication.packets.ErrorPacket;
 import org.postgresql.sql2.communication.packets.parts.ErrorResponseField;
+import org.postgresql.sql2.metrics.PgFlightRecorder;
+import org.postgresql.sql2.metrics.PgMetrics;
+import org.postgresql.sql2.metrics.SlowOperationLog;
 import org.postgresql.sql2.operations.helpers.ParameterHolder;
+import org.postgresql.sql2.operations.helpers.QueryParameter;
 import org.postgresql.sql2.submissions.ArrayCountSubmission;
+import org.postgresql.sql2.tracing.PgSpan;
 import org.postgresql.sql2.util.PgCount;
 
 /**
@@ -70,14 +76,164 @@ public class Portal {
    */
   private Query query = null;
 
+  /**
+   * {@link System#nanoTime()} submitted.
+   */
+  private final long submitted;
+
+  /**
+   * {@link System#nanoTime()} written to the connection.
+   */
+  private long written = 0;
+
+  /**
+   * {@link System#nanoTime()} of first response from the server.
+   */
+  private long firstResponse = 0;
+
+  /**
+   * {@link PgFlightRecorder} query execute event.
+   */
+  private Object executeEvent = null;
+
+  /**
+   * Indicates if logged as slow (as array operations complete many commands).
+   */
+  private boolean isLoggedSlow = false;
+
+  /**
+   * {@link PgSpan}. May be <code>null</code> if not traced.
+   */
+  private final PgSpan span;
+
+  /**
+   * Comment to prepend to the SQL when prepared. May be <code>null</code>.
+   */
+  private String sqlComment = null;
+
   /**
    * Instantiate.
    * 
    * @param submission {@link PgSubmission}.
    */
   public Portal(PgSubmission<?> submission) {
+    this(submission, System.nanoTime());
+  }
+
+  /**
+   * Instantiate.
+   * 
+   * @param submission {@link PgSubmission}.
+   * @param submitted  {@link System#nanoTime()} the {@link PgSubmission} was
+   *                   submitted.
+   */
+  public Portal(PgSubmission<?> submission, long submitted) {
+    this(submission, submitted, null);
+  }
+
+  /**
+   * Instantiate.
+   * 
+   * @param submission {@link PgSubmission}.
+   * @param submitted  {@link System#nanoTime()} the {@link PgSubmission} was
+   *                   submitted.
+   * @param span       {@link PgSpan}. May be <code>null</code> if not traced.
+   */
+  public Portal(PgSubmission<?> submission, long submitted, PgSpan span) {
     name = "p" + nameIndex.incrementAndGet();
     this.submission = submission;
+    this.submitted = submitted;
+    this.span = span;
+  }
+
+  /**
+   * Specifies the comment to prepend to the SQL. As the comment is specific to
+   * this execution, the SQL is then parsed as the unnamed statement rather than
+   * prepared (so the cached statement never carries the comment).
+   * 
+   * @param sqlComment Comment (including delimiters).
+   */
+  public void setSqlComment(String sqlComment) {
+    this.sqlComment = sqlComment;
+  }
+
+  /**
+   * Indicates if the SQL has a comment for this execution.
+   * 
+   * @return <code>true</code> if the SQL has a comment.
+   */
+  boolean hasSqlComment() {
+    return sqlComment != null;
+  }
+
+  /**
+   * Flags written to the connection.
+   */
+  void flagWritten() {
+    if (written == 0) {
+      written = System.nanoTime();
+      executeEvent = PgFlightRecorder.queryExecuting();
+      if (span != null) {
+        span.stage(PgSpan.Stage.EXECUTING);
+      }
+    }
+  }
+
+  /**
+   * Flags a response received from the server.
+   */
+  void flagResponse() {
+    if (firstResponse == 0) {
+      firstResponse = System.nanoTime();
+      if (span != null) {
+        span.stage(PgSpan.Stage.RECEIVING);
+      }
+    }
+  }
+
+  /**
+   * Records the latencies on the command completing.
+   * 
+   * @param metrics          {@link PgMetrics}.
+   * @param slowOperationLog {@link SlowOperationLog}. May be <code>null</code>.
+   * @param serverParameters {@link PgServerParameters} of the connection.
+   * @param complete         {@link CommandComplete}.
+   */
+  void recordComplete(PgMetrics metrics, SlowOperationLog slowOperationLog, PgServerParameters serverParameters,
+      CommandComplete complete) {
+    PgFlightRecorder.queryExecuted(executeEvent, getSql(), complete.getNumberOfRowsAffected());
+    long completed = System.nanoTime();
+    long responded = (firstResponse == 0) ? completed : firstResponse;
+    long sent = (written == 0) ? responded : written;
+    metrics.statementCompleted(getSql(), sent - submitted, responded - sent, completed - responded);
+    if ((slowOperationLog != null) && !isLoggedSlow && slowOperationLog.isSlow(completed - submitted)) {
+      isLoggedSlow = true;
+      slowOperationLog.slowOperation(getSql(), getParameterOids(), complete.getNumberOfRowsAffected(), sent - submitted,
+          completed - sent, serverParameters);
+    }
+  }
+
+  /**
+   * Obtains the oids of the parameters (values are not retained, so not
+   * logged).
+   * 
+   * @return Oids of the parameters.
+   */
+  private int[] getParameterOids() {
+    ParameterHolder holder = getParameterHolder();
+    if (holder == null) {
+      return new int[0];
+    }
+    int[] oids = new int[holder.size()];
+    int index = 0;
+    for (QueryParameter parameter : holder.parameters()) {
+      try {
+        oids[index++] = parameter.getOid();
+      } catch (ExecutionException | InterruptedException ex) {
+        oids[index - 1] = 0; // type not resolved
+      }
+    }
+    return oids;
   }
 
   /**
@@ -89,6 +245,15 @@ public class Portal {
     return submission.getSql();
   }
 
+  /**
+   * Obtains the SQL to prepare (including any comment).
+   * 
+   * @return SQL to prepare.
+   */
+  String getParseSql() {
+    return (sqlComment == null) ? getSql() : sqlComment + getSql();
+  }
+
   /**
    * Obtains the {@link ParameterHolder}.
    * 
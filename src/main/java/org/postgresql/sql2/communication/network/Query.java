@@ -2,10 +2,15 @@ package org.postgresql.sql2.communication.network;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.postgresql.sql2.communication.packets.RowDescription;
+import org.postgresql.sql2.communication.PreparedStatementCache.StatementKey;
+import org.postgresql.sql2.communication.StatementMetadata;
 
 /**
- * Query.
+ * Query prepared on a connection.
+ * 
+ * <p>Only tracks the server side statement of the connection. The description
+ * of the statement is the {@link StatementMetadata} shared by all
+ * connections.
  * 
  * @author Daniel Sagenschneider
  */
@@ -16,6 +21,22 @@ public class Query {
    */
   private static AtomicInteger nameIndex = new AtomicInteger(0);
 
+  /**
+   * Creates a {@link Query} for the unnamed statement, which is replaced by the
+   * next parse of the unnamed statement (so is parsed for each execution).
+   * 
+   * @param key {@link StatementKey}.
+   * @return {@link Query} for the unnamed statement.
+   */
+  public static Query unnamed(StatementKey key) {
+    return new Query(key, "");
+  }
+
+  /**
+   * {@link StatementKey}.
+   */
+  private final StatementKey key;
+
   /**
    * Name for the {@link Query}.
    */
@@ -32,15 +53,43 @@ public class Query {
   private boolean isAwaitingParse = false;
 
   /**
-   * {@link RowDescription}.
+   * {@link StatementMetadata}. <code>null</code> until described for the
+   * connection.
    */
-  private RowDescription rowDescription = null;
+  private StatementMetadata metadata = null;
+
+  /**
+   * Number of uses (only by the networking thread).
+   */
+  private int uses = 0;
 
   /**
    * Instantiate.
+   * 
+   * @param key {@link StatementKey}.
    */
-  public Query() {
-    name = "q" + nameIndex.incrementAndGet();
+  public Query(StatementKey key) {
+    this(key, "q" + nameIndex.incrementAndGet());
+  }
+
+  /**
+   * Instantiate.
+   * 
+   * @param key  {@link StatementKey}.
+   * @param name Name for the {@link Query}.
+   */
+  private Query(StatementKey key, String name) {
+    this.key = key;
+    this.name = name;
+  }
+
+  /**
+   * Obtains the {@link StatementKey}.
+   * 
+   * @return {@link StatementKey}.
+   */
+  public StatementKey getStatementKey() {
+    return key;
   }
 
   /**
@@ -52,6 +101,15 @@ public class Query {
     return name;
   }
 
+  /**
+   * Records a use of the {@link Query}.
+   * 
+   * @return Number of uses, including this use.
+   */
+  public int used() {
+    return ++uses;
+  }
+
   /**
    * Indicates if parsed.
    * 
@@ -85,21 +143,28 @@ public class Query {
   }
 
   /**
-   * Obtains the {@link RowDescription}.
+   * Flags that the parse failed, so to parse again on next use.
+   */
+  void flagParseFailed() {
+    isAwaitingParse = false;
+  }
+
+  /**
+   * Obtains the {@link StatementMetadata}.
    * 
-   * @return {@link RowDescription}.
+   * @return {@link StatementMetadata}. <code>null</code> if not yet described.
    */
-  RowDescription getRowDescription() {
-    return rowDescription;
+  StatementMetadata getMetadata() {
+    return metadata;
   }
 
   /**
-   * Specifies the {@link RowDescription}.
+   * Specifies the {@link StatementMetadata}.
    * 
-   * @param rowDescription {@link RowDescription}.
+   * @param metadata {@link StatementMetadata}.
    */
-  void setRowDescription(RowDescription rowDescription) {
-    this.rowDescription = rowDescription;
+  void setMetadata(StatementMetadata metadata) {
+    this.metadata = metadata;
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,396 @@
+package org.postgresql.sql2.communication.network;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import jdk.incubator.sql2.AdbaSessionProperty;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.communication.BeFrame;
+import org.postgresql.sql2.communication.FeFrame;
+import org.postgresql.sql2.communication.NetworkOutputStream;
+import org.postgresql.sql2.communication.NetworkReadContext;
+import org.postgresql.sql2.communication.NetworkRequest;
+import org.postgresql.sql2.communication.NetworkResponse;
+import org.postgresql.sql2.communication.NetworkWriteContext;
+import org.postgresql.sql2.communication.SaltedPasswordCache;
+import org.postgresql.sql2.communication.packets.AuthenticationRequest;
+import org.postgresql.sql2.submissions.ConnectSubmission;
+import org.postgresql.sql2.util.BinaryHelper;
+
+/**
+ * {@link NetworkRequest} to provide SCRAM-SHA-256 authentication (RFC 5802,
+ * RFC 7677).
+ *
+ * <p>Undertakes each step of the exchange as a request/response, so never
+ * blocks waiting on the server. When connected with TLS and offered by the
+ * server, SCRAM-SHA-256-PLUS binds the authentication to the TLS channel (via
+ * <code>tls-server-end-point</code>).
+ */
+public class ScramRequest implements NetworkRequest, NetworkResponse {
+
+  /**
+   * SCRAM-SHA-256 mechanism.
+   */
+  public static final String SCRAM_SHA_256 = "SCRAM-SHA-256";
+
+  /**
+   * SCRAM-SHA-256-PLUS mechanism (channel binding).
+   */
+  public static final String SCRAM_SHA_256_PLUS = "SCRAM-SHA-256-PLUS";
+
+  /**
+   * {@link SecureRandom} for the client nonce.
+   */
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  /**
+   * Step of the exchange.
+   */
+  private enum Step {
+    CLIENT_FIRST, CLIENT_FINAL
+  }
+
+  private final ConnectSubmission connectSubmission;
+
+  private final String mechanism;
+
+  /**
+   * GS2 header indicating channel binding.
+   */
+  private final String gs2Header;
+
+  /**
+   * Channel binding data. <code>null</code> if not binding to the channel.
+   */
+  private final byte[] channelBinding;
+
+  private final String clientNonce;
+
+  private final String clientFirstMessageBare;
+
+  private Step step = Step.CLIENT_FIRST;
+
+  private String clientFinalMessage;
+
+  private String authMessage;
+
+  private byte[] saltedPassword;
+
+  /**
+   * Instantiate.
+   *
+   * @param authentication    {@link AuthenticationRequest} listing the SASL
+   *                          mechanisms.
+   * @param connectSubmission {@link ConnectSubmission}.
+   * @param sslSession        {@link SSLSession}. <code>null</code> if not
+   *                          connected with TLS.
+   */
+  public ScramRequest(AuthenticationRequest authentication, ConnectSubmission connectSubmission, SSLSession sslSession) {
+    this.connectSubmission = connectSubmission;
+
+    // Determine the mechanism
+    List<String> mechanisms = parseMechanisms(authentication.getData());
+    if (!mechanisms.contains(SCRAM_SHA_256)) {
+      throw new IllegalStateException("Unsupported SASL mechanisms " + mechanisms);
+    }
+    byte[] binding = (sslSession == null) ? null : tlsServerEndPoint(sslSession);
+    if ((binding != null) && mechanisms.contains(SCRAM_SHA_256_PLUS)) {
+      this.mechanism = SCRAM_SHA_256_PLUS;
+      this.gs2Header = "p=tls-server-end-point,,";
+      this.channelBinding = binding;
+    } else {
+      this.mechanism = SCRAM_SHA_256;
+      this.gs2Header = (binding != null) ? "y,," : "n,,"; // 'y' as able but server did not offer
+      this.channelBinding = null;
+    }
+
+    // Create the client first message (server uses user from start up)
+    byte[] nonce = new byte[18];
+    RANDOM.nextBytes(nonce);
+    this.clientNonce = Base64.getEncoder().encodeToString(nonce);
+    this.clientFirstMessageBare = "n=,r=" + this.clientNonce;
+  }
+
+  /**
+   * Parses the SASL mechanisms offered by the server.
+   *
+   * @param data Data of the {@link AuthenticationRequest}.
+   * @return SASL mechanisms.
+   */
+  private static List<String> parseMechanisms(byte[] data) {
+    List<String> mechanisms = new ArrayList<>();
+    int start = 0;
+    int end;
+    while ((start < data.length) && ((end = BinaryHelper.nextNullBytePos(data, start)) > start)) {
+      mechanisms.add(new String(data, start, end - start, StandardCharsets.UTF_8));
+      start = end + 1;
+    }
+    return mechanisms;
+  }
+
+  /**
+   * Creates the <code>tls-server-end-point</code> channel binding data (RFC
+   * 5929), being the hash of the server certificate.
+   *
+   * @param sslSession {@link SSLSession}.
+   * @return Channel binding data. <code>null</code> if unable to bind to the
+   *         certificate.
+   */
+  static byte[] tlsServerEndPoint(SSLSession sslSession) {
+    try {
+      Certificate[] certificates = sslSession.getPeerCertificates();
+      if ((certificates.length == 0) || !(certificates[0] instanceof X509Certificate)) {
+        return null;
+      }
+      X509Certificate certificate = (X509Certificate) certificates[0];
+
+      // Hash as per signature (with MD5 and SHA-1 upgraded to SHA-256)
+      String signature = certificate.getSigAlgName().toUpperCase();
+      String digest;
+      if (signature.startsWith("MD5") || signature.startsWith("SHA1") || signature.startsWith("SHA256")) {
+        digest = "SHA-256";
+      } else if (signature.startsWith("SHA384")) {
+        digest = "SHA-384";
+      } else if (signature.startsWith("SHA512")) {
+        digest = "SHA-512";
+      } else {
+        return null; // hash not determinable from signature
+      }
+      return MessageDigest.getInstance(digest).digest(certificate.getEncoded());
+
+    } catch (SSLPeerUnverifiedException ex) {
+      return null;
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Unable to create channel binding", ex);
+    }
+  }
+
+  /**
+   * Calculates <code>HMAC-SHA-256</code>.
+   *
+   * @param key  Key.
+   * @param text Text.
+   * @return HMAC.
+   */
+  private static byte[] hmac(byte[] key, byte[] text) {
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(new SecretKeySpec(key, "HmacSHA256"));
+      return mac.doFinal(text);
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Unable to calculate HMAC", ex);
+    }
+  }
+
+  /**
+   * Calculates the <code>ClientProof</code>.
+   *
+   * @param saltedPassword <code>SaltedPassword</code>.
+   * @param authMessage    <code>AuthMessage</code>.
+   * @return <code>ClientProof</code>.
+   */
+  static byte[] clientProof(byte[] saltedPassword, String authMessage) {
+    try {
+      byte[] clientKey = hmac(saltedPassword, "Client Key".getBytes(StandardCharsets.UTF_8));
+      byte[] storedKey = MessageDigest.getInstance("SHA-256").digest(clientKey);
+      byte[] clientSignature = hmac(storedKey, authMessage.getBytes(StandardCharsets.UTF_8));
+      for (int i = 0; i < clientKey.length; i++) {
+        clientKey[i] ^= clientSignature[i];
+      }
+      return clientKey;
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Unable to calculate SCRAM proof", ex);
+    }
+  }
+
+  /**
+   * Calculates the <code>ServerSignature</code>.
+   *
+   * @param saltedPassword <code>SaltedPassword</code>.
+   * @param authMessage    <code>AuthMessage</code>.
+   * @return <code>ServerSignature</code>.
+   */
+  static byte[] serverSignature(byte[] saltedPassword, String authMessage) {
+    byte[] serverKey = hmac(saltedPassword, "Server Key".getBytes(StandardCharsets.UTF_8));
+    return hmac(serverKey, authMessage.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Obtains the attribute value from the SCRAM message.
+   *
+   * @param message   SCRAM message.
+   * @param attribute Attribute name.
+   * @return Attribute value. <code>null</code> if not in message.
+   */
+  private static String attribute(String message, char attribute) {
+    for (String part : message.split(",")) {
+      if ((part.length() >= 2) && (part.charAt(0) == attribute) && (part.charAt(1) == '=')) {
+        return part.substring(2);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Fails the connect.
+   *
+   * @param message Reason for failure.
+   * @return {@link IOException} to close the connection.
+   */
+  private IOException fail(String message) {
+    IOException failure = new IOException(message);
+    Portal.doHandleException(this.connectSubmission, failure);
+    return failure;
+  }
+
+  /*
+   * ==================== NetworkRequest ==========================
+   */
+
+  @Override
+  public NetworkRequest write(NetworkWriteContext context) throws IOException {
+    NetworkOutputStream wire = context.getOutputStream();
+    switch (this.step) {
+
+      case CLIENT_FIRST:
+        byte[] clientFirst = (this.gs2Header + this.clientFirstMessageBare).getBytes(StandardCharsets.UTF_8);
+        wire.write(FeFrame.FrontendTag.SASL_INITIAL_RESPONSE.getByte());
+        wire.initPacket();
+        wire.write(this.mechanism);
+        wire.write(BinaryHelper.writeInt(clientFirst.length));
+        wire.write(clientFirst);
+        wire.completePacket();
+        break;
+
+      case CLIENT_FINAL:
+        wire.write(FeFrame.FrontendTag.SASL_RESPONSE.getByte());
+        wire.initPacket();
+        wire.write(this.clientFinalMessage.getBytes(StandardCharsets.UTF_8));
+        wire.completePacket();
+        break;
+
+      default:
+        throw new IllegalStateException("Unknown SCRAM step " + this.step);
+    }
+
+    // No further immediate requests
+    return null;
+  }
+
+  @Override
+  public boolean isBlocking() {
+    return true;
+  }
+
+  @Override
+  public NetworkResponse getRequiredResponse() {
+    return this;
+  }
+
+  /*
+   * ==================== NetworkResponse ==========================
+   */
+
+  @Override
+  public NetworkResponse read(NetworkReadContext context) throws IOException {
+    BeFrame frame = context.getBeFrame();
+    if (frame.getTag() != BeFrame.BackendTag.AUTHENTICATION) {
+      throw new IllegalStateException("Invalid tag '" + frame.getTag() + "' for " + this.getClass().getSimpleName());
+    }
+    AuthenticationRequest authentication = new AuthenticationRequest(frame.getPayload());
+    String message = new String(authentication.getData(), StandardCharsets.UTF_8);
+    switch (authentication.getType()) {
+
+      case SASL_CONTINUE:
+        // Validate the server first message
+        String serverNonce = attribute(message, 'r');
+        String salt = attribute(message, 's');
+        String iterations = attribute(message, 'i');
+        if ((serverNonce == null) || (salt == null) || (iterations == null)) {
+          throw fail("Invalid SCRAM server first message: " + message);
+        }
+        if (!serverNonce.startsWith(this.clientNonce)) {
+          throw fail("SCRAM server nonce does not extend client nonce");
+        }
+
+        // Create the client final message (off the loop, as derivation is expensive)
+        Map<SessionProperty, Object> properties = context.getProperties();
+        SaltedPasswordCache cache = context.getSaltedPasswordCache();
+        context.executeTask(() -> this.createClientFinalMessage(properties, cache, message, serverNonce,
+            Base64.getDecoder().decode(salt), Integer.parseInt(iterations)), this);
+
+        // Send the client final message
+        this.step = Step.CLIENT_FINAL;
+        context.write(this);
+        return null;
+
+      case SASL_FINAL:
+        // Verify the server (ensures server also knows the password)
+        String error = attribute(message, 'e');
+        if (error != null) {
+          throw fail("SCRAM authentication failed: " + error);
+        }
+        String verifier = attribute(message, 'v');
+        if ((verifier == null) || !MessageDigest.isEqual(Base64.getDecoder().decode(verifier),
+            serverSignature(this.saltedPassword, this.authMessage))) {
+          throw fail("SCRAM server signature invalid");
+        }
+
+        // Authentication OK to follow
+        return new AuthenticationResponse(this.connectSubmission);
+
+      default:
+        throw new IllegalStateException("Unhandled authentication " + authentication.getType());
+    }
+  }
+
+  /**
+   * Creates the client final message, including deriving the
+   * <code>SaltedPassword</code> (expensive, so cached by data source).
+   *
+   * @param properties  {@link SessionProperty} values.
+   * @param cache       {@link SaltedPasswordCache}.
+   * @param serverFirst Server first message.
+   * @param serverNonce Server nonce.
+   * @param salt        Salt.
+   * @param iterations  Iterations.
+   */
+  private void createClientFinalMessage(Map<SessionProperty, Object> properties, SaltedPasswordCache cache,
+      String serverFirst, String serverNonce, byte[] salt, int iterations) {
+    String username = (String) properties.get(AdbaSessionProperty.USER);
+    String password = (String) properties.get(AdbaSessionProperty.PASSWORD);
+    this.saltedPassword = cache.getSaltedPassword(username, password, salt, iterations);
+
+    // Create the client final message
+    byte[] gs2 = this.gs2Header.getBytes(StandardCharsets.UTF_8);
+    byte[] binding = gs2;
+    if (this.channelBinding != null) {
+      binding = new byte[gs2.length + this.channelBinding.length];
+      System.arraycopy(gs2, 0, binding, 0, gs2.length);
+      System.arraycopy(this.channelBinding, 0, binding, gs2.length, this.channelBinding.length);
+    }
+    String clientFinalWithoutProof = "c=" + Base64.getEncoder().encodeToString(binding) + ",r=" + serverNonce;
+    this.authMessage = this.clientFirstMessageBare + "," + serverFirst + "," + clientFinalWithoutProof;
+    this.clientFinalMessage = clientFinalWithoutProof + ",p="
+        + Base64.getEncoder().encodeToString(clientProof(this.saltedPassword, this.authMessage));
+  }
+
+  @Override
+  public NetworkResponse handleException(Throwable ex) {
+    Portal.doHandleException(this.connectSubmission, ex);
+    return null;
+  }
+
+}
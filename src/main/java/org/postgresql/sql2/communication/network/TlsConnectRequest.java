@@ -23,13 +23,31 @@ public class TlsConnectRequest implements NetworkConnect, NetworkRequest, Networ
    */
   private final ConnectSubmission connectSubmission;
 
+  /**
+   * Failure of the direct TLS connect this is the fallback for. May be
+   * <code>null</code>.
+   */
+  private final Throwable directTlsFailure;
+
   /**
    * Instantiate.
    *
    * @param connectSubmission {@link ConnectSubmission}.
    */
   public TlsConnectRequest(ConnectSubmission connectSubmission) {
+    this(connectSubmission, null);
+  }
+
+  /**
+   * Instantiate as fallback for direct TLS.
+   *
+   * @param connectSubmission {@link ConnectSubmission}.
+   * @param directTlsFailure  Failure of the direct TLS connect, kept as
+   *                          suppressed should this also fail.
+   */
+  public TlsConnectRequest(ConnectSubmission connectSubmission, Throwable directTlsFailure) {
     this.connectSubmission = connectSubmission;
+    this.directTlsFailure = directTlsFailure;
   }
 
   /*
@@ -93,14 +111,28 @@ public class TlsConnectRequest implements NetworkConnect, NetworkRequest, Networ
       context.writeRequired();
     } else {
       connectSubmission.getCompletionStage().toCompletableFuture()
-          .completeExceptionally(new IllegalStateException("server doesn't support TLS, but TLS was required"));
+          .completeExceptionally(withDirectTlsFailure(
+              new IllegalStateException("server doesn't support TLS, but TLS was required")));
     }
     return null;
   }
 
   @Override
   public NetworkResponse handleException(Throwable ex) {
-    Portal.doHandleException(connectSubmission, ex);
+    Portal.doHandleException(connectSubmission, withDirectTlsFailure(ex));
     return null;
   }
+
+  /**
+   * Keeps the direct TLS failure (if fallback) with the failure.
+   *
+   * @param ex Failure.
+   * @return Failure with the direct TLS failure suppressed.
+   */
+  private Throwable withDirectTlsFailure(Throwable ex) {
+    if (directTlsFailure != null && directTlsFailure != ex) {
+      ex.addSuppressed(directTlsFailure);
+    }
+    return ex;
+  }
 }
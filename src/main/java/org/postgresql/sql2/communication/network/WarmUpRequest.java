@@ -0,0 +1,199 @@
+package org.postgresql.sql2.communication.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.postgresql.sql2.communication.BeFrame;
+import org.postgresql.sql2.communication.FeFrame;
+import org.postgresql.sql2.communication.HotStatements;
+import org.postgresql.sql2.communication.NetworkContext;
+import org.postgresql.sql2.communication.NetworkOutputStream;
+import org.postgresql.sql2.communication.NetworkReadContext;
+import org.postgresql.sql2.communication.NetworkRequest;
+import org.postgresql.sql2.communication.NetworkResponse;
+import org.postgresql.sql2.communication.NetworkWriteContext;
+import org.postgresql.sql2.communication.PreparedStatementCache;
+import org.postgresql.sql2.communication.PreparedStatementCache.StatementKey;
+import org.postgresql.sql2.communication.packets.ParameterDescription;
+import org.postgresql.sql2.util.BinaryHelper;
+
+/**
+ * Prepares the {@link HotStatements} on a new connection, pipelining the
+ * <code>Parse</code> and <code>Describe</code> of each.
+ *
+ * <p>Written before any waiting submissions, which then find their
+ * {@link Query} already awaiting parse (so do not parse again). Each statement
+ * is followed by its own <code>Sync</code>, so that a statement failing to
+ * parse on this connection does not have the server skip the remaining
+ * statements that the waiting submissions are already bound to.
+ */
+public class WarmUpRequest implements NetworkRequest, NetworkResponse {
+
+  /**
+   * {@link Logger}.
+   */
+  private static final Logger LOGGER = Logger.getLogger(WarmUpRequest.class.getName());
+
+  /**
+   * Creates the {@link WarmUpRequest} for a newly authenticated connection.
+   *
+   * @param context {@link NetworkContext}.
+   * @return {@link WarmUpRequest}, or <code>null</code> if nothing to warm up.
+   */
+  public static WarmUpRequest forConnection(NetworkContext context) {
+    HotStatements hotStatements = context.getHotStatements();
+    if (hotStatements == null) {
+      return null;
+    }
+    List<StatementKey> statements = hotStatements.getHottest();
+    return statements.isEmpty() ? null : new WarmUpRequest(statements);
+  }
+
+  /**
+   * {@link StatementKey} instances to prepare.
+   */
+  private final List<StatementKey> statements;
+
+  /**
+   * {@link Query} instances being prepared.
+   */
+  private final List<Query> queries = new ArrayList<>();
+
+  /**
+   * Index of the {@link Query} awaiting its <code>ReadyForQuery</code>.
+   */
+  private int current = 0;
+
+  /**
+   * Oids of the parameters of the {@link Query} being described.
+   */
+  private int[] parameterOids = new int[0];
+
+  /**
+   * Instantiate.
+   *
+   * @param statements {@link StatementKey} instances to prepare.
+   */
+  public WarmUpRequest(List<StatementKey> statements) {
+    this.statements = statements;
+  }
+
+  /*
+   * ================== NetworkRequest ========================
+   */
+
+  @Override
+  public NetworkRequest write(NetworkWriteContext context) throws Exception {
+    PreparedStatementCache cache = context.getPreparedStatementCache();
+    NetworkOutputStream wire = context.getOutputStream();
+    for (StatementKey statement : this.statements) {
+
+      // Only prepare if not already
+      Query query = cache.getQuery(statement);
+      if (query.isParsed() || query.isWaitingParse()) {
+        continue;
+      }
+      query.flagWaitingParse();
+      this.queries.add(query);
+
+      // Send the prepare packet
+      List<Integer> paramTypes = statement.getParamTypes();
+      wire.write(FeFrame.FrontendTag.PARSE.getByte());
+      wire.initPacket();
+      wire.write(query.getQueryName());
+      wire.write(statement.getSql());
+      wire.write(BinaryHelper.writeShort((short) paramTypes.size()));
+      for (Integer oid : paramTypes) {
+        wire.write(BinaryHelper.writeInt(oid));
+      }
+      wire.completePacket();
+
+      // Send the describe packet
+      wire.write(FeFrame.FrontendTag.DESCRIBE.getByte());
+      wire.initPacket();
+      wire.write('S');
+      wire.write(query.getQueryName());
+      wire.completePacket();
+
+      // Sync for each statement (so failure only skips this statement)
+      wire.write(FeFrame.FrontendTag.SYNC.getByte());
+      wire.initPacket();
+      wire.completePacket();
+    }
+    return null;
+  }
+
+  @Override
+  public NetworkResponse getRequiredResponse() {
+    return this.queries.isEmpty() ? null : this;
+  }
+
+  /*
+   * ================== NetworkResponse ========================
+   */
+
+  @Override
+  public NetworkResponse read(NetworkReadContext context) throws IOException {
+    BeFrame frame = context.getBeFrame();
+    switch (frame.getTag()) {
+
+      case PARSE_COMPLETE:
+        this.queries.get(this.current).flagParsed();
+        return this;
+
+      case PARAM_DESCRIPTION:
+        this.parameterOids = new ParameterDescription(frame.getPayload()).getOids();
+        return this; // wait on row description
+
+      case ROW_DESCRIPTION:
+        this.described(context, frame.getPayload());
+        return this;
+
+      case NO_DATA:
+        this.described(context, null);
+        return this;
+
+      case READY_FOR_QUERY:
+        this.parameterOids = new int[0];
+        this.current++;
+        return (this.current < this.queries.size()) ? this : null; // null once warmed up
+
+      default:
+        throw new IllegalStateException("Invalid tag '" + frame.getTag() + "' for " + this.getClass().getSimpleName());
+    }
+  }
+
+  /**
+   * Specifies the {@link org.postgresql.sql2.communication.StatementMetadata}
+   * of the described {@link Query}.
+   *
+   * @param context        {@link NetworkReadContext}.
+   * @param rowDescription <code>RowDescription</code> payload. <code>null</code>
+   *                       if no rows.
+   */
+  private void described(NetworkReadContext context, byte[] rowDescription) {
+    Query query = this.queries.get(this.current);
+    query.setMetadata(context.getPreparedStatementCache().described(query.getStatementKey(), this.parameterOids,
+        rowDescription));
+  }
+
+  @Override
+  public NetworkResponse handleException(Throwable ex) {
+    if (this.current >= this.queries.size()) {
+      return null; // not failure of a statement
+    }
+    Query query = this.queries.get(this.current);
+    if (LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.log(Level.FINE, "Failed to warm up statement " + query.getStatementKey().getSql(), ex);
+    }
+
+    // Parse again on use (bound submissions fail, as their parse would have)
+    if (!query.isParsed()) {
+      query.flagParseFailed();
+    }
+    return this; // await ready for query
+  }
+
+}
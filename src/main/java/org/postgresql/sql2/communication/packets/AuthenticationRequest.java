@@ -40,6 +40,7 @@ public class AuthenticationRequest {
 
   private Types type;
   private byte[] salt = new byte[4];
+  private byte[] data;
 
   /**
    * describes the authentication type and salt.
@@ -52,6 +53,8 @@ public class AuthenticationRequest {
       salt[1] = bytes[5];
       salt[2] = bytes[6];
       salt[3] = bytes[7];
+    } else if (type == Types.SASL || type == Types.SASL_CONTINUE || type == Types.SASL_FINAL) {
+      data = BinaryHelper.subBytes(bytes, 4, bytes.length);
     }
   }
 
@@ -62,4 +65,12 @@ public class AuthenticationRequest {
   public Types getType() {
     return type;
   }
+
+  /**
+   * the SASL mechanisms, or the SASL challenge data from the server.
+   * @return the SASL data, or null if not a SASL packet
+   */
+  public byte[] getData() {
+    return data;
+  }
 }
@@ -23,23 +23,47 @@ public class DataRow implements Result.RowColumn, Result.OutColumn {
    * @param rowNumber current row number in the result set
    */
   public DataRow(byte[] bytes, ColumnDescription[] description, long rowNumber) {
+    this(bytes, description, indexColumns(description), rowNumber);
+  }
+
+  /**
+   * parses the bytes that describe one data row in a result set, sharing the column name lookup of the statement.
+   * @param bytes bytes to parse
+   * @param description the descriptions of the columns
+   * @param columnNames column positions by lower case name (as per {@link #indexColumns(ColumnDescription[])}), not
+   *                    modified by the row
+   * @param rowNumber current row number in the result set
+   */
+  public DataRow(byte[] bytes, ColumnDescription[] description, Map<String, Integer> columnNames, long rowNumber) {
     this.rowNumber = rowNumber;
+    this.columnNames = columnNames;
 
     short numOfColumns = BinaryHelper.readShort(bytes[0], bytes[1]);
     int pos = 2;
     int columnPos = 1;
     columns = new HashMap<>(numOfColumns);
-    columnNames = new HashMap<>(numOfColumns);
     for (int i = 0; i < numOfColumns; i++) {
       int length = BinaryHelper.readInt(bytes[pos], bytes[pos + 1], bytes[pos + 2], bytes[pos + 3]);
       pos += 4;
-      columnNames.put(description[i].getName().toLowerCase(), columnPos);
       columns.put(columnPos, new TableCell(bytes, pos, pos + length, description[i]));
       pos += length;
       columnPos++;
     }
   }
 
+  /**
+   * indexes the columns by lower case name.
+   * @param description the descriptions of the columns
+   * @return column positions by lower case name
+   */
+  public static Map<String, Integer> indexColumns(ColumnDescription[] description) {
+    Map<String, Integer> columnNames = new HashMap<>(description.length);
+    for (int i = 0; i < description.length; i++) {
+      columnNames.put(description[i].getName().toLowerCase(), i + 1);
+    }
+    return columnNames;
+  }
+
   @Override
   public long rowNumber() {
     return rowNumber;
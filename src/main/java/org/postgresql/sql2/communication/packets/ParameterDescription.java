@@ -0,0 +1,25 @@
+package org.postgresql.sql2.communication.packets;
+
+import org.postgresql.sql2.util.BinaryHelper;
+
+public class ParameterDescription {
+  private int[] oids;
+
+  /**
+   * parses the parameter description.
+   * @param bytes bytes from the server to parse
+   */
+  public ParameterDescription(byte[] bytes) {
+    short numOfParameters = BinaryHelper.readShort(bytes[0], bytes[1]);
+    int pos = 2;
+    oids = new int[numOfParameters];
+    for (int i = 0; i < numOfParameters; i++) {
+      oids[i] = BinaryHelper.readInt(bytes[pos], bytes[pos + 1], bytes[pos + 2], bytes[pos + 3]);
+      pos += 4;
+    }
+  }
+
+  public int[] getOids() {
+    return oids;
+  }
+}
@@ -1,5 +1,6 @@
 package org.postgresql.sql2.communication.packets;
 
+import java.nio.charset.StandardCharsets;
 import org.postgresql.sql2.util.BinaryHelper;
 
 public class ParameterStatus {
@@ -12,7 +13,7 @@ public class ParameterStatus {
    */
   public ParameterStatus(byte[] payload) {
     int firstNullPos = 0;
-    int secondNullPos = 0;
+    int secondNullPos = payload.length;
 
     for (int i = 0; i < payload.length; i++) {
       if (payload[i] == 0) {
@@ -21,15 +22,15 @@ public class ParameterStatus {
       }
     }
 
-    for (int i = firstNullPos; i < payload.length; i++) {
+    for (int i = firstNullPos + 1; i < payload.length; i++) {
       if (payload[i] == 0) {
         secondNullPos = i;
         break;
       }
     }
 
-    name = new String(BinaryHelper.subBytes(payload, 0, firstNullPos));
-    value = new String(BinaryHelper.subBytes(payload, firstNullPos, secondNullPos));
+    name = new String(BinaryHelper.subBytes(payload, 0, firstNullPos), StandardCharsets.UTF_8);
+    value = new String(BinaryHelper.subBytes(payload, firstNullPos + 1, secondNullPos), StandardCharsets.UTF_8);
   }
 
   public String getName() {
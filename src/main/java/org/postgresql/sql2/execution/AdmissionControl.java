@@ -0,0 +1,458 @@
+package org.postgresql.sql2.execution;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import jdk.incubator.sql2.SessionProperty;
+import jdk.incubator.sql2.SqlException;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.buffer.ByteBufferPool;
+import org.postgresql.sql2.metrics.PgFlightRecorder;
+
+/**
+ * Bounds the number of submissions in flight, so that overload turns into
+ * latency (or fast failure) rather than unbounded queues.
+ *
+ * <p>Submissions beyond the in flight limit wait for admission, up to the
+ * queued limit. Beyond the queued limit (or if failing fast) submissions are
+ * rejected.
+ *
+ * <p>Submissions are also not admitted while the {@link ByteBufferPool} is
+ * exhausted. They wait (up to the configured wait) for buffers to be released,
+ * and then fail. This applies the memory cap to the submission, rather than to
+ * the {@link NioLoop} thread acquiring the buffers (which must not block).
+ *
+ * <p>Submissions are dispatched in the order submitted. This includes those
+ * not taking an in flight slot (e.g. close), so they do not overtake
+ * submissions still waiting for admission.
+ */
+public class AdmissionControl {
+
+  /**
+   * Creates the {@link AdmissionControl} for a session.
+   *
+   * @param properties Session properties.
+   * @param parent     {@link AdmissionControl} of the data source. May be
+   *                   <code>null</code>.
+   * @return {@link AdmissionControl} for the session.
+   */
+  public static AdmissionControl forSession(Map<SessionProperty, Object> properties, AdmissionControl parent) {
+    return new AdmissionControl(getInt(properties, PgSessionProperty.MAX_IN_FLIGHT),
+        getInt(properties, PgSessionProperty.MAX_QUEUED), getFailFast(properties), parent);
+  }
+
+  /**
+   * Creates the {@link AdmissionControl} for a data source.
+   *
+   * @param properties Data source properties.
+   * @param bufferPool {@link ByteBufferPool} of the data source.
+   * @return {@link AdmissionControl} for the data source.
+   */
+  public static AdmissionControl forDataSource(Map<SessionProperty, Object> properties, ByteBufferPool bufferPool) {
+    return new AdmissionControl(getInt(properties, PgSessionProperty.DATA_SOURCE_MAX_IN_FLIGHT),
+        getInt(properties, PgSessionProperty.DATA_SOURCE_MAX_QUEUED), getFailFast(properties), null, bufferPool,
+        TimeUnit.MILLISECONDS.toNanos(getInt(properties, PgSessionProperty.BYTE_BUFFER_POOL_MAX_WAIT)));
+  }
+
+  /**
+   * Obtains the integer property value (falling back to its default).
+   *
+   * @param properties Properties.
+   * @param property   {@link PgSessionProperty}.
+   * @return Value.
+   */
+  private static int getInt(Map<SessionProperty, Object> properties, PgSessionProperty property) {
+    Object value = properties.get(property);
+    return (Integer) (value == null ? property.defaultValue() : value);
+  }
+
+  /**
+   * Obtains whether to fail fast (falling back to its default).
+   *
+   * @param properties Properties.
+   * @return <code>true</code> to fail fast.
+   */
+  private static boolean getFailFast(Map<SessionProperty, Object> properties) {
+    Object value = properties.get(PgSessionProperty.FAIL_FAST_WHEN_OVERLOADED);
+    return (Boolean) (value == null ? PgSessionProperty.FAIL_FAST_WHEN_OVERLOADED.defaultValue() : value);
+  }
+
+  /**
+   * Maximum number of submissions in flight.
+   */
+  private final int maxInFlight;
+
+  /**
+   * Maximum number of submissions waiting for admission.
+   */
+  private final int maxQueued;
+
+  /**
+   * Indicates to reject rather than queue submissions over the in flight
+   * limit.
+   */
+  private final boolean isFailFast;
+
+  /**
+   * Parent {@link AdmissionControl}. May be <code>null</code>.
+   */
+  private final AdmissionControl parent;
+
+  /**
+   * {@link ByteBufferPool} to not admit submissions while exhausted. May be
+   * <code>null</code>.
+   */
+  private final ByteBufferPool bufferPool;
+
+  /**
+   * Maximum time for a submission to wait on the exhausted
+   * {@link ByteBufferPool}.
+   */
+  private final long maxPoolWaitNanos;
+
+  /**
+   * Number of submissions in flight.
+   */
+  private int inFlight = 0;
+
+  /**
+   * Submissions waiting for admission (in order of submission).
+   */
+  private final Queue<Waiting> waiting = new ArrayDeque<>();
+
+  /**
+   * Admitted submissions to dispatch (in order of admission).
+   */
+  private final Queue<Runnable> admitted = new ArrayDeque<>();
+
+  /**
+   * Indicates if a thread is dispatching the admitted submissions.
+   */
+  private boolean isDispatching = false;
+
+  /**
+   * Indicates if registered to be notified of buffers being released.
+   */
+  private boolean isAwaitingRelease = false;
+
+  /**
+   * Instantiate.
+   *
+   * @param maxInFlight Maximum number of submissions in flight.
+   * @param maxQueued   Maximum number of submissions waiting for admission.
+   * @param isFailFast  Indicates to reject rather than queue submissions over
+   *                    the in flight limit.
+   * @param parent      Parent {@link AdmissionControl} that must also admit.
+   *                    May be <code>null</code>.
+   */
+  public AdmissionControl(int maxInFlight, int maxQueued, boolean isFailFast, AdmissionControl parent) {
+    this(maxInFlight, maxQueued, isFailFast, parent, null, 0);
+  }
+
+  /**
+   * Instantiate.
+   *
+   * @param maxInFlight      Maximum number of submissions in flight.
+   * @param maxQueued        Maximum number of submissions waiting for
+   *                         admission.
+   * @param isFailFast       Indicates to reject rather than queue submissions
+   *                         over the in flight limit.
+   * @param parent           Parent {@link AdmissionControl} that must also
+   *                         admit. May be <code>null</code>.
+   * @param bufferPool       {@link ByteBufferPool} to not admit submissions
+   *                         while exhausted. May be <code>null</code>.
+   * @param maxPoolWaitNanos Maximum time for a submission to wait on the
+   *                         exhausted {@link ByteBufferPool}.
+   */
+  public AdmissionControl(int maxInFlight, int maxQueued, boolean isFailFast, AdmissionControl parent,
+      ByteBufferPool bufferPool, long maxPoolWaitNanos) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("max in flight must be at least 1, but was " + maxInFlight);
+    }
+    this.maxInFlight = maxInFlight;
+    this.maxQueued = Math.max(0, maxQueued);
+    this.isFailFast = isFailFast;
+    this.parent = parent;
+    this.bufferPool = bufferPool;
+    this.maxPoolWaitNanos = Math.max(0, maxPoolWaitNanos);
+  }
+
+  /**
+   * Admits the submission.
+   *
+   * @param dispatch Dispatches the submission once admitted. The submission
+   *                 must invoke {@link #release()} on completing.
+   * @param reject   Rejects the submission as overloaded.
+   */
+  public void admit(Runnable dispatch, Consumer<Throwable> reject) {
+
+    // Ensure parent also admits
+    Runnable admitted = this.parent == null ? dispatch : () -> this.parent.admit(dispatch, (ex) -> {
+      this.releaseSlot();
+      reject.accept(ex);
+    });
+
+    // Determine admission
+    synchronized (this) {
+      boolean isSlot = this.waiting.isEmpty() && (this.inFlight < this.maxInFlight);
+      if (isSlot && (!this.isPoolExhausted())) {
+        this.inFlight++;
+        this.admitted.add(admitted);
+
+      } else if ((this.isFailFast && !isSlot) || (this.waiting.size() >= this.maxQueued)) {
+        admitted = null;
+
+      } else {
+        // Wait for admission
+        this.waiting.add(new Waiting(admitted, reject));
+        if (this.waiting.size() > 1) {
+          return; // admitted after those before
+        }
+      }
+    }
+
+    // Dispatch, reject or wait (possibly only on pool)
+    if (admitted == null) {
+      reject.accept(new SqlException("Overloaded with " + this.maxInFlight + " submissions in flight"
+          + (this.isFailFast ? "" : " and " + this.maxQueued + " queued"), null, null, -1, null, -1));
+    } else {
+      this.admitWaiting();
+    }
+  }
+
+  /**
+   * Dispatches the submission in order with the other submissions, but without
+   * taking an in flight slot. Used for submissions that must not be rejected
+   * nor overtake waiting submissions (e.g. close).
+   *
+   * @param dispatch Dispatches the submission.
+   */
+  public void pass(Runnable dispatch) {
+
+    // Ensure also in order with parent
+    Runnable passed = this.parent == null ? dispatch : () -> this.parent.pass(dispatch);
+
+    // Dispatch once submissions before have been admitted
+    synchronized (this) {
+      if (!this.waiting.isEmpty()) {
+        this.waiting.add(new Waiting(passed, null));
+        return;
+      }
+      this.admitted.add(passed);
+    }
+    this.dispatchAdmitted();
+  }
+
+  /**
+   * Releases an admitted submission, admitting the next waiting submission.
+   */
+  public void release() {
+    if (this.parent != null) {
+      this.parent.release();
+    }
+    this.releaseSlot();
+  }
+
+  /**
+   * Obtains the number of submissions in flight.
+   *
+   * @return Number of submissions in flight.
+   */
+  public synchronized int getInFlight() {
+    return this.inFlight;
+  }
+
+  /**
+   * Obtains the number of submissions waiting for admission.
+   *
+   * @return Number of submissions waiting for admission.
+   */
+  public synchronized int getQueued() {
+    return this.waiting.size();
+  }
+
+  /**
+   * Releases only the in flight slot of this {@link AdmissionControl}.
+   */
+  private void releaseSlot() {
+    synchronized (this) {
+      this.inFlight--;
+    }
+    this.admitWaiting();
+  }
+
+  /**
+   * Indicates if the {@link ByteBufferPool} is exhausted.
+   *
+   * @return <code>true</code> if exhausted.
+   */
+  private boolean isPoolExhausted() {
+    return (this.bufferPool != null) && this.bufferPool.isExhausted();
+  }
+
+  /**
+   * Admits the waiting submissions (in order) while there is capacity, and
+   * dispatches them.
+   */
+  private void admitWaiting() {
+    List<Waiting> expired = null;
+    boolean isAwaitPool = false;
+    synchronized (this) {
+      Waiting next;
+      while ((next = this.waiting.peek()) != null) {
+        if (next.reject != null) {
+
+          // Requires an in flight slot
+          if (this.inFlight >= this.maxInFlight) {
+            break;
+          }
+
+          // Requires buffers
+          if (this.isPoolExhausted()) {
+            long now = System.nanoTime();
+            if (!next.isWaitingPool) {
+              next.isWaitingPool = true;
+              next.exhaustedEvent = PgFlightRecorder.bufferPoolExhausted();
+              next.poolDeadline = now + this.maxPoolWaitNanos;
+              isAwaitPool = this.maxPoolWaitNanos > 0;
+            }
+            if ((now - next.poolDeadline) < 0) {
+              break; // wait on the pool
+            }
+
+            // Waited too long on the pool
+            this.waiting.poll();
+            if (expired == null) {
+              expired = new ArrayList<>();
+            }
+            expired.add(next);
+            continue;
+          }
+          this.inFlight++;
+        }
+        this.waiting.poll();
+        PgFlightRecorder.bufferPoolWaited(next.exhaustedEvent, true);
+        this.admitted.add(next.dispatch);
+      }
+    }
+
+    // Wait on pool (outside lock, as may be notified immediately)
+    if (isAwaitPool) {
+      this.awaitPool();
+    }
+
+    // Reject those waited too long on the pool
+    if (expired != null) {
+      for (Waiting reject : expired) {
+        PgFlightRecorder.bufferPoolWaited(reject.exhaustedEvent, false);
+        reject.reject.accept(new SqlException("Buffer pool exhausted, with no buffers released within "
+            + TimeUnit.NANOSECONDS.toMillis(this.maxPoolWaitNanos) + " milliseconds", null, null, -1, null, -1));
+      }
+    }
+    this.dispatchAdmitted();
+  }
+
+  /**
+   * Awaits buffers to be released (or the wait to expire) to admit the waiting
+   * submissions.
+   */
+  private void awaitPool() {
+    CompletableFuture.delayedExecutor(this.maxPoolWaitNanos, TimeUnit.NANOSECONDS).execute(this::admitWaiting);
+    synchronized (this) {
+      if (this.isAwaitingRelease) {
+        return; // already notified on release
+      }
+      this.isAwaitingRelease = true;
+    }
+    this.bufferPool.whenReleased(() -> {
+      synchronized (this) {
+        this.isAwaitingRelease = false;
+      }
+      this.admitWaiting();
+    });
+  }
+
+  /**
+   * Dispatches the admitted submissions. Only one thread dispatches at a time,
+   * so submissions are dispatched in the order admitted (and a dispatch that
+   * completes another submission does not recurse).
+   */
+  private void dispatchAdmitted() {
+    synchronized (this) {
+      if (this.isDispatching) {
+        return; // dispatched by other thread
+      }
+      this.isDispatching = true;
+    }
+    try {
+      for (;;) {
+        Runnable dispatch;
+        synchronized (this) {
+          dispatch = this.admitted.poll();
+          if (dispatch == null) {
+            this.isDispatching = false;
+            return;
+          }
+        }
+        dispatch.run();
+      }
+    } catch (RuntimeException | Error ex) {
+      synchronized (this) {
+        this.isDispatching = false;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Submission waiting for admission.
+   */
+  private static class Waiting {
+
+    /**
+     * Dispatches the submission.
+     */
+    private final Runnable dispatch;
+
+    /**
+     * Rejects the submission. <code>null</code> if not taking an in flight
+     * slot (so never rejected).
+     */
+    private final Consumer<Throwable> reject;
+
+    /**
+     * Indicates if waiting on the pool.
+     */
+    private boolean isWaitingPool = false;
+
+    /**
+     * Time by which to have buffers released. Only set once waiting on the
+     * pool.
+     */
+    private long poolDeadline = 0;
+
+    /**
+     * Flight recorder event of waiting on the pool. <code>null</code> if not
+     * waiting on the pool (or not recording).
+     */
+    private Object exhaustedEvent = null;
+
+    /**
+     * Instantiate.
+     *
+     * @param dispatch Dispatches the submission.
+     * @param reject   Rejects the submission. <code>null</code> if not taking
+     *                 an in flight slot.
+     */
+    private Waiting(Runnable dispatch, Consumer<Throwable> reject) {
+      this.dispatch = dispatch;
+      this.reject = reject;
+    }
+  }
+
+}
@@ -4,11 +4,21 @@ import java.io.IOException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.metrics.PgFlightRecorder;
+import org.postgresql.sql2.metrics.PgMetrics;
 
 /**
  * Default {@link NioLoop}.
@@ -21,11 +31,44 @@ public class DefaultNioLoop implements NioLoop, Runnable {
 
   private final ReentrantLock selectorLock = new ReentrantLock();
 
+  /**
+   * Number of registrations waiting on the {@link Selector}.
+   */
+  private final AtomicInteger pendingRegistrations = new AtomicInteger(0);
+
+  /**
+   * Indicates a {@link Selector} wakeup is pending, so further wakeups are
+   * not required until the next select.
+   */
+  private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+
+  /**
+   * {@link NioServiceAttachment} instances handed off by other threads for
+   * writing. Many producers enqueue, while only the loop {@link Thread}
+   * drains.
+   */
+  private final Queue<NioServiceAttachment> writeQueue = new ConcurrentLinkedQueue<>();
+
   /**
    * {@link Selector}.
    */
   private final Selector selector;
 
+  /**
+   * Number of non-blocking selects before blocking on the {@link Selector}.
+   */
+  private final int spinCount;
+
+  /**
+   * {@link PgMetrics}.
+   */
+  private final PgMetrics metrics;
+
+  /**
+   * {@link Thread} running this {@link NioLoop}.
+   */
+  private volatile Thread loopThread = null;
+
   /**
    * Indicates whether closed.
    */
@@ -37,6 +80,22 @@ public class DefaultNioLoop implements NioLoop, Runnable {
    * @throws IllegalStateException If fails to setup.
    */
   public DefaultNioLoop() {
+    this(Collections.emptyMap());
+  }
+
+  /**
+   * Instantiate.
+   * 
+   * @param properties Map of properties to configure this loop.
+   * @throws IllegalStateException If fails to setup.
+   */
+  public DefaultNioLoop(Map<SessionProperty, Object> properties) {
+
+    // Obtain the spin count
+    Object spinCount = properties.get(PgSessionProperty.NIO_LOOP_SPIN_COUNT);
+    this.spinCount = spinCount == null ? (Integer) PgSessionProperty.NIO_LOOP_SPIN_COUNT.defaultValue()
+        : (Integer) spinCount;
+    this.metrics = PgMetrics.from(properties);
 
     // Create the selector
     try {
@@ -51,6 +110,47 @@ public class DefaultNioLoop implements NioLoop, Runnable {
    */
   public void close() {
     this.isClosed = true;
+    this.selector.wakeup();
+  }
+
+  /**
+   * Wakes up the {@link Selector}, unless a wakeup is already pending or
+   * invoked on the loop {@link Thread}.
+   */
+  private void wakeup() {
+    if ((Thread.currentThread() != this.loopThread) && this.wakeupPending.compareAndSet(false, true)) {
+      this.metrics.selectorWakeup();
+      this.selector.wakeup();
+    }
+  }
+
+  /**
+   * Selects the ready keys.
+   * 
+   * @return Number of ready keys.
+   * @throws IOException If fails to select.
+   */
+  private int select() throws IOException {
+
+    // Allow waiting registrations to complete
+    if (this.pendingRegistrations.get() > 0) {
+      selectorLock.lock();
+      selectorLock.unlock();
+    }
+
+    // Spin for latency critical deployments
+    for (int i = 0; i < this.spinCount; i++) {
+      int ready = this.selector.selectNow();
+      if ((ready > 0) || this.wakeupPending.get()) {
+        this.wakeupPending.set(false);
+        return ready;
+      }
+    }
+
+    // Block until ready (no timers, so no timeout required)
+    int ready = this.writeQueue.isEmpty() ? this.selector.select() : this.selector.selectNow();
+    this.wakeupPending.set(false);
+    return ready;
   }
 
   /*
@@ -63,12 +163,40 @@ public class DefaultNioLoop implements NioLoop, Runnable {
     return new NioServiceAttachment(channel, nioServiceFactory).service;
   }
 
+  /**
+   * Drains the write queue, writing each {@link NioService} once regardless of
+   * how many requests were handed off for it since the last drain.
+   */
+  private void drainWriteQueue() {
+    NioServiceAttachment attachment;
+    while ((attachment = this.writeQueue.poll()) != null) {
+      attachment.isWriteQueued.set(false);
+
+      // Only write if still registered
+      if (!attachment.selectionKey.isValid()) {
+        continue;
+      }
+
+      try {
+        attachment.service.handleWrite();
+      } catch (Throwable ex) {
+        try {
+          attachment.service.handleException(ex);
+        } catch (Throwable failure) {
+          logger.log(Level.WARNING, "Failure with " + NioService.class.getSimpleName() + " " + attachment.service, ex);
+        }
+      }
+    }
+  }
+
   /*
    * ============== Runnable ==============
    */
 
   @Override
   public void run() {
+    this.loopThread = Thread.currentThread();
+
     // Ensure close selector
     try {
 
@@ -77,17 +205,21 @@ public class DefaultNioLoop implements NioLoop, Runnable {
 
         // Select keys
         try {
-          selectorLock.lock();
-          selectorLock.unlock();
-          this.selector.select(50);
+          this.select();
         } catch (IOException ex) {
           // Should not occur
           logger.log(Level.SEVERE, "Selector failure", ex);
           return; // fatal error, so can not continue
         }
+        long busyStart = System.nanoTime();
+        Object iterationEvent = PgFlightRecorder.loopIterating();
+
+        // Write for services handed off by other threads
+        this.drainWriteQueue();
 
         // Obtain the selected keys
         Set<SelectionKey> selectedKeys = this.selector.selectedKeys();
+        int selectedKeyCount = selectedKeys.size();
 
         // Service the selected keys
         Iterator<SelectionKey> iterator = selectedKeys.iterator();
@@ -144,6 +276,8 @@ public class DefaultNioLoop implements NioLoop, Runnable {
             }
           }
         }
+        this.metrics.loopBusy(System.nanoTime() - busyStart);
+        PgFlightRecorder.loopIterated(iterationEvent, selectedKeyCount);
       }
 
     } finally {
@@ -163,6 +297,11 @@ public class DefaultNioLoop implements NioLoop, Runnable {
 
     private final SelectionKey selectionKey;
 
+    /**
+     * Indicates if already within the write queue.
+     */
+    private final AtomicBoolean isWriteQueued = new AtomicBoolean(false);
+
     private NioServiceAttachment(SelectableChannel channel, NioServiceFactory nioServiceFactory) throws IOException {
       this.channel = channel;
 
@@ -173,6 +312,7 @@ public class DefaultNioLoop implements NioLoop, Runnable {
       }
 
       // Undertake registration
+      pendingRegistrations.incrementAndGet();
       selectorLock.lock();
       try {
         selector.wakeup();
@@ -180,6 +320,7 @@ public class DefaultNioLoop implements NioLoop, Runnable {
             this);
       } finally {
         selectorLock.unlock();
+        pendingRegistrations.decrementAndGet();
       }
     }
 
@@ -199,9 +340,18 @@ public class DefaultNioLoop implements NioLoop, Runnable {
 
     @Override
     public void writeRequired() {
-      if (selectionKey.isValid()) {
+      if (!selectionKey.isValid()) {
+        return;
+      }
+
+      if (Thread.currentThread() == loopThread) {
+        // Loop thread, so may change interest directly
         this.selectionKey.interestOps(this.selectionKey.interestOps() | SelectionKey.OP_WRITE);
-        DefaultNioLoop.this.selector.wakeup();
+
+      } else if (this.isWriteQueued.compareAndSet(false, true)) {
+        // Hand off to the loop thread (once until drained)
+        writeQueue.add(this);
+        DefaultNioLoop.this.wakeup();
       }
     }
 
@@ -0,0 +1,160 @@
+package org.postgresql.sql2.execution;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Flow control of submissions for {@link jdk.incubator.sql2.Session#requestHook(LongConsumer)}.
+ *
+ * <p>Demand is the number of further submissions granted to the application.
+ * Grants keep the operations outstanding (submitted and not complete) plus the
+ * unused demand within the window. No further grants are made while the
+ * connection already has a window of requests queued or in flight, or while
+ * the buffer pool is exhausted. As operations complete, the freed capacity is
+ * granted again.
+ *
+ * <p>Once nothing is outstanding at least one submission is always granted,
+ * as there is otherwise no completion to trigger a later grant.
+ */
+public class SubmissionDemand {
+
+  /**
+   * Maximum outstanding operations plus unused demand.
+   */
+  private final int window;
+
+  /**
+   * Obtains the number of requests queued or in flight on the connection.
+   */
+  private final IntSupplier backlog;
+
+  /**
+   * Indicates if the buffer pool is exhausted.
+   */
+  private final BooleanSupplier isExhausted;
+
+  /**
+   * Hook to grant demand. <code>null</code> until set.
+   */
+  private LongConsumer hook = null;
+
+  /**
+   * Granted submissions not yet made.
+   */
+  private long demand = 0;
+
+  /**
+   * Submissions made (since the hook was set) not yet complete.
+   */
+  private long outstanding = 0;
+
+  /**
+   * Instantiate.
+   *
+   * @param window      Maximum outstanding operations plus unused demand.
+   * @param backlog     Obtains the number of requests queued or in flight on
+   *                    the connection.
+   * @param isExhausted Indicates if the buffer pool is exhausted.
+   */
+  public SubmissionDemand(int window, IntSupplier backlog, BooleanSupplier isExhausted) {
+    if (window < 1) {
+      throw new IllegalArgumentException("demand window must be at least 1, but was " + window);
+    }
+    this.window = window;
+    this.backlog = backlog;
+    this.isExhausted = isExhausted;
+  }
+
+  /**
+   * Sets the hook and grants the initial demand.
+   *
+   * @param hook Hook to grant demand.
+   * @throws IllegalStateException If the hook is already set.
+   */
+  public void setHook(LongConsumer hook) {
+    synchronized (this) {
+      if (this.hook != null) {
+        throw new IllegalStateException("request hook already set");
+      }
+      this.hook = hook;
+    }
+    this.grant();
+  }
+
+  /**
+   * Consumes demand for a submission.
+   *
+   * @return <code>true</code> if the submission is to be flagged
+   *         {@link #completed()}, <code>false</code> if no hook is set so
+   *         submissions are not tracked.
+   * @throws IllegalStateException If no demand has been granted.
+   */
+  public synchronized boolean submitted() {
+    if (this.hook == null) {
+      return false;
+    }
+    if (this.demand <= 0) {
+      throw new IllegalStateException("submission without demand (wait for the request hook)");
+    }
+    this.demand--;
+    this.outstanding++;
+    return true;
+  }
+
+  /**
+   * Flags a tracked submission complete, granting the freed capacity.
+   */
+  public void completed() {
+    synchronized (this) {
+      this.outstanding--;
+    }
+    this.grant();
+  }
+
+  /**
+   * Obtains the granted submissions not yet made.
+   *
+   * @return Granted submissions not yet made.
+   */
+  public synchronized long getDemand() {
+    return this.demand;
+  }
+
+  /**
+   * Obtains the submissions not yet complete.
+   *
+   * @return Submissions not yet complete.
+   */
+  public synchronized long getOutstanding() {
+    return this.outstanding;
+  }
+
+  /**
+   * Grants the available capacity to the hook.
+   */
+  private void grant() {
+    LongConsumer grantTo;
+    long grant;
+    synchronized (this) {
+      if (this.hook == null) {
+        return;
+      }
+      boolean isIdle = (this.outstanding == 0) && (this.demand == 0);
+      if (this.isExhausted.getAsBoolean() || (this.backlog.getAsInt() >= this.window)) {
+        grant = isIdle ? 1 : 0; // always allow progress
+      } else {
+        grant = this.window - this.outstanding - this.demand;
+      }
+      if (grant <= 0) {
+        return;
+      }
+      this.demand += grant;
+      grantTo = this.hook;
+    }
+
+    // Invoke outside lock, as hook likely submits
+    grantTo.accept(grant);
+  }
+
+}
@@ -0,0 +1,49 @@
+package org.postgresql.sql2.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link org.postgresql.sql2.buffer.ByteBufferPool} exhausted, with duration
+ * the time a submission waited for buffers to be released.
+ */
+@Name("org.postgresql.PgBufferPoolExhausted")
+@Label("PostgreSQL Buffer Pool Exhausted")
+@Category({ "PostgreSQL" })
+@Description("Submission waiting on buffers to be released, as the buffer pool memory cap is reached")
+final class BufferPoolExhaustedEvent extends jdk.jfr.Event {
+
+  @Label("Admitted")
+  boolean admitted;
+
+  /**
+   * Starts the event.
+   *
+   * @return {@link BufferPoolExhaustedEvent}. <code>null</code> if not
+   *         enabled.
+   */
+  static BufferPoolExhaustedEvent start() {
+    BufferPoolExhaustedEvent event = new BufferPoolExhaustedEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends the event.
+   *
+   * @param admitted Indicates if the submission was admitted.
+   */
+  void end(boolean admitted) {
+    this.end();
+    if (this.shouldCommit()) {
+      this.admitted = admitted;
+      this.commit();
+    }
+  }
+
+}
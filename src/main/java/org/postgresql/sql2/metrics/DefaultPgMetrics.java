@@ -0,0 +1,388 @@
+package org.postgresql.sql2.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.postgresql.sql2.communication.BeFrame;
+
+/**
+ * In memory {@link PgMetrics}, to be scraped by monitoring.
+ *
+ * <p>Counters are {@link LongAdder} instances, so recording is contention
+ * free and allocation free. Gauges (queued, in flight, buffers in use) are
+ * the difference of counters.
+ *
+ * <p>Statement latencies are kept in {@link LatencyHistogram} instances by
+ * SQL, up to a maximum number of statements (so that dynamically generated SQL
+ * can not exhaust memory).
+ */
+public class DefaultPgMetrics implements PgMetrics {
+
+  private final LongAdder bytesRead = new LongAdder();
+
+  private final LongAdder bytesWritten = new LongAdder();
+
+  /**
+   * Frames read by message type byte. <code>null</code> for unknown types.
+   */
+  private final LongAdder[] framesRead;
+
+  private final LongAdder requestsQueued = new LongAdder();
+
+  private final LongAdder requestsDequeued = new LongAdder();
+
+  private final LongAdder responsesAwaited = new LongAdder();
+
+  private final LongAdder responsesReceived = new LongAdder();
+
+  private final LongAdder selectorWakeups = new LongAdder();
+
+  private final LongAdder loopBusyNanos = new LongAdder();
+
+  private final LongAdder buffersAcquired = new LongAdder();
+
+  private final LongAdder buffersReleased = new LongAdder();
+
+  private final LongAdder bufferBytesInUse = new LongAdder();
+
+  private final LongAdder statementCacheHits = new LongAdder();
+
+  private final LongAdder statementCacheMisses = new LongAdder();
+
+  private final LongAdder operations = new LongAdder();
+
+  private final LongAdder failedOperations = new LongAdder();
+
+  private final LongAdder operationNanos = new LongAdder();
+
+  private final LongAccumulator maxOperationNanos = new LongAccumulator(Math::max, 0);
+
+  /**
+   * {@link StatementLatency} by SQL.
+   */
+  private final Map<String, StatementLatency> statementLatencies = new ConcurrentHashMap<>();
+
+  /**
+   * Maximum number of statements to track latencies.
+   */
+  private final int maxStatements;
+
+  /**
+   * Number of statement executions not recorded, as over the maximum number of
+   * statements.
+   */
+  private final LongAdder untrackedStatements = new LongAdder();
+
+  /**
+   * Instantiate tracking up to 1000 statements.
+   */
+  public DefaultPgMetrics() {
+    this(1000);
+  }
+
+  /**
+   * Instantiate.
+   *
+   * @param maxStatements Maximum number of statements to track latencies.
+   */
+  public DefaultPgMetrics(int maxStatements) {
+    this.maxStatements = maxStatements;
+    this.framesRead = new LongAdder[Byte.MAX_VALUE + 1];
+    for (BeFrame.BackendTag tag : BeFrame.BackendTag.values()) {
+      this.framesRead[tag.getByte()] = new LongAdder();
+    }
+  }
+
+  /**
+   * Obtains the number of bytes read.
+   *
+   * @return Number of bytes read.
+   */
+  public long getBytesRead() {
+    return this.bytesRead.sum();
+  }
+
+  /**
+   * Obtains the number of bytes written.
+   *
+   * @return Number of bytes written.
+   */
+  public long getBytesWritten() {
+    return this.bytesWritten.sum();
+  }
+
+  /**
+   * Obtains the number of frames read for the tag.
+   *
+   * @param tag Message type byte (e.g. <code>'D'</code> for
+   *            <code>DataRow</code>).
+   * @return Number of frames read for the tag.
+   */
+  public long getFramesRead(char tag) {
+    LongAdder frames = (tag < this.framesRead.length) ? this.framesRead[tag] : null;
+    return (frames == null) ? 0 : frames.sum();
+  }
+
+  /**
+   * Obtains the number of requests queued awaiting to be written (across all
+   * connections).
+   *
+   * @return Number of requests queued.
+   */
+  public long getQueuedRequests() {
+    return this.requestsQueued.sum() - this.requestsDequeued.sum();
+  }
+
+  /**
+   * Obtains the number of requests awaiting their response (across all
+   * connections).
+   *
+   * @return Number of requests in flight.
+   */
+  public long getInFlightRequests() {
+    return this.responsesAwaited.sum() - this.responsesReceived.sum();
+  }
+
+  /**
+   * Obtains the number of selector wakeups.
+   *
+   * @return Number of selector wakeups.
+   */
+  public long getSelectorWakeups() {
+    return this.selectorWakeups.sum();
+  }
+
+  /**
+   * Obtains the nanoseconds the loop was busy.
+   *
+   * @return Nanoseconds the loop was busy.
+   */
+  public long getLoopBusyNanos() {
+    return this.loopBusyNanos.sum();
+  }
+
+  /**
+   * Obtains the number of pooled buffers in use.
+   *
+   * @return Number of pooled buffers in use.
+   */
+  public long getBuffersInUse() {
+    return this.buffersAcquired.sum() - this.buffersReleased.sum();
+  }
+
+  /**
+   * Obtains the bytes of pooled buffers in use.
+   *
+   * @return Bytes of pooled buffers in use.
+   */
+  public long getBufferBytesInUse() {
+    return this.bufferBytesInUse.sum();
+  }
+
+  /**
+   * Obtains the ratio of statements found already prepared.
+   *
+   * @return Statement cache hit ratio (0 if no statements).
+   */
+  public double getStatementCacheHitRatio() {
+    long hits = this.statementCacheHits.sum();
+    long total = hits + this.statementCacheMisses.sum();
+    return (total == 0) ? 0 : ((double) hits / total);
+  }
+
+  /**
+   * Obtains the number of completed operations.
+   *
+   * @return Number of completed operations.
+   */
+  public long getOperations() {
+    return this.operations.sum();
+  }
+
+  /**
+   * Obtains the number of failed operations.
+   *
+   * @return Number of failed operations.
+   */
+  public long getFailedOperations() {
+    return this.failedOperations.sum();
+  }
+
+  /**
+   * Obtains the mean operation latency.
+   *
+   * @return Mean operation latency in nanoseconds (0 if no operations).
+   */
+  public long getMeanOperationNanos() {
+    long count = this.operations.sum();
+    return (count == 0) ? 0 : (this.operationNanos.sum() / count);
+  }
+
+  /**
+   * Obtains the maximum operation latency.
+   *
+   * @return Maximum operation latency in nanoseconds.
+   */
+  public long getMaxOperationNanos() {
+    return this.maxOperationNanos.get();
+  }
+
+  /**
+   * Obtains the {@link StatementLatency} for the SQL.
+   *
+   * @param sql SQL.
+   * @return {@link StatementLatency}. <code>null</code> if statement not
+   *         tracked.
+   */
+  public StatementLatency getStatementLatency(String sql) {
+    return this.statementLatencies.get(sql);
+  }
+
+  /**
+   * Obtains all the tracked {@link StatementLatency} instances.
+   *
+   * @return {@link StatementLatency} instances.
+   */
+  public Collection<StatementLatency> getStatementLatencies() {
+    return Collections.unmodifiableCollection(this.statementLatencies.values());
+  }
+
+  /**
+   * Obtains the number of statement executions not recorded, as over the
+   * maximum number of statements.
+   *
+   * @return Number of statement executions not recorded.
+   */
+  public long getUntrackedStatements() {
+    return this.untrackedStatements.sum();
+  }
+
+  /**
+   * Obtains a snapshot of the metrics by name, for scraping.
+   *
+   * @return Metric values by name.
+   */
+  public Map<String, Number> getSnapshot() {
+    Map<String, Number> snapshot = new LinkedHashMap<>();
+    snapshot.put("bytes.read", this.getBytesRead());
+    snapshot.put("bytes.written", this.getBytesWritten());
+    for (BeFrame.BackendTag tag : BeFrame.BackendTag.values()) {
+      snapshot.put("frames." + tag.name().toLowerCase(), this.getFramesRead((char) tag.getByte()));
+    }
+    snapshot.put("requests.queued", this.getQueuedRequests());
+    snapshot.put("requests.inflight", this.getInFlightRequests());
+    snapshot.put("loop.wakeups", this.getSelectorWakeups());
+    snapshot.put("loop.busy.nanos", this.getLoopBusyNanos());
+    snapshot.put("buffers.inuse", this.getBuffersInUse());
+    snapshot.put("buffers.inuse.bytes", this.getBufferBytesInUse());
+    snapshot.put("statements.cache.hitratio", this.getStatementCacheHitRatio());
+    snapshot.put("operations", this.getOperations());
+    snapshot.put("operations.failed", this.getFailedOperations());
+    snapshot.put("operations.mean.nanos", this.getMeanOperationNanos());
+    snapshot.put("operations.max.nanos", this.getMaxOperationNanos());
+    snapshot.put("statements.untracked", this.getUntrackedStatements());
+    return snapshot;
+  }
+
+  /*
+   * ================== PgMetrics ==================
+   */
+
+  @Override
+  public void bytesRead(int bytes) {
+    this.bytesRead.add(bytes);
+  }
+
+  @Override
+  public void bytesWritten(int bytes) {
+    this.bytesWritten.add(bytes);
+  }
+
+  @Override
+  public void frameRead(char tag) {
+    LongAdder frames = (tag < this.framesRead.length) ? this.framesRead[tag] : null;
+    if (frames != null) {
+      frames.increment();
+    }
+  }
+
+  @Override
+  public void requestQueued() {
+    this.requestsQueued.increment();
+  }
+
+  @Override
+  public void requestDequeued() {
+    this.requestsDequeued.increment();
+  }
+
+  @Override
+  public void responseAwaited() {
+    this.responsesAwaited.increment();
+  }
+
+  @Override
+  public void responseReceived() {
+    this.responsesReceived.increment();
+  }
+
+  @Override
+  public void selectorWakeup() {
+    this.selectorWakeups.increment();
+  }
+
+  @Override
+  public void loopBusy(long nanos) {
+    this.loopBusyNanos.add(nanos);
+  }
+
+  @Override
+  public void bufferAcquired(int capacity) {
+    this.buffersAcquired.increment();
+    this.bufferBytesInUse.add(capacity);
+  }
+
+  @Override
+  public void bufferReleased(int capacity) {
+    this.buffersReleased.increment();
+    this.bufferBytesInUse.add(-capacity);
+  }
+
+  @Override
+  public void statementCacheHit() {
+    this.statementCacheHits.increment();
+  }
+
+  @Override
+  public void statementCacheMiss() {
+    this.statementCacheMisses.increment();
+  }
+
+  @Override
+  public void operationCompleted(long nanos, boolean isFailed) {
+    this.operations.increment();
+    if (isFailed) {
+      this.failedOperations.increment();
+    }
+    this.operationNanos.add(nanos);
+    this.maxOperationNanos.accumulate(nanos);
+  }
+
+  @Override
+  public void statementCompleted(String sql, long queueNanos, long serverNanos, long decodeNanos) {
+    StatementLatency latency = this.statementLatencies.get(sql);
+    if (latency == null) {
+      if (this.statementLatencies.size() >= this.maxStatements) {
+        this.untrackedStatements.increment();
+        return;
+      }
+      latency = this.statementLatencies.computeIfAbsent(sql, StatementLatency::new);
+    }
+    latency.record(queueNanos, serverNanos, decodeNanos);
+  }
+
+}
@@ -0,0 +1,43 @@
+package org.postgresql.sql2.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.postgresql.sql2.communication.BeFrame;
+
+/**
+ * Sampled {@link BeFrame} read from the server.
+ */
+@Name("org.postgresql.PgFrameRead")
+@Label("PostgreSQL Frame Read")
+@Category({ "PostgreSQL" })
+@Description("Sample of the frames read from the server")
+@StackTrace(false)
+final class FrameReadEvent extends jdk.jfr.Event {
+
+  @Label("Tag")
+  String tag;
+
+  @Label("Size")
+  @DataAmount
+  int size;
+
+  /**
+   * Emits the event.
+   *
+   * @param tag  Message type byte of the frame.
+   * @param size Size of the payload.
+   */
+  static void emit(char tag, int size) {
+    FrameReadEvent event = new FrameReadEvent();
+    if (event.isEnabled()) {
+      event.tag = BeFrame.BackendTag.lookup((byte) tag).name();
+      event.size = size;
+      event.commit();
+    }
+  }
+
+}
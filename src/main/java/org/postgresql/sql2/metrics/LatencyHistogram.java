@@ -0,0 +1,187 @@
+package org.postgresql.sql2.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free latency histogram.
+ *
+ * <p>Buckets are log linear (as per HdrHistogram): each power of two range is
+ * split into {@link #SUB_BUCKETS} linear sub buckets, so recorded values are
+ * within about 3% of their true value. Values beyond {@link #MAX_VALUE}
+ * nanoseconds (about 68 seconds) are recorded as the maximum.
+ *
+ * <p>The sub buckets of a power of two range are only allocated on first
+ * recording a value in the range, as latencies typically span only a few of
+ * the ranges. Recording is then a single atomic increment with no allocation.
+ */
+public class LatencyHistogram {
+
+  /**
+   * Bits of the linear sub buckets.
+   */
+  private static final int SUB_BUCKET_BITS = 5;
+
+  /**
+   * Number of linear sub buckets per power of two.
+   */
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * Bits of the maximum recordable value.
+   */
+  private static final int MAX_VALUE_BITS = 36;
+
+  /**
+   * Maximum recordable value.
+   */
+  public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+  /**
+   * Number of power of two ranges.
+   */
+  private static final int RANGES = MAX_VALUE_BITS - SUB_BUCKET_BITS + 1;
+
+  /**
+   * Counts of the sub buckets by range. A range is <code>null</code> until a
+   * value is recorded in it.
+   */
+  private final AtomicReferenceArray<AtomicLongArray> counts = new AtomicReferenceArray<>(RANGES);
+
+  /**
+   * Instantiate.
+   */
+  public LatencyHistogram() {
+  }
+
+  /**
+   * Obtains the bucket index for the value.
+   *
+   * @param value Value.
+   * @return Bucket index.
+   */
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) Math.max(0, value);
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int mantissa = (int) (value >>> shift); // within [SUB_BUCKETS, 2 * SUB_BUCKETS)
+    return ((shift + 1) * SUB_BUCKETS) + (mantissa - SUB_BUCKETS);
+  }
+
+  /**
+   * Obtains the highest value recorded into the bucket.
+   *
+   * @param index Bucket index.
+   * @return Highest value of the bucket.
+   */
+  static long highestValue(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index / SUB_BUCKETS) - 1;
+    long mantissa = SUB_BUCKETS + (index % SUB_BUCKETS);
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+  /**
+   * Records the value.
+   *
+   * @param value Value (typically nanoseconds).
+   */
+  public void record(long value) {
+    int index = index(Math.min(value, MAX_VALUE));
+
+    // Obtain the range (allocating on first use)
+    int range = index / SUB_BUCKETS;
+    AtomicLongArray subBuckets = this.counts.get(range);
+    if (subBuckets == null) {
+      subBuckets = new AtomicLongArray(SUB_BUCKETS);
+      if (!this.counts.compareAndSet(range, null, subBuckets)) {
+        subBuckets = this.counts.get(range);
+      }
+    }
+    subBuckets.incrementAndGet(index % SUB_BUCKETS);
+  }
+
+  /**
+   * Obtains the number of recorded values.
+   *
+   * @return Number of recorded values.
+   */
+  public long getCount() {
+    long count = 0;
+    for (long bucketCount : snapshot()) {
+      count += bucketCount;
+    }
+    return count;
+  }
+
+  /**
+   * Obtains the number of power of two ranges allocated.
+   *
+   * @return Number of ranges allocated.
+   */
+  int getAllocatedRanges() {
+    int allocated = 0;
+    for (int i = 0; i < RANGES; i++) {
+      if (this.counts.get(i) != null) {
+        allocated++;
+      }
+    }
+    return allocated;
+  }
+
+  /**
+   * Snapshots the counts by bucket index.
+   *
+   * @return Counts by bucket index.
+   */
+  private long[] snapshot() {
+    long[] snapshot = new long[RANGES * SUB_BUCKETS];
+    for (int range = 0; range < RANGES; range++) {
+      AtomicLongArray subBuckets = this.counts.get(range);
+      if (subBuckets != null) {
+        for (int i = 0; i < SUB_BUCKETS; i++) {
+          snapshot[(range * SUB_BUCKETS) + i] = subBuckets.get(i);
+        }
+      }
+    }
+    return snapshot;
+  }
+
+  /**
+   * Obtains the value at the percentile.
+   *
+   * <p>Recording may continue concurrently, so the result is approximate to
+   * the moment of calling.
+   *
+   * @param percentile Percentile (e.g. 99.9).
+   * @return Value at the percentile. 0 if no values recorded.
+   */
+  public long getValueAtPercentile(double percentile) {
+
+    // Snapshot the counts
+    long[] snapshot = snapshot();
+    long total = 0;
+    for (long bucketCount : snapshot) {
+      total += bucketCount;
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    // Find the bucket containing the percentile
+    long target = Math.max(1, (long) Math.ceil((percentile / 100.0) * total));
+    long cumulative = 0;
+    for (int i = 0; i < snapshot.length; i++) {
+      cumulative += snapshot[i];
+      if (cumulative >= target) {
+        return highestValue(i);
+      }
+    }
+    return MAX_VALUE;
+  }
+
+}
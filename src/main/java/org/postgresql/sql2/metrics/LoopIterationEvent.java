@@ -0,0 +1,50 @@
+package org.postgresql.sql2.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Iteration of the {@link org.postgresql.sql2.execution.NioLoop} servicing
+ * the selected keys (duration is the busy time).
+ */
+@Name("org.postgresql.PgLoopIteration")
+@Label("PostgreSQL Loop Iteration")
+@Category({ "PostgreSQL" })
+@Description("Loop servicing the selected keys, with duration the busy time")
+@StackTrace(false)
+final class LoopIterationEvent extends jdk.jfr.Event {
+
+  @Label("Selected Keys")
+  int selectedKeys;
+
+  /**
+   * Starts the event.
+   *
+   * @return {@link LoopIterationEvent}. <code>null</code> if not enabled.
+   */
+  static LoopIterationEvent start() {
+    LoopIterationEvent event = new LoopIterationEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends the event.
+   *
+   * @param selectedKeys Number of selected keys.
+   */
+  void end(int selectedKeys) {
+    this.end();
+    if (this.shouldCommit()) {
+      this.selectedKeys = selectedKeys;
+      this.commit();
+    }
+  }
+
+}
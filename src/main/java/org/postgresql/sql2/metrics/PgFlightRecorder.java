@@ -0,0 +1,142 @@
+package org.postgresql.sql2.metrics;
+
+import java.util.Optional;
+
+/**
+ * Emits the Java Flight Recorder events of the driver.
+ *
+ * <p>Flight Recorder is optional (<code>jdk.jfr</code> may not be in the
+ * runtime), so the event classes are only loaded once Flight Recorder is found
+ * to be available. Each event is further gated by its
+ * <code>isEnabled()</code>, so events cost nothing unless recording.
+ *
+ * <p>When on the module path, run with <code>--add-modules jdk.jfr</code> to
+ * make Flight Recorder available to the driver.
+ */
+public final class PgFlightRecorder {
+
+  /**
+   * Only one in this many frames read emit an event, as far
+   * too many to record each.
+   */
+  public static final int FRAME_SAMPLE = 100;
+
+  /**
+   * Indicates if Flight Recorder is available.
+   */
+  private static final boolean IS_AVAILABLE;
+
+  static {
+    boolean isAvailable = false;
+    try {
+      Optional<Module> jfr = ModuleLayer.boot().findModule("jdk.jfr");
+      if (jfr.isPresent()) {
+        PgFlightRecorder.class.getModule().addReads(jfr.get());
+        isAvailable = true;
+      }
+    } catch (RuntimeException ex) {
+      // Flight Recorder not available
+    }
+    IS_AVAILABLE = isAvailable;
+  }
+
+  /**
+   * Indicates if Flight Recorder is available.
+   *
+   * @return <code>true</code> if Flight Recorder is available.
+   */
+  public static boolean isAvailable() {
+    return IS_AVAILABLE;
+  }
+
+  /**
+   * Begins the query execute event.
+   *
+   * @return Event to end with {@link #queryExecuted(Object, String, long)}.
+   *         <code>null</code> if not recording.
+   */
+  public static Object queryExecuting() {
+    return IS_AVAILABLE ? QueryExecuteEvent.start() : null;
+  }
+
+  /**
+   * Ends the query execute event.
+   *
+   * @param event Event from {@link #queryExecuting()}. May be
+   *              <code>null</code>.
+   * @param sql   SQL.
+   * @param rows  Number of rows.
+   */
+  public static void queryExecuted(Object event, String sql, long rows) {
+    if (event != null) {
+      ((QueryExecuteEvent) event).end(sql, rows);
+    }
+  }
+
+  /**
+   * Sampled frame read.
+   *
+   * @param tag  Message type byte of the frame.
+   * @param size Size of the payload.
+   */
+  public static void frameRead(char tag, int size) {
+    if (IS_AVAILABLE) {
+      FrameReadEvent.emit(tag, size);
+    }
+  }
+
+  /**
+   * Begins the loop iteration event.
+   *
+   * @return Event to end with {@link #loopIterated(Object, int)}.
+   *         <code>null</code> if not recording.
+   */
+  public static Object loopIterating() {
+    return IS_AVAILABLE ? LoopIterationEvent.start() : null;
+  }
+
+  /**
+   * Ends the loop iteration event.
+   *
+   * @param event        Event from {@link #loopIterating()}. May be
+   *                     <code>null</code>.
+   * @param selectedKeys Number of selected keys.
+   */
+  public static void loopIterated(Object event, int selectedKeys) {
+    if (event != null) {
+      ((LoopIterationEvent) event).end(selectedKeys);
+    }
+  }
+
+  /**
+   * Begins the buffer pool exhausted event (submission waiting on buffers to
+   * be released).
+   *
+   * @return Event to end with {@link #bufferPoolWaited(Object, boolean)}.
+   *         <code>null</code> if not recording.
+   */
+  public static Object bufferPoolExhausted() {
+    return IS_AVAILABLE ? BufferPoolExhaustedEvent.start() : null;
+  }
+
+  /**
+   * Ends the buffer pool exhausted event.
+   *
+   * @param event      Event from {@link #bufferPoolExhausted()}. May be
+   *                   <code>null</code>.
+   * @param isAdmitted Indicates if the submission was admitted (rather than
+   *                   failed).
+   */
+  public static void bufferPoolWaited(Object event, boolean isAdmitted) {
+    if (event != null) {
+      ((BufferPoolExhaustedEvent) event).end(isAdmitted);
+    }
+  }
+
+  /**
+   * All access via static methods.
+   */
+  private PgFlightRecorder() {
+  }
+
+}
@@ -0,0 +1,149 @@
+package org.postgresql.sql2.metrics;
+
+import java.util.Map;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+
+/**
+ * Receives the driver instrumentation.
+ *
+ * <p>Methods are invoked on the hot path (typically the
+ * {@link org.postgresql.sql2.execution.NioLoop} thread), so implementations
+ * must be thread safe, cheap and avoid allocation. All methods default to
+ * doing nothing, so implementations need only override what they record.
+ *
+ * <p>Registered with {@link PgSessionProperty#METRICS}.
+ */
+public interface PgMetrics {
+
+  /**
+   * {@link PgMetrics} that records nothing.
+   */
+  PgMetrics NONE = new PgMetrics() {
+  };
+
+  /**
+   * Obtains the {@link PgMetrics} from the properties.
+   *
+   * @param properties Properties.
+   * @return Configured {@link PgMetrics}, or {@link #NONE} if none configured.
+   */
+  static PgMetrics from(Map<SessionProperty, Object> properties) {
+    PgMetrics metrics = (PgMetrics) properties.get(PgSessionProperty.METRICS);
+    return (metrics == null) ? NONE : metrics;
+  }
+
+  /**
+   * Bytes read from the network.
+   *
+   * @param bytes Number of bytes.
+   */
+  default void bytesRead(int bytes) {
+  }
+
+  /**
+   * Bytes written to the network.
+   *
+   * @param bytes Number of bytes.
+   */
+  default void bytesWritten(int bytes) {
+  }
+
+  /**
+   * Frame (message) read from the server.
+   *
+   * @param tag Message type byte of the frame, as per the protocol (e.g.
+   *            <code>'D'</code> for <code>DataRow</code>).
+   */
+  default void frameRead(char tag) {
+  }
+
+  /**
+   * Request queued on a connection awaiting to be written.
+   */
+  default void requestQueued() {
+  }
+
+  /**
+   * Queued request taken to be written.
+   */
+  default void requestDequeued() {
+  }
+
+  /**
+   * Response now awaited from the server (request in flight).
+   */
+  default void responseAwaited() {
+  }
+
+  /**
+   * Awaited response received from the server.
+   */
+  default void responseReceived() {
+  }
+
+  /**
+   * Selector woken up to service work handed off from another thread.
+   */
+  default void selectorWakeup() {
+  }
+
+  /**
+   * Time the {@link org.postgresql.sql2.execution.NioLoop} spent servicing
+   * between selects.
+   *
+   * @param nanos Busy time in nanoseconds.
+   */
+  default void loopBusy(long nanos) {
+  }
+
+  /**
+   * Buffer acquired from the pool.
+   *
+   * @param capacity Capacity of the buffer.
+   */
+  default void bufferAcquired(int capacity) {
+  }
+
+  /**
+   * Buffer released back to the pool.
+   *
+   * @param capacity Capacity of the buffer.
+   */
+  default void bufferReleased(int capacity) {
+  }
+
+  /**
+   * Statement found already prepared on the connection.
+   */
+  default void statementCacheHit() {
+  }
+
+  /**
+   * Statement required preparing on the connection.
+   */
+  default void statementCacheMiss() {
+  }
+
+  /**
+   * Operation completed.
+   *
+   * @param nanos    Nanoseconds from submit to completion.
+   * @param isFailed Indicates if the operation failed.
+   */
+  default void operationCompleted(long nanos, boolean isFailed) {
+  }
+
+  /**
+   * Statement completed (<code>CommandComplete</code> received).
+   *
+   * @param sql         SQL of the statement (parameters are placeholders, so
+   *                    this identifies the statement).
+   * @param queueNanos  Nanoseconds from submit until written to the connection.
+   * @param serverNanos Nanoseconds from written until the first response.
+   * @param decodeNanos Nanoseconds from the first response until complete.
+   */
+  default void statementCompleted(String sql, long queueNanos, long serverNanos, long decodeNanos) {
+  }
+
+}
@@ -0,0 +1,54 @@
+package org.postgresql.sql2.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Query executed, from written to the server until the command completes.
+ */
+@Name("org.postgresql.PgQueryExecute")
+@Label("PostgreSQL Query Execute")
+@Category({ "PostgreSQL" })
+@Description("Query from written to the server until the command completes")
+@StackTrace(false)
+final class QueryExecuteEvent extends jdk.jfr.Event {
+
+  @Label("SQL")
+  String sql;
+
+  @Label("Rows")
+  long rows;
+
+  /**
+   * Starts the event.
+   *
+   * @return {@link QueryExecuteEvent}. <code>null</code> if not enabled.
+   */
+  static QueryExecuteEvent start() {
+    QueryExecuteEvent event = new QueryExecuteEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends the event.
+   *
+   * @param sql  SQL.
+   * @param rows Number of rows.
+   */
+  void end(String sql, long rows) {
+    this.end();
+    if (this.shouldCommit()) {
+      this.sql = sql;
+      this.rows = rows;
+      this.commit();
+    }
+  }
+
+}
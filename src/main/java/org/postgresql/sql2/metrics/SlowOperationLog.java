@@ -0,0 +1,272 @@
+package org.postgresql.sql2.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.Session;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgServerParameters;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.communication.packets.parts.PgAdbaType;
+
+/**
+ * Logs operations exceeding a threshold, with the SQL, parameter types (never
+ * the values), row count and where the time was spent. Optionally the plan of
+ * the statement is captured with <code>EXPLAIN</code> on a separate session.
+ *
+ * <p>The {@link org.postgresql.sql2.execution.NioLoop} thread only captures
+ * the values. Formatting, logging and capturing plans is by a separate thread,
+ * so that diagnostics do not add to the slowness. Should that thread fall
+ * behind, further slow operations are dropped (and counted) rather than
+ * queuing without bound.
+ *
+ * <p>Plans are captured once per SQL. As parameter values are not kept, the
+ * plan of parameterized SQL is the generic plan, which requires PostgreSQL 16
+ * (so is not captured for earlier servers).
+ */
+public class SlowOperationLog implements AutoCloseable {
+
+  /**
+   * {@link Logger} for slow operations.
+   */
+  private static final Logger LOGGER = Logger.getLogger(SlowOperationLog.class.getName());
+
+  /**
+   * Maximum slow operations waiting to be logged.
+   */
+  private static final int MAX_PENDING = 1024;
+
+  /**
+   * Maximum number of SQL to remember as having their plan captured.
+   */
+  private static final int MAX_EXPLAINED = 1000;
+
+  /**
+   * Major version of PostgreSQL introducing <code>EXPLAIN (GENERIC_PLAN)</code>.
+   */
+  private static final int GENERIC_PLAN_MAJOR_VERSION = 16;
+
+  /**
+   * Creates the {@link SlowOperationLog} for a data source.
+   *
+   * @param properties     Data source properties.
+   * @param explainSession Obtains the {@link Session} to capture plans.
+   * @return {@link SlowOperationLog}, or <code>null</code> if not logging slow
+   *         operations.
+   */
+  public static SlowOperationLog forDataSource(Map<SessionProperty, Object> properties, Supplier<Session> explainSession) {
+    Object threshold = properties.get(PgSessionProperty.SLOW_OPERATION_THRESHOLD);
+    int thresholdMillis = (Integer) (threshold == null ? PgSessionProperty.SLOW_OPERATION_THRESHOLD.defaultValue() : threshold);
+    if (thresholdMillis <= 0) {
+      return null;
+    }
+    Object explain = properties.get(PgSessionProperty.SLOW_OPERATION_EXPLAIN);
+    boolean isExplain = (Boolean) (explain == null ? PgSessionProperty.SLOW_OPERATION_EXPLAIN.defaultValue() : explain);
+    return new SlowOperationLog(TimeUnit.MILLISECONDS.toNanos(thresholdMillis), isExplain ? explainSession : null);
+  }
+
+  /**
+   * Threshold in nanoseconds.
+   */
+  private final long thresholdNanos;
+
+  /**
+   * Obtains the {@link Session} to capture plans. <code>null</code> to not
+   * capture plans.
+   */
+  private final Supplier<Session> explainSessionFactory;
+
+  /**
+   * Logs the slow operations.
+   */
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Slow operations dropped as logging fell behind.
+   */
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * SQL with plans captured.
+   */
+  private final Set<String> explained = ConcurrentHashMap.newKeySet();
+
+  /**
+   * {@link Session} to capture plans. Only accessed by the log thread (and on
+   * its termination).
+   */
+  private volatile Session explainSession = null;
+
+  /**
+   * Instantiate.
+   *
+   * @param thresholdNanos        Threshold in nanoseconds.
+   * @param explainSessionFactory Obtains the {@link Session} to capture plans.
+   *                              <code>null</code> to not capture plans.
+   */
+  public SlowOperationLog(long thresholdNanos, Supplier<Session> explainSessionFactory) {
+    this.thresholdNanos = thresholdNanos;
+    this.explainSessionFactory = explainSessionFactory;
+    this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_PENDING),
+        (runnable) -> {
+          Thread thread = new Thread(runnable, "pgsql2-slow-operation-log");
+          thread.setDaemon(true);
+          return thread;
+        }, (runnable, executor) -> this.dropped.increment()) {
+
+      @Override
+      protected void terminated() {
+        // Close on termination (as a queued close may be dropped)
+        Session session = SlowOperationLog.this.explainSession;
+        if (session != null) {
+          session.close();
+        }
+      }
+    };
+  }
+
+  /**
+   * Indicates if the duration is slow.
+   *
+   * @param nanos Duration in nanoseconds.
+   * @return <code>true</code> if slow.
+   */
+  public boolean isSlow(long nanos) {
+    return nanos >= this.thresholdNanos;
+  }
+
+  /**
+   * Logs the slow operation.
+   *
+   * @param sql              SQL.
+   * @param parameterOids    Oids of the parameters.
+   * @param rows             Rows returned or affected.
+   * @param queueNanos       Nanoseconds from submit until written to the
+   *                         connection.
+   * @param executionNanos   Nanoseconds from written until complete.
+   * @param serverParameters {@link PgServerParameters} of the connection.
+   */
+  public void slowOperation(String sql, int[] parameterOids, long rows, long queueNanos, long executionNanos,
+      PgServerParameters serverParameters) {
+    boolean isExplainable = (parameterOids.length == 0) || serverParameters.isAtLeast(GENERIC_PLAN_MAJOR_VERSION, 0);
+    this.executor.execute(() -> this.log(sql, parameterOids, rows, queueNanos, executionNanos, isExplainable));
+  }
+
+  /**
+   * Obtains the number of slow operations dropped as logging fell behind.
+   *
+   * @return Number of slow operations dropped.
+   */
+  public long getDropped() {
+    return this.dropped.sum();
+  }
+
+  /**
+   * Logs the slow operation (on the log thread).
+   *
+   * @param sql            SQL.
+   * @param parameterOids  Oids of the parameters.
+   * @param rows           Rows returned or affected.
+   * @param queueNanos     Nanoseconds from submit until written.
+   * @param executionNanos Nanoseconds from written until complete.
+   * @param isExplainable  Indicates if the plan may be captured.
+   */
+  private void log(String sql, int[] parameterOids, long rows, long queueNanos, long executionNanos,
+      boolean isExplainable) {
+    StringBuilder message = new StringBuilder();
+    message.append("Slow operation ").append(TimeUnit.NANOSECONDS.toMillis(queueNanos + executionNanos))
+        .append("ms (queued ").append(TimeUnit.NANOSECONDS.toMillis(queueNanos)).append("ms, executing ")
+        .append(TimeUnit.NANOSECONDS.toMillis(executionNanos)).append("ms) with ").append(rows).append(" rows: ")
+        .append(sql);
+    if (parameterOids.length > 0) {
+      message.append(" [");
+      for (int i = 0; i < parameterOids.length; i++) {
+        message.append((i == 0) ? "$" : ", $").append(i + 1).append(' ').append(typeName(parameterOids[i]));
+      }
+      message.append(']');
+    }
+
+    // Log now, unless to capture the plan
+    CompletionStage<String> plan = isExplainable ? this.explain(sql, parameterOids.length > 0) : null;
+    if (plan == null) {
+      LOGGER.log(Level.WARNING, message.toString());
+      return;
+    }
+    plan.whenCompleteAsync((lines, failure) -> {
+      if (failure != null) {
+        message.append("\nPlan not available: ").append(failure.getMessage());
+      } else if (!lines.isEmpty()) {
+        message.append('\n').append(lines);
+      }
+      LOGGER.log(Level.WARNING, message.toString());
+    }, this.executor);
+  }
+
+  /**
+   * Captures the plan of the statement.
+   *
+   * @param sql             SQL.
+   * @param isParameterized Indicates if the SQL has parameters.
+   * @return Plan, or <code>null</code> if not capturing the plan.
+   */
+  private CompletionStage<String> explain(String sql, boolean isParameterized) {
+
+    // Determine if capture plan (avoiding explaining the explain)
+    if ((this.explainSessionFactory == null) || sql.regionMatches(true, 0, "EXPLAIN", 0, "EXPLAIN".length())) {
+      return null;
+    }
+    if ((this.explained.size() >= MAX_EXPLAINED) || !this.explained.add(sql)) {
+      return null;
+    }
+
+    try {
+      if (this.explainSession == null) {
+        this.explainSession = this.explainSessionFactory.get();
+      }
+
+      // Parameter values are not kept, so explain the generic plan
+      String explain = "EXPLAIN (" + (isParameterized ? "GENERIC_PLAN, " : "") + "ANALYZE false) " + sql;
+      return this.explainSession.<List<String>>rowOperation(explain)
+          .collect(Collectors.mapping(row -> row.at(1).get(String.class), Collectors.toList()))
+          .submit().getCompletionStage().thenApply((lines) -> String.join("\n", lines));
+    } catch (RuntimeException ex) {
+      return CompletableFuture.failedFuture(ex);
+    }
+  }
+
+  /**
+   * Obtains the type name for the oid.
+   *
+   * @param oid Oid.
+   * @return Type name.
+   */
+  private static String typeName(int oid) {
+    for (PgAdbaType type : PgAdbaType.values()) {
+      if ((type.getOid() != null) && (type.getOid() == oid)) {
+        return type.getName();
+      }
+    }
+    return "oid " + oid;
+  }
+
+  /*
+   * ================= AutoCloseable ======================
+   */
+
+  @Override
+  public void close() {
+    this.executor.shutdown();
+  }
+
+}
@@ -0,0 +1,129 @@
+package org.postgresql.sql2.metrics;
+
+/**
+ * Latencies of a statement, split into where the time was spent.
+ */
+public class StatementLatency {
+
+  /**
+   * SQL of the statement.
+   */
+  private final String sql;
+
+  /**
+   * From submit until written to the connection (admission and queuing).
+   */
+  private final LatencyHistogram queue = new LatencyHistogram();
+
+  /**
+   * From written until the first response from the server.
+   */
+  private final LatencyHistogram server = new LatencyHistogram();
+
+  /**
+   * From the first response until the command completes (streaming and
+   * decoding the rows).
+   */
+  private final LatencyHistogram decode = new LatencyHistogram();
+
+  /**
+   * From submit until the command completes.
+   */
+  private final LatencyHistogram total = new LatencyHistogram();
+
+  /**
+   * Instantiate.
+   *
+   * @param sql SQL of the statement.
+   */
+  public StatementLatency(String sql) {
+    this.sql = sql;
+  }
+
+  /**
+   * Records the latencies of an execution of the statement.
+   *
+   * @param queueNanos  Nanoseconds from submit until written.
+   * @param serverNanos Nanoseconds from written until first response.
+   * @param decodeNanos Nanoseconds from first response until complete.
+   */
+  public void record(long queueNanos, long serverNanos, long decodeNanos) {
+    this.queue.record(queueNanos);
+    this.server.record(serverNanos);
+    this.decode.record(decodeNanos);
+    this.total.record(queueNanos + serverNanos + decodeNanos);
+  }
+
+  /**
+   * Obtains the SQL of the statement.
+   *
+   * @return SQL of the statement.
+   */
+  public String getSql() {
+    return this.sql;
+  }
+
+  /**
+   * Obtains the queue {@link LatencyHistogram}.
+   *
+   * @return Queue {@link LatencyHistogram}.
+   */
+  public LatencyHistogram getQueue() {
+    return this.queue;
+  }
+
+  /**
+   * Obtains the server {@link LatencyHistogram}.
+   *
+   * @return Server {@link LatencyHistogram}.
+   */
+  public LatencyHistogram getServer() {
+    return this.server;
+  }
+
+  /**
+   * Obtains the decode {@link LatencyHistogram}.
+   *
+   * @return Decode {@link LatencyHistogram}.
+   */
+  public LatencyHistogram getDecode() {
+    return this.decode;
+  }
+
+  /**
+   * Obtains the total {@link LatencyHistogram}.
+   *
+   * @return Total {@link LatencyHistogram}.
+   */
+  public LatencyHistogram getTotal() {
+    return this.total;
+  }
+
+  /**
+   * Obtains the median total latency.
+   *
+   * @return Median total latency in nanoseconds.
+   */
+  public long getP50() {
+    return this.total.getValueAtPercentile(50);
+  }
+
+  /**
+   * Obtains the 99th percentile total latency.
+   *
+   * @return 99th percentile total latency in nanoseconds.
+   */
+  public long getP99() {
+    return this.total.getValueAtPercentile(99);
+  }
+
+  /**
+   * Obtains the 99.9th percentile total latency.
+   *
+   * @return 99.9th percentile total latency in nanoseconds.
+   */
+  public long getP999() {
+    return this.total.getValueAtPercentile(99.9);
+  }
+
+}
@@ -3,8 +3,6 @@ package org.postgresql.sql2.operations;
 import jdk.incubator.sql2.Operation;
 import jdk.incubator.sql2.Submission;
 import org.postgresql.sql2.PgSession;
-import org.postgresql.sql2.communication.NetworkConnection;
-import org.postgresql.sql2.communication.network.CloseRequest;
 import org.postgresql.sql2.submissions.CloseSubmission;
 
 import java.time.Duration;
@@ -13,11 +11,9 @@ import java.util.function.Consumer;
 public class PgCloseOperation implements Operation<Void> {
   private PgSession connection;
   private Consumer<Throwable> errorHandler;
-  private NetworkConnection protocol;
 
-  public PgCloseOperation(PgSession connection, NetworkConnection protocol) {
+  public PgCloseOperation(PgSession connection) {
     this.connection = connection;
-    this.protocol = protocol;
   }
 
   @Override
@@ -39,8 +35,7 @@ public class PgCloseOperation implements Operation<Void> {
   public Submission<Void> submit() {
     CloseSubmission submission = new CloseSubmission(this::cancel, errorHandler);
     submission.getCompletionStage().thenAccept(s -> connection.setLifeCycleClosed());
-    CloseRequest closeRequest = new CloseRequest(submission);
-    protocol.sendNetworkRequest(closeRequest);
+    connection.submit(submission);
 
     // Closing so unregister connection
     this.connection.unregister();
@@ -37,6 +37,9 @@ public class PgOperationGroup<S, T> implements OperationGroup<S, T> {
   private Logger logger = Logger.getLogger(PgSession.class.getName());
   protected Consumer<Throwable> errorHandler = null;
   private boolean held = true;
+  private boolean parallel = false;
+  private boolean independent = false;
+  private CompletionStage<Boolean> condition = null;
 
   private Collector collector = DEFAULT_COLLECTOR;
 
@@ -56,22 +59,49 @@ public class PgOperationGroup<S, T> implements OperationGroup<S, T> {
 
   @Override
   public OperationGroup<S, T> parallel() {
-    throw new RuntimeException("not implemented yet");
+    if (groupSubmission != null) {
+      throw new IllegalStateException("you are not allowed to call parallel after the OperationGroup has been submitted");
+    }
+    if (parallel) {
+      throw new IllegalStateException("you are not allowed to call parallel multiple times");
+    }
+
+    parallel = true;
+
+    return this;
   }
 
   @Override
   public OperationGroup<S, T> independent() {
-    throw new RuntimeException("not implemented yet");
+    if (groupSubmission != null) {
+      throw new IllegalStateException("you are not allowed to call independent after the OperationGroup has been submitted");
+    }
+    if (independent) {
+      throw new IllegalStateException("you are not allowed to call independent multiple times");
+    }
+
+    independent = true;
+
+    return this;
   }
 
   @Override
   public OperationGroup<S, T> conditional(CompletionStage<Boolean> condition) {
-    throw new RuntimeException("not implemented yet");
+    if (groupSubmission != null) {
+      throw new IllegalStateException("you are not allowed to call conditional after the OperationGroup has been submitted");
+    }
+    if (this.condition != null) {
+      throw new IllegalStateException("you are not allowed to call conditional multiple times");
+    }
+
+    this.condition = condition;
+
+    return this;
   }
 
   @Override
   public Submission<T> submit() {
-    GroupSubmission<T> sub = new GroupSubmission<>(this::cancel, errorHandler);
+    GroupSubmission<T> sub = new GroupSubmission<>(this::cancel, errorHandler, parallel, independent, condition);
     sub.setCollector(collector);
 
     groupSubmission = sub;
@@ -82,8 +112,10 @@ public class PgOperationGroup<S, T> implements OperationGroup<S, T> {
   @Override
   public void close() {
     held = false;
-    
-    connection.submit(groupSubmission);
+
+    if (groupSubmission != null) {
+      connection.submit(groupSubmission);
+    }
   }
 
   @Override
@@ -103,6 +135,10 @@ public class PgOperationGroup<S, T> implements OperationGroup<S, T> {
       throw new IllegalStateException("It's not permitted to add more operations after an OperationGroup has been released");
     }
 
+    if (parallel || independent) {
+      throw new IllegalStateException("It's not permitted to add a catch operation to a parallel or independent OperationGroup");
+    }
+
     if (logger.isLoggable(Level.CONFIG)) {
       logger.log(Level.CONFIG, "CatchOperation created for connection " + this);
     }
@@ -234,6 +270,10 @@ public class PgOperationGroup<S, T> implements OperationGroup<S, T> {
       throw new IllegalStateException("It's not permitted to add more operations after an OperationGroup has been released");
     }
 
+    if (parallel) {
+      throw new IllegalStateException("It's not permitted to end a transaction in a parallel OperationGroup");
+    }
+
     if (logger.isLoggable(Level.CONFIG)) {
       logger.log(Level.CONFIG, "EndTransactionOperation created for connection " + this);
     }
@@ -5,6 +5,8 @@ import org.postgresql.sql2.communication.packets.parts.PgAdbaType;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 
 public class ArrayQueryParameter implements QueryParameter {
@@ -68,4 +70,9 @@ public class ArrayQueryParameter implements QueryParameter {
   public int numberOfQueryRepetitions() {
     return values.size();
   }
+
+  @Override
+  public CompletionStage<?> whenAvailable() {
+    return CompletableFuture.completedFuture(values);
+  }
 }
@@ -6,6 +6,7 @@ import org.postgresql.sql2.communication.packets.parts.PgAdbaType;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 
@@ -89,4 +90,9 @@ public class FutureArrayQueryParameter implements QueryParameter {
 
     return values.size();
   }
+
+  @Override
+  public CompletionStage<?> whenAvailable() {
+    return valueHolder == null ? CompletableFuture.completedFuture(values) : valueHolder;
+  }
 }
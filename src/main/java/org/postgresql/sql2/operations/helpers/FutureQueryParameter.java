@@ -3,6 +3,7 @@ package org.postgresql.sql2.operations.helpers;
 import jdk.incubator.sql2.SqlType;
 import org.postgresql.sql2.communication.packets.parts.PgAdbaType;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 
@@ -63,4 +64,9 @@ public class FutureQueryParameter implements QueryParameter {
   public int numberOfQueryRepetitions() {
     return 1;
   }
+
+  @Override
+  public CompletionStage<?> whenAvailable() {
+    return valueHolder == null ? CompletableFuture.completedFuture(value) : valueHolder;
+  }
 }
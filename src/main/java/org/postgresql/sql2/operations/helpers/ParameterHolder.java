@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 public class ParameterHolder {
@@ -51,4 +52,18 @@ public class ParameterHolder {
 
     return parameterMap.entrySet().iterator().next().getValue().numberOfQueryRepetitions();
   }
+
+  /**
+   * obtains a future that completes once the values of all parameters are available, so the query can be sent without
+   * blocking on them.
+   * @return future completing when all parameter values are available
+   */
+  public CompletableFuture<Void> whenAvailable() {
+    CompletableFuture<?>[] available = new CompletableFuture<?>[parameterMap.size()];
+    int index = 0;
+    for (QueryParameter parameter : parameterMap.values()) {
+      available[index++] = parameter.whenAvailable().toCompletableFuture();
+    }
+    return CompletableFuture.allOf(available);
+  }
 }
@@ -1,5 +1,6 @@
 package org.postgresql.sql2.operations.helpers;
 
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 
 public interface QueryParameter {
@@ -10,4 +11,6 @@ public interface QueryParameter {
   byte[] getParameter(int index) throws ExecutionException, InterruptedException;
 
   int numberOfQueryRepetitions() throws ExecutionException, InterruptedException;
+
+  CompletionStage<?> whenAvailable();
 }
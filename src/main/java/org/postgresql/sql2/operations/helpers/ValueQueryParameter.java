@@ -3,6 +3,8 @@ package org.postgresql.sql2.operations.helpers;
 import jdk.incubator.sql2.SqlType;
 import org.postgresql.sql2.communication.packets.parts.PgAdbaType;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 
 public class ValueQueryParameter implements QueryParameter {
@@ -60,4 +62,9 @@ public class ValueQueryParameter implements QueryParameter {
   public int numberOfQueryRepetitions() {
     return 1;
   }
+
+  @Override
+  public CompletionStage<?> whenAvailable() {
+    return CompletableFuture.completedFuture(value);
+  }
 }
@@ -16,7 +16,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class ArrayCountSubmission<T> implements PgSubmission<T> {
+public class ArrayCountSubmission<T> implements PgSubmission<T>, GroupMember {
   private static final Collector<Result.RowCount, List<Result.RowCount>, List<Result.RowCount>> defaultCollector = Collector.of(
       () -> new ArrayList<>(),
       (a, r) -> a.add(r),
@@ -126,6 +126,11 @@ public class ArrayCountSubmission<T> implements PgSubmission<T> {
     return errorHandler;
   }
 
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
+
   @Override
   public CompletionStage<Boolean> cancel() {
     return new CompletableFuture<Boolean>().completeAsync(cancel);
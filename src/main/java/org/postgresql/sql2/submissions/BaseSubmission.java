@@ -13,7 +13,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class BaseSubmission<T> implements PgSubmission<T> {
+public class BaseSubmission<T> implements PgSubmission<T>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<T> publicStage;
   private String sql;
@@ -135,4 +135,8 @@ public class BaseSubmission<T> implements PgSubmission<T> {
   public Consumer<Throwable> getErrorHandler() {
     return errorHandler;
   }
+
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
 }
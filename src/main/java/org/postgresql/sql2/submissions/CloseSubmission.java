@@ -12,7 +12,7 @@ import org.postgresql.sql2.PgSubmission;
 import org.postgresql.sql2.communication.packets.DataRow;
 import org.postgresql.sql2.operations.helpers.ParameterHolder;
 
-public class CloseSubmission implements PgSubmission<Void> {
+public class CloseSubmission implements PgSubmission<Void>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<Void> publicStage;
   private final AtomicBoolean sendConsumed = new AtomicBoolean(false);
@@ -95,4 +95,9 @@ public class CloseSubmission implements PgSubmission<Void> {
   public Consumer<Throwable> getErrorHandler() {
     return errorHandler;
   }
+
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return null;
+  }
 }
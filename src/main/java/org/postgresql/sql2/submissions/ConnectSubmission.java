@@ -13,12 +13,13 @@ import jdk.incubator.sql2.SessionProperty;
 import org.postgresql.sql2.PgSessionProperty;
 import org.postgresql.sql2.PgSubmission;
 import org.postgresql.sql2.communication.NetworkConnect;
+import org.postgresql.sql2.communication.network.DirectTlsConnectRequest;
 import org.postgresql.sql2.communication.network.NetworkConnectRequest;
 import org.postgresql.sql2.communication.network.TlsConnectRequest;
 import org.postgresql.sql2.communication.packets.DataRow;
 import org.postgresql.sql2.operations.helpers.ParameterHolder;
 
-public class ConnectSubmission implements PgSubmission<Void> {
+public class ConnectSubmission implements PgSubmission<Void>, GroupMember {
 
   private final Supplier<Boolean> cancel;
   private CompletableFuture<Void> publicStage;
@@ -45,7 +46,13 @@ public class ConnectSubmission implements PgSubmission<Void> {
     this.errorHandler = errorHandler;
     this.groupSubmission = groupSubmission;
     if (properties.containsKey(PgSessionProperty.SSL) && (Boolean)properties.get(PgSessionProperty.SSL)) {
-      this.request = new TlsConnectRequest(this);
+      if (properties.containsKey(PgSessionProperty.SSL_DIRECT) && (Boolean)properties.get(PgSessionProperty.SSL_DIRECT)) {
+        boolean isFallback = properties.containsKey(PgSessionProperty.SSL_DIRECT_FALLBACK)
+            && (Boolean)properties.get(PgSessionProperty.SSL_DIRECT_FALLBACK);
+        this.request = new DirectTlsConnectRequest(this, isFallback);
+      } else {
+        this.request = new TlsConnectRequest(this);
+      }
     } else {
       this.request = new NetworkConnectRequest(this);
     }
@@ -130,4 +137,9 @@ public class ConnectSubmission implements PgSubmission<Void> {
     return errorHandler;
   }
 
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
+
 }
@@ -14,7 +14,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class CountSubmission<T> implements PgSubmission<T> {
+public class CountSubmission<T> implements PgSubmission<T>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<T> publicStage;
   private String sql;
@@ -106,6 +106,11 @@ public class CountSubmission<T> implements PgSubmission<T> {
     return errorHandler;
   }
 
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
+
   @Override
   public CompletionStage<Boolean> cancel() {
     return null;
@@ -0,0 +1,18 @@
+package org.postgresql.sql2.submissions;
+
+/**
+ * Submission that may be a member of an operation group.
+ *
+ * <p>Kept out of {@link org.postgresql.sql2.PgSubmission}, as the
+ * {@link GroupSubmission} is not exported.
+ */
+public interface GroupMember {
+
+  /**
+   * Obtains the {@link GroupSubmission} this is a member of.
+   *
+   * @return {@link GroupSubmission}. May be <code>null</code> if not a member of
+   *         a group.
+   */
+  GroupSubmission<?> getGroupSubmission();
+}
@@ -1,11 +1,13 @@
 package org.postgresql.sql2.submissions;
 
+import jdk.incubator.sql2.SqlSkippedException;
 import org.postgresql.sql2.PgSubmission;
 import org.postgresql.sql2.communication.packets.DataRow;
 import org.postgresql.sql2.operations.helpers.ParameterHolder;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -13,7 +15,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class GroupSubmission<T> implements PgSubmission<T> {
+public class GroupSubmission<T> implements PgSubmission<T>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<T> publicStage;
   private CompletionStage<T> membersTail;
@@ -22,9 +24,34 @@ public class GroupSubmission<T> implements PgSubmission<T> {
   private Collector collector;
   private Object collectorHolder;
 
+  private final boolean parallel;
+  private final boolean independent;
+  private final CompletableFuture<Boolean> executeMembers;
+  private CompletableFuture<Void> dispatchTail = CompletableFuture.completedFuture(null);
+  private int outstanding = 0;
+  private boolean released = false;
+  private Throwable firstFailure;
+
   public GroupSubmission(Supplier<Boolean> cancel, Consumer<Throwable> errorHandler) {
+    this(cancel, errorHandler, false, false, null);
+  }
+
+  /**
+   * creates a group submission with the attributes of its operation group.
+   * @param cancel supplier that cancels the group
+   * @param errorHandler error handler of the group, may be null
+   * @param parallel true if members may be executed in any order
+   * @param independent true if the failure of one member does not skip the others
+   * @param condition condition that decides if members are executed, null for an unconditional group
+   */
+  public GroupSubmission(Supplier<Boolean> cancel, Consumer<Throwable> errorHandler, boolean parallel,
+      boolean independent, CompletionStage<Boolean> condition) {
     this.cancel = cancel;
     this.errorHandler = errorHandler;
+    this.parallel = parallel;
+    this.independent = independent;
+    this.executeMembers = condition == null ? CompletableFuture.completedFuture(Boolean.TRUE)
+        : condition.toCompletableFuture();
   }
 
   @Override
@@ -100,13 +127,18 @@ public class GroupSubmission<T> implements PgSubmission<T> {
     return errorHandler;
   }
 
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return null;
+  }
+
   @Override
   public CompletionStage<Boolean> cancel() {
     return new CompletableFuture<Boolean>().completeAsync(cancel);
   }
 
   @Override
-  public CompletionStage<T> getCompletionStage() {
+  public synchronized CompletionStage<T> getCompletionStage() {
     if (publicStage == null) {
       publicStage = new CompletableFuture<>();
     }
@@ -119,6 +151,10 @@ public class GroupSubmission<T> implements PgSubmission<T> {
    * @param completionStage operation to add
    */
   public void stackFuture(CompletableFuture<T> completionStage) {
+    if (independent) {
+      return;
+    }
+
     if (membersTail == null) {
       membersTail = getCompletionStage();
     }
@@ -129,4 +165,108 @@ public class GroupSubmission<T> implements PgSubmission<T> {
     });
     membersTail = completionStage;
   }
+
+  /**
+   * registers a member of this group. The member is dispatched once the condition of the group holds, its parameter values
+   * are available and, for a sequential group, the previous member has been dispatched. A member that may no longer run is
+   * skipped instead.
+   * @param member the member submission
+   * @param dispatch sends the member over the connection
+   */
+  public void addMember(PgSubmission<?> member, Runnable dispatch) {
+    CompletableFuture<?> memberStage = (CompletableFuture<?>) member.getCompletionStage();
+
+    // Order the member within the group
+    CompletableFuture<Boolean> ready;
+    CompletableFuture<Void> dispatched = new CompletableFuture<>();
+    synchronized (this) {
+      outstanding++;
+      ready = executeMembers;
+      if (member.getHolder() != null) {
+        ready = ready.thenCombine(member.getHolder().whenAvailable(), (execute, values) -> execute);
+      }
+      if (!parallel) {
+        CompletableFuture<Boolean> memberReady = ready;
+        ready = dispatchTail.thenCompose(v -> memberReady);
+        dispatchTail = dispatched;
+      }
+    }
+    memberStage.whenComplete((r, t) -> memberCompleted(t));
+
+    // Dispatch outside the lock (runs inline if already ready)
+    ready.handle((execute, t) -> {
+      try {
+        if (t != null) {
+          memberStage.completeExceptionally(new SqlSkippedException(unwrap(t)));
+        } else if (!Boolean.TRUE.equals(execute) || skipRemaining()) {
+          memberStage.completeExceptionally(new SqlSkippedException("skipped as the operation group will not execute it",
+              null, null, -1, member.getSql(), -1));
+        } else {
+          try {
+            dispatch.run();
+          } catch (Throwable e) {
+            memberStage.completeExceptionally(e);
+          }
+        }
+      } finally {
+        dispatched.complete(null);
+      }
+      return null;
+    });
+  }
+
+  /**
+   * called when the operation group is closed, no more members will be added and the group completes once every member
+   * has completed.
+   */
+  public void release() {
+    synchronized (this) {
+      released = true;
+    }
+    executeMembers.whenComplete((execute, t) -> tryComplete());
+  }
+
+  private static Throwable unwrap(Throwable t) {
+    return t instanceof CompletionException ? t.getCause() : t;
+  }
+
+  private synchronized boolean skipRemaining() {
+    return !independent && firstFailure != null;
+  }
+
+  private void memberCompleted(Throwable t) {
+    synchronized (this) {
+      outstanding--;
+      Throwable cause = unwrap(t);
+      if (cause != null && !(cause instanceof SqlSkippedException) && firstFailure == null) {
+        firstFailure = cause;
+      }
+    }
+    tryComplete();
+  }
+
+  private void tryComplete() {
+    Throwable failure;
+    synchronized (this) {
+      if (!released || outstanding > 0 || !executeMembers.isDone() || getCompletionStage().toCompletableFuture().isDone()) {
+        return;
+      }
+      failure = firstFailure;
+    }
+
+    CompletableFuture<T> stage = (CompletableFuture<T>) getCompletionStage();
+    if (executeMembers.isCompletedExceptionally()) {
+      executeMembers.whenComplete((execute, t) ->
+          stage.completeExceptionally(new SqlSkippedException(unwrap(t))));
+    } else if (!Boolean.TRUE.equals(executeMembers.join())) {
+      stage.complete(null);
+    } else if (failure != null && !independent) {
+      if (errorHandler != null) {
+        errorHandler.accept(failure);
+      }
+      stage.completeExceptionally(failure);
+    } else {
+      finish(null);
+    }
+  }
 }
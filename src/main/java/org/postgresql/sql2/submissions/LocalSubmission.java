@@ -14,7 +14,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class LocalSubmission<T> implements PgSubmission<T> {
+public class LocalSubmission<T> implements PgSubmission<T>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<T> publicStage;
   private Consumer<Throwable> errorHandler;
@@ -95,6 +95,11 @@ public class LocalSubmission<T> implements PgSubmission<T> {
     return errorHandler;
   }
 
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
+
   @Override
   public CompletionStage<Boolean> cancel() {
     return null;
@@ -17,7 +17,7 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class OutSubmission<T> implements PgSubmission<T> {
+public class OutSubmission<T> implements PgSubmission<T>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<T> publicStage;
   private Consumer<Throwable> errorHandler;
@@ -107,6 +107,11 @@ public class OutSubmission<T> implements PgSubmission<T> {
     return errorHandler;
   }
 
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
+
   @Override
   public CompletionStage<Boolean> cancel() {
     return null;
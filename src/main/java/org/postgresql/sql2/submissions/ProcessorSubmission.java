@@ -15,7 +15,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class ProcessorSubmission<T> implements PgSubmission<T> {
+public class ProcessorSubmission<T> implements PgSubmission<T>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<T> publicStage;
   private Consumer<Throwable> errorHandler;
@@ -99,6 +99,11 @@ public class ProcessorSubmission<T> implements PgSubmission<T> {
     return errorHandler;
   }
 
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
+
   @Override
   public CompletionStage<Boolean> cancel() {
     return null;
@@ -13,7 +13,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class RowSubmission<T> implements PgSubmission<T> {
+public class RowSubmission<T> implements PgSubmission<T>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<T> publicStage;
   private String sql;
@@ -129,4 +129,8 @@ public class RowSubmission<T> implements PgSubmission<T> {
     return errorHandler;
   }
 
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
+
 }
@@ -15,7 +15,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class TransactionSubmission implements PgSubmission<TransactionOutcome> {
+public class TransactionSubmission implements PgSubmission<TransactionOutcome>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<TransactionOutcome> publicStage;
   private String sql;
@@ -97,6 +97,11 @@ public class TransactionSubmission implements PgSubmission<TransactionOutcome> {
     return errorHandler;
   }
 
+  @Override
+  public GroupSubmission<?> getGroupSubmission() {
+    return null;
+  }
+
   @Override
   public CompletionStage<Boolean> cancel() {
     return null;
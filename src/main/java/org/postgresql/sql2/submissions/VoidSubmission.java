@@ -13,7 +13,7 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-public class VoidSubmission<T> implements PgSubmission<T> {
+public class VoidSubmission<T> implements PgSubmission<T>, GroupMember {
   private final Supplier<Boolean> cancel;
   private CompletableFuture<T> publicStage;
   private String sql;
@@ -125,4 +125,8 @@ public class VoidSubmission<T> implements PgSubmission<T> {
   public Consumer<Throwable> getErrorHandler() {
     return errorHandler;
   }
+
+  public GroupSubmission<?> getGroupSubmission() {
+    return groupSubmission;
+  }
 }
@@ -0,0 +1,64 @@
+package org.postgresql.sql2.tracing;
+
+/**
+ * Trace of an operation, from submit until complete.
+ *
+ * <p>The operation moves through the {@link Stage} values in order, each
+ * stage ending as the next starts (or the operation ends). Implementations may
+ * start a child span per {@link Stage}.
+ *
+ * <p>Methods other than {@link #getTraceParent()} are invoked on the hot path
+ * (typically the {@link org.postgresql.sql2.execution.NioLoop} thread), so
+ * must be cheap and must not block. All methods default to doing nothing.
+ */
+public interface PgSpan {
+
+  /**
+   * Stage of the operation.
+   */
+  enum Stage {
+
+    /**
+     * Submitted and waiting for admission or to be written (started on
+     * {@link PgTracer#start(String)}).
+     */
+    QUEUED,
+
+    /**
+     * Written to the connection, awaiting the server.
+     */
+    EXECUTING,
+
+    /**
+     * Receiving the results from the server.
+     */
+    RECEIVING
+  }
+
+  /**
+   * Obtains the W3C <code>traceparent</code> to propagate to the server (see
+   * {@link TracePropagation}).
+   *
+   * @return <code>traceparent</code>, or <code>null</code> to not propagate.
+   */
+  default String getTraceParent() {
+    return null;
+  }
+
+  /**
+   * Operation has moved to the {@link Stage}.
+   *
+   * @param stage {@link Stage}.
+   */
+  default void stage(Stage stage) {
+  }
+
+  /**
+   * Operation has ended.
+   *
+   * @param failure Failure of the operation. <code>null</code> if successful.
+   */
+  default void end(Throwable failure) {
+  }
+
+}
@@ -0,0 +1,37 @@
+package org.postgresql.sql2.tracing;
+
+import java.util.Map;
+import jdk.incubator.sql2.SessionProperty;
+import org.postgresql.sql2.PgSessionProperty;
+
+/**
+ * Intercepts operations submitted to a session, to trace them.
+ *
+ * <p>{@link #start(String)} is invoked on the thread submitting the operation,
+ * so the implementation may pick up the current trace context (typically from
+ * a thread local) to parent the {@link PgSpan}.
+ *
+ * <p>Registered with {@link PgSessionProperty#TRACER}.
+ */
+public interface PgTracer {
+
+  /**
+   * Obtains the {@link PgTracer} from the properties.
+   *
+   * @param properties Properties.
+   * @return Configured {@link PgTracer}, or <code>null</code> if not tracing.
+   */
+  static PgTracer from(Map<SessionProperty, Object> properties) {
+    return (PgTracer) properties.get(PgSessionProperty.TRACER);
+  }
+
+  /**
+   * Starts tracing an operation.
+   *
+   * @param sql SQL of the operation.
+   * @return {@link PgSpan} for the operation. May be <code>null</code> to not
+   *         trace the operation.
+   */
+  PgSpan start(String sql);
+
+}
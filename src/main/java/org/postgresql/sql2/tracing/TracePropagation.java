@@ -0,0 +1,38 @@
+package org.postgresql.sql2.tracing;
+
+import org.postgresql.sql2.PgSessionProperty;
+
+/**
+ * How the <code>traceparent</code> of a {@link PgSpan} is propagated to the
+ * server, so the server side (<code>pg_stat_activity</code>, logs) can be
+ * correlated with the client trace.
+ *
+ * <p>Statements are prepared once per connection and cached by their SQL, so
+ * the trace context can not be part of the SQL of every execution without
+ * defeating the cache.
+ */
+public enum TracePropagation {
+
+  /**
+   * Not propagated.
+   */
+  NONE,
+
+  /**
+   * Prepended to the SQL as a sqlcommenter comment
+   * (<code>/*traceparent='...'*&#47;</code>). As the comment differs for each
+   * execution, traced operations are parsed as the unnamed statement every
+   * time (rather than re-using the prepared statement), so the server never
+   * reports a stale trace context. Suits correlating without an extra
+   * statement, at the cost of parsing each traced operation.
+   */
+  COMMENT,
+
+  /**
+   * Set as the setting {@link PgSessionProperty#TRACE_PROPAGATION_SETTING}
+   * (<code>set_config</code> executed before the operation, pipelined so
+   * without an extra round trip). Correlates every execution of cached
+   * statements, at the cost of an extra statement per traced operation.
+   */
+  SET_CONFIG
+}
@@ -0,0 +1,125 @@
+package org.postgresql.sql2.util;
+
+import java.text.Normalizer;
+
+/**
+ * SASLprep (RFC 4013) of the SCRAM password.
+ *
+ * <p>As with the server (and libpq), a password that can not be prepared
+ * (prohibited or unassigned characters, or failing the bidirectional rules) is
+ * used as is. Character properties are from the JDK's Unicode version, rather
+ * than Unicode 3.2 of RFC 3454.
+ */
+public final class SaslPrep {
+
+  /**
+   * Non-ASCII space characters (RFC 3454 table C.1.2), mapped to space.
+   */
+  private static final int[] NON_ASCII_SPACE = { 0x00A0, 0x00A0, 0x1680, 0x1680, 0x2000, 0x200B, 0x202F, 0x202F,
+      0x205F, 0x205F, 0x3000, 0x3000 };
+
+  /**
+   * Characters commonly mapped to nothing (RFC 3454 table B.1).
+   */
+  private static final int[] MAPPED_TO_NOTHING = { 0x00AD, 0x00AD, 0x034F, 0x034F, 0x1806, 0x1806, 0x180B, 0x180D,
+      0x200B, 0x200D, 0x2060, 0x2060, 0xFE00, 0xFE0F, 0xFEFF, 0xFEFF };
+
+  /**
+   * Prohibited characters (RFC 3454 tables C.1.2 and C.2.1 to C.9).
+   */
+  private static final int[] PROHIBITED = { 0x0000, 0x001F, 0x007F, 0x009F, 0x00A0, 0x00A0, 0x0340, 0x0341,
+      0x06DD, 0x06DD, 0x070F, 0x070F, 0x1680, 0x1680, 0x180E, 0x180E, 0x2000, 0x200F, 0x2028, 0x202F,
+      0x205F, 0x2063, 0x206A, 0x206F, 0x2FF0, 0x2FFB, 0x3000, 0x3000, 0xD800, 0xF8FF, 0xFDD0, 0xFDEF,
+      0xFFF9, 0xFFFF, 0x1D173, 0x1D17A, 0xE0001, 0xE0001, 0xE0020, 0xE007F, 0xF0000, 0x10FFFF };
+
+  /**
+   * Prepares the password.
+   *
+   * @param password Password.
+   * @return Prepared password, or the password as is if it can not be prepared.
+   */
+  public static String saslPrep(String password) {
+
+    // Determine if ASCII (no preparation required)
+    boolean isAscii = true;
+    for (int i = 0; i < password.length(); i++) {
+      char c = password.charAt(i);
+      if ((c < 0x20) || (c > 0x7E)) {
+        isAscii = false;
+        break;
+      }
+    }
+    if (isAscii) {
+      return password;
+    }
+
+    // Map
+    StringBuilder mapped = new StringBuilder(password.length());
+    for (int i = 0; i < password.length();) {
+      int codePoint = password.codePointAt(i);
+      i += Character.charCount(codePoint);
+      if (isIn(codePoint, NON_ASCII_SPACE)) {
+        mapped.append(' ');
+      } else if (!isIn(codePoint, MAPPED_TO_NOTHING)) {
+        mapped.appendCodePoint(codePoint);
+      }
+    }
+
+    // Normalise
+    String prepared = Normalizer.normalize(mapped, Normalizer.Form.NFKC);
+
+    // Check prohibited, unassigned and bidirectional characters
+    boolean hasRandAl = false;
+    boolean hasL = false;
+    for (int i = 0; i < prepared.length();) {
+      int codePoint = prepared.codePointAt(i);
+      i += Character.charCount(codePoint);
+      if (isIn(codePoint, PROHIBITED) || (Character.getType(codePoint) == Character.UNASSIGNED)
+          || ((codePoint & 0xFFFE) == 0xFFFE)) {
+        return password;
+      }
+      byte direction = Character.getDirectionality(codePoint);
+      hasRandAl |= isRandAl(direction);
+      hasL |= (direction == Character.DIRECTIONALITY_LEFT_TO_RIGHT);
+    }
+    if (hasRandAl && (hasL || !isRandAl(Character.getDirectionality(prepared.codePointAt(0)))
+        || !isRandAl(Character.getDirectionality(prepared.codePointBefore(prepared.length()))))) {
+      return password;
+    }
+    return prepared;
+  }
+
+  /**
+   * Determines if the code point is within the ranges.
+   *
+   * @param codePoint Code point.
+   * @param ranges    Inclusive ranges as pairs of first and last code point.
+   * @return <code>true</code> if within the ranges.
+   */
+  private static boolean isIn(int codePoint, int[] ranges) {
+    for (int i = 0; i < ranges.length; i += 2) {
+      if ((codePoint >= ranges[i]) && (codePoint <= ranges[i + 1])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Determines if right to left directionality (RandALCat of RFC 3454).
+   *
+   * @param direction Directionality.
+   * @return <code>true</code> if right to left.
+   */
+  private static boolean isRandAl(byte direction) {
+    return (direction == Character.DIRECTIONALITY_RIGHT_TO_LEFT)
+        || (direction == Character.DIRECTIONALITY_RIGHT_TO_LEFT_ARABIC);
+  }
+
+  /**
+   * All access via static methods.
+   */
+  private SaslPrep() {
+  }
+
+}
@@ -0,0 +1,60 @@
+package org.postgresql.sql2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.SqlException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.testutil.ConnectUtil;
+import org.postgresql.sql2.testutil.DatabaseHolder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+public class PgBlockingSessionTest {
+  public static PostgreSQLContainer postgres = DatabaseHolder.getCached();
+
+  private static DataSource ds;
+
+  @BeforeAll
+  public static void setUp() {
+    ds = ConnectUtil.openDb(postgres);
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    ds.close();
+  }
+
+  @Test
+  public void queryWithParameters() {
+    try (PgBlockingSession session = new PgBlockingSession(ds.getSession())) {
+      List<Integer> rows = session.query("select $1::int4 + $2::int4 as t", Arrays.asList(1, 2),
+          row -> row.at("t").get(Integer.class));
+
+      assertEquals(Arrays.asList(3), rows);
+    }
+  }
+
+  @Test
+  public void updateReturnsCount() {
+    try (PgBlockingSession session = new PgBlockingSession(ds.getSession())) {
+      session.execute("create table blockingUpdate(id int)");
+
+      assertEquals(2, session.update("insert into blockingUpdate(id) values($1::int4), ($2::int4)",
+          Arrays.asList(1, 2)));
+
+      session.execute("drop table blockingUpdate");
+    }
+  }
+
+  @Test
+  public void failureThrowsSqlException() {
+    try (PgBlockingSession session = new PgBlockingSession(ds.getSession())) {
+      assertThrows(SqlException.class, () -> session.execute("select select"));
+    }
+  }
+}
@@ -2,6 +2,8 @@ package org.postgresql.sql2;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.Arrays;
@@ -13,6 +15,8 @@ import jdk.incubator.sql2.AdbaType;
 import jdk.incubator.sql2.DataSource;
 import jdk.incubator.sql2.OperationGroup;
 import jdk.incubator.sql2.Session;
+import jdk.incubator.sql2.SqlException;
+import jdk.incubator.sql2.SqlSkippedException;
 import jdk.incubator.sql2.Submission;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -435,4 +439,148 @@ public class PgOperationGroupTest {
       assertEquals(Integer.valueOf(1), result);
     }
   }
+
+  @Test
+  public void parallelGroupOperationSumOfRowOperations() throws InterruptedException, ExecutionException, TimeoutException {
+
+    try (Session session = ds.getSession()) {
+      OperationGroup<Integer, Integer> operationGroup = session.operationGroup();
+
+      Submission<Integer> sub = operationGroup
+          .parallel()
+          .collect(CollectorUtils.summingCollector())
+          .submit();
+      operationGroup.rowOperation("select 1 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.rowOperation("select 2 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.rowOperation("select 3 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.close();
+
+      Integer result = sub.getCompletionStage().toCompletableFuture().get(10, SECONDS);
+      assertEquals(Integer.valueOf(6), result);
+    }
+  }
+
+  @Test
+  public void independentGroupOperationIgnoresFailedMember() throws InterruptedException, ExecutionException, TimeoutException {
+
+    try (Session session = ds.getSession()) {
+      OperationGroup<Integer, Integer> operationGroup = session.operationGroup();
+
+      Submission<Integer> sub = operationGroup
+          .independent()
+          .collect(CollectorUtils.summingCollector())
+          .submit();
+      operationGroup.rowOperation("select 1 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      Submission<Integer> failing = operationGroup.<Integer>rowOperation("select select")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.rowOperation("select 2 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.close();
+
+      Integer result = sub.getCompletionStage().toCompletableFuture().get(10, SECONDS);
+      assertEquals(Integer.valueOf(3), result);
+
+      try {
+        failing.getCompletionStage().toCompletableFuture().get(10, SECONDS);
+        fail("the failing member should have completed exceptionally");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof SqlException);
+      }
+    }
+  }
+
+  @Test
+  public void dependentGroupOperationSkipsAfterFailedMember() throws InterruptedException, TimeoutException {
+
+    try (Session session = ds.getSession()) {
+      OperationGroup<Integer, Integer> operationGroup = session.operationGroup();
+
+      Submission<Integer> sub = operationGroup
+          .collect(CollectorUtils.summingCollector())
+          .submit();
+      operationGroup.<Integer>rowOperation("select select")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.close();
+
+      try {
+        sub.getCompletionStage().toCompletableFuture().get(10, SECONDS);
+        fail("the group should have completed exceptionally");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof SqlException);
+      }
+    }
+  }
+
+  @Test
+  public void conditionalGroupOperationFalseSkipsMembers() throws InterruptedException, TimeoutException,
+      ExecutionException {
+
+    try (Session session = ds.getSession()) {
+      OperationGroup<Integer, Integer> operationGroup = session.operationGroup();
+      CompletableFuture<Boolean> condition = new CompletableFuture<>();
+
+      Submission<Integer> sub = operationGroup
+          .conditional(condition)
+          .collect(CollectorUtils.summingCollector())
+          .submit();
+      Submission<Integer> member = operationGroup.<Integer>rowOperation("select 1 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.close();
+      condition.complete(false);
+
+      assertNull(sub.getCompletionStage().toCompletableFuture().get(10, SECONDS));
+
+      try {
+        member.getCompletionStage().toCompletableFuture().get(10, SECONDS);
+        fail("the member should have been skipped");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof SqlSkippedException);
+      }
+    }
+  }
+
+  @Test
+  public void conditionalGroupOperationTrueExecutesMembers() throws InterruptedException, ExecutionException,
+      TimeoutException {
+
+    try (Session session = ds.getSession()) {
+      OperationGroup<Integer, Integer> operationGroup = session.operationGroup();
+      CompletableFuture<Boolean> condition = new CompletableFuture<>();
+
+      Submission<Integer> sub = operationGroup
+          .conditional(condition)
+          .collect(CollectorUtils.summingCollector())
+          .submit();
+      operationGroup.rowOperation("select 1 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.rowOperation("select 2 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class)).submit();
+      operationGroup.close();
+      condition.complete(true);
+
+      Integer result = sub.getCompletionStage().toCompletableFuture().get(10, SECONDS);
+      assertEquals(Integer.valueOf(3), result);
+    }
+  }
+
+  @Test
+  public void parallelAfterSubmitNotAllowed() {
+
+    try (Session session = ds.getSession()) {
+      OperationGroup<Integer, Integer> operationGroup = session.operationGroup();
+      operationGroup.submit();
+
+      try {
+        operationGroup.parallel();
+        fail("an IllegalStateException should have been thrown");
+      } catch (IllegalStateException e) {
+        assertEquals("you are not allowed to call parallel after the OperationGroup has been submitted", e.getMessage());
+      }
+      operationGroup.close();
+    }
+  }
 }
@@ -0,0 +1,81 @@
+package org.postgresql.sql2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.DataSourceFactory;
+import jdk.incubator.sql2.Session;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.testutil.FakePgServer;
+
+/**
+ * Ensures session settings are sent on connecting and the
+ * {@link PgServerParameters} are reported.
+ */
+public class PgServerParametersTest {
+
+  @Test
+  public void parseVersion() {
+    assertEquals(160002, PgServerParameters.parseVersion("16.2 (Debian 16.2-1.pgdg120+2)"));
+    assertEquals(100005, PgServerParameters.parseVersion("10.5"));
+    assertEquals(90624, PgServerParameters.parseVersion("9.6.24"));
+    assertEquals(170000, PgServerParameters.parseVersion("17beta1"));
+    assertEquals(0, PgServerParameters.parseVersion(null));
+  }
+
+  @Test
+  public void typedParameters() {
+    PgServerParameters parameters = PgServerParameters.NONE;
+    assertNull(parameters.getServerVersion());
+    assertTrue(parameters.isStandardConformingStrings());
+
+    parameters = parameters.with("server_version", "9.6.24").with("standard_conforming_strings", "off")
+        .with("TimeZone", "UTC");
+    assertEquals(90624, parameters.getServerVersionNum());
+    assertTrue(parameters.isAtLeast(9, 6));
+    assertFalse(parameters.isAtLeast(10, 0));
+    assertFalse(parameters.isStandardConformingStrings());
+    assertEquals("UTC", parameters.get("timezone"));
+    assertNull(PgServerParameters.NONE.get("TimeZone"), "snapshot should not change");
+  }
+
+  @Test
+  public void sendSettingsOnConnect() throws Exception {
+    try (FakePgServer server = new FakePgServer().start();
+        DataSource ds = DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+            .builder()
+            .url("jdbc:postgresql://" + server.getHost() + ":" + server.getPort() + "/" + FakePgServer.DATABASE)
+            .username(FakePgServer.USER)
+            .password(FakePgServer.PASSWORD)
+            .sessionProperty(PgSessionProperty.APPLICATION_NAME, "orders")
+            .sessionProperty(PgSessionProperty.CURRENT_SCHEMA, "sales")
+            .sessionProperty(PgSessionProperty.STATEMENT_TIMEOUT, 5000)
+            .sessionProperty(PgSessionProperty.READ_ONLY, true)
+            .build();
+        Session session = ds.getSession()) {
+      session.<Long>rowOperation("select 1 as t")
+          .collect(Collectors.counting())
+          .submit().getCompletionStage().toCompletableFuture().get();
+
+      Map<String, String> startup = server.getStartupParameters();
+      assertEquals("orders", startup.get("application_name"));
+      assertEquals("sales", startup.get("search_path"));
+      assertEquals("5000", startup.get("statement_timeout"));
+      assertEquals("on", startup.get("default_transaction_read_only"));
+      assertEquals("UTF8", startup.get("client_encoding"));
+      assertFalse(startup.containsKey("extra_float_digits"), "should not send unset settings");
+      assertEquals(1, server.getExecutes(), "should not SET the settings");
+
+      PgServerParameters parameters = ((PgSession) session).getServerParameters();
+      assertEquals(100005, parameters.getServerVersionNum());
+      assertTrue(parameters.isIntegerDatetimes());
+      assertEquals("off", parameters.get("in_hot_standby"));
+    }
+  }
+
+}
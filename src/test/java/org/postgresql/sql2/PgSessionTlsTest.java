@@ -1,6 +1,7 @@
 package org.postgresql.sql2;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.postgresql.sql2.testutil.FutureUtil.get10;
 
@@ -8,13 +9,19 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Paths;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.DataSourceFactory;
 import jdk.incubator.sql2.Session;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.communication.TlsContext;
 import org.postgresql.sql2.testutil.CollectorUtils;
 import org.postgresql.sql2.testutil.ConnectUtil;
 import org.postgresql.sql2.testutil.DatabaseHolder;
@@ -92,4 +99,106 @@ public class PgSessionTlsTest {
     System.clearProperty("javax.net.ssl.trustStore");
     System.clearProperty("javax.net.ssl.trustStorePassword");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void handshakesCountedPerDataSource() throws InterruptedException, ExecutionException, TimeoutException,
+      URISyntaxException {
+    URL resource = PgSessionTlsTest.class.getResource("/keystore.jks");
+    System.setProperty("javax.net.ssl.trustStore", String.valueOf(Paths.get(resource.toURI()).toFile()));
+    System.setProperty("javax.net.ssl.trustStorePassword","changeit");
+    String sql = "select 1 as t";
+    try (DataSource resumeDs = ConnectUtil.openDbWithTls(postgresTls)) {
+      TlsContext tlsContext = ((PgDataSource) resumeDs).getTlsContext();
+      for (int i = 0; i < 2; i++) {
+        try (Session session = resumeDs.getSession()) {
+          Integer result = session.<Integer>rowOperation(sql)
+              .collect(CollectorUtils.singleCollector(Integer.class))
+              .submit().getCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+          assertEquals(Integer.valueOf(1), result);
+        }
+        if (i == 0) {
+          assertEquals(1, tlsContext.getFullHandshakes(), "First connection should be a full handshake");
+          assertEquals(0, tlsContext.getResumedHandshakes());
+        }
+      }
+
+      // Second connection should resume the session of the first
+      assertEquals(1, tlsContext.getFullHandshakes());
+      assertTrue(tlsContext.getResumedHandshakes() >= 1, "Second connection should resume the TLS session");
+    }
+    System.clearProperty("javax.net.ssl.trustStore");
+    System.clearProperty("javax.net.ssl.trustStorePassword");
+  }
+
+  @Test
+  public void directTlsFallsBackToNegotiatedTls() throws InterruptedException, ExecutionException, TimeoutException,
+      URISyntaxException {
+    URL resource = PgSessionTlsTest.class.getResource("/keystore.jks");
+    System.setProperty("javax.net.ssl.trustStore", String.valueOf(Paths.get(resource.toURI()).toFile()));
+    System.setProperty("javax.net.ssl.trustStorePassword","changeit");
+    String sql = "select 1 as t";
+    try (DataSource directDs = ConnectUtil.openDbWithDirectTls(postgresTls, true);
+        Session session = directDs.getSession()) {
+      Integer result = session.<Integer>rowOperation(sql)
+          .collect(CollectorUtils.singleCollector(Integer.class))
+          .submit().getCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+      assertEquals(Integer.valueOf(1), result);
+    }
+    System.clearProperty("javax.net.ssl.trustStore");
+    System.clearProperty("javax.net.ssl.trustStorePassword");
+  }
+
+  @Test
+  public void directTlsWithoutFallbackToOldServer() throws InterruptedException, TimeoutException, URISyntaxException {
+    URL resource = PgSessionTlsTest.class.getResource("/keystore.jks");
+    System.setProperty("javax.net.ssl.trustStore", String.valueOf(Paths.get(resource.toURI()).toFile()));
+    System.setProperty("javax.net.ssl.trustStorePassword","changeit");
+    String sql = "select 1 as t";
+    try (DataSource directDs = ConnectUtil.openDbWithDirectTls(postgresTls, false);
+        Session session = directDs.getSession()) {
+      get10(session.rowOperation(sql)
+          .collect(CollectorUtils.singleCollector(Integer.class))
+          .submit().getCompletionStage());
+      fail("Exception should have been thrown, as the server is older than PostgreSQL 17");
+    } catch (ExecutionException e) {
+      // expected, as server does not support direct TLS
+    }
+    System.clearProperty("javax.net.ssl.trustStore");
+    System.clearProperty("javax.net.ssl.trustStorePassword");
+  }
+
+  @Test
+  public void tlsTasksRunOnTaskExecutor() throws InterruptedException, ExecutionException, TimeoutException,
+      URISyntaxException {
+    URL resource = PgSessionTlsTest.class.getResource("/keystore.jks");
+    System.setProperty("javax.net.ssl.trustStore", String.valueOf(Paths.get(resource.toURI()).toFile()));
+    System.setProperty("javax.net.ssl.trustStorePassword","changeit");
+    String sql = "select 1 as t";
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    AtomicInteger tasks = new AtomicInteger();
+    Executor countingExecutor = (task) -> {
+      tasks.incrementAndGet();
+      executor.execute(task);
+    };
+    try (DataSource taskDs = DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+        .builder()
+        .url("jdbc:postgresql://" + postgresTls.getContainerIpAddress() + ":" + postgresTls.getMappedPort(5432)
+            + "/" + postgresTls.getDatabaseName())
+        .username(postgresTls.getUsername())
+        .password(postgresTls.getPassword())
+        .sessionProperty(PgSessionProperty.SSL, true)
+        .sessionProperty(PgSessionProperty.TASK_EXECUTOR, countingExecutor)
+        .build();
+        Session session = taskDs.getSession()) {
+      Integer result = session.<Integer>rowOperation(sql)
+          .collect(CollectorUtils.singleCollector(Integer.class))
+          .submit().getCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+      assertEquals(Integer.valueOf(1), result);
+      assertTrue(tasks.get() > 0, "TLS handshake tasks should run on the executor");
+    } finally {
+      executor.shutdown();
+    }
+    System.clearProperty("javax.net.ssl.trustStore");
+    System.clearProperty("javax.net.ssl.trustStorePassword");
+  }
+}
@@ -0,0 +1,219 @@
+package org.postgresql.sql2.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.AdbaType;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.DataSourceFactory;
+import jdk.incubator.sql2.Session;
+import org.postgresql.sql2.metrics.LatencyHistogram;
+import org.postgresql.sql2.testutil.ConnectUtil;
+import org.postgresql.sql2.testutil.DatabaseHolder;
+import org.postgresql.sql2.testutil.FakePgServer;
+
+/**
+ * Drives sessions with a statement mix at increasing in flight depths, reporting throughput and latency percentiles.
+ *
+ * <p>Run the main method manually (it is not a test). The sweep over in flight depth (requests pipelined per session)
+ * quantifies the gain from pipelining, and comparing runs catches regressions in the networking.
+ *
+ * <p>Arguments are <code>name=value</code> pairs:
+ * <ul>
+ * <li><code>target</code>: <code>fake</code> (default) for the {@link FakePgServer}, <code>docker</code> for the
+ * testcontainers database, or a <code>jdbc:postgresql://</code> url (with <code>user</code> and <code>password</code>)</li>
+ * <li><code>sessions</code>: number of sessions (default 4)</li>
+ * <li><code>depth</code>: comma separated in flight depths per session to sweep (default 1,2,4,8,16,32)</li>
+ * <li><code>mix</code>: comma separated weighted statements of <code>point</code> (select a row), <code>scan</code>
+ * (select <code>rows</code> rows) and <code>insert</code> (insert a batch of 10 rows), default point:80,scan:15,insert:5</li>
+ * <li><code>rows</code>: rows in the table, so returned by a scan (default 1000)</li>
+ * <li><code>seconds</code>: measured seconds per depth (default 10), after <code>warmup</code> seconds (default 3)</li>
+ * <li><code>latency</code>: artificial latency in milliseconds of the fake server (default 0)</li>
+ * </ul>
+ *
+ * <p>The fake server answers every select with the same canned rows, so a point select also returns
+ * <code>rows</code> rows there unless <code>mix=point:100,rows=1</code>.
+ */
+public class LoadBenchmark {
+
+  private static final int INSERT_BATCH = 10;
+
+  private enum Statement {
+    POINT, SCAN, INSERT
+  }
+
+  /**
+   * runs the benchmark.
+   *
+   * @param args <code>name=value</code> arguments
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    Map<String, String> arguments = new HashMap<>();
+    for (String arg : args) {
+      int split = arg.indexOf('=');
+      arguments.put(arg.substring(0, split), arg.substring(split + 1));
+    }
+    String target = arguments.getOrDefault("target", "fake");
+    int sessionCount = Integer.parseInt(arguments.getOrDefault("sessions", "4"));
+    int rows = Integer.parseInt(arguments.getOrDefault("rows", "1000"));
+    int seconds = Integer.parseInt(arguments.getOrDefault("seconds", "10"));
+    int warmup = Integer.parseInt(arguments.getOrDefault("warmup", "3"));
+    int latency = Integer.parseInt(arguments.getOrDefault("latency", "0"));
+    Statement[] mix = parseMix(arguments.getOrDefault("mix", "point:80,scan:15,insert:5"));
+
+    FakePgServer fake = null;
+    DataSource ds;
+    if ("fake".equals(target)) {
+      fake = new FakePgServer().rows(rows).columns(2, 20).latency(latency, TimeUnit.MILLISECONDS).start();
+      ds = ConnectUtil.openDb(fake);
+    } else if ("docker".equals(target)) {
+      ds = ConnectUtil.openDb(DatabaseHolder.getCached());
+    } else {
+      ds = DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+          .builder()
+          .url(target)
+          .username(arguments.get("user"))
+          .password(arguments.get("password"))
+          .build();
+    }
+
+    try {
+      List<Session> sessions = new ArrayList<>();
+      for (int i = 0; i < sessionCount; i++) {
+        sessions.add(ds.getSession());
+      }
+      if (fake == null) {
+        createTables(sessions.get(0), rows);
+      }
+
+      System.out.println(String.format("target %s, %d sessions, %d rows, mix %s", target, sessionCount, rows,
+          arguments.getOrDefault("mix", "point:80,scan:15,insert:5")));
+      System.out.println(String.format("%6s %12s %10s %10s %10s %10s %8s", "depth", "ops/s", "p50 us", "p99 us",
+          "p99.9 us", "max us", "errors"));
+      for (String depth : arguments.getOrDefault("depth", "1,2,4,8,16,32").split(",")) {
+        run(sessions, Integer.parseInt(depth.trim()), mix, rows, warmup, seconds);
+      }
+
+      if (fake == null) {
+        sessions.get(0).operation("drop table load_test").submit().getCompletionStage().toCompletableFuture().get();
+        sessions.get(0).operation("drop table load_insert").submit().getCompletionStage().toCompletableFuture().get();
+      }
+      for (Session session : sessions) {
+        session.close();
+      }
+    } finally {
+      ds.close();
+      if (fake != null) {
+        fake.close();
+      }
+    }
+  }
+
+  private static Statement[] parseMix(String mix) {
+    List<Statement> weighted = new ArrayList<>();
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.split(":");
+      Statement statement = Statement.valueOf(parts[0].trim().toUpperCase());
+      int weight = (parts.length > 1) ? Integer.parseInt(parts[1].trim()) : 1;
+      for (int i = 0; i < weight; i++) {
+        weighted.add(statement);
+      }
+    }
+    return weighted.toArray(new Statement[0]);
+  }
+
+  private static void createTables(Session session, int rows) throws Exception {
+    session.operation("create table load_test(id int primary key, name varchar(100))").submit();
+    session.operation("create table load_insert(id int, name varchar(100))").submit();
+    Integer[] ids = new Integer[rows];
+    for (int i = 0; i < rows; i++) {
+      ids[i] = i;
+    }
+    session.<List<Integer>>arrayRowCountOperation("insert into load_test(id, name) values ($1, 'name')")
+        .set("$1", ids, AdbaType.INTEGER)
+        .submit().getCompletionStage().toCompletableFuture().get();
+  }
+
+  private static void run(List<Session> sessions, int depth, Statement[] mix, int rows, int warmup, int seconds)
+      throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    LongAdder errors = new LongAdder();
+    long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+    long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(seconds);
+
+    // Drive each session from its own thread, keeping depth requests in flight
+    List<Thread> drivers = new ArrayList<>();
+    for (Session session : sessions) {
+      Thread driver = new Thread(() -> {
+        Semaphore inFlight = new Semaphore(depth);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+          while (System.nanoTime() < measureEnd) {
+            inFlight.acquire();
+            long start = System.nanoTime();
+            submit(session, mix[random.nextInt(mix.length)], rows, random).whenComplete((result, failure) -> {
+              long end = System.nanoTime();
+              if ((start >= measureStart) && (end <= measureEnd)) {
+                if (failure != null) {
+                  errors.increment();
+                } else {
+                  histogram.record(end - start);
+                }
+              }
+              inFlight.release();
+            });
+          }
+          inFlight.acquire(depth); // wait on outstanding requests
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      driver.start();
+      drivers.add(driver);
+    }
+    for (Thread driver : drivers) {
+      driver.join();
+    }
+
+    long operations = histogram.getCount();
+    System.out.println(String.format("%6d %12.0f %10.1f %10.1f %10.1f %10.1f %8d", depth, operations / (double) seconds,
+        histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getValueAtPercentile(100) / 1000.0, errors.sum()));
+  }
+
+  private static CompletionStage<?> submit(Session session, Statement statement, int rows, ThreadLocalRandom random) {
+    switch (statement) {
+      case POINT:
+        return session.<Long>rowOperation("select id, name from load_test where id = $1")
+            .set("$1", random.nextInt(rows), AdbaType.INTEGER)
+            .collect(Collectors.counting())
+            .submit().getCompletionStage();
+
+      case SCAN:
+        return session.<Long>rowOperation("select id, name from load_test where id < $1")
+            .set("$1", rows, AdbaType.INTEGER)
+            .collect(Collectors.counting())
+            .submit().getCompletionStage();
+
+      case INSERT:
+        Integer[] ids = new Integer[INSERT_BATCH];
+        for (int i = 0; i < INSERT_BATCH; i++) {
+          ids[i] = random.nextInt();
+        }
+        return session.<List<Integer>>arrayRowCountOperation("insert into load_insert(id, name) values ($1, 'name')")
+            .set("$1", ids, AdbaType.INTEGER)
+            .submit().getCompletionStage();
+
+      default:
+        throw new IllegalArgumentException("Unknown statement " + statement);
+    }
+  }
+}
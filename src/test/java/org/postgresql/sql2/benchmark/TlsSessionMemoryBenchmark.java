@@ -0,0 +1,71 @@
+package org.postgresql.sql2.benchmark;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.Session;
+import org.postgresql.sql2.PgDataSource;
+import org.postgresql.sql2.buffer.DefaultByteBufferPool;
+import org.postgresql.sql2.testutil.CollectorUtils;
+import org.postgresql.sql2.testutil.ConnectUtil;
+import org.postgresql.sql2.testutil.DatabaseHolder;
+
+/**
+ * Reports the direct memory held per idle TLS session.
+ *
+ * <p>Run the main method manually (it is not a test). Opens the sessions over TLS, runs a query on each so the TLS buffers
+ * have been used, then reports direct memory (from the JVM and from the {@link DefaultByteBufferPool}) per session.
+ *
+ * <p>Arguments: number of sessions (default 500).
+ */
+public class TlsSessionMemoryBenchmark {
+
+  /**
+   * runs the benchmark.
+   *
+   * @param args optional number of sessions
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+
+    try (DataSource ds = ConnectUtil.openDbWithTls(DatabaseHolder.getCached())) {
+      DefaultByteBufferPool pool = (DefaultByteBufferPool) ((PgDataSource) ds).getByteBufferPool();
+      long directBefore = directMemoryUsed();
+      long poolBefore = pool.getAllocatedMemory();
+
+      List<Session> sessions = new ArrayList<>();
+      for (int i = 0; i < sessionCount; i++) {
+        Session session = ds.getSession();
+        session.<Integer>rowOperation("select 1 as t")
+            .collect(CollectorUtils.singleCollector(Integer.class))
+            .submit().getCompletionStage().toCompletableFuture().get();
+        sessions.add(session);
+      }
+
+      // Sessions now idle
+      System.gc();
+      long direct = directMemoryUsed() - directBefore;
+      long pooled = pool.getAllocatedMemory() - poolBefore;
+      System.out.println(String.format("%d idle TLS sessions", sessionCount));
+      System.out.println(String.format("direct memory       %12d bytes = %8d bytes/session", direct, direct / sessionCount));
+      System.out.println(String.format("pool memory         %12d bytes = %8d bytes/session", pooled, pooled / sessionCount));
+      System.out.println(String.format("pool live buffers   %12d", pool.getLiveBuffers()));
+
+      for (Session session : sessions) {
+        session.close();
+      }
+    }
+  }
+
+  private static long directMemoryUsed() {
+    for (BufferPoolMXBean bean : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      if ("direct".equals(bean.getName())) {
+        return bean.getMemoryUsed();
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,119 @@
+package org.postgresql.sql2.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.Session;
+import org.postgresql.sql2.PgBlockingSession;
+import org.postgresql.sql2.testutil.CollectorUtils;
+import org.postgresql.sql2.testutil.ConnectUtil;
+import org.postgresql.sql2.testutil.DatabaseHolder;
+
+/**
+ * Compares throughput of the {@link PgBlockingSession} facade run from virtual threads with the asynchronous API.
+ *
+ * <p>Run the main method manually (it is not a test). Virtual threads are obtained reflectively so the sources still
+ * compile for the project's Java level; on a JVM without them only the asynchronous API is measured.
+ *
+ * <p>Arguments: number of concurrent callers (default 100000) and number of sessions shared by them (default 16).
+ */
+public class VirtualThreadBenchmark {
+
+  /**
+   * runs the benchmark.
+   *
+   * @param args optional callers and sessions
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    int callers = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int sessionCount = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+    try (DataSource ds = ConnectUtil.openDb(DatabaseHolder.getCached())) {
+      List<Session> sessions = new ArrayList<>();
+      for (int i = 0; i < sessionCount; i++) {
+        sessions.add(ds.getSession());
+      }
+
+      // Warm up both paths
+      runAsync(sessions, 10_000);
+      ThreadFactory virtualThreads = virtualThreadFactory();
+      if (virtualThreads != null) {
+        runBlocking(sessions, 10_000, virtualThreads);
+      }
+
+      report("async", callers, runAsync(sessions, callers));
+      if (virtualThreads == null) {
+        System.out.println("virtual threads not available on this JVM, blocking facade not measured");
+      } else {
+        report("blocking (virtual threads)", callers, runBlocking(sessions, callers, virtualThreads));
+      }
+
+      for (Session session : sessions) {
+        session.close();
+      }
+    }
+  }
+
+  private static long runAsync(List<Session> sessions, int callers) {
+    long start = System.nanoTime();
+    CompletableFuture<?>[] all = new CompletableFuture<?>[callers];
+    for (int i = 0; i < callers; i++) {
+      all[i] = sessions.get(i % sessions.size()).<Integer>rowOperation("select 1 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class))
+          .submit().getCompletionStage().toCompletableFuture();
+    }
+    CompletableFuture.allOf(all).join();
+    return System.nanoTime() - start;
+  }
+
+  private static long runBlocking(List<Session> sessions, int callers, ThreadFactory threads)
+      throws InterruptedException {
+    List<PgBlockingSession> blocking = new ArrayList<>();
+    for (Session session : sessions) {
+      blocking.add(new PgBlockingSession(session));
+    }
+
+    CountDownLatch done = new CountDownLatch(callers);
+    AtomicInteger failures = new AtomicInteger();
+    long start = System.nanoTime();
+    for (int i = 0; i < callers; i++) {
+      PgBlockingSession session = blocking.get(i % blocking.size());
+      threads.newThread(() -> {
+        try {
+          session.query("select 1 as t", row -> row.at("t").get(Integer.class));
+        } catch (RuntimeException e) {
+          failures.incrementAndGet();
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+    done.await();
+    long duration = System.nanoTime() - start;
+    if (failures.get() > 0) {
+      System.out.println(failures.get() + " blocking queries failed");
+    }
+    return duration;
+  }
+
+  private static ThreadFactory virtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  private static void report(String name, int callers, long durationNanos) {
+    double seconds = durationNanos / (double) TimeUnit.SECONDS.toNanos(1);
+    System.out.println(String.format("%-28s %8d queries in %8.3f s = %10.0f queries/s", name, callers, seconds,
+        callers / seconds));
+  }
+}
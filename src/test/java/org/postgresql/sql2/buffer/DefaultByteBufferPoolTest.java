@@ -0,0 +1,207 @@
+package org.postgresql.sql2.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.incubator.sql2.SessionProperty;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.PgSessionProperty;
+
+/**
+ * Ensures {@link DefaultByteBufferPool} pools by size class within its memory cap.
+ */
+public class DefaultByteBufferPoolTest {
+
+  private static DefaultByteBufferPool createPool(long maxMemory) {
+    Map<SessionProperty, Object> properties = new HashMap<>();
+    properties.put(PgSessionProperty.BYTE_BUFFER_SIZE, 1024);
+    properties.put(PgSessionProperty.BYTE_BUFFER_POOL_MAX_MEMORY, maxMemory);
+    return new DefaultByteBufferPool(properties);
+  }
+
+  @Test
+  public void defaultSize() {
+    DefaultByteBufferPool pool = createPool(Long.MAX_VALUE);
+    assertEquals(1024, pool.getPooledByteBuffer().getByteBuffer().capacity());
+  }
+
+  @Test
+  public void sizeClasses() {
+    DefaultByteBufferPool pool = createPool(Long.MAX_VALUE);
+    assertEquals(256, pool.getPooledByteBuffer(10).getByteBuffer().capacity());
+    assertEquals(1024, pool.getPooledByteBuffer(1000).getByteBuffer().capacity());
+    assertEquals(4096, pool.getPooledByteBuffer(1025).getByteBuffer().capacity());
+    assertEquals(100_000, pool.getPooledByteBuffer(100_000).getByteBuffer().capacity());
+  }
+
+  @Test
+  public void reuseReleased() {
+    DefaultByteBufferPool pool = createPool(Long.MAX_VALUE);
+    PooledByteBuffer buffer = pool.getPooledByteBuffer();
+    buffer.release();
+    assertSame(buffer, pool.getPooledByteBuffer());
+    assertEquals(1024, pool.getAllocatedMemory());
+  }
+
+  @Test
+  public void exhaustedOnceMemoryCapReached() {
+    DefaultByteBufferPool pool = createPool(2048);
+    AtomicInteger notified = new AtomicInteger(0);
+    pool.getPooledByteBuffer();
+    PooledByteBuffer buffer = pool.getPooledByteBuffer();
+    assertTrue(pool.isExhausted());
+    pool.whenReleased(notified::incrementAndGet);
+    assertEquals(0, notified.get());
+
+    // Admitted work is still provided buffers (never blocking the loop)
+    pool.getPooledByteBuffer().release();
+    assertEquals(1, notified.get());
+    assertTrue(pool.isExhausted());
+
+    // Released buffers are no longer in use
+    buffer.release();
+    assertFalse(pool.isExhausted());
+    assertEquals(1, notified.get(), "should only notify once");
+  }
+
+  @Test
+  public void trimCacheOfEndedThread() throws InterruptedException {
+    DefaultByteBufferPool pool = createPool(4096);
+
+    // Cache free buffers on another thread
+    Thread thread = new Thread(() -> {
+      PooledByteBuffer one = pool.getPooledByteBuffer();
+      PooledByteBuffer two = pool.getPooledByteBuffer();
+      one.release();
+      two.release();
+    });
+    thread.start();
+    thread.join();
+    assertEquals(2048, pool.getAllocatedMemory());
+    assertEquals(0, pool.getLiveMemory());
+
+    // Memory of the ended thread is reclaimed once over the cap
+    pool.getPooledByteBuffer(4096);
+    assertEquals(4096, pool.getAllocatedMemory());
+  }
+
+  @Test
+  public void trimThreadCacheOnNextUse() {
+    DefaultByteBufferPool pool = createPool(4096);
+    PooledByteBuffer cached = pool.getPooledByteBuffer();
+    cached.release();
+
+    // Over cap requests trim of thread caches (dropped on next use by thread)
+    pool.getPooledByteBuffer(4096).release();
+    assertNotSame(cached, pool.getPooledByteBuffer(), "cached buffer should be dropped");
+  }
+
+  @Test
+  public void reclaimOtherSizeClassWhenCapReached() {
+    Map<SessionProperty, Object> properties = new HashMap<>();
+    properties.put(PgSessionProperty.BYTE_BUFFER_SIZE, 1024);
+    properties.put(PgSessionProperty.BYTE_BUFFER_POOL_MAX_MEMORY, 4096L);
+    properties.put(PgSessionProperty.BYTE_BUFFER_THREAD_CACHE_SIZE, 0);
+    DefaultByteBufferPool pool = new DefaultByteBufferPool(properties);
+
+    // Release to the shared free list
+    pool.getPooledByteBuffer(4096).release();
+    assertEquals(4096, pool.getAllocatedMemory());
+
+    // Default buffer only fits once the cached buffer is dropped
+    assertEquals(1024, pool.getPooledByteBuffer().getByteBuffer().capacity());
+    assertEquals(1024, pool.getAllocatedMemory());
+  }
+
+  @Test
+  public void doubleReleaseFails() {
+    DefaultByteBufferPool pool = createPool(Long.MAX_VALUE);
+    PooledByteBuffer buffer = pool.getPooledByteBuffer();
+    buffer.release();
+    assertThrows(IllegalStateException.class, () -> buffer.release());
+    assertEquals(1, pool.getDoubleReleases());
+
+    // Ensure pool not corrupted (buffer only pooled once)
+    assertSame(buffer, pool.getPooledByteBuffer());
+    assertNotSame(buffer, pool.getPooledByteBuffer());
+  }
+
+  @Test
+  public void racingDoubleReleaseFails() throws InterruptedException {
+    DefaultByteBufferPool pool = createPool(Long.MAX_VALUE);
+    AtomicInteger failures = new AtomicInteger(0);
+    for (int i = 0; i < 100; i++) {
+      PooledByteBuffer buffer = pool.getPooledByteBuffer();
+      CountDownLatch start = new CountDownLatch(1);
+      Runnable release = () -> {
+        try {
+          start.await();
+          buffer.release();
+        } catch (IllegalStateException ex) {
+          failures.incrementAndGet();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      };
+      Thread one = new Thread(release);
+      Thread two = new Thread(release);
+      one.start();
+      two.start();
+      start.countDown();
+      one.join();
+      two.join();
+      assertEquals(i + 1, failures.get(), "only one release should succeed");
+    }
+    assertEquals(100, pool.getDoubleReleases());
+    assertEquals(0, pool.getLiveBuffers());
+  }
+
+  @Test
+  public void counters() {
+    DefaultByteBufferPool pool = createPool(Long.MAX_VALUE);
+    PooledByteBuffer one = pool.getPooledByteBuffer();
+    PooledByteBuffer two = pool.getPooledByteBuffer();
+    one.release();
+    two.release();
+    pool.getPooledByteBuffer();
+    assertEquals(1, pool.getLiveBuffers());
+    assertEquals(2, pool.getPeakLiveBuffers());
+    assertEquals(2, pool.getAllocatedBuffers());
+  }
+
+  @Test
+  public void detectLeak() throws InterruptedException {
+    Map<SessionProperty, Object> properties = new HashMap<>();
+    properties.put(PgSessionProperty.BYTE_BUFFER_LEAK_DETECTION_SAMPLE, 1);
+    DefaultByteBufferPool pool = new DefaultByteBufferPool(properties);
+
+    // Acquire without release (in another frame, so not reachable from here)
+    acquireWithoutRelease(pool);
+
+    // Collect the leaked buffer (bounded, as collection is up to the garbage collector)
+    long deadline = System.currentTimeMillis() + 10_000;
+    while ((pool.getLeakedBuffers() == 0) && (System.currentTimeMillis() < deadline)) {
+      System.gc();
+      byte[][] garbage = new byte[64][];
+      for (int i = 0; i < garbage.length; i++) {
+        garbage[i] = new byte[64 * 1024];
+      }
+      Thread.sleep(10);
+    }
+    assertEquals(1, pool.getLeakedBuffers());
+    assertEquals(0, pool.getLiveBuffers());
+    assertEquals(0, pool.getAllocatedMemory());
+  }
+
+  private static void acquireWithoutRelease(DefaultByteBufferPool pool) {
+    pool.getPooledByteBuffer();
+  }
+}
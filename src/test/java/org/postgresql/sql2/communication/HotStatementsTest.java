@@ -0,0 +1,132 @@
+package org.postgresql.sql2.communication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.DataSourceFactory;
+import jdk.incubator.sql2.Session;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.communication.PreparedStatementCache.StatementKey;
+import org.postgresql.sql2.metrics.PgMetrics;
+import org.postgresql.sql2.testutil.FakePgServer;
+
+/**
+ * Ensures {@link HotStatements} tracks the most used statements to warm up new
+ * connections.
+ */
+public class HotStatementsTest {
+
+  @Test
+  public void hottestFirst() {
+    HotStatements hot = new HotStatements(2, 10);
+    PreparedStatementCache cache = new PreparedStatementCache(hot, new StatementMetadataCache(0), false);
+    this.use(cache, "select 1", 1);
+    this.use(cache, "select 2", 130);
+    this.use(cache, "select 3", 64);
+    assertEquals(List.of("select 2", "select 3"), sql(hot.getHottest()));
+  }
+
+  @Test
+  public void ageToTrackNewStatements() {
+    HotStatements hot = new HotStatements(1, 2);
+    PreparedStatementCache cache = new PreparedStatementCache(hot, new StatementMetadataCache(0), false);
+    this.use(cache, "select 1", 1);
+    this.use(cache, "select 2", 64);
+    this.use(cache, "select 3", 1); // ages out select 1
+    assertEquals(List.of("select 2"), sql(hot.getHottest()));
+    this.use(cache, "select 3", 191);
+    assertEquals(List.of("select 3"), sql(hot.getHottest()));
+  }
+
+  @Test
+  public void warmUpNewConnection() throws Exception {
+    AtomicInteger misses = new AtomicInteger(0);
+    PgMetrics metrics = new PgMetrics() {
+      @Override
+      public void statementCacheMiss() {
+        misses.incrementAndGet();
+      }
+    };
+    try (FakePgServer server = new FakePgServer().start();
+        DataSource ds = DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+            .builder()
+            .url("jdbc:postgresql://" + server.getHost() + ":" + server.getPort() + "/" + FakePgServer.DATABASE)
+            .username(FakePgServer.USER)
+            .password(FakePgServer.PASSWORD)
+            .sessionProperty(PgSessionProperty.WARM_UP_STATEMENTS, 4)
+            .sessionProperty(PgSessionProperty.METRICS, metrics)
+            .build()) {
+
+      // First connection prepares on use
+      try (Session session = ds.getSession()) {
+        this.select(session);
+        this.select(session);
+      }
+      assertEquals(1, misses.get());
+
+      // New connection has the statement prepared before use
+      try (Session session = ds.getSession()) {
+        this.select(session);
+      }
+      assertEquals(1, misses.get(), "should have warmed up statement");
+      assertEquals(2, server.getConnections());
+      assertEquals(3, server.getExecutes(), "warm up should not execute");
+    }
+  }
+
+  @Test
+  public void failedWarmUpNotFailOtherStatements() throws Exception {
+    final String failing = "select 1 as t from session_table";
+    final String hot = "select 1 as t";
+    try (FakePgServer server = new FakePgServer().latency(10, TimeUnit.MILLISECONDS).start();
+        DataSource ds = DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+            .builder()
+            .url("jdbc:postgresql://" + server.getHost() + ":" + server.getPort() + "/" + FakePgServer.DATABASE)
+            .username(FakePgServer.USER)
+            .password(FakePgServer.PASSWORD)
+            .sessionProperty(PgSessionProperty.WARM_UP_STATEMENTS, 4)
+            .build()) {
+
+      // Make failing statement hottest (so warmed up first)
+      try (Session session = ds.getSession()) {
+        for (int i = 0; i < 3; i++) {
+          this.select(session, failing);
+        }
+        this.select(session, hot);
+      }
+
+      // Submission queued while new connection warms up
+      server.failParse(failing);
+      try (Session session = ds.getSession()) {
+        assertEquals(Long.valueOf(1), this.select(session, hot), "should not be skipped by failed warm up");
+      }
+      assertEquals(2, server.getConnections());
+    }
+  }
+
+  private void use(PreparedStatementCache cache, String sql, int times) {
+    for (int i = 0; i < times; i++) {
+      cache.getQuery(sql, List.of());
+    }
+  }
+
+  private static List<String> sql(List<StatementKey> statements) {
+    return statements.stream().map(StatementKey::getSql).collect(Collectors.toList());
+  }
+
+  private void select(Session session) throws Exception {
+    this.select(session, "select 1 as t");
+  }
+
+  private Long select(Session session, String sql) throws Exception {
+    return session.<Long>rowOperation(sql)
+        .collect(Collectors.counting())
+        .submit().getCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+}
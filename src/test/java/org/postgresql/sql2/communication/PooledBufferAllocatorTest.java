@@ -0,0 +1,80 @@
+package org.postgresql.sql2.communication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.buffer.ByteBufferPool;
+import org.postgresql.sql2.buffer.DefaultByteBufferPool;
+import org.postgresql.sql2.buffer.PooledByteBuffer;
+
+/**
+ * Ensures {@link PooledBufferAllocator} allocates from the {@link ByteBufferPool}.
+ */
+public class PooledBufferAllocatorTest {
+
+  @Test
+  public void exactSizeFromPool() {
+    DefaultByteBufferPool pool = new DefaultByteBufferPool(new HashMap<>());
+    PooledBufferAllocator allocator = new PooledBufferAllocator(pool, false);
+
+    ByteBuffer buffer = allocator.allocate(17_000);
+    assertEquals(17_000, buffer.capacity());
+    assertEquals(1, pool.getLiveBuffers());
+    assertEquals(1, allocator.getAllocatedBuffers());
+
+    allocator.free(buffer);
+    assertEquals(0, pool.getLiveBuffers());
+    assertEquals(0, allocator.getAllocatedBuffers());
+  }
+
+  @Test
+  public void zeroPlainTextOnFree() {
+    DefaultByteBufferPool pool = new DefaultByteBufferPool(new HashMap<>());
+    PooledBufferAllocator allocator = new PooledBufferAllocator(pool, true);
+
+    ByteBuffer buffer = allocator.allocate(100);
+    buffer.put((byte) 1);
+    allocator.free(buffer);
+
+    assertEquals(0, allocator.allocate(100).get(0));
+  }
+
+  @Test
+  public void freeUnknownBuffer() {
+    PooledBufferAllocator allocator = new PooledBufferAllocator(new DefaultByteBufferPool(new HashMap<>()), false);
+    assertThrows(IllegalArgumentException.class, () -> allocator.free(ByteBuffer.allocate(10)));
+  }
+
+  @Test
+  public void customPoolWithoutSizes() {
+    ByteBuffer pooled = ByteBuffer.allocateDirect(1024);
+    int[] released = new int[] { 0 };
+    ByteBufferPool pool = () -> new PooledByteBuffer() {
+
+      @Override
+      public ByteBuffer getByteBuffer() {
+        return pooled;
+      }
+
+      @Override
+      public void release() {
+        released[0]++;
+      }
+    };
+    PooledBufferAllocator allocator = new PooledBufferAllocator(pool, false);
+
+    // Fits within the pool's buffer
+    allocator.free(allocator.allocate(100));
+    assertEquals(1, released[0]);
+
+    // Too large for the pool's buffer, so not pooled
+    ByteBuffer large = allocator.allocate(17_000);
+    assertEquals(17_000, large.capacity());
+    assertEquals(2, released[0]);
+    allocator.free(large);
+    assertEquals(2, released[0]);
+  }
+}
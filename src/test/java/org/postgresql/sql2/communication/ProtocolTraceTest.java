@@ -0,0 +1,89 @@
+package org.postgresql.sql2.communication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ensures {@link ProtocolTrace} records the frames.
+ */
+public class ProtocolTraceTest {
+
+  @Test
+  public void startupThenTaggedFrames() {
+    ProtocolTrace trace = new ProtocolTrace(10, 64);
+    trace.written(wrap(startup()), 0, startup().length);
+    byte[] query = frame('Q', "select 1\0");
+    trace.written(wrap(query), 0, query.length);
+
+    String[] lines = trace.dump().split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].contains("> - length=18"), lines[0]);
+    assertTrue(lines[0].contains("user\\x00test"), lines[0]);
+    assertTrue(lines[1].contains("> Q length=13 select 1\\x00"), lines[1]);
+  }
+
+  @Test
+  public void frameSplitAcrossWrites() {
+    ProtocolTrace trace = new ProtocolTrace(10, 64);
+    trace.written(wrap(startup()), 0, startup().length);
+    byte[] parse = frame('P', "\0select 1\0\0\0");
+    ByteBuffer buffer = wrap(parse);
+    for (int i = 0; i < parse.length; i += 3) {
+      trace.written(buffer, i, Math.min(i + 3, parse.length));
+    }
+    assertEquals(2, trace.getRecordedFrames());
+    assertTrue(trace.dump().contains("> P length=16 \\x00select 1\\x00\\x00\\x00"), trace.dump());
+  }
+
+  @Test
+  public void truncatePayload() {
+    ProtocolTrace trace = new ProtocolTrace(10, 4);
+    trace.read(new BeFrame((byte) 'C', "SELECT 1\0".getBytes(StandardCharsets.US_ASCII)));
+    assertTrue(trace.dump().contains("< C length=13 SELE..."), trace.dump());
+  }
+
+  @Test
+  public void keepOnlyLastFrames() {
+    ProtocolTrace trace = new ProtocolTrace(2, 16);
+    for (char tag : new char[] { '1', '2', 'C' }) {
+      trace.read(new BeFrame((byte) tag, new byte[0]));
+    }
+    String[] lines = trace.dump().split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].contains("< 2 length=4"), lines[0]);
+    assertTrue(lines[1].contains("< C length=4"), lines[1]);
+  }
+
+  @Test
+  public void notCapturePassword() {
+    ProtocolTrace trace = new ProtocolTrace(10, 64);
+    trace.written(wrap(startup()), 0, startup().length);
+    byte[] password = frame('p', "secret\0");
+    trace.written(wrap(password), 0, password.length);
+    assertFalse(trace.dump().contains("secret"), trace.dump());
+    assertTrue(trace.dump().contains("> p length=11"), trace.dump());
+  }
+
+  private static byte[] startup() {
+    ByteBuffer buffer = ByteBuffer.allocate(18);
+    buffer.putInt(18).putInt(196608).put("user\0test\0".getBytes(StandardCharsets.US_ASCII));
+    return buffer.array();
+  }
+
+  private static byte[] frame(char tag, String payload) {
+    byte[] bytes = payload.getBytes(StandardCharsets.US_ASCII);
+    ByteBuffer buffer = ByteBuffer.allocate(5 + bytes.length);
+    buffer.put((byte) tag).putInt(4 + bytes.length).put(bytes);
+    return buffer.array();
+  }
+
+  private static ByteBuffer wrap(byte[] bytes) {
+    return ByteBuffer.wrap(bytes);
+  }
+
+}
@@ -0,0 +1,97 @@
+package org.postgresql.sql2.communication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.DataSourceFactory;
+import jdk.incubator.sql2.Session;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.communication.PreparedStatementCache.StatementKey;
+import org.postgresql.sql2.testutil.FakePgServer;
+
+/**
+ * Ensures {@link StatementMetadataCache} shares the statement descriptions
+ * across connections.
+ */
+public class StatementMetadataCacheTest {
+
+  private static final byte[] SELECT_1 = new byte[] { 0x00, 0x01, 0x74, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+      0x00, 0x00, 0x00, 0x17, 0x00, 0x04, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x00, 0x00 };
+
+  @Test
+  public void shareSameDescription() {
+    StatementMetadataCache cache = new StatementMetadataCache(10);
+    StatementKey key = key(new StatementMetadataCache(0), "select 1 as t");
+    StatementMetadata first = cache.described(key, new int[0], SELECT_1);
+    assertSame(first, cache.described(key, new int[0], SELECT_1.clone()));
+    assertEquals(Integer.valueOf(1), first.getColumnIndexes().get("t"));
+    assertEquals(1, first.getColumns().length);
+
+    // Changed description replaces the shared description
+    StatementMetadata changed = cache.described(key, new int[] { 23 }, SELECT_1);
+    assertNotSame(first, changed);
+    assertSame(changed, cache.get(key));
+  }
+
+  @Test
+  public void boundStatements() {
+    StatementMetadataCache cache = new StatementMetadataCache(2);
+    for (int i = 0; i < 5; i++) {
+      cache.described(key(cache, "select " + i), new int[0], null);
+    }
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void describeOncePerConnection() throws Exception {
+    try (FakePgServer server = new FakePgServer().start();
+        DataSource ds = this.dataSource(server, false)) {
+      this.selectTwice(ds);
+      assertEquals(1, server.getDescribes(), "should not describe again on same connection");
+      this.selectTwice(ds);
+      assertEquals(2, server.getDescribes(), "should describe on new connection");
+    }
+  }
+
+  @Test
+  public void skipDescribeOnNewConnection() throws Exception {
+    try (FakePgServer server = new FakePgServer().start();
+        DataSource ds = this.dataSource(server, true)) {
+      this.selectTwice(ds);
+      this.selectTwice(ds);
+      assertEquals(1, server.getDescribes(), "should use description of other connection");
+      assertEquals(4, server.getExecutes());
+    }
+  }
+
+  private DataSource dataSource(FakePgServer server, boolean isSkipDescribeShared) {
+    return DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+        .builder()
+        .url("jdbc:postgresql://" + server.getHost() + ":" + server.getPort() + "/" + FakePgServer.DATABASE)
+        .username(FakePgServer.USER)
+        .password(FakePgServer.PASSWORD)
+        .sessionProperty(PgSessionProperty.SKIP_DESCRIBE_SHARED_STATEMENTS, isSkipDescribeShared)
+        .build();
+  }
+
+  private void selectTwice(DataSource ds) throws Exception {
+    try (Session session = ds.getSession()) {
+      for (int i = 0; i < 2; i++) {
+        List<Integer> values = session.<List<Integer>>rowOperation("select 1 as t")
+            .collect(Collectors.mapping(row -> row.at("t").get(Integer.class), Collectors.toList()))
+            .submit().getCompletionStage().toCompletableFuture().get();
+        assertEquals(List.of(1), values);
+      }
+    }
+  }
+
+  private static StatementKey key(StatementMetadataCache metadataCache, String sql) {
+    return new PreparedStatementCache(null, metadataCache, false).getQuery(sql, List.of()).getStatementKey();
+  }
+
+}
@@ -0,0 +1,66 @@
+package org.postgresql.sql2.communication.network;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.channels.ClosedChannelException;
+import java.security.cert.CertificateException;
+import java.util.Collections;
+import java.util.concurrent.CompletionException;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLHandshakeException;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.communication.NetworkConnect;
+import org.postgresql.sql2.submissions.ConnectSubmission;
+
+/**
+ * Ensures {@link DirectTlsConnectRequest} only falls back to negotiating TLS
+ * on the server rejecting the direct TLS handshake.
+ */
+public class DirectTlsConnectRequestTest {
+
+  private final ConnectSubmission submission = new ConnectSubmission(() -> false, null, null,
+      Collections.emptyMap());
+
+  @Test
+  public void fallbackOnServerClosingConnection() {
+    ClosedChannelException failure = new ClosedChannelException();
+    NetworkConnect fallback = new DirectTlsConnectRequest(submission, true).fallback(failure);
+    assertTrue(fallback instanceof TlsConnectRequest);
+
+    // Failure of the fallback keeps the direct TLS failure
+    fallback.handleException(new ClosedChannelException());
+    Throwable cause = null;
+    try {
+      submission.getCompletionStage().toCompletableFuture().join();
+    } catch (CompletionException ex) {
+      cause = ex.getCause().getCause();
+    }
+    assertSame(failure, cause.getSuppressed()[0]);
+  }
+
+  @Test
+  public void fallbackOnNonTlsResponse() {
+    assertTrue(new DirectTlsConnectRequest(submission, true)
+        .fallback(new SSLException("Unsupported or unrecognized SSL message")) instanceof TlsConnectRequest);
+  }
+
+  @Test
+  public void noFallbackOnUntrustedServer() {
+    SSLHandshakeException failure = new SSLHandshakeException("PKIX path building failed");
+    failure.initCause(new CertificateException("unable to find valid certification path"));
+    assertNull(new DirectTlsConnectRequest(submission, true).fallback(failure));
+  }
+
+  @Test
+  public void noFallbackOnHandshakeAlert() {
+    assertNull(new DirectTlsConnectRequest(submission, true)
+        .fallback(new SSLHandshakeException("Received fatal alert: handshake_failure")));
+  }
+
+  @Test
+  public void noFallbackUnlessConfigured() {
+    assertNull(new DirectTlsConnectRequest(submission, false).fallback(new ClosedChannelException()));
+  }
+}
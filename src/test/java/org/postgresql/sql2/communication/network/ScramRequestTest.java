@@ -0,0 +1,74 @@
+package org.postgresql.sql2.communication.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.communication.SaltedPasswordCache;
+
+/**
+ * Ensures {@link ScramRequest} calculates as per the RFC 7677 example.
+ */
+public class ScramRequestTest {
+
+  private static final String CLIENT_FIRST_BARE = "n=user,r=rOprNGfwEbeRWgbNEkqO";
+
+  private static final String SERVER_FIRST = "r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+      + "s=W22ZaJ0SNY7soEsUEjb6gQ==,i=4096";
+
+  private static final String CLIENT_FINAL_WITHOUT_PROOF = "c=biws,r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0";
+
+  private static final String AUTH_MESSAGE = CLIENT_FIRST_BARE + "," + SERVER_FIRST + "," + CLIENT_FINAL_WITHOUT_PROOF;
+
+  @Test
+  public void clientProofAndServerSignature() {
+    SaltedPasswordCache cache = new SaltedPasswordCache();
+    byte[] saltedPassword = cache.getSaltedPassword("user", "pencil",
+        Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ=="), 4096);
+
+    assertEquals("dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=",
+        Base64.getEncoder().encodeToString(ScramRequest.clientProof(saltedPassword, AUTH_MESSAGE)));
+    assertEquals("6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4=",
+        Base64.getEncoder().encodeToString(ScramRequest.serverSignature(saltedPassword, AUTH_MESSAGE)));
+  }
+
+  @Test
+  public void saltedPasswordCached() {
+    SaltedPasswordCache cache = new SaltedPasswordCache();
+    byte[] salt = Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ==");
+
+    byte[] first = cache.getSaltedPassword("user", "pencil", salt, 4096);
+    assertSame(first, cache.getSaltedPassword("user", "pencil", salt.clone(), 4096));
+    assertEquals(1, cache.getDerivations());
+
+    // Different password (or iterations) is derived again
+    cache.getSaltedPassword("user", "eraser", salt, 4096);
+    cache.getSaltedPassword("user", "pencil", salt, 8192);
+    assertEquals(3, cache.getDerivations());
+  }
+
+  @Test
+  public void saltedPasswordCacheBounded() {
+    SaltedPasswordCache cache = new SaltedPasswordCache(2);
+    byte[] salt = Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ==");
+
+    cache.getSaltedPassword("user", "pencil", salt, 4096);
+    cache.getSaltedPassword("user", "eraser", salt, 4096);
+    cache.getSaltedPassword("user", "ruler", salt, 4096);
+    assertEquals(2, cache.size());
+    assertEquals(3, cache.getDerivations());
+  }
+
+  @Test
+  public void saltedPasswordOfSaslPrep() {
+    SaltedPasswordCache cache = new SaltedPasswordCache();
+    byte[] salt = Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ==");
+
+    // Soft hyphen is mapped to nothing
+    Base64.Encoder base64 = Base64.getEncoder();
+    assertEquals(base64.encodeToString(cache.getSaltedPassword("user", "pencil", salt, 4096)),
+        base64.encodeToString(cache.getSaltedPassword("user", "pen\u00ADcil", salt, 4096)));
+    assertEquals(2, cache.getDerivations());
+  }
+}
@@ -0,0 +1,205 @@
+package org.postgresql.sql2.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import jdk.incubator.sql2.SqlException;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.buffer.ByteBufferPool;
+import org.postgresql.sql2.buffer.PooledByteBuffer;
+
+/**
+ * Ensures {@link AdmissionControl} bounds the submissions.
+ */
+public class AdmissionControlTest {
+
+  @Test
+  public void queueUntilReleased() {
+    AdmissionControl control = new AdmissionControl(1, 10, false, null);
+    List<String> dispatched = new ArrayList<>();
+    List<Throwable> rejected = new ArrayList<>();
+
+    control.admit(() -> dispatched.add("first"), rejected::add);
+    control.admit(() -> dispatched.add("second"), rejected::add);
+    control.admit(() -> dispatched.add("third"), rejected::add);
+    assertEquals(List.of("first"), dispatched);
+    assertEquals(2, control.getQueued());
+
+    control.release();
+    assertEquals(List.of("first", "second"), dispatched);
+    control.release();
+    assertEquals(List.of("first", "second", "third"), dispatched);
+    assertEquals(1, control.getInFlight());
+    assertEquals(0, control.getQueued());
+    assertTrue(rejected.isEmpty());
+  }
+
+  @Test
+  public void rejectOverQueuedLimit() {
+    AdmissionControl control = new AdmissionControl(1, 1, false, null);
+    List<Throwable> rejected = new ArrayList<>();
+
+    control.admit(() -> { }, rejected::add);
+    control.admit(() -> { }, rejected::add);
+    control.admit(() -> { }, rejected::add);
+    assertEquals(1, rejected.size());
+    assertTrue(rejected.get(0) instanceof SqlException);
+  }
+
+  @Test
+  public void failFast() {
+    AdmissionControl control = new AdmissionControl(1, 10, true, null);
+    List<Throwable> rejected = new ArrayList<>();
+
+    control.admit(() -> { }, rejected::add);
+    control.admit(() -> { }, rejected::add);
+    assertEquals(1, rejected.size());
+    assertEquals(0, control.getQueued());
+  }
+
+  @Test
+  public void parentBoundsAcrossSessions() {
+    AdmissionControl dataSource = new AdmissionControl(1, 10, false, null);
+    AdmissionControl one = new AdmissionControl(10, 10, false, dataSource);
+    AdmissionControl two = new AdmissionControl(10, 10, false, dataSource);
+    List<String> dispatched = new ArrayList<>();
+
+    one.admit(() -> dispatched.add("one"), (ex) -> { });
+    two.admit(() -> dispatched.add("two"), (ex) -> { });
+    assertEquals(List.of("one"), dispatched);
+
+    one.release();
+    assertEquals(List.of("one", "two"), dispatched);
+    assertEquals(0, one.getInFlight());
+    assertEquals(1, two.getInFlight());
+    assertEquals(1, dataSource.getInFlight());
+  }
+
+  @Test
+  public void passInOrder() {
+    AdmissionControl control = new AdmissionControl(1, 10, false, null);
+    List<String> dispatched = new ArrayList<>();
+
+    control.admit(() -> dispatched.add("first"), (ex) -> { });
+    control.pass(() -> dispatched.add("catch"));
+    assertEquals(List.of("first", "catch"), dispatched, "nothing waiting, so pass immediately");
+
+    control.admit(() -> dispatched.add("second"), (ex) -> { });
+    control.pass(() -> dispatched.add("close"));
+    assertEquals(List.of("first", "catch"), dispatched, "close must not overtake waiting submission");
+
+    control.release();
+    assertEquals(List.of("first", "catch", "second", "close"), dispatched);
+    assertEquals(1, control.getInFlight());
+  }
+
+  @Test
+  public void passInOrderWithParent() {
+    AdmissionControl dataSource = new AdmissionControl(1, 10, false, null);
+    AdmissionControl one = new AdmissionControl(10, 10, false, dataSource);
+    AdmissionControl two = new AdmissionControl(10, 10, false, dataSource);
+    List<String> dispatched = new ArrayList<>();
+
+    one.admit(() -> dispatched.add("one"), (ex) -> { });
+    two.admit(() -> dispatched.add("two"), (ex) -> { });
+    two.pass(() -> dispatched.add("close two"));
+    assertEquals(List.of("one"), dispatched, "close must not overtake submission waiting on data source");
+
+    one.release();
+    assertEquals(List.of("one", "two", "close two"), dispatched);
+  }
+
+  @Test
+  public void dispatchInOrderWhenReleasedByDispatch() {
+    AdmissionControl control = new AdmissionControl(1, 10, false, null);
+    List<String> dispatched = new ArrayList<>();
+
+    control.admit(() -> dispatched.add("first"), (ex) -> { });
+    control.admit(() -> {
+      dispatched.add("second");
+      control.release(); // completes immediately
+    }, (ex) -> { });
+    control.admit(() -> dispatched.add("third"), (ex) -> { });
+    control.pass(() -> dispatched.add("close"));
+
+    control.release();
+    assertEquals(List.of("first", "second", "third", "close"), dispatched);
+  }
+
+  @Test
+  public void failWhenPoolExhausted() {
+    ExhaustiblePool pool = new ExhaustiblePool();
+    AdmissionControl control = new AdmissionControl(10, 10, false, null, pool, 0);
+    List<String> dispatched = new ArrayList<>();
+    List<Throwable> rejected = new ArrayList<>();
+
+    pool.isExhausted = true;
+    control.admit(() -> dispatched.add("exhausted"), rejected::add);
+    assertTrue(dispatched.isEmpty());
+    assertEquals(1, rejected.size());
+    assertTrue(rejected.get(0) instanceof SqlException);
+    assertEquals(0, control.getInFlight());
+
+    pool.isExhausted = false;
+    control.admit(() -> dispatched.add("available"), rejected::add);
+    assertEquals(List.of("available"), dispatched);
+  }
+
+  @Test
+  public void waitOnExhaustedPool() {
+    ExhaustiblePool pool = new ExhaustiblePool();
+    AdmissionControl control = new AdmissionControl(10, 10, false, null, pool, TimeUnit.MINUTES.toNanos(1));
+    List<String> dispatched = new ArrayList<>();
+    List<Throwable> rejected = new ArrayList<>();
+
+    pool.isExhausted = true;
+    control.admit(() -> dispatched.add("first"), rejected::add);
+    control.pass(() -> dispatched.add("close"));
+    assertTrue(dispatched.isEmpty());
+    assertEquals(2, control.getQueued());
+
+    // Admitted once buffers released
+    pool.isExhausted = false;
+    pool.released.run();
+    assertEquals(List.of("first", "close"), dispatched);
+    assertTrue(rejected.isEmpty());
+  }
+
+  @Test
+  public void failAfterWaitingOnExhaustedPool() throws Exception {
+    ExhaustiblePool pool = new ExhaustiblePool();
+    AdmissionControl control = new AdmissionControl(10, 10, false, null, pool, TimeUnit.MILLISECONDS.toNanos(10));
+    CompletableFuture<Throwable> rejected = new CompletableFuture<>();
+
+    pool.isExhausted = true;
+    control.admit(() -> rejected.complete(null), rejected::complete);
+    assertTrue(rejected.get(10, TimeUnit.SECONDS) instanceof SqlException);
+    assertEquals(0, control.getQueued());
+  }
+
+  private static class ExhaustiblePool implements ByteBufferPool {
+
+    private volatile boolean isExhausted = false;
+
+    private Runnable released = null;
+
+    @Override
+    public PooledByteBuffer getPooledByteBuffer() {
+      throw new UnsupportedOperationException("not used");
+    }
+
+    @Override
+    public boolean isExhausted() {
+      return this.isExhausted;
+    }
+
+    @Override
+    public void whenReleased(Runnable listener) {
+      this.released = listener;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package org.postgresql.sql2.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ensures {@link SubmissionDemand} grants demand as capacity frees up.
+ */
+public class SubmissionDemandTest {
+
+  private final AtomicInteger backlog = new AtomicInteger(0);
+
+  private final AtomicBoolean isExhausted = new AtomicBoolean(false);
+
+  private final List<Long> grants = new ArrayList<>();
+
+  private final SubmissionDemand demand = new SubmissionDemand(4, this.backlog::get, this.isExhausted::get);
+
+  @Test
+  public void untrackedWithoutHook() {
+    assertFalse(this.demand.submitted());
+    assertEquals(0, this.demand.getOutstanding());
+  }
+
+  @Test
+  public void grantWindowOnHook() {
+    this.demand.setHook(this.grants::add);
+    assertEquals(List.of(4L), this.grants);
+    assertEquals(4, this.demand.getDemand());
+  }
+
+  @Test
+  public void failSubmitWithoutDemand() {
+    this.demand.setHook(this.grants::add);
+    for (int i = 0; i < 4; i++) {
+      assertTrue(this.demand.submitted());
+    }
+    assertThrows(IllegalStateException.class, this.demand::submitted);
+    assertEquals(4, this.demand.getOutstanding());
+  }
+
+  @Test
+  public void grantOnCompletion() {
+    this.demand.setHook(this.grants::add);
+    this.demand.submitted();
+    this.demand.submitted();
+    this.demand.completed();
+    assertEquals(List.of(4L, 1L), this.grants);
+    assertEquals(3, this.demand.getDemand());
+  }
+
+  @Test
+  public void withholdWhileConnectionBacklogged() {
+    this.demand.setHook(this.grants::add);
+    this.demand.submitted();
+    this.demand.submitted();
+    this.backlog.set(4);
+    this.demand.completed();
+    assertEquals(List.of(4L), this.grants);
+
+    this.backlog.set(0);
+    this.demand.completed();
+    assertEquals(List.of(4L, 2L), this.grants);
+  }
+
+  @Test
+  public void withholdWhileBufferPoolExhausted() {
+    this.demand.setHook(this.grants::add);
+    for (int i = 0; i < 4; i++) {
+      this.demand.submitted();
+    }
+    this.isExhausted.set(true);
+    for (int i = 0; i < 3; i++) {
+      this.demand.completed();
+    }
+    assertEquals(List.of(4L), this.grants);
+
+    // Last completion leaves nothing to trigger a grant, so allow progress
+    this.demand.completed();
+    assertEquals(List.of(4L, 1L), this.grants);
+  }
+
+  @Test
+  public void onlyOneHook() {
+    this.demand.setHook(this.grants::add);
+    assertThrows(IllegalStateException.class, () -> this.demand.setHook(this.grants::add));
+  }
+
+}
@@ -0,0 +1,101 @@
+package org.postgresql.sql2.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.DataSourceFactory;
+import jdk.incubator.sql2.Session;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.testutil.CollectorUtils;
+import org.postgresql.sql2.testutil.DatabaseHolder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Ensures {@link DefaultPgMetrics} records the driver instrumentation.
+ */
+public class DefaultPgMetricsTest {
+
+  @Test
+  public void gauges() {
+    DefaultPgMetrics metrics = new DefaultPgMetrics();
+    metrics.requestQueued();
+    metrics.requestQueued();
+    metrics.requestDequeued();
+    metrics.responseAwaited();
+    metrics.bufferAcquired(100);
+    metrics.bufferAcquired(50);
+    metrics.bufferReleased(100);
+    metrics.statementCacheMiss();
+    metrics.statementCacheHit();
+    metrics.statementCacheHit();
+    metrics.statementCacheHit();
+
+    assertEquals(1, metrics.getQueuedRequests());
+    assertEquals(1, metrics.getInFlightRequests());
+    assertEquals(1, metrics.getBuffersInUse());
+    assertEquals(50, metrics.getBufferBytesInUse());
+    assertEquals(0.75, metrics.getStatementCacheHitRatio(), 0.0001);
+  }
+
+  @Test
+  public void operationLatency() {
+    DefaultPgMetrics metrics = new DefaultPgMetrics();
+    metrics.operationCompleted(10, false);
+    metrics.operationCompleted(30, true);
+
+    assertEquals(2, metrics.getOperations());
+    assertEquals(1, metrics.getFailedOperations());
+    assertEquals(20, metrics.getMeanOperationNanos());
+    assertEquals(30, metrics.getMaxOperationNanos());
+  }
+
+  @Test
+  public void statementLatencyBounded() {
+    DefaultPgMetrics metrics = new DefaultPgMetrics(1);
+    metrics.statementCompleted("select $1", 1, 2, 3);
+    metrics.statementCompleted("select $1", 1, 2, 3);
+    metrics.statementCompleted("select 2", 1, 2, 3);
+
+    StatementLatency latency = metrics.getStatementLatency("select $1");
+    assertEquals(2, latency.getTotal().getCount());
+    assertEquals(6, latency.getP99());
+    assertNull(metrics.getStatementLatency("select 2"));
+    assertEquals(1, metrics.getUntrackedStatements());
+  }
+
+  @Test
+  public void recordedBySession() throws Exception {
+    PostgreSQLContainer postgres = DatabaseHolder.getCached();
+    DefaultPgMetrics metrics = new DefaultPgMetrics();
+    try (DataSource ds = DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+        .builder()
+        .url("jdbc:postgresql://" + postgres.getContainerIpAddress() + ":" + postgres.getMappedPort(5432)
+            + "/" + postgres.getDatabaseName())
+        .username(postgres.getUsername())
+        .password(postgres.getPassword())
+        .sessionProperty(PgSessionProperty.METRICS, metrics)
+        .build();
+        Session session = ds.getSession()) {
+      for (int i = 0; i < 2; i++) {
+        Integer result = session.<Integer>rowOperation("select 1 as t")
+            .collect(CollectorUtils.singleCollector(Integer.class))
+            .submit().getCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(Integer.valueOf(1), result);
+      }
+    }
+
+    assertTrue(metrics.getBytesRead() > 0, "bytes read");
+    assertTrue(metrics.getBytesWritten() > 0, "bytes written");
+    assertEquals(2, metrics.getFramesRead('D'));
+    assertEquals(2, metrics.getOperations());
+    assertEquals(0.5, metrics.getStatementCacheHitRatio(), 0.0001);
+    assertTrue(metrics.getSnapshot().containsKey("loop.busy.nanos"));
+    StatementLatency latency = metrics.getStatementLatency("select 1 as t");
+    assertEquals(2, latency.getTotal().getCount());
+    assertTrue(latency.getP50() > 0, "statement latency");
+  }
+}
@@ -0,0 +1,53 @@
+package org.postgresql.sql2.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ensures {@link LatencyHistogram} reports percentiles.
+ */
+public class LatencyHistogramTest {
+
+  @Test
+  public void bucketsWithinPrecision() {
+    for (long value = 1; value < LatencyHistogram.MAX_VALUE; value = (value * 3) + 1) {
+      long highest = LatencyHistogram.highestValue(LatencyHistogram.index(value));
+      assertTrue(highest >= value, "highest " + highest + " below " + value);
+      assertTrue(highest - value <= (value / 32) + 1, "highest " + highest + " imprecise for " + value);
+    }
+  }
+
+  @Test
+  public void percentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(500, histogram.getValueAtPercentile(50), 500 / 32);
+    assertEquals(990, histogram.getValueAtPercentile(99), 990 / 32);
+    assertEquals(1000, histogram.getValueAtPercentile(100), 1000 / 32);
+  }
+
+  @Test
+  public void rangesAllocatedOnFirstUse() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getAllocatedRanges());
+    histogram.record(1_000_000);
+    histogram.record(1_000_001);
+    assertEquals(1, histogram.getAllocatedRanges());
+    histogram.record(2_000_000);
+    assertEquals(2, histogram.getAllocatedRanges());
+    assertEquals(1_000_001, histogram.getValueAtPercentile(50), 1_000_001 / 32);
+  }
+
+  @Test
+  public void emptyAndOverflow() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile(99));
+  }
+}
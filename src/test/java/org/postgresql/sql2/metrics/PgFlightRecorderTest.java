@@ -0,0 +1,45 @@
+package org.postgresql.sql2.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ensures {@link PgFlightRecorder} emits events only when recording.
+ */
+public class PgFlightRecorderTest {
+
+  @Test
+  public void noEventWhenNotRecording() {
+    assertTrue(PgFlightRecorder.isAvailable(), "Flight Recorder should be available");
+    assertNull(PgFlightRecorder.queryExecuting());
+    assertNull(PgFlightRecorder.loopIterating());
+  }
+
+  @Test
+  public void queryExecuteRecorded() throws Exception {
+    Path file = Files.createTempFile("pg", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("org.postgresql.PgQueryExecute");
+      recording.start();
+      Object event = PgFlightRecorder.queryExecuting();
+      PgFlightRecorder.queryExecuted(event, "select $1", 3);
+      recording.stop();
+      recording.dump(file);
+    }
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    Files.delete(file);
+
+    assertEquals(1, events.size());
+    assertEquals("select $1", events.get(0).getString("sql"));
+    assertEquals(3, events.get(0).getLong("rows"));
+  }
+}
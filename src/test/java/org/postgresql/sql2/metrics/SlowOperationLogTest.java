@@ -0,0 +1,131 @@
+package org.postgresql.sql2.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.AdbaType;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.DataSourceFactory;
+import jdk.incubator.sql2.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.PgServerParameters;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.testutil.FakePgServer;
+
+/**
+ * Ensures {@link SlowOperationLog} logs slow operations.
+ */
+public class SlowOperationLogTest {
+
+  private final Logger logger = Logger.getLogger(SlowOperationLog.class.getName());
+
+  private final List<String> logged = new CopyOnWriteArrayList<>();
+
+  private final Handler handler = new Handler() {
+    @Override
+    public void publish(LogRecord record) {
+      logged.add(record.getMessage());
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  };
+
+  @BeforeEach
+  public void captureLog() {
+    this.logger.addHandler(this.handler);
+  }
+
+  @AfterEach
+  public void releaseLog() {
+    this.logger.removeHandler(this.handler);
+  }
+
+  @Test
+  public void logTypesNotValues() throws Exception {
+    try (SlowOperationLog log = new SlowOperationLog(TimeUnit.MILLISECONDS.toNanos(10), null)) {
+      assertFalse(log.isSlow(TimeUnit.MILLISECONDS.toNanos(9)));
+      assertTrue(log.isSlow(TimeUnit.MILLISECONDS.toNanos(10)));
+      log.slowOperation("select * from t where id = $1", new int[] { 23 }, 3, TimeUnit.MILLISECONDS.toNanos(4),
+          TimeUnit.MILLISECONDS.toNanos(20), PgServerParameters.NONE);
+      String message = this.awaitLogged(1).get(0);
+      assertTrue(message.startsWith("Slow operation 24ms (queued 4ms, executing 20ms) with 3 rows"), message);
+      assertTrue(message.endsWith("select * from t where id = $1 [$1 integer]"), message);
+    }
+  }
+
+  @Test
+  public void logSlowOperationWithPlan() throws Exception {
+    try (FakePgServer server = new FakePgServer().serverVersion("16.2").latency(50, TimeUnit.MILLISECONDS).start();
+        DataSource ds = this.openDataSource(server);
+        Session session = ds.getSession()) {
+      this.selectParameter(session);
+
+      String message = this.awaitLogged(1).get(0);
+      assertTrue(message.contains("with 1 rows: select $1 as t [$1 integer]"), message);
+      assertFalse(message.contains("Plan not available"), message);
+      assertTrue(message.endsWith("\n" + FakePgServer.PLAN), message);
+      assertEquals(2, server.getConnections(), "should explain on a separate session");
+      assertEquals(2, server.getExecutes());
+      assertTrue(server.getExecutedSql().contains("EXPLAIN (GENERIC_PLAN, ANALYZE false) select $1 as t"),
+          "should explain generic plan: " + server.getExecutedSql());
+    }
+  }
+
+  @Test
+  public void noGenericPlanBeforePostgres16() throws Exception {
+    try (FakePgServer server = new FakePgServer().serverVersion("15.6").latency(50, TimeUnit.MILLISECONDS).start();
+        DataSource ds = this.openDataSource(server);
+        Session session = ds.getSession()) {
+      this.selectParameter(session);
+
+      String message = this.awaitLogged(1).get(0);
+      assertTrue(message.endsWith("with 1 rows: select $1 as t [$1 integer]"), message);
+      assertEquals(1, server.getConnections(), "should not explain");
+      assertEquals(1, server.getExecutes());
+    }
+  }
+
+  private DataSource openDataSource(FakePgServer server) {
+    return DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+        .builder()
+        .url("jdbc:postgresql://" + server.getHost() + ":" + server.getPort() + "/" + FakePgServer.DATABASE)
+        .username(FakePgServer.USER)
+        .password(FakePgServer.PASSWORD)
+        .sessionProperty(PgSessionProperty.SLOW_OPERATION_THRESHOLD, 20)
+        .sessionProperty(PgSessionProperty.SLOW_OPERATION_EXPLAIN, true)
+        .build();
+  }
+
+  private void selectParameter(Session session) throws Exception {
+    session.<Long>rowOperation("select $1 as t")
+        .set("$1", 1, AdbaType.INTEGER)
+        .collect(Collectors.counting())
+        .submit().getCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  private List<String> awaitLogged(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while ((this.logged.size() < count) && (System.currentTimeMillis() < deadline)) {
+      Thread.sleep(10);
+    }
+    assertEquals(count, this.logged.size(), "Incorrect number logged: " + this.logged);
+    return this.logged;
+  }
+
+}
@@ -0,0 +1,44 @@
+package org.postgresql.sql2.submissions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ensures {@link GroupSubmission} dispatches its members.
+ */
+public class GroupSubmissionTest {
+
+  @Test
+  public void dispatchInOrderOutsideLock() {
+    CompletableFuture<Boolean> condition = new CompletableFuture<>();
+    GroupSubmission<Object> group = new GroupSubmission<>(() -> true, null, false, false, condition);
+    List<String> dispatched = new ArrayList<>();
+    List<Boolean> locked = new ArrayList<>();
+
+    // Members held by the condition
+    for (String name : new String[] { "first", "second" }) {
+      group.addMember(new GroupSubmission<>(() -> true, null), () -> {
+        dispatched.add(name);
+        locked.add(Thread.holdsLock(group));
+      });
+    }
+    assertEquals(0, dispatched.size());
+
+    // Dispatched on condition, in order
+    condition.complete(Boolean.TRUE);
+    assertEquals(List.of("first", "second"), dispatched);
+
+    // Dispatched inline once ready
+    group.addMember(new GroupSubmission<>(() -> true, null), () -> {
+      dispatched.add("third");
+      locked.add(Thread.holdsLock(group));
+    });
+    assertEquals(List.of("first", "second", "third"), dispatched);
+    assertFalse(locked.contains(Boolean.TRUE));
+  }
+}
@@ -43,6 +43,41 @@ public class ConnectUtil {
         .build();
   }
 
+  /**
+   * Opens a DataSource to the supplied database that starts tls directly, without the SSLRequest.
+   * @param postgres the docker database
+   * @param fallback if the connection should fall back to negotiating tls when the server doesn't support direct tls
+   * @return a datasource
+   */
+  public static DataSource openDbWithDirectTls(PostgreSQLContainer postgres, boolean fallback) {
+    return DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+        .builder()
+        .url("jdbc:postgresql://" + postgres.getContainerIpAddress() + ":" + postgres.getMappedPort(5432)
+            + "/" + postgres.getDatabaseName())
+        .username(postgres.getUsername())
+        .password(postgres.getPassword())
+        .sessionProperty(AdbaSessionProperty.TRANSACTION_ISOLATION,
+            AdbaSessionProperty.TransactionIsolation.REPEATABLE_READ)
+        .sessionProperty(PgSessionProperty.SSL, true)
+        .sessionProperty(PgSessionProperty.SSL_DIRECT, true)
+        .sessionProperty(PgSessionProperty.SSL_DIRECT_FALLBACK, fallback)
+        .build();
+  }
+
+  /**
+   * Opens a DataSource to the supplied fake server.
+   * @param server the fake server
+   * @return a datasource
+   */
+  public static DataSource openDb(FakePgServer server) {
+    return DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+        .builder()
+        .url("jdbc:postgresql://" + server.getHost() + ":" + server.getPort() + "/" + FakePgServer.DATABASE)
+        .username(FakePgServer.USER)
+        .password(FakePgServer.PASSWORD)
+        .build();
+  }
+
   public static void createTable(DataSource ds, String tab, String idInt, String s, String answerInt) {
 
   }
@@ -0,0 +1,1133 @@
+package org.postgresql.sql2.testutil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * In process fake PostgreSQL server speaking protocol v3, so the driver can be
+ * load tested (and pipelining/backpressure tested deterministically) without
+ * Docker.
+ *
+ * <p>Supports start up (trust, MD5 or SCRAM-SHA-256 authentication), the
+ * extended query protocol (Parse/Bind/Describe/Execute/Sync/Close) and simple
+ * queries. Every query returning rows (<code>select</code>, <code>with</code>,
+ * <code>values</code>, <code>show</code>) answers the same canned rows, while
+ * other statements complete with no rows. Responses may be delayed by an
+ * artificial latency to simulate the network.
+ *
+ * <p>Configure before {@link #start()}:
+ *
+ * <pre>
+ * try (FakePgServer server = new FakePgServer().rows(100).columns(5, 20).latency(1, TimeUnit.MILLISECONDS).start();
+ *     DataSource ds = ConnectUtil.openDb(server)) {
+ *   ...
+ * }
+ * </pre>
+ *
+ * <p>TLS is not supported (an <code>SSLRequest</code> is declined).
+ */
+public class FakePgServer implements AutoCloseable {
+
+  /**
+   * User expected by the server.
+   */
+  public static final String USER = "test";
+
+  /**
+   * Password expected by the server.
+   */
+  public static final String PASSWORD = "test";
+
+  /**
+   * Database of the server.
+   */
+  public static final String DATABASE = "test";
+
+  /**
+   * Protocol version 3.0 start up code.
+   */
+  private static final int PROTOCOL_V3 = 196608;
+
+  /**
+   * <code>SSLRequest</code> code.
+   */
+  private static final int SSL_REQUEST = 80877103;
+
+  /**
+   * <code>int4</code> type oid.
+   */
+  private static final int INT4_OID = 23;
+
+  /**
+   * <code>text</code> type oid.
+   */
+  private static final int TEXT_OID = 25;
+
+  /**
+   * Plan returned for <code>EXPLAIN</code>.
+   */
+  public static final String PLAN = "Result  (cost=0.00..0.01 rows=1 width=4)";
+
+  /**
+   * Iterations for SCRAM.
+   */
+  private static final int SCRAM_ITERATIONS = 4096;
+
+  /**
+   * Authentication of the server.
+   */
+  public enum Authentication {
+    TRUST, MD5, SCRAM_SHA_256
+  }
+
+  private final SecureRandom random = new SecureRandom();
+
+  private Authentication authentication = Authentication.TRUST;
+
+  private int rowCount = 1;
+
+  /**
+   * Number of text columns. 0 for the single <code>int4</code> column
+   * <code>t</code> with value 1 (as per <code>select 1 as t</code>).
+   */
+  private int columnCount = 0;
+
+  private int columnWidth = 0;
+
+  private long latencyNanos = 0;
+
+  private ServerSocketChannel serverChannel;
+
+  private Selector selector;
+
+  private Thread thread;
+
+  private volatile boolean isClosed = false;
+
+  /**
+   * Responses awaiting their latency to elapse.
+   */
+  private final PriorityQueue<DelayedResponse> delayedResponses = new PriorityQueue<>();
+
+  /**
+   * Sequence to keep delayed responses in order.
+   */
+  private long delayedSequence = 0;
+
+  private final AtomicInteger connections = new AtomicInteger(0);
+
+  private final AtomicLong executes = new AtomicLong(0);
+
+  private final AtomicLong describes = new AtomicLong(0);
+
+  private final Queue<String> executedSql = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger maxPipelined = new AtomicInteger(0);
+
+  private volatile Map<String, String> startupParameters = Collections.emptyMap();
+
+  private final Set<String> failingParses = ConcurrentHashMap.newKeySet();
+
+  private volatile String serverVersion = "10.5";
+
+  /**
+   * Specifies the authentication.
+   *
+   * @param authentication {@link Authentication}.
+   * @return <code>this</code>.
+   */
+  public FakePgServer authentication(Authentication authentication) {
+    this.authentication = authentication;
+    return this;
+  }
+
+  /**
+   * Specifies the number of rows returned by each query.
+   *
+   * @param rowCount Number of rows.
+   * @return <code>this</code>.
+   */
+  public FakePgServer rows(int rowCount) {
+    this.rowCount = rowCount;
+    return this;
+  }
+
+  /**
+   * Specifies the rows to be text columns.
+   *
+   * @param columnCount Number of columns (named <code>c1</code>,
+   *                    <code>c2</code>, ...).
+   * @param columnWidth Number of characters of each value.
+   * @return <code>this</code>.
+   */
+  public FakePgServer columns(int columnCount, int columnWidth) {
+    this.columnCount = columnCount;
+    this.columnWidth = columnWidth;
+    return this;
+  }
+
+  /**
+   * Specifies the artificial latency before each response is sent.
+   *
+   * @param latency Latency.
+   * @param unit    {@link TimeUnit} of the latency.
+   * @return <code>this</code>.
+   */
+  public FakePgServer latency(long latency, TimeUnit unit) {
+    this.latencyNanos = unit.toNanos(latency);
+    return this;
+  }
+
+  /**
+   * Specifies the <code>server_version</code> reported to new connections.
+   *
+   * @param serverVersion Server version (e.g. <code>16.2</code>).
+   * @return <code>this</code>.
+   */
+  public FakePgServer serverVersion(String serverVersion) {
+    this.serverVersion = serverVersion;
+    return this;
+  }
+
+  /**
+   * Specifies SQL that from now on fails to parse (e.g. relation no longer
+   * exists).
+   *
+   * @param sql SQL to fail to parse.
+   * @return <code>this</code>.
+   */
+  public FakePgServer failParse(String sql) {
+    this.failingParses.add(sql);
+    return this;
+  }
+
+  /**
+   * Starts the server on an ephemeral port of the loop back address.
+   *
+   * @return <code>this</code>.
+   * @throws IOException If fails to start.
+   */
+  public FakePgServer start() throws IOException {
+    this.selector = Selector.open();
+    this.serverChannel = ServerSocketChannel.open();
+    this.serverChannel.bind(new InetSocketAddress("127.0.0.1", 0));
+    this.serverChannel.configureBlocking(false);
+    this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+    this.thread = new Thread(this::run, FakePgServer.class.getSimpleName());
+    this.thread.setDaemon(true);
+    this.thread.start();
+    return this;
+  }
+
+  /**
+   * Obtains the host.
+   *
+   * @return Host.
+   */
+  public String getHost() {
+    return "127.0.0.1";
+  }
+
+  /**
+   * Obtains the port.
+   *
+   * @return Port.
+   */
+  public int getPort() {
+    return this.serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Obtains the number of connections accepted.
+   *
+   * @return Number of connections accepted.
+   */
+  public int getConnections() {
+    return this.connections.get();
+  }
+
+  /**
+   * Obtains the number of <code>Execute</code> (and simple
+   * <code>Query</code>) messages received.
+   *
+   * @return Number of executes.
+   */
+  public long getExecutes() {
+    return this.executes.get();
+  }
+
+  /**
+   * Obtains the SQL executed (as prepared, so including any comment), in order.
+   *
+   * @return SQL executed.
+   */
+  public List<String> getExecutedSql() {
+    return new ArrayList<>(this.executedSql);
+  }
+
+  /**
+   * Obtains the number of <code>Describe</code> messages received.
+   *
+   * @return Number of <code>Describe</code> messages.
+   */
+  public long getDescribes() {
+    return this.describes.get();
+  }
+
+  /**
+   * Obtains the parameters of the last <code>StartupMessage</code>.
+   *
+   * @return Start up parameters by name.
+   */
+  public Map<String, String> getStartupParameters() {
+    return this.startupParameters;
+  }
+
+  /**
+   * Obtains the maximum number of <code>Sync</code> (and simple
+   * <code>Query</code>) messages received in one read, which indicates how
+   * far requests were pipelined.
+   *
+   * @return Maximum number pipelined.
+   */
+  public int getMaxPipelined() {
+    return this.maxPipelined.get();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.isClosed = true;
+    if (this.selector != null) {
+      this.selector.wakeup();
+      try {
+        this.thread.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Services the connections.
+   */
+  private void run() {
+    try {
+      while (!this.isClosed) {
+
+        // Select (until next delayed response is due)
+        DelayedResponse next = this.delayedResponses.peek();
+        if (next == null) {
+          this.selector.select();
+        } else {
+          long waitMillis = TimeUnit.NANOSECONDS.toMillis(next.dueNanos - System.nanoTime());
+          if (waitMillis > 0) {
+            this.selector.select(waitMillis);
+          } else {
+            this.selector.selectNow();
+          }
+        }
+
+        // Send the due responses
+        long now = System.nanoTime();
+        while (((next = this.delayedResponses.peek()) != null) && (next.dueNanos <= now)) {
+          this.delayedResponses.poll();
+          next.connection.send(next.response);
+        }
+
+        // Service the selected keys
+        Iterator<SelectionKey> iterator = this.selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          SelectionKey key = iterator.next();
+          iterator.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            SocketChannel channel = this.serverChannel.accept();
+            if (channel != null) {
+              channel.configureBlocking(false);
+              Connection connection = new Connection(channel);
+              connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+              this.connections.incrementAndGet();
+            }
+            continue;
+          }
+          Connection connection = (Connection) key.attachment();
+          try {
+            if (key.isWritable()) {
+              connection.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+              connection.read();
+            }
+          } catch (IOException | RuntimeException ex) {
+            connection.close();
+          }
+        }
+      }
+    } catch (IOException ex) {
+      // Server failed, so stop
+    } finally {
+      for (SelectionKey key : this.selector.keys()) {
+        try {
+          key.channel().close();
+        } catch (IOException ex) {
+          // Closing down
+        }
+      }
+      try {
+        this.selector.close();
+      } catch (IOException ex) {
+        // Closing down
+      }
+    }
+  }
+
+  /**
+   * Response to be sent once the latency elapses.
+   */
+  private static class DelayedResponse implements Comparable<DelayedResponse> {
+
+    private final long dueNanos;
+
+    private final long sequence;
+
+    private final Connection connection;
+
+    private final ByteBuffer response;
+
+    private DelayedResponse(long dueNanos, long sequence, Connection connection, ByteBuffer response) {
+      this.dueNanos = dueNanos;
+      this.sequence = sequence;
+      this.connection = connection;
+      this.response = response;
+    }
+
+    @Override
+    public int compareTo(DelayedResponse that) {
+      int compare = Long.compare(this.dueNanos, that.dueNanos);
+      return (compare != 0) ? compare : Long.compare(this.sequence, that.sequence);
+    }
+  }
+
+  /**
+   * Connection to the server.
+   */
+  private class Connection {
+
+    private final SocketChannel channel;
+
+    private SelectionKey key;
+
+    private ByteBuffer input = ByteBuffer.allocate(8192);
+
+    private final Queue<ByteBuffer> output = new ArrayDeque<>();
+
+    /**
+     * Response being built from the received messages.
+     */
+    private final ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+    private boolean isStarted = false;
+
+    private boolean isAuthenticated = false;
+
+    private boolean isClosing = false;
+
+    /**
+     * MD5 salt.
+     */
+    private byte[] salt;
+
+    /**
+     * SCRAM client first message bare.
+     */
+    private String clientFirstBare;
+
+    /**
+     * SCRAM server first message.
+     */
+    private String serverFirst;
+
+    private byte[] scramSalt;
+
+    /**
+     * SQL by prepared statement name.
+     */
+    private final Map<String, String> statements = new HashMap<>();
+
+    /**
+     * Prepared statement name by portal name.
+     */
+    private final Map<String, String> portals = new HashMap<>();
+
+    /**
+     * Indicates an error and discarding messages until <code>Sync</code>.
+     */
+    private boolean isFailed = false;
+
+    private Connection(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    /**
+     * Reads and services the complete messages.
+     *
+     * @throws IOException If fails to read.
+     */
+    private void read() throws IOException {
+      if (!this.input.hasRemaining()) {
+        ByteBuffer larger = ByteBuffer.allocate(this.input.capacity() * 2);
+        this.input.flip();
+        larger.put(this.input);
+        this.input = larger;
+      }
+      if (this.channel.read(this.input) < 0) {
+        this.close();
+        return;
+      }
+
+      // Service the complete messages
+      this.input.flip();
+      int syncs = 0;
+      for (;;) {
+        int start = this.input.position();
+        int headerSize = this.isStarted ? 5 : 4;
+        if (this.input.remaining() < headerSize) {
+          break;
+        }
+        byte tag = this.isStarted ? this.input.get(start) : 0;
+        int length = this.input.getInt(start + headerSize - 4);
+        int messageSize = headerSize - 4 + length;
+        if (this.input.remaining() < messageSize) {
+          break; // buffer grows on next read should message not fit
+        }
+        byte[] payload = new byte[length - 4];
+        this.input.position(start + headerSize);
+        this.input.get(payload);
+        if (!this.isStarted) {
+          this.startup(payload);
+        } else {
+          syncs += this.handle((char) tag, new Payload(payload));
+        }
+      }
+      this.input.compact();
+
+      // Track the pipelining
+      int max;
+      while (syncs > (max = maxPipelined.get()) && !maxPipelined.compareAndSet(max, syncs)) {
+        // try again
+      }
+
+      // Respond (after the latency)
+      if (this.response.size() > 0) {
+        ByteBuffer buffer = ByteBuffer.wrap(this.response.toByteArray());
+        this.response.reset();
+        if (latencyNanos > 0) {
+          delayedResponses.add(new DelayedResponse(System.nanoTime() + latencyNanos, delayedSequence++, this, buffer));
+        } else {
+          this.send(buffer);
+        }
+      }
+    }
+
+    /**
+     * Handles the untagged start up messages.
+     *
+     * @param payload Payload (after length).
+     */
+    private void startup(byte[] payload) {
+      Payload message = new Payload(payload);
+      int code = message.int4();
+      switch (code) {
+        case SSL_REQUEST:
+          this.response.write('N'); // TLS not supported
+          return;
+
+        case PROTOCOL_V3:
+          this.isStarted = true;
+          Map<String, String> parameters = new HashMap<>();
+          String name;
+          while (!(name = message.string()).isEmpty()) {
+            parameters.put(name, message.string());
+          }
+          startupParameters = parameters;
+          if (!USER.equals(parameters.get("user"))) {
+            this.fatal("28000", "role \"" + parameters.get("user") + "\" does not exist");
+            return;
+          }
+          switch (authentication) {
+            case TRUST:
+              this.authenticated();
+              return;
+
+            case MD5:
+              this.salt = new byte[4];
+              random.nextBytes(this.salt);
+              this.message('R', int4(5), this.salt);
+              return;
+
+            case SCRAM_SHA_256:
+              this.message('R', int4(10), cstring("SCRAM-SHA-256"), new byte[] { 0 });
+              return;
+
+            default:
+              throw new IllegalStateException("Unknown authentication " + authentication);
+          }
+
+        default:
+          this.fatal("08P01", "unsupported start up code " + code);
+      }
+    }
+
+    /**
+     * Handles the tagged message.
+     *
+     * @param tag     Tag.
+     * @param payload {@link Payload}.
+     * @return 1 if <code>Sync</code> or simple <code>Query</code>, otherwise
+     *         0.
+     */
+    private int handle(char tag, Payload payload) {
+
+      // Authenticate
+      if (!this.isAuthenticated) {
+        if (tag == 'p') {
+          this.password(payload);
+        } else {
+          this.fatal("08P01", "expected password message, but received '" + tag + "'");
+        }
+        return 0;
+      }
+
+      // Handle the message (discarding once failed until synced)
+      switch (tag) {
+        case 'S':
+          this.isFailed = false;
+          this.readyForQuery();
+          return 1;
+
+        case 'X':
+          this.isClosing = true;
+          return 0;
+
+        case 'H':
+          return 0; // flush occurs anyway
+
+        case 'Q':
+          this.isFailed = false;
+          executes.incrementAndGet();
+          String query = payload.string();
+          executedSql.add(query);
+          if (this.isReturningRows(query)) {
+            this.rowDescription(query);
+            this.dataRows(query);
+          }
+          this.message('C', cstring(this.commandTag(query)));
+          this.readyForQuery();
+          return 1;
+
+        default:
+          if (this.isFailed) {
+            return 0;
+          }
+      }
+      switch (tag) {
+        case 'P':
+          String statementName = payload.string();
+          String parseSql = payload.string();
+          if (failingParses.contains(parseSql)) {
+            this.error("42P01", "relation does not exist");
+            return 0;
+          }
+          this.statements.put(statementName, parseSql);
+          this.message('1');
+          return 0;
+
+        case 'B':
+          String portalName = payload.string();
+          String boundStatement = payload.string();
+          if (!this.statements.containsKey(boundStatement)) {
+            this.error("26000", "prepared statement \"" + boundStatement + "\" does not exist");
+            return 0;
+          }
+          this.portals.put(portalName, boundStatement);
+          this.message('2');
+          return 0;
+
+        case 'D':
+          describes.incrementAndGet();
+          char type = (char) payload.int1();
+          String describedName = payload.string();
+          String describedSql = this.statements.get((type == 'S') ? describedName : this.portals.get(describedName));
+          if (describedSql == null) {
+            this.error("26000", "\"" + describedName + "\" does not exist");
+            return 0;
+          }
+          if (type == 'S') {
+            int parameterCount = this.parameterCount(describedSql);
+            byte[][] oids = new byte[parameterCount + 1][];
+            oids[0] = int2(parameterCount);
+            for (int i = 1; i <= parameterCount; i++) {
+              oids[i] = int4(TEXT_OID);
+            }
+            this.message('t', oids);
+          }
+          if (this.isReturningRows(describedSql)) {
+            this.rowDescription(describedSql);
+          } else {
+            this.message('n');
+          }
+          return 0;
+
+        case 'E':
+          executes.incrementAndGet();
+          String executeSql = this.statements.get(this.portals.get(payload.string()));
+          if (executeSql == null) {
+            this.error("34000", "portal does not exist");
+            return 0;
+          }
+          executedSql.add(executeSql);
+          if (this.isReturningRows(executeSql)) {
+            this.dataRows(executeSql);
+          }
+          this.message('C', cstring(this.commandTag(executeSql)));
+          return 0;
+
+        case 'C':
+          char closeType = (char) payload.int1();
+          String closeName = payload.string();
+          if (closeType == 'S') {
+            this.statements.remove(closeName);
+          } else {
+            this.portals.remove(closeName);
+          }
+          this.message('3');
+          return 0;
+
+        default:
+          this.error("08P01", "unsupported message '" + tag + "'");
+          return 0;
+      }
+    }
+
+    /**
+     * Handles the password (or SASL) message.
+     *
+     * @param payload {@link Payload}.
+     */
+    private void password(Payload payload) {
+      try {
+        switch (authentication) {
+          case MD5:
+            String expected = "md5" + md5Hex(concat(md5Hex((PASSWORD + USER).getBytes(StandardCharsets.UTF_8))
+                .getBytes(StandardCharsets.US_ASCII), this.salt));
+            if (!expected.equals(payload.string())) {
+              this.fatal("28P01", "password authentication failed for user \"" + USER + "\"");
+              return;
+            }
+            this.authenticated();
+            return;
+
+          case SCRAM_SHA_256:
+            if (this.serverFirst == null) {
+              // Client first message
+              String mechanism = payload.string();
+              if (!"SCRAM-SHA-256".equals(mechanism)) {
+                this.fatal("28000", "unsupported SASL mechanism " + mechanism);
+                return;
+              }
+              payload.int4(); // length of message
+              String clientFirst = payload.remaining();
+              this.clientFirstBare = clientFirst.substring(clientFirst.indexOf(",,") + 2);
+              String clientNonce = attribute(this.clientFirstBare, 'r');
+              byte[] serverNonce = new byte[18];
+              random.nextBytes(serverNonce);
+              this.scramSalt = new byte[16];
+              random.nextBytes(this.scramSalt);
+              this.serverFirst = "r=" + clientNonce + Base64.getEncoder().encodeToString(serverNonce) + ",s="
+                  + Base64.getEncoder().encodeToString(this.scramSalt) + ",i=" + SCRAM_ITERATIONS;
+              this.message('R', int4(11), this.serverFirst.getBytes(StandardCharsets.UTF_8));
+              return;
+            }
+
+            // Client final message
+            String clientFinal = payload.remaining();
+            String clientFinalWithoutProof = clientFinal.substring(0, clientFinal.lastIndexOf(",p="));
+            String authMessage = this.clientFirstBare + "," + this.serverFirst + "," + clientFinalWithoutProof;
+            byte[] saltedPassword = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+                .generateSecret(new PBEKeySpec(PASSWORD.toCharArray(), this.scramSalt, SCRAM_ITERATIONS, 256))
+                .getEncoded();
+            byte[] clientKey = hmac(saltedPassword, "Client Key");
+            byte[] clientSignature = hmac(MessageDigest.getInstance("SHA-256").digest(clientKey), authMessage);
+            byte[] proof = Base64.getDecoder().decode(attribute(clientFinal, 'p'));
+            for (int i = 0; i < proof.length; i++) {
+              proof[i] ^= clientSignature[i];
+            }
+            if (!MessageDigest.isEqual(proof, clientKey)) {
+              this.fatal("28P01", "password authentication failed for user \"" + USER + "\"");
+              return;
+            }
+            byte[] serverSignature = hmac(hmac(saltedPassword, "Server Key"), authMessage);
+            this.message('R', int4(12),
+                ("v=" + Base64.getEncoder().encodeToString(serverSignature)).getBytes(StandardCharsets.UTF_8));
+            this.authenticated();
+            return;
+
+          default:
+            this.fatal("08P01", "unexpected password message");
+        }
+      } catch (GeneralSecurityException ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+
+    /**
+     * Completes authentication.
+     */
+    private void authenticated() {
+      this.isAuthenticated = true;
+      this.message('R', int4(0));
+      this.parameterStatus("server_version", serverVersion);
+      this.parameterStatus("server_encoding", "UTF8");
+      this.parameterStatus("client_encoding", "UTF8");
+      this.parameterStatus("DateStyle", "ISO, MDY");
+      this.parameterStatus("integer_datetimes", "on");
+      this.parameterStatus("standard_conforming_strings", "on");
+      this.parameterStatus("TimeZone", "UTC");
+      this.parameterStatus("in_hot_standby", "off");
+      this.message('K', int4(random.nextInt()), int4(random.nextInt()));
+      this.readyForQuery();
+    }
+
+    private void parameterStatus(String name, String value) {
+      this.message('S', cstring(name), cstring(value));
+    }
+
+    private void readyForQuery() {
+      this.message('Z', new byte[] { 'I' });
+    }
+
+    /**
+     * Writes the <code>RowDescription</code> of the canned rows.
+     *
+     * @param sql SQL.
+     */
+    private void rowDescription(String sql) {
+      if ("EXPLAIN".equals(firstKeyword(sql))) {
+        this.message('T', int2(1), cstring("QUERY PLAN"), int4(0), int2(0), int4(TEXT_OID), int2(-1), int4(-1), int2(0));
+        return;
+      }
+      int columns = Math.max(1, columnCount);
+      byte[][] parts = new byte[(columns * 7) + 1][];
+      parts[0] = int2(columns);
+      for (int i = 0; i < columns; i++) {
+        boolean isInt = (columnCount == 0);
+        int index = (i * 7) + 1;
+        parts[index] = cstring(isInt ? "t" : "c" + (i + 1));
+        parts[index + 1] = int4(0); // table oid
+        parts[index + 2] = int2(0); // attribute number
+        parts[index + 3] = int4(isInt ? INT4_OID : TEXT_OID);
+        parts[index + 4] = int2(isInt ? 4 : -1);
+        parts[index + 5] = int4(-1); // type modifier
+        parts[index + 6] = int2(0); // text format
+      }
+      this.message('T', parts);
+    }
+
+    /**
+     * Writes the canned <code>DataRow</code> messages.
+     *
+     * @param sql SQL.
+     */
+    private void dataRows(String sql) {
+      if ("EXPLAIN".equals(firstKeyword(sql))) {
+        byte[] plan = PLAN.getBytes(StandardCharsets.US_ASCII);
+        this.message('D', int2(1), int4(plan.length), plan);
+        return;
+      }
+      int columns = Math.max(1, columnCount);
+      byte[] value;
+      if (columnCount == 0) {
+        value = "1".getBytes(StandardCharsets.US_ASCII);
+      } else {
+        value = new byte[columnWidth];
+        for (int i = 0; i < columnWidth; i++) {
+          value[i] = (byte) ('a' + (i % 26));
+        }
+      }
+      byte[][] parts = new byte[(columns * 2) + 1][];
+      parts[0] = int2(columns);
+      for (int i = 0; i < columns; i++) {
+        parts[(i * 2) + 1] = int4(value.length);
+        parts[(i * 2) + 2] = value;
+      }
+      for (int row = 0; row < rowCount; row++) {
+        this.message('D', parts);
+      }
+    }
+
+    private boolean isReturningRows(String sql) {
+      String keyword = firstKeyword(sql);
+      return "SELECT".equals(keyword) || "WITH".equals(keyword) || "VALUES".equals(keyword)
+          || "SHOW".equals(keyword) || "EXPLAIN".equals(keyword);
+    }
+
+    private String commandTag(String sql) {
+      String keyword = firstKeyword(sql);
+      switch (keyword) {
+        case "SELECT":
+        case "WITH":
+        case "VALUES":
+        case "SHOW":
+          return "SELECT " + rowCount;
+        case "INSERT":
+          return "INSERT 0 1";
+        case "UPDATE":
+        case "DELETE":
+          return keyword + " 1";
+        case "BEGIN":
+        case "START":
+          return "START TRANSACTION";
+        case "CREATE":
+        case "DROP":
+          String[] words = sql.trim().split("\\s+");
+          return (words.length > 1) ? keyword + " " + words[1].toUpperCase(Locale.ENGLISH) : keyword;
+        default:
+          return keyword;
+      }
+    }
+
+    private int parameterCount(String sql) {
+      int count = 0;
+      for (int i = sql.indexOf('$'); i >= 0; i = sql.indexOf('$', i + 1)) {
+        int end = i + 1;
+        while ((end < sql.length()) && Character.isDigit(sql.charAt(end))) {
+          end++;
+        }
+        if (end > i + 1) {
+          count = Math.max(count, Integer.parseInt(sql.substring(i + 1, end)));
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Writes an <code>ErrorResponse</code>, discarding messages until
+     * <code>Sync</code>.
+     *
+     * @param code    SQL state.
+     * @param message Message.
+     */
+    private void error(String code, String message) {
+      this.isFailed = true;
+      this.message('E', cstring("SERROR"), cstring("VERROR"), cstring("C" + code), cstring("M" + message),
+          new byte[] { 0 });
+    }
+
+    /**
+     * Writes a fatal <code>ErrorResponse</code> and closes the connection.
+     *
+     * @param code    SQL state.
+     * @param message Message.
+     */
+    private void fatal(String code, String message) {
+      this.isStarted = true;
+      this.isClosing = true;
+      this.message('E', cstring("SFATAL"), cstring("VFATAL"), cstring("C" + code), cstring("M" + message),
+          new byte[] { 0 });
+    }
+
+    /**
+     * Writes a message to the response.
+     *
+     * @param tag   Tag.
+     * @param parts Parts of the payload.
+     */
+    private void message(char tag, byte[]... parts) {
+      int length = 4;
+      for (byte[] part : parts) {
+        length += part.length;
+      }
+      this.response.write(tag);
+      this.response.write(int4(length), 0, 4);
+      for (byte[] part : parts) {
+        this.response.write(part, 0, part.length);
+      }
+    }
+
+    /**
+     * Sends the response.
+     *
+     * @param buffer Response.
+     */
+    private void send(ByteBuffer buffer) {
+      if (!this.channel.isOpen()) {
+        return;
+      }
+      this.output.add(buffer);
+      try {
+        this.flush();
+      } catch (IOException ex) {
+        this.close();
+      }
+    }
+
+    /**
+     * Writes the output until the socket buffer fills.
+     *
+     * @throws IOException If fails to write.
+     */
+    private void flush() throws IOException {
+      ByteBuffer buffer;
+      while ((buffer = this.output.peek()) != null) {
+        this.channel.write(buffer);
+        if (buffer.hasRemaining()) {
+          this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+          return;
+        }
+        this.output.poll();
+      }
+      this.key.interestOps(SelectionKey.OP_READ);
+      if (this.isClosing) {
+        this.close();
+      }
+    }
+
+    private void close() {
+      this.key.cancel();
+      try {
+        this.channel.close();
+      } catch (IOException ex) {
+        // Closing
+      }
+    }
+  }
+
+  /**
+   * Reads the payload of a message.
+   */
+  private static class Payload {
+
+    private final byte[] bytes;
+
+    private int position = 0;
+
+    private Payload(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    private int int1() {
+      return this.bytes[this.position++] & 0xFF;
+    }
+
+    private int int4() {
+      int value = ByteBuffer.wrap(this.bytes, this.position, 4).getInt();
+      this.position += 4;
+      return value;
+    }
+
+    private String string() {
+      int end = this.position;
+      while (this.bytes[end] != 0) {
+        end++;
+      }
+      String value = new String(this.bytes, this.position, end - this.position, StandardCharsets.UTF_8);
+      this.position = end + 1;
+      return value;
+    }
+
+    private String remaining() {
+      String value = new String(this.bytes, this.position, this.bytes.length - this.position, StandardCharsets.UTF_8);
+      this.position = this.bytes.length;
+      return value;
+    }
+  }
+
+  private static byte[] int2(int value) {
+    return new byte[] { (byte) (value >> 8), (byte) value };
+  }
+
+  private static byte[] int4(int value) {
+    return ByteBuffer.allocate(4).putInt(value).array();
+  }
+
+  private static byte[] cstring(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    byte[] terminated = new byte[bytes.length + 1];
+    System.arraycopy(bytes, 0, terminated, 0, bytes.length);
+    return terminated;
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] joined = new byte[first.length + second.length];
+    System.arraycopy(first, 0, joined, 0, first.length);
+    System.arraycopy(second, 0, joined, first.length, second.length);
+    return joined;
+  }
+
+  private static String firstKeyword(String sql) {
+    String trimmed = sql.trim();
+    int end = 0;
+    while ((end < trimmed.length()) && Character.isLetter(trimmed.charAt(end))) {
+      end++;
+    }
+    return trimmed.substring(0, end).toUpperCase(Locale.ENGLISH);
+  }
+
+  private static String attribute(String message, char name) {
+    for (String attribute : message.split(",")) {
+      if ((attribute.length() > 1) && (attribute.charAt(0) == name) && (attribute.charAt(1) == '=')) {
+        return attribute.substring(2);
+      }
+    }
+    throw new IllegalArgumentException("No attribute '" + name + "' in " + message);
+  }
+
+  private static String md5Hex(byte[] input) throws GeneralSecurityException {
+    byte[] digest = MessageDigest.getInstance("MD5").digest(input);
+    StringBuilder hex = new StringBuilder(32);
+    for (byte b : digest) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  private static byte[] hmac(byte[] key, String message) throws GeneralSecurityException {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(key, "HmacSHA256"));
+    return mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,55 @@
+package org.postgresql.sql2.testutil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.AdbaType;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Ensures the driver works against the {@link FakePgServer}.
+ */
+public class FakePgServerTest {
+
+  @ParameterizedTest
+  @EnumSource(FakePgServer.Authentication.class)
+  public void authenticate(FakePgServer.Authentication authentication) throws Exception {
+    try (FakePgServer server = new FakePgServer().authentication(authentication).start();
+        DataSource ds = ConnectUtil.openDb(server);
+        Session session = ds.getSession()) {
+      Integer result = session.<Integer>rowOperation("select 1 as t")
+          .collect(CollectorUtils.singleCollector(Integer.class))
+          .submit().getCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+      assertEquals(Integer.valueOf(1), result);
+    }
+  }
+
+  @Test
+  public void pipelinedWithLatency() throws Exception {
+    try (FakePgServer server = new FakePgServer().rows(100).columns(3, 10).latency(20, TimeUnit.MILLISECONDS).start();
+        DataSource ds = ConnectUtil.openDb(server);
+        Session session = ds.getSession()) {
+      List<CompletableFuture<Long>> results = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        results.add(session.<Long>rowOperation("select c1, c2, c3 from fake where id = $1")
+            .set("$1", i, AdbaType.INTEGER)
+            .collect(Collectors.counting())
+            .submit().getCompletionStage().toCompletableFuture());
+      }
+      for (CompletableFuture<Long> result : results) {
+        assertEquals(Long.valueOf(100), result.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(10, server.getExecutes());
+      assertTrue(server.getMaxPipelined() > 1, "queries should be pipelined");
+    }
+  }
+}
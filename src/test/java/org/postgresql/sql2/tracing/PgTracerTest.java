@@ -0,0 +1,150 @@
+package org.postgresql.sql2.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import jdk.incubator.sql2.DataSource;
+import jdk.incubator.sql2.DataSourceFactory;
+import jdk.incubator.sql2.Session;
+import org.junit.jupiter.api.Test;
+import org.postgresql.sql2.PgSessionProperty;
+import org.postgresql.sql2.metrics.PgMetrics;
+import org.postgresql.sql2.testutil.FakePgServer;
+
+/**
+ * Ensures {@link PgTracer} traces operations and propagates the trace context.
+ */
+public class PgTracerTest {
+
+  private static final String TRACE_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+  private final List<String> events = new CopyOnWriteArrayList<>();
+
+  private final PgTracer tracer = (sql) -> {
+    this.events.add("start " + sql);
+    return new PgSpan() {
+      @Override
+      public String getTraceParent() {
+        return TRACE_PARENT;
+      }
+
+      @Override
+      public void stage(Stage stage) {
+        events.add(stage.name());
+      }
+
+      @Override
+      public void end(Throwable failure) {
+        events.add("end " + failure);
+      }
+    };
+  };
+
+  @Test
+  public void spanStages() throws Exception {
+    try (FakePgServer server = new FakePgServer().start()) {
+      this.execute(server, TracePropagation.NONE);
+      long deadline = System.currentTimeMillis() + 10_000;
+      while ((this.events.size() < 4) && (System.currentTimeMillis() < deadline)) {
+        Thread.sleep(10); // span ended on completion
+      }
+      assertEquals(List.of("start select 1 as t", "EXECUTING", "RECEIVING", "end null"), this.events);
+      assertEquals(List.of("select 1 as t"), server.getExecutedSql());
+    }
+  }
+
+  @Test
+  public void propagateInComment() throws Exception {
+    try (FakePgServer server = new FakePgServer().start()) {
+      this.execute(server, TracePropagation.COMMENT);
+      assertEquals(List.of("/*traceparent='" + TRACE_PARENT + "'*/ select 1 as t"), server.getExecutedSql());
+    }
+  }
+
+  @Test
+  public void propagateInCommentForEachExecution() throws Exception {
+    AtomicInteger misses = new AtomicInteger(0);
+    PgMetrics metrics = new PgMetrics() {
+      @Override
+      public void statementCacheMiss() {
+        misses.incrementAndGet();
+      }
+    };
+    String otherTraceParent = "00-0af7651916cd43dd8448eb211c80319c-00f067aa0ba902b7-01";
+    Queue<String> traceParents = new ConcurrentLinkedQueue<>(List.of(TRACE_PARENT, otherTraceParent));
+    PgTracer tracer = (sql) -> {
+      String traceParent = traceParents.poll();
+      return (traceParent == null) ? null : new PgSpan() {
+        @Override
+        public String getTraceParent() {
+          return traceParent;
+        }
+      };
+    };
+    try (FakePgServer server = new FakePgServer().start();
+        DataSource ds = this.dataSource(server, TracePropagation.COMMENT, tracer, metrics);
+        Session session = ds.getSession()) {
+      this.select(session);
+      this.select(session);
+      this.select(session); // not traced
+      assertEquals(List.of("/*traceparent='" + TRACE_PARENT + "'*/ select 1 as t",
+          "/*traceparent='" + otherTraceParent + "'*/ select 1 as t", "select 1 as t"), server.getExecutedSql(),
+          "second execution should not carry the first trace");
+      assertEquals(1, misses.get(), "only the untraced execution should prepare the statement");
+    }
+  }
+
+  @Test
+  public void propagateWithSetConfig() throws Exception {
+    try (FakePgServer server = new FakePgServer().start()) {
+      this.execute(server, TracePropagation.SET_CONFIG);
+      assertEquals(List.of("select set_config($1, $2, false)", "select 1 as t"), server.getExecutedSql());
+    }
+  }
+
+  @Test
+  public void notTraceWithoutSpan() throws Exception {
+    try (FakePgServer server = new FakePgServer().start();
+        DataSource ds = this.dataSource(server, TracePropagation.COMMENT, (sql) -> null);
+        Session session = ds.getSession()) {
+      this.select(session);
+      assertEquals(List.of("select 1 as t"), server.getExecutedSql());
+    }
+  }
+
+  private void execute(FakePgServer server, TracePropagation propagation) throws Exception {
+    try (DataSource ds = this.dataSource(server, propagation, this.tracer);
+        Session session = ds.getSession()) {
+      this.select(session);
+    }
+  }
+
+  private DataSource dataSource(FakePgServer server, TracePropagation propagation, PgTracer tracer) {
+    return this.dataSource(server, propagation, tracer, PgMetrics.NONE);
+  }
+
+  private DataSource dataSource(FakePgServer server, TracePropagation propagation, PgTracer tracer,
+      PgMetrics metrics) {
+    return DataSourceFactory.newFactory("org.postgresql.sql2.PgDataSourceFactory")
+        .builder()
+        .url("jdbc:postgresql://" + server.getHost() + ":" + server.getPort() + "/" + FakePgServer.DATABASE)
+        .username(FakePgServer.USER)
+        .password(FakePgServer.PASSWORD)
+        .sessionProperty(PgSessionProperty.TRACER, tracer)
+        .sessionProperty(PgSessionProperty.TRACE_PROPAGATION, propagation)
+        .sessionProperty(PgSessionProperty.METRICS, metrics)
+        .build();
+  }
+
+  private void select(Session session) throws Exception {
+    session.<Long>rowOperation("select 1 as t")
+        .collect(Collectors.counting())
+        .submit().getCompletionStage().toCompletableFuture().get();
+  }
+
+}
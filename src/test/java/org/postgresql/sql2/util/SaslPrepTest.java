@@ -0,0 +1,44 @@
+package org.postgresql.sql2.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ensures {@link SaslPrep} as per the RFC 4013 examples.
+ */
+public class SaslPrepTest {
+
+  @Test
+  public void asciiUnchanged() {
+    assertEquals("pencil", SaslPrep.saslPrep("pencil"));
+  }
+
+  @Test
+  public void mappedToNothing() {
+    assertEquals("IX", SaslPrep.saslPrep("I\u00ADX"));
+  }
+
+  @Test
+  public void nonAsciiSpaceMappedToSpace() {
+    assertEquals("a b", SaslPrep.saslPrep("a\u00A0b"));
+  }
+
+  @Test
+  public void normalised() {
+    assertEquals("a", SaslPrep.saslPrep("\u00AA"));
+    assertEquals("IX", SaslPrep.saslPrep("\u2168"));
+  }
+
+  @Test
+  public void prohibitedUsedAsIs() {
+    assertEquals("a\u0007", SaslPrep.saslPrep("a\u0007"));
+    assertEquals("a\u00AD\u0007", SaslPrep.saslPrep("a\u00AD\u0007"));
+  }
+
+  @Test
+  public void bidirectionalFailureUsedAsIs() {
+    assertEquals("\u0627\u00AD1", SaslPrep.saslPrep("\u0627\u00AD1"));
+    assertEquals("\u0627\u0628", SaslPrep.saslPrep("\u0627\u00AD\u0628"));
+  }
+}